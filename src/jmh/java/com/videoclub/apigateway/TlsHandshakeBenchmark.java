@@ -0,0 +1,183 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.tls.TlsProperties;
+import com.videoclub.apigateway.tls.TlsTermination;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.ssl.SslBundle;
+import org.springframework.boot.ssl.SslStoreBundle;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.Http11SslContextSpec;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.net.ssl.SSLSessionContext;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de la terminación TLS del gateway (TlsTermination sobre Reactor Netty,
+ * motor según el classpath: JDK, u OpenSSL con el perfil {@code openssl}).
+ *
+ * - {@code fullHandshake}: una petición por conexión nueva, sin sesión previa
+ * - {@code resumedHandshake}: idem, reanudando la sesión del cliente
+ * - {@code batch}: {@value #BATCH} GETs concurrentes a un endpoint que demora
+ *   {@value #DELAY_MS} ms; HTTP/1.1 con un pool de 6 conexiones (lo de un
+ *   navegador) contra una única conexión h2 multiplexada
+ *
+ * {@code transport}: http1 en claro como referencia, http1 sobre TLS y h2.
+ * Ver el perfil {@code benchmarks} del pom para ejecutarlo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TlsHandshakeBenchmark {
+
+    private static final int BATCH = 100;
+    private static final long DELAY_MS = 20;
+    private static final String PASSWORD = "changeit";
+
+    @Param({ "http1", "http1-tls", "h2" })
+    public String transport;
+
+    private Path dir;
+    private DisposableServer server;
+    private SslContext clientTls;
+    private ConnectionProvider batchPool;
+    private HttpClient perConnection;
+    private HttpClient batchClient;
+
+    @Setup
+    public void setUp() throws Exception {
+        boolean secure = !transport.equals("http1");
+        boolean http2 = transport.equals("h2");
+        HttpServer http = HttpServer.create().host("localhost").port(0);
+        if (secure) {
+            TlsProperties properties = new TlsProperties(true, "gateway", http2, TlsProperties.Engine.AUTO, 20480,
+                    Duration.ofHours(1), true, Duration.ofHours(12), Duration.ofSeconds(10));
+            http = new TlsTermination(properties, bundle(), new SimpleMeterRegistry()).apply(http);
+        }
+        server = http
+                .route(routes -> routes
+                        .get("/", (request, response) -> response.sendString(Mono.just("ok")))
+                        .get("/lento", (request, response) -> response.sendString(
+                                Mono.delay(Duration.ofMillis(DELAY_MS)).thenReturn("ok"))))
+                .bindNow();
+
+        HttpProtocol[] protocols = http2
+                ? new HttpProtocol[]{ HttpProtocol.H2 }
+                : new HttpProtocol[]{ HttpProtocol.HTTP11 };
+        // h2 multiplexa sobre una sola conexión; HTTP/1.1 queda limitado a 6 en paralelo
+        batchPool = ConnectionProvider.builder("batch")
+                .maxConnections(http2 ? 1 : 6)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        String scheme = secure ? "https" : "http";
+        perConnection = HttpClient.create(ConnectionProvider.newConnection())
+                .baseUrl(scheme + "://localhost:" + server.port())
+                .protocol(protocols);
+        batchClient = HttpClient.create(batchPool)
+                .baseUrl(scheme + "://localhost:" + server.port())
+                .protocol(protocols);
+        if (secure) {
+            // Un solo contexto de cliente: conserva su cache de sesiones entre conexiones
+            clientTls = (http2 ? Http2SslContextSpec.forClient() : Http11SslContextSpec.forClient())
+                    .configure(builder -> builder.trustManager(InsecureTrustManagerFactory.INSTANCE))
+                    .sslContext();
+            perConnection = perConnection.secure(spec -> spec.sslContext(clientTls));
+            batchClient = batchClient.secure(spec -> spec.sslContext(clientTls));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        server.disposeNow();
+        batchPool.disposeLater().block(Duration.ofSeconds(10));
+        if (dir == null)
+            return;
+        try (var files = Files.list(dir)) {
+            for (Path file : files.toList())
+                Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String fullHandshake() {
+        if (clientTls != null) {
+            SSLSessionContext sessions = clientTls.sessionContext();
+            for (byte[] id : Collections.list(sessions.getIds())) {
+                var session = sessions.getSession(id);
+                if (session != null)
+                    session.invalidate();
+            }
+        }
+        return get(perConnection, "/");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String resumedHandshake() {
+        return get(perConnection, "/");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<String> batch() {
+        return Flux.range(0, BATCH)
+                .flatMap(i -> batchClient.get().uri("/lento").responseContent().aggregate().asString(), BATCH)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+    }
+
+    private static String get(HttpClient client, String path) {
+        return client.get().uri(path).responseContent().aggregate().asString().block(Duration.ofSeconds(10));
+    }
+
+    /** Keystore PKCS12 autofirmado para localhost generado con keytool. */
+    private SslBundle bundle() throws Exception {
+        dir = Files.createTempDirectory("tls-benchmark");
+        Path file = dir.resolve("gateway.p12");
+        Process keytool = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+                "-genkeypair", "-alias", "gateway", "-keyalg", "EC", "-groupname", "secp256r1", "-validity", "2",
+                "-dname", "CN=localhost", "-ext", "SAN=dns:localhost", "-storetype", "PKCS12",
+                "-keystore", file.toString(), "-storepass", PASSWORD, "-keypass", PASSWORD)
+                .redirectErrorStream(true).start();
+        keytool.getInputStream().transferTo(OutputStream.nullOutputStream());
+        if (keytool.waitFor() != 0)
+            throw new IllegalStateException("keytool terminó con " + keytool.exitValue());
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(file)) {
+            keyStore.load(in, PASSWORD.toCharArray());
+        }
+        return SslBundle.of(SslStoreBundle.of(keyStore, PASSWORD, null));
+    }
+}
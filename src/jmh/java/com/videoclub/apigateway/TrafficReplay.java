@@ -0,0 +1,301 @@
+package com.videoclub.apigateway;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import com.videoclub.apigateway.balancer.LatencyHistogram;
+import com.videoclub.apigateway.capture.CapturedRequest;
+import com.videoclub.apigateway.capture.TrafficLogReader;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reproduce un log de captura (videoclub.gateway.capture) contra un gateway
+ * y reporta latencia y throughput, total y por ruta.
+ *
+ * Uso:
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.videoclub.apigateway.TrafficReplay
+ *     -Dexec.args="capture/traffic-20261018-101500.vcap --speed 10 --stub-port 18081 --out build-b.txt --baseline build-a.txt"
+ * </pre>
+ *
+ * - {@code --target} gateway (por defecto http://localhost:9500)
+ * - {@code --speed} 1, 10 (o cualquier factor) respeta los tiempos de llegada
+ * capturados acelerados; {@code max} envía todo tan rápido como lo permite
+ * {@code --concurrency} (peticiones en vuelo, por defecto 256)
+ * - {@code --warmup} peticiones del comienzo del log enviadas antes de medir,
+ * sin contar (por defecto 500): JIT y pools de conexiones en frío inflan la
+ * cola de latencia
+ * - {@code --token} JWT para las peticiones capturadas con credenciales; sin
+ * él van anónimas
+ * - {@code --stub-port} levanta un backend stub en ese puerto: responde el
+ * status y el tamaño de cuerpo que le indica cada petición (headers
+ * X-Replay-Status y X-Replay-Bytes). El gateway debe apuntar sus servicios
+ * ahí, p. ej.
+ * {@code --videoclub.gateway.load-balancer.services.catalogo-backend.instances=http://localhost:18081}
+ * - {@code --out} guarda el reporte (clave=valor, ordenado: apto para diff);
+ * {@code --baseline} lo compara con el de otro build
+ * - {@code --compare a.txt b.txt} solo compara dos reportes
+ *
+ * Solo el status de negocio del backend (2xx, 400, 404, 409, 422) se
+ * reproduce en el stub: 401, 429, 503, 504 y los 304 los genera el gateway.
+ */
+public final class TrafficReplay {
+
+    private static final Set<Integer> BACKEND_ERRORS = Set.of(400, 404, 409, 422);
+
+    private final HttpClient client;
+    private final String token;
+    private final int concurrency;
+    private final double speed;
+
+    private final Stats total = new Stats();
+    private final Map<String, Stats> routes = new TreeMap<>();
+    private final Map<Integer, AtomicLong> statuses = new TreeMap<>();
+    private final LatencyHistogram lag = new LatencyHistogram();
+
+    private TrafficReplay(String target, String token, int concurrency, double speed) {
+        this.client = HttpClient.create(ConnectionProvider.builder("replay")
+                        .maxConnections(concurrency)
+                        .pendingAcquireMaxCount(-1)
+                        .build())
+                .baseUrl(target)
+                .responseTimeout(Duration.ofSeconds(30));
+        this.token = token;
+        this.concurrency = concurrency;
+        this.speed = speed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Fuera de Spring logback queda en DEBUG: el log de Reactor Netty por petición distorsiona la medición
+        if (LoggerFactory.getILoggerFactory() instanceof LoggerContext context)
+            context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        if (args.length == 3 && args[0].equals("--compare")) {
+            System.out.print(compare(read(Path.of(args[1])), read(Path.of(args[2]))));
+            return;
+        }
+        if (args.length == 0)
+            throw new IllegalArgumentException("Uso: TrafficReplay <log.vcap> [--target url] [--speed 1|10|max] "
+                    + "[--concurrency n] [--warmup n] [--token jwt] [--stub-port p] [--out archivo] [--baseline archivo]");
+
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 1; i + 1 < args.length; i += 2)
+            options.put(args[i], args[i + 1]);
+        String speedOption = options.getOrDefault("--speed", "1");
+        double speed = speedOption.equals("max") ? 0 : Double.parseDouble(speedOption);
+        int concurrency = Integer.parseInt(options.getOrDefault("--concurrency", "256"));
+
+        List<CapturedRequest> requests;
+        try (InputStream in = Files.newInputStream(Path.of(args[0]));
+                TrafficLogReader reader = new TrafficLogReader(in)) {
+            requests = reader.readAll();
+        }
+        requests.sort(Comparator.comparingLong(CapturedRequest::startMicros));
+
+        DisposableServer stub = options.containsKey("--stub-port")
+                ? stub(Integer.parseInt(options.get("--stub-port")))
+                : null;
+        try {
+            TrafficReplay replay = new TrafficReplay(options.getOrDefault("--target", "http://localhost:9500"),
+                    options.get("--token"), concurrency, speed);
+            int warmup = Math.min(requests.size(), Integer.parseInt(options.getOrDefault("--warmup", "500")));
+            Flux.fromIterable(requests.subList(0, warmup))
+                    .flatMap(request -> replay.send(request).onErrorReturn(0), concurrency)
+                    .blockLast();
+            long start = System.nanoTime();
+            replay.run(requests);
+            Map<String, String> report = replay.report(Duration.ofNanos(System.nanoTime() - start));
+
+            StringBuilder text = new StringBuilder();
+            text.append("# ").append(args[0]).append(" speed=").append(speedOption)
+                    .append(" concurrency=").append(concurrency).append('\n');
+            report.forEach((key, value) -> text.append(key).append('=').append(value).append('\n'));
+            System.out.print(text);
+            if (options.containsKey("--out"))
+                Files.writeString(Path.of(options.get("--out")), text);
+            if (options.containsKey("--baseline"))
+                System.out.print(compare(read(Path.of(options.get("--baseline"))), report));
+        } finally {
+            if (stub != null)
+                stub.disposeNow();
+        }
+    }
+
+    private void run(List<CapturedRequest> requests) {
+        if (requests.isEmpty())
+            return;
+        long firstMicros = requests.get(0).startMicros();
+        long start = System.nanoTime();
+        Flux<CapturedRequest> schedule = Flux.fromIterable(requests);
+        if (speed > 0) {
+            schedule = schedule.concatMap(request -> {
+                long wait = due(request, firstMicros, start) - System.nanoTime();
+                return wait > 0 ? Mono.delay(Duration.ofNanos(wait)).thenReturn(request) : Mono.just(request);
+            });
+        }
+        schedule.flatMap(request -> {
+            long sent = System.nanoTime();
+            if (speed > 0)
+                lag.record(Math.max(0, sent - due(request, firstMicros, start)));
+            return send(request)
+                    .onErrorReturn(0)
+                    .doOnNext(status -> record(request, status, System.nanoTime() - sent));
+        }, concurrency).blockLast();
+    }
+
+    private long due(CapturedRequest request, long firstMicros, long start) {
+        return start + (long) (TimeUnit.MICROSECONDS.toNanos(request.startMicros() - firstMicros) / speed);
+    }
+
+    private Mono<Integer> send(CapturedRequest request) {
+        String uri = request.query().isEmpty() ? request.path() : request.path() + "?" + request.query();
+        HttpClient.RequestSender sender = client
+                .headers(headers -> {
+                    if (request.authenticated() && token != null)
+                        headers.set(HttpHeaderNames.AUTHORIZATION, "Bearer " + token);
+                    if (!request.contentType().isEmpty())
+                        headers.set(HttpHeaderNames.CONTENT_TYPE, request.contentType());
+                    headers.set("X-Replay-Status", backendStatus(request.status()));
+                    headers.set("X-Replay-Bytes", request.responseBytes());
+                })
+                .request(HttpMethod.valueOf(request.method()))
+                .uri(uri);
+        HttpClient.ResponseReceiver<?> receiver = request.requestBytes() > 0
+                ? sender.send(Mono.fromSupplier(() -> Unpooled.wrappedBuffer(body(request.requestBytes()))))
+                : sender;
+        return receiver.responseSingle((response, content) -> content.then(Mono.just(response.status().code())));
+    }
+
+    private synchronized void record(CapturedRequest request, int status, long latencyNanos) {
+        boolean error = status == 0 || status >= 500;
+        total.record(latencyNanos, error);
+        routes.computeIfAbsent(request.routeId().isEmpty() ? "-" : request.routeId(), id -> new Stats())
+                .record(latencyNanos, error);
+        statuses.computeIfAbsent(status, code -> new AtomicLong()).incrementAndGet();
+    }
+
+    private Map<String, String> report(Duration elapsed) {
+        Map<String, String> report = new LinkedHashMap<>();
+        double seconds = elapsed.toNanos() / 1e9;
+        report.put("total.duration_s", format(seconds));
+        report.put("total.throughput_rps", format(total.requests / seconds));
+        total.report("total", report);
+        if (speed > 0)
+            report.put("total.send_lag_p99_ms", format(LatencyHistogram.percentileMillis(lag.drain(), 0.99)));
+        routes.forEach((route, stats) -> stats.report("route." + route, report));
+        statuses.forEach((status, count) -> report.put("status." + status, Long.toString(count.get())));
+        return report;
+    }
+
+    /** Diferencias por clave numérica entre dos reportes. */
+    static String compare(Map<String, String> baseline, Map<String, String> current) {
+        StringBuilder text = new StringBuilder(String.format(Locale.ROOT, "%n%-40s %14s %14s %9s%n",
+                "métrica", "baseline", "actual", "delta"));
+        current.forEach((key, value) -> {
+            String before = baseline.get(key);
+            if (before == null)
+                return;
+            double a = Double.parseDouble(before);
+            double b = Double.parseDouble(value);
+            String delta = a == 0 ? "-" : String.format(Locale.ROOT, "%+.1f%%", (b - a) / a * 100);
+            text.append(String.format(Locale.ROOT, "%-40s %14s %14s %9s%n", key, before, value, delta));
+        });
+        return text.toString();
+    }
+
+    private static Map<String, String> read(Path report) throws IOException {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(report)) {
+            int eq = line.indexOf('=');
+            if (!line.startsWith("#") && eq > 0)
+                values.put(line.substring(0, eq), line.substring(eq + 1));
+        }
+        return values;
+    }
+
+    private static int backendStatus(int captured) {
+        return (captured >= 200 && captured < 300) || BACKEND_ERRORS.contains(captured) ? captured : 200;
+    }
+
+    /** Cuerpo JSON válido de aproximadamente size bytes. */
+    static byte[] body(long size) {
+        byte[] prefix = "{\"replay\":\"".getBytes(StandardCharsets.US_ASCII);
+        int length = (int) Math.max(size, prefix.length + 2);
+        byte[] body = new byte[length];
+        Arrays.fill(body, (byte) 'x');
+        System.arraycopy(prefix, 0, body, 0, prefix.length);
+        body[length - 2] = '"';
+        body[length - 1] = '}';
+        return body;
+    }
+
+    private static DisposableServer stub(int port) {
+        return HttpServer.create()
+                .port(port)
+                .handle((request, response) -> {
+                    String status = request.requestHeaders().get("X-Replay-Status", "200");
+                    String bytes = request.requestHeaders().get("X-Replay-Bytes", "0");
+                    return request.receive().then(response
+                            .status(Integer.parseInt(status))
+                            .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                            .sendByteArray(Mono.fromSupplier(() -> body(Long.parseLong(bytes))))
+                            .then());
+                })
+                .bindNow();
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static final class Stats {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private long requests;
+        private long errors;
+
+        void record(long latencyNanos, boolean error) {
+            latency.record(latencyNanos);
+            requests++;
+            if (error)
+                errors++;
+        }
+
+        void report(String prefix, Map<String, String> report) {
+            long[] snapshot = latency.drain();
+            report.put(prefix + ".requests", Long.toString(requests));
+            report.put(prefix + ".errors", Long.toString(errors));
+            report.put(prefix + ".latency_p50_ms", format(LatencyHistogram.percentileMillis(snapshot, 0.50)));
+            report.put(prefix + ".latency_p90_ms", format(LatencyHistogram.percentileMillis(snapshot, 0.90)));
+            report.put(prefix + ".latency_p99_ms", format(LatencyHistogram.percentileMillis(snapshot, 0.99)));
+            report.put(prefix + ".latency_p999_ms", format(LatencyHistogram.percentileMillis(snapshot, 0.999)));
+        }
+    }
+}
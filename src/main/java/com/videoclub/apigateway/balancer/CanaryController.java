@@ -0,0 +1,103 @@
+package com.videoclub.apigateway.balancer;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Releases canary de videoclub.gateway.canary.releases, armados sobre los
+ * balanceadores del {@link ServiceRegistry}, y la evaluación periódica que
+ * decide los rollbacks.
+ *
+ * Publica por servicio gateway.canary.weight (gauge) y
+ * gateway.canary.rollbacks (contador); por versión (tags service y version)
+ * gateway.canary.requests, gateway.canary.errors (contadores) y
+ * gateway.canary.p99 (gauge, ms de la última ventana comparada).
+ */
+public class CanaryController implements SmartLifecycle {
+
+    private final CanaryProperties properties;
+    private final Map<String, CanaryRelease> releases = new LinkedHashMap<>();
+    private volatile ScheduledExecutorService scheduler;
+
+    public CanaryController(CanaryProperties properties, ServiceRegistry registry, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        properties.releases().forEach((service, release) -> {
+            P2cLoadBalancer stable = registry.balancer(service);
+            P2cLoadBalancer canary = release.canaryService() == null ? null
+                    : registry.balancer(release.canaryService());
+            if (stable == null || canary == null)
+                throw new IllegalStateException("Canary de " + service + ": " + service + " y "
+                        + release.canaryService() + " deben estar en videoclub.gateway.load-balancer.services");
+            CanaryRelease canaryRelease = new CanaryRelease(stable, canary, release.weight());
+            releases.put(service, canaryRelease);
+            register(meterRegistry, canaryRelease);
+        });
+    }
+
+    /** Release del servicio estable, o null si no tiene canary. */
+    public CanaryRelease release(String service) {
+        return releases.get(service);
+    }
+
+    public Map<String, CanaryRelease> releases() {
+        return releases;
+    }
+
+    @Override
+    public void start() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "canary-evaluator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = properties.evaluationInterval().toNanos();
+        executor.scheduleAtFixedRate(this::evaluate, period, period, TimeUnit.NANOSECONDS);
+        scheduler = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        if (executor != null)
+            executor.shutdownNow();
+        scheduler = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    void evaluate() {
+        for (CanaryRelease release : releases.values())
+            release.evaluate(properties);
+    }
+
+    private static void register(MeterRegistry registry, CanaryRelease release) {
+        Tags service = Tags.of("service", release.service());
+        Gauge.builder("gateway.canary.weight", release, CanaryRelease::weight)
+                .tags(service).register(registry);
+        FunctionCounter.builder("gateway.canary.rollbacks", release, CanaryRelease::rollbacks)
+                .tags(service).register(registry);
+        for (CanaryRelease.Version version : CanaryRelease.Version.values()) {
+            CanaryRelease.VersionStats stats = release.stats(version);
+            Tags tags = service.and("version", version.name().toLowerCase(Locale.ROOT));
+            FunctionCounter.builder("gateway.canary.requests", stats, CanaryRelease.VersionStats::requests)
+                    .tags(tags).register(registry);
+            FunctionCounter.builder("gateway.canary.errors", stats, CanaryRelease.VersionStats::errors)
+                    .tags(tags).register(registry);
+            Gauge.builder("gateway.canary.p99", stats, CanaryRelease.VersionStats::p99Millis)
+                    .tags(tags).baseUnit("milliseconds").register(registry);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.videoclub.apigateway.balancer;
+
+import com.videoclub.apigateway.security.IdentityHeaderSigner;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Endpoint actuator {@code /actuator/canary}.
+ *
+ * - GET: peso, estado (ACTIVE / ROLLED_BACK y motivo) y métricas por versión
+ * de cada servicio con canary
+ * - POST {@code {"service": "catalogo-backend", "weight": 25}}: fija el peso
+ * (0-100) y reinicia la comparación; también reactiva una canary tras un
+ * rollback. Requiere un JWT con el rol de realm configurado en admin-role.
+ */
+@Endpoint(id = "canary")
+public class CanaryEndpoint {
+
+    private final CanaryController controller;
+    private final CanaryProperties properties;
+
+    public CanaryEndpoint(CanaryController controller, CanaryProperties properties) {
+        this.controller = controller;
+        this.properties = properties;
+    }
+
+    @ReadOperation
+    public Map<String, Object> canary() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        controller.releases().forEach((service, release) -> body.put(service, release.report()));
+        return body;
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> weight(Principal principal, String service, int weight) {
+        if (!(principal instanceof JwtAuthenticationToken auth)
+                || !IdentityHeaderSigner.roles(auth.getToken()).contains(properties.adminRole()))
+            return new WebEndpointResponse<>(Map.of("error", "Se requiere el rol " + properties.adminRole()),
+                    HttpStatus.FORBIDDEN.value());
+        CanaryRelease release = controller.release(service);
+        if (release == null)
+            return new WebEndpointResponse<>(Map.of("error", "Sin canary para " + service),
+                    WebEndpointResponse.STATUS_NOT_FOUND);
+        if (weight < 0 || weight > 100)
+            return new WebEndpointResponse<>(Map.of("error", "weight debe estar entre 0 y 100"),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+
+        release.weight(weight);
+        return new WebEndpointResponse<>(release.report(), WebEndpointResponse.STATUS_OK);
+    }
+}
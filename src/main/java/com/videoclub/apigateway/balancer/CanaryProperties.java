@@ -0,0 +1,51 @@
+package com.videoclub.apigateway.balancer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Ruteo ponderado entre la versión estable y la canary de un servicio, con
+ * rollback automático ({@code videoclub.gateway.canary.*}).
+ *
+ * Cada versión es un servicio de videoclub.gateway.load-balancer.services
+ * (así hereda probes, expulsión pasiva y métricas por instancia); la canary
+ * se declara con su propio nombre y aquí se asocia a la estable.
+ *
+ * @param enabled              activa el ruteo canary
+ * @param evaluationInterval   cada cuánto se comparan las versiones
+ * @param minRequests          peticiones mínimas de cada versión para
+ *                             comparar; con menos, la ventana se acumula
+ * @param maxP99Ratio          p99 de la canary sobre el de la estable a
+ *                             partir del cual se hace rollback
+ * @param minP99Delta          diferencia de p99 por debajo de la cual no se
+ *                             considera regresión (ruido en latencias bajas)
+ * @param maxErrorRateIncrease tasa de error de la canary menos la de la
+ *                             estable (0-1) a partir de la cual se hace
+ *                             rollback
+ * @param adminRole            rol de realm requerido para cambiar pesos por
+ *                             actuator
+ * @param releases             canary por nombre del servicio estable
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.canary")
+public record CanaryProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10s") Duration evaluationInterval,
+        @DefaultValue("100") int minRequests,
+        @DefaultValue("1.5") double maxP99Ratio,
+        @DefaultValue("20ms") Duration minP99Delta,
+        @DefaultValue("0.02") double maxErrorRateIncrease,
+        @DefaultValue("admin") String adminRole,
+        @DefaultValue Map<String, Release> releases) {
+
+    /**
+     * @param canaryService servicio (de load-balancer.services) con la versión
+     *                      nueva
+     * @param weight        porcentaje de peticiones hacia la canary al
+     *                      iniciar (0-100)
+     */
+    public record Release(String canaryService, @DefaultValue("0") int weight) {
+    }
+}
@@ -0,0 +1,248 @@
+package com.videoclub.apigateway.balancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reparto ponderado entre la versión estable y la canary de un servicio.
+ *
+ * Cada petición va a la canary con probabilidad weight/100 y dentro de la
+ * versión se elige instancia con su {@link P2cLoadBalancer}; si la versión
+ * elegida no tiene instancias disponibles se usa la otra. La latencia y los
+ * errores de cada versión se acumulan hasta que ambas tienen minRequests;
+ * entonces {@link #evaluate} compara p99 y tasa de error y, si la canary
+ * empeoró más allá de los umbrales, lleva el peso a 0 (rollback) hasta que
+ * se vuelva a fijar a mano.
+ */
+public class CanaryRelease {
+
+    private static final Logger log = LoggerFactory.getLogger(CanaryRelease.class);
+
+    public enum Version {
+        STABLE, CANARY
+    }
+
+    public enum State {
+        ACTIVE, ROLLED_BACK
+    }
+
+    /** Instancia elegida y la versión a la que pertenece. */
+    public record Choice(Version version, ServiceInstance instance) {
+    }
+
+    private final String service;
+    private final String canaryService;
+    private final P2cLoadBalancer stable;
+    private final P2cLoadBalancer canary;
+    private final VersionStats stableStats = new VersionStats();
+    private final VersionStats canaryStats = new VersionStats();
+    private final LongAdder rollbacks = new LongAdder();
+    private volatile int weight;
+    private volatile State state = State.ACTIVE;
+    private volatile String reason;
+
+    public CanaryRelease(P2cLoadBalancer stable, P2cLoadBalancer canary, int weight) {
+        this.service = stable.service();
+        this.canaryService = canary.service();
+        this.stable = stable;
+        this.canary = canary;
+        this.weight = checkWeight(weight);
+    }
+
+    public String service() {
+        return service;
+    }
+
+    public int weight() {
+        return weight;
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public long rollbacks() {
+        return rollbacks.sum();
+    }
+
+    public VersionStats stats(Version version) {
+        return version == Version.CANARY ? canaryStats : stableStats;
+    }
+
+    /** Elige versión e instancia, o null si ninguna versión tiene instancias disponibles. */
+    public Choice choose() {
+        int current = weight;
+        boolean toCanary = current > 0 && ThreadLocalRandom.current().nextInt(100) < current;
+        ServiceInstance instance = (toCanary ? canary : stable).choose();
+        if (instance != null)
+            return new Choice(toCanary ? Version.CANARY : Version.STABLE, instance);
+        // La otra versión; tras un rollback (peso 0) la canary ya no recibe tráfico
+        if (!toCanary && current == 0)
+            return null;
+        instance = (toCanary ? stable : canary).choose();
+        return instance == null ? null : new Choice(toCanary ? Version.STABLE : Version.CANARY, instance);
+    }
+
+    public void record(Version version, long latencyNanos, boolean error) {
+        stats(version).record(latencyNanos, error);
+    }
+
+    /** Fija el peso (0-100) y reinicia la comparación. */
+    public synchronized void weight(int weight) {
+        this.weight = checkWeight(weight);
+        state = State.ACTIVE;
+        reason = null;
+        stableStats.reset();
+        canaryStats.reset();
+    }
+
+    /**
+     * Compara las versiones con lo acumulado desde la última comparación.
+     *
+     * @return true si hizo rollback
+     */
+    public synchronized boolean evaluate(CanaryProperties properties) {
+        stableStats.accumulate();
+        canaryStats.accumulate();
+        if (weight == 0) {
+            stableStats.reset();
+            canaryStats.reset();
+            return false;
+        }
+        if (stableStats.pendingRequests() < properties.minRequests()
+                || canaryStats.pendingRequests() < properties.minRequests())
+            return false;
+
+        stableStats.publish();
+        canaryStats.publish();
+        double stableP99 = stableStats.p99Millis();
+        double canaryP99 = canaryStats.p99Millis();
+        String regression = null;
+        if (canaryP99 > stableP99 * properties.maxP99Ratio()
+                && canaryP99 - stableP99 > properties.minP99Delta().toMillis())
+            regression = String.format(Locale.ROOT, "p99 %.1f ms vs %.1f ms", canaryP99, stableP99);
+        else if (canaryStats.errorRate() - stableStats.errorRate() > properties.maxErrorRateIncrease())
+            regression = String.format(Locale.ROOT, "errores %.2f%% vs %.2f%%", canaryStats.errorRate() * 100,
+                    stableStats.errorRate() * 100);
+        if (regression == null)
+            return false;
+
+        log.warn("Canary {} de {}: rollback con peso {}% por regresión ({})", canaryService, service, weight,
+                regression);
+        weight = 0;
+        state = State.ROLLED_BACK;
+        reason = regression;
+        rollbacks.increment();
+        return true;
+    }
+
+    /** Estado para /actuator/canary. */
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("canaryService", canaryService);
+        report.put("weight", weight);
+        report.put("state", state.name());
+        if (reason != null)
+            report.put("reason", reason);
+        report.put("rollbacks", rollbacks());
+        report.put("stable", stableStats.report());
+        report.put("canary", canaryStats.report());
+        return report;
+    }
+
+    private static int checkWeight(int weight) {
+        if (weight < 0 || weight > 100)
+            throw new IllegalArgumentException("El peso de la canary debe estar entre 0 y 100: " + weight);
+        return weight;
+    }
+
+    /**
+     * Latencia y errores de una versión: totales (métricas) y la ventana en
+     * curso. Solo el hilo de evaluación toca lo pendiente.
+     */
+    public static class VersionStats {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder windowErrors = new LongAdder();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private long[] pending;
+        private long pendingErrors;
+        private volatile double p99Millis;
+        private volatile double errorRate;
+
+        void record(long latencyNanos, boolean error) {
+            latency.record(latencyNanos);
+            requests.increment();
+            if (error) {
+                windowErrors.increment();
+                errors.increment();
+            }
+        }
+
+        void accumulate() {
+            long[] drained = latency.drain();
+            if (pending == null) {
+                pending = drained;
+            } else {
+                for (int i = 0; i < drained.length; i++)
+                    pending[i] += drained[i];
+            }
+            pendingErrors += windowErrors.sumThenReset();
+        }
+
+        long pendingRequests() {
+            return pending == null ? 0 : LatencyHistogram.count(pending);
+        }
+
+        /** Publica p99 y tasa de error de lo acumulado y empieza otra ventana. */
+        void publish() {
+            long count = pendingRequests();
+            p99Millis = LatencyHistogram.percentileMillis(pending, 0.99);
+            errorRate = count == 0 ? 0 : (double) pendingErrors / count;
+            pending = null;
+            pendingErrors = 0;
+        }
+
+        /** Descarta la ventana en curso, incluido lo registrado y aún no acumulado. */
+        void reset() {
+            latency.drain();
+            windowErrors.reset();
+            pending = null;
+            pendingErrors = 0;
+        }
+
+        /** p99 (ms) de la última ventana comparada. */
+        public double p99Millis() {
+            return p99Millis;
+        }
+
+        /** Tasa de error (0-1) de la última ventana comparada. */
+        public double errorRate() {
+            return errorRate;
+        }
+
+        public long requests() {
+            return requests.sum();
+        }
+
+        public long errors() {
+            return errors.sum();
+        }
+
+        Map<String, Object> report() {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("requests", requests());
+            report.put("errors", errors());
+            report.put("p99Ms", Math.round(p99Millis * 10) / 10.0);
+            report.put("errorRate", Math.round(errorRate * 10_000) / 10_000.0);
+            return report;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.videoclub.apigateway.balancer;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Estado de salud de una instancia, alimentado por dos fuentes:
+ * - activa: resultado de los probes periódicos
+ * - pasiva: fallos consecutivos del tráfico real ({@link #isFailure}), que
+ * expulsan la instancia durante ejectionDuration
+ * 
+ * Solo cuentan como fallos los errores de conexión, E/S y timeout y los 502,
+ * 503 y 504 que respondió el backend: un 500 de la aplicación o un 503 que
+ * generó el propio gateway (limitadores, fallas inyectadas) no dicen nada de
+ * la instancia. El balanceador de su servicio puede negar la expulsión
+ * (max-ejection-percent, nunca la última disponible).
+ * 
+ * La instancia está disponible si el probe activo no la marcó caída y no está
+ * expulsada.
+ */
+public class InstanceHealth {
+
+    private final int unhealthyThreshold;
+    private final int healthyThreshold;
+    private final int passiveFailures;
+    private final long ejectionNanos;
+
+    private final AtomicInteger consecutiveErrors = new AtomicInteger();
+    private volatile boolean probeUp = true;
+    private volatile long ejectedUntilNanos = System.nanoTime();
+    private volatile String lastFailure;
+    private volatile P2cLoadBalancer balancer;
+    private int probeFailures;
+    private int probeSuccesses;
+
+    public InstanceHealth(int unhealthyThreshold, int healthyThreshold, int passiveFailures,
+            Duration ejectionDuration) {
+        this.unhealthyThreshold = unhealthyThreshold;
+        this.healthyThreshold = healthyThreshold;
+        this.passiveFailures = passiveFailures;
+        this.ejectionNanos = ejectionDuration.toNanos();
+    }
+
+    /** Sin chequeos: siempre disponible. */
+    public static InstanceHealth alwaysUp() {
+        return new InstanceHealth(Integer.MAX_VALUE, 1, Integer.MAX_VALUE, Duration.ZERO);
+    }
+
+    public boolean available() {
+        return probeUp && System.nanoTime() - ejectedUntilNanos >= 0;
+    }
+
+    public boolean ejected() {
+        return System.nanoTime() - ejectedUntilNanos < 0;
+    }
+
+    public boolean probeUp() {
+        return probeUp;
+    }
+
+    public String lastFailure() {
+        return lastFailure;
+    }
+
+    /** Fallo de la instancia: conexión, E/S o timeout esperando al backend. */
+    public static boolean isFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException || cause instanceof TimeoutException
+                    || cause instanceof io.netty.handler.timeout.TimeoutException)
+                return true;
+        }
+        return false;
+    }
+
+    /** Status del backend que indica instancia caída o saturada. */
+    public static boolean isFailure(int upstreamStatus) {
+        return upstreamStatus == 502 || upstreamStatus == 503 || upstreamStatus == 504;
+    }
+
+    /** Balanceador que decide si la instancia puede salir de rotación. */
+    void attach(P2cLoadBalancer balancer) {
+        this.balancer = balancer;
+    }
+
+    /** Resultado de una petición real enviada a la instancia. */
+    void onResponse(boolean failure) {
+        if (!failure) {
+            consecutiveErrors.set(0);
+            return;
+        }
+        if (consecutiveErrors.incrementAndGet() >= passiveFailures) {
+            consecutiveErrors.set(0);
+            P2cLoadBalancer guard = balancer;
+            if (guard == null)
+                eject();
+            else if (!guard.tryEject(this))
+                lastFailure = passiveFailures + " fallos consecutivos en tráfico real (no expulsada: "
+                        + "max-ejection-percent o única disponible)";
+        }
+    }
+
+    void eject() {
+        ejectedUntilNanos = System.nanoTime() + ejectionNanos;
+        lastFailure = passiveFailures + " fallos consecutivos en tráfico real";
+    }
+
+    public synchronized void onProbeSuccess() {
+        probeFailures = 0;
+        if (++probeSuccesses >= healthyThreshold)
+            probeUp = true;
+    }
+
+    public synchronized void onProbeFailure(String reason) {
+        probeSuccesses = 0;
+        lastFailure = reason;
+        if (++probeFailures >= unhealthyThreshold)
+            probeUp = false;
+    }
+}
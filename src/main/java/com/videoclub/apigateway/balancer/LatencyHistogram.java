@@ -0,0 +1,72 @@
+package com.videoclub.apigateway.balancer;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias con cubetas logarítmicas (8 por potencia de 2,
+ * error relativo &lt; 12,5%) desde 8µs hasta ~2 minutos. Registrar cuesta un
+ * incremento atómico; los percentiles se calculan al consultar.
+ *
+ * {@link #drain()} devuelve las cuentas y pone el histograma en cero, para
+ * comparar ventanas de evaluación sucesivas.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 8;
+    private static final int MIN_EXPONENT = 3;
+    private static final int MAX_EXPONENT = 26;
+    private static final int BUCKETS = (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long latencyNanos) {
+        counts.incrementAndGet(index(latencyNanos / 1_000));
+    }
+
+    /** Cuentas acumuladas desde el último drain, y reinicio. */
+    public long[] drain() {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+            snapshot[i] = counts.getAndSet(i, 0);
+        return snapshot;
+    }
+
+    /** Límite superior (ms) de la cubeta que contiene el percentil, o 0 sin muestras. */
+    public static double percentileMillis(long[] snapshot, double percentile) {
+        long total = 0;
+        for (long count : snapshot)
+            total += count;
+        if (total == 0)
+            return 0;
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank)
+                return upperBoundMicros(i) / 1_000.0;
+        }
+        return upperBoundMicros(snapshot.length - 1) / 1_000.0;
+    }
+
+    public static long count(long[] snapshot) {
+        long total = 0;
+        for (long count : snapshot)
+            total += count;
+        return total;
+    }
+
+    static int index(long micros) {
+        long value = Math.max(micros, 1L << MIN_EXPONENT);
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT)
+            return BUCKETS - 1;
+        int sub = (int) (value >>> (exponent - MIN_EXPONENT)) & (SUB_BUCKETS - 1);
+        return (exponent - MIN_EXPONENT) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBoundMicros(int index) {
+        int exponent = index / SUB_BUCKETS + MIN_EXPONENT;
+        int sub = index % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub + 1) << (exponent - MIN_EXPONENT);
+    }
+}
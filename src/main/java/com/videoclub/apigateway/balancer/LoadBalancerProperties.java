@@ -0,0 +1,30 @@
+package com.videoclub.apigateway.balancer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicios con múltiples instancias estáticas
+ * ({@code videoclub.gateway.load-balancer.*}).
+ * 
+ * Una ruta con {@code uri: lb://<servicio>} se resuelve contra las instancias
+ * declaradas aquí (Eureka está deshabilitado).
+ *
+ * @param latencySmoothing peso de cada muestra en la latencia EWMA por
+ *                         instancia (0-1)
+ * @param services         instancias por nombre lógico de servicio
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.load-balancer")
+public record LoadBalancerProperties(
+        @DefaultValue("0.3") double latencySmoothing,
+        @DefaultValue Map<String, Service> services) {
+
+    /**
+     * @param instances URIs base de cada instancia (http://host:puerto)
+     */
+    public record Service(@DefaultValue List<String> instances) {
+    }
+}
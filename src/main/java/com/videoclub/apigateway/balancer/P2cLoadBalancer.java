@@ -0,0 +1,106 @@
+package com.videoclub.apigateway.balancer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Balanceador "power of two choices": toma dos instancias al azar y elige la
+ * de menor {@link ServiceInstance#score()} (pendientes × latencia EWMA).
+ * 
+ * Evita el efecto manada de "least outstanding" global (todas las peticiones
+ * hacia la misma instancia) con costo O(1) por elección.
+ * 
+ * También decide las expulsiones pasivas: a lo sumo maxEjectionPercent de las
+ * instancias fuera a la vez, y nunca la última disponible.
+ */
+public class P2cLoadBalancer {
+
+    private final String service;
+    private final List<ServiceInstance> instances;
+    private final int maxEjectionPercent;
+
+    public P2cLoadBalancer(String service, List<ServiceInstance> instances) {
+        this(service, instances, 100);
+    }
+
+    public P2cLoadBalancer(String service, List<ServiceInstance> instances, int maxEjectionPercent) {
+        if (instances.isEmpty())
+            throw new IllegalArgumentException("El servicio " + service + " no tiene instancias");
+        this.service = service;
+        this.instances = List.copyOf(instances);
+        this.maxEjectionPercent = maxEjectionPercent;
+        for (ServiceInstance instance : this.instances)
+            instance.health().attach(this);
+    }
+
+    public String service() {
+        return service;
+    }
+
+    public List<ServiceInstance> instances() {
+        return instances;
+    }
+
+    /** Elige una instancia entre las candidatas. Devuelve null si no hay. */
+    public ServiceInstance choose(List<ServiceInstance> candidates) {
+        int n = candidates.size();
+        if (n == 0)
+            return null;
+        if (n == 1)
+            return candidates.get(0);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int a = random.nextInt(n);
+        int b = random.nextInt(n - 1);
+        if (b >= a)
+            b++;
+        ServiceInstance first = candidates.get(a);
+        ServiceInstance second = candidates.get(b);
+        return first.score() <= second.score() ? first : second;
+    }
+
+    /**
+     * Elige entre las instancias disponibles (sanas y no expulsadas). Devuelve
+     * null si ninguna lo está, para fallar rápido sin intentar la conexión.
+     */
+    public ServiceInstance choose() {
+        int available = 0;
+        for (ServiceInstance instance : instances) {
+            if (instance.available())
+                available++;
+        }
+        if (available == instances.size())
+            return choose(instances);
+        if (available == 0)
+            return null;
+        List<ServiceInstance> candidates = new ArrayList<>(available);
+        for (ServiceInstance instance : instances) {
+            if (instance.available())
+                candidates.add(instance);
+        }
+        return choose(candidates);
+    }
+
+    /**
+     * Expulsa la instancia si no supera maxEjectionPercent y queda al menos
+     * otra disponible. Sincronizado para que dos expulsiones simultáneas no
+     * dejen al servicio sin instancias.
+     */
+    synchronized boolean tryEject(InstanceHealth candidate) {
+        int ejected = 0;
+        int othersAvailable = 0;
+        for (ServiceInstance instance : instances) {
+            InstanceHealth health = instance.health();
+            if (health == candidate)
+                continue;
+            if (health.ejected())
+                ejected++;
+            else if (health.available())
+                othersAvailable++;
+        }
+        if (othersAvailable == 0 || (ejected + 1) * 100 > maxEjectionPercent * instances.size())
+            return false;
+        candidate.eject();
+        return true;
+    }
+}
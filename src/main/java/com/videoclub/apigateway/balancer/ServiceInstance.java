@@ -0,0 +1,100 @@
+package com.videoclub.apigateway.balancer;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instancia de un servicio con el estado que usa el balanceador: peticiones
+ * pendientes, latencia EWMA y salud.
+ */
+public class ServiceInstance {
+
+    private final String service;
+    private final URI uri;
+    private final double smoothing;
+    private final InstanceHealth health;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private volatile double ewmaLatencyMillis;
+
+    public ServiceInstance(String service, URI uri, double smoothing) {
+        this(service, uri, smoothing, InstanceHealth.alwaysUp());
+    }
+
+    public ServiceInstance(String service, URI uri, double smoothing, InstanceHealth health) {
+        if (uri.getHost() == null || uri.getScheme() == null)
+            throw new IllegalArgumentException("Instancia inválida para el servicio " + service + ": " + uri);
+        this.service = service;
+        this.uri = uri;
+        this.smoothing = smoothing;
+        this.health = health;
+    }
+
+    public String service() {
+        return service;
+    }
+
+    public URI uri() {
+        return uri;
+    }
+
+    public String id() {
+        return uri.getHost() + ":" + uri.getPort();
+    }
+
+    public void start() {
+        outstanding.incrementAndGet();
+        requests.increment();
+    }
+
+    /**
+     * @param failure la petición falló por la instancia (ver
+     *                {@link InstanceHealth#isFailure}); cuenta para errors y
+     *                para la expulsión pasiva
+     */
+    public void finish(long latencyNanos, boolean failure) {
+        outstanding.decrementAndGet();
+        if (failure)
+            errors.increment();
+        health.onResponse(failure);
+        double sample = latencyNanos / 1_000_000.0;
+        double current = ewmaLatencyMillis;
+        ewmaLatencyMillis = current == 0 ? sample : current + smoothing * (sample - current);
+    }
+
+    /**
+     * Costo estimado de enviar una petición más: latencia esperada por la cola
+     * de pendientes. Sin muestras se asume 1ms para no penalizar instancias
+     * nuevas.
+     */
+    double score() {
+        double latency = ewmaLatencyMillis == 0 ? 1.0 : ewmaLatencyMillis;
+        return latency * (outstanding.get() + 1);
+    }
+
+    public InstanceHealth health() {
+        return health;
+    }
+
+    public boolean available() {
+        return health.available();
+    }
+
+    public int outstanding() {
+        return outstanding.get();
+    }
+
+    public double ewmaLatencyMillis() {
+        return ewmaLatencyMillis;
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+}
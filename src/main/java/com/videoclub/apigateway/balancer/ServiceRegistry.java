@@ -0,0 +1,66 @@
+package com.videoclub.apigateway.balancer;
+
+import com.videoclub.apigateway.health.HealthCheckProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registro estático de servicios lógicos y sus instancias, armado desde
+ * {@link LoadBalancerProperties}.
+ * 
+ * Publica por instancia: gateway.lb.outstanding, gateway.lb.latency.ewma,
+ * gateway.lb.available (gauges) y gateway.lb.requests, gateway.lb.errors
+ * (contadores), con tags service e instance.
+ */
+public class ServiceRegistry {
+
+    private final Map<String, P2cLoadBalancer> balancers = new LinkedHashMap<>();
+
+    public ServiceRegistry(LoadBalancerProperties properties, HealthCheckProperties healthCheck,
+            MeterRegistry meterRegistry) {
+        properties.services().forEach((name, service) -> {
+            List<ServiceInstance> instances = new ArrayList<>();
+            for (String uri : service.instances()) {
+                InstanceHealth health = new InstanceHealth(healthCheck.unhealthyThreshold(),
+                        healthCheck.healthyThreshold(), healthCheck.passiveFailures(),
+                        healthCheck.ejectionDuration());
+                ServiceInstance instance = new ServiceInstance(name, URI.create(uri.trim()),
+                        properties.latencySmoothing(), health);
+                instances.add(instance);
+                register(meterRegistry, instance);
+            }
+            balancers.put(name, new P2cLoadBalancer(name, instances, healthCheck.maxEjectionPercent()));
+        });
+    }
+
+    /** Balanceador del servicio, o null si no está declarado. */
+    public P2cLoadBalancer balancer(String service) {
+        return balancers.get(service);
+    }
+
+    public Map<String, P2cLoadBalancer> balancers() {
+        return balancers;
+    }
+
+    private static void register(MeterRegistry registry, ServiceInstance instance) {
+        Tags tags = Tags.of("service", instance.service(), "instance", instance.id());
+        Gauge.builder("gateway.lb.outstanding", instance, ServiceInstance::outstanding)
+                .tags(tags).register(registry);
+        Gauge.builder("gateway.lb.latency.ewma", instance, ServiceInstance::ewmaLatencyMillis)
+                .tags(tags).baseUnit("milliseconds").register(registry);
+        Gauge.builder("gateway.lb.available", instance, i -> i.available() ? 1 : 0)
+                .tags(tags).register(registry);
+        FunctionCounter.builder("gateway.lb.requests", instance, ServiceInstance::requests)
+                .tags(tags).register(registry);
+        FunctionCounter.builder("gateway.lb.errors", instance, ServiceInstance::errors)
+                .tags(tags).register(registry);
+    }
+}
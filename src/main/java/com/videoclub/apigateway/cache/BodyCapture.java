@@ -0,0 +1,43 @@
+package com.videoclub.apigateway.cache;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Copia de un cuerpo que pasa en streaming hacia el cliente, acotada a
+ * maxBytes: al superarlo se descarta lo copiado y el resto pasa sin copiarse,
+ * así una respuesta demasiado grande para el cache nunca se junta en memoria.
+ *
+ * Se usa desde doOnNext de un único writeWith (señales en serie).
+ */
+public final class BodyCapture {
+
+    private final int maxBytes;
+    private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+    public BodyCapture(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** Copia los bytes legibles sin consumirlos. */
+    public void write(DataBuffer buffer) {
+        if (copy == null)
+            return;
+        int length = buffer.readableByteCount();
+        if (copy.size() + length > maxBytes) {
+            copy = null;
+            return;
+        }
+        byte[] bytes = new byte[length];
+        int position = buffer.readPosition();
+        buffer.read(bytes);
+        buffer.readPosition(position);
+        copy.write(bytes, 0, length);
+    }
+
+    /** El cuerpo copiado, o null si superó maxBytes. */
+    public byte[] body() {
+        return copy == null ? null : copy.toByteArray();
+    }
+}
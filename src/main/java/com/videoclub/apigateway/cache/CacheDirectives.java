@@ -0,0 +1,121 @@
+package com.videoclub.apigateway.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.Locale;
+
+/**
+ * Frescura de una respuesta según sus headers HTTP (RFC 9111, subconjunto).
+ */
+public final class CacheDirectives {
+
+    /** La respuesta no debe guardarse. */
+    public static final long NOT_STORABLE = -1;
+
+    private CacheDirectives() {
+    }
+
+    /**
+     * Milisegundos que la respuesta puede servirse sin consultar al origen:
+     * s-maxage o max-age (menos Age), o Expires - Date. Devuelve
+     * {@link #NOT_STORABLE} con no-store o private, 0 con no-cache (hay que
+     * revalidar cada vez; no-cache="campo" solo afecta esos headers) y
+     * fallbackMillis si no hay frescura explícita.
+     */
+    public static long freshnessMillis(HttpHeaders headers, long fallbackMillis) {
+        return freshnessMillis(headers, fallbackMillis, false);
+    }
+
+    /**
+     * Igual que {@link #freshnessMillis(HttpHeaders, long)}; un cache privado
+     * (una partición por usuario) puede guardar respuestas private e ignora
+     * s-maxage, que solo aplica a caches compartidos.
+     */
+    public static long freshnessMillis(HttpHeaders headers, long fallbackMillis, boolean privateCache) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl != null) {
+            String directives = cacheControl.toLowerCase(Locale.ROOT);
+            if (directives.contains("no-store") || (!privateCache && directives.contains("private")))
+                return NOT_STORABLE;
+            if (noCache(directives))
+                return 0;
+            long seconds = privateCache ? -1 : directive(directives, "s-maxage");
+            if (seconds < 0)
+                seconds = directive(directives, "max-age");
+            if (seconds >= 0)
+                return Math.max(0, seconds - age(headers)) * 1000;
+        }
+        long expires = headers.getExpires();
+        if (expires > 0) {
+            long date = headers.getDate();
+            return Math.max(0, expires - (date > 0 ? date : System.currentTimeMillis()));
+        }
+        return fallbackMillis;
+    }
+
+    /**
+     * Si un cache compartido puede guardar la respuesta a una petición con
+     * Authorization (RFC 9111 §3.5): solo si el backend lo autoriza con
+     * public, s-maxage o must-revalidate.
+     */
+    public static boolean storableWithAuthorization(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null)
+            return false;
+        String directives = cacheControl.toLowerCase(Locale.ROOT);
+        return flag(directives, "public") || flag(directives, "must-revalidate")
+                || directive(directives, "s-maxage") >= 0;
+    }
+
+    /** no-cache sin lista de campos. */
+    private static boolean noCache(String directives) {
+        return flag(directives, "no-cache");
+    }
+
+    /** Directiva sin argumento presente como token completo. */
+    private static boolean flag(String directives, String name) {
+        int from = 0;
+        while (true) {
+            int at = directives.indexOf(name, from);
+            if (at < 0)
+                return false;
+            int end = at + name.length();
+            boolean startsToken = at == 0 || directives.charAt(at - 1) == ',' || directives.charAt(at - 1) == ' ';
+            if (startsToken && (end == directives.length() || directives.charAt(end) == ','
+                    || directives.charAt(end) == ' '))
+                return true;
+            from = end;
+        }
+    }
+
+    private static long directive(String directives, String name) {
+        int from = 0;
+        while (true) {
+            int at = directives.indexOf(name, from);
+            if (at < 0)
+                return -1;
+            int end = at + name.length();
+            boolean startsToken = at == 0 || directives.charAt(at - 1) == ',' || directives.charAt(at - 1) == ' ';
+            if (startsToken && end < directives.length() && directives.charAt(end) == '=') {
+                int valueEnd = end + 1;
+                while (valueEnd < directives.length() && Character.isDigit(directives.charAt(valueEnd)))
+                    valueEnd++;
+                try {
+                    return Long.parseLong(directives.substring(end + 1, valueEnd));
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+            from = end;
+        }
+    }
+
+    private static long age(HttpHeaders headers) {
+        String age = headers.getFirst(HttpHeaders.AGE);
+        try {
+            return age == null ? 0 : Long.parseLong(age.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
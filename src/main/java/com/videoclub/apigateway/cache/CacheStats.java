@@ -0,0 +1,42 @@
+package com.videoclub.apigateway.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Contadores de uso del cache de una ruta. */
+public class CacheStats {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+
+    public void hit() {
+        hits.increment();
+    }
+
+    public void miss() {
+        misses.increment();
+    }
+
+    public void staleServed() {
+        stale.increment();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long stale() {
+        return stale.sum();
+    }
+
+    /** Proporción de peticiones servidas sin consultar al backend (0-1). */
+    public double hitRatio() {
+        long served = hits.sum();
+        long total = served + misses.sum();
+        return total == 0 ? 0 : (double) served / total;
+    }
+}
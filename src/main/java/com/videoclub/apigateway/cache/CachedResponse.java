@@ -0,0 +1,35 @@
+package com.videoclub.apigateway.cache;
+
+import java.util.Map;
+
+/**
+ * Respuesta cacheada: status, headers relevantes y cuerpo completo.
+ * 
+ * Los tiempos son epoch millis: fresca hasta freshUntil; después solo se usa
+ * como stale (backend caído) hasta staleUntil, momento en que se descarta.
+ */
+public record CachedResponse(int status, Map<String, String> headers, byte[] body, long storedAt, long freshUntil,
+        long staleUntil) {
+
+    /** Overhead estimado por entrada (clave, mapa, objetos) para el presupuesto de memoria. */
+    private static final int ENTRY_OVERHEAD = 256;
+
+    public boolean fresh(long now) {
+        return now < freshUntil;
+    }
+
+    public boolean expired(long now) {
+        return now >= staleUntil;
+    }
+
+    public long ageSeconds(long now) {
+        return Math.max(0, (now - storedAt) / 1000);
+    }
+
+    public long size() {
+        long size = ENTRY_OVERHEAD + body.length;
+        for (Map.Entry<String, String> header : headers.entrySet())
+            size += header.getKey().length() + header.getValue().length();
+        return size;
+    }
+}
@@ -0,0 +1,232 @@
+package com.videoclub.apigateway.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot del cache de respuestas en un archivo mapeado en memoria.
+ * 
+ * Formato (big-endian): cabecera {@code "VCRC"} + versión, seguida de un log de
+ * registros {@code [int largo][int crc32][payload]}; un largo 0 marca el fin.
+ * - PUT: op, clave, storedAt, freshUntil, staleUntil, status, headers, cuerpo
+ * - REMOVE: op, clave
+ * 
+ * Escribir es copiar bytes al mapeo (el sistema operativo los baja a disco);
+ * leer al iniciar recorre el mapeo sin copias intermedias, por lo que recargar
+ * miles de entradas toma milisegundos. Un registro cortado por un cierre
+ * abrupto falla el CRC y termina la lectura ahí. Cuando el log se llena se
+ * reescribe con las entradas vivas en un archivo nuevo que reemplaza al
+ * anterior de forma atómica.
+ */
+public class MappedSnapshotStore implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedSnapshotStore.class);
+
+    private static final int MAGIC = 0x56435243; // "VCRC"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+
+    private final Path file;
+    private final int capacity;
+    private MappedByteBuffer buffer;
+
+    public MappedSnapshotStore(Path file, int capacity) {
+        if (capacity < 1024)
+            throw new IllegalArgumentException("El snapshot del cache necesita al menos 1KB");
+        this.file = file;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Abre el archivo (creándolo si no existe) y devuelve las entradas
+     * persistidas que todavía no vencieron, en orden de escritura.
+     */
+    public synchronized Map<String, CachedResponse> load(long now) {
+        Map<String, CachedResponse> entries = new LinkedHashMap<>();
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            if (Files.exists(file) && Files.size(file) == capacity) {
+                buffer = map(file);
+                if (buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION) {
+                    buffer.position(HEADER_SIZE);
+                    replay(entries);
+                    entries.values().removeIf(entry -> entry.expired(now));
+                    terminate();
+                    return entries;
+                }
+                log.warn("Snapshot de cache {} con formato desconocido; se descarta", file);
+            }
+            rewrite(Map.of());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el snapshot de cache " + file, e);
+        }
+        return entries;
+    }
+
+    /**
+     * Agrega una entrada al log. Devuelve false si no hay lugar: el llamador
+     * debe compactar con {@link #rewrite(Map)}.
+     */
+    public synchronized boolean put(String key, CachedResponse entry) {
+        return append(encodePut(key, entry));
+    }
+
+    public synchronized boolean remove(String key) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(1 + 4 + k.length);
+        payload.put(OP_REMOVE).putInt(k.length).put(k);
+        return append(payload.array());
+    }
+
+    /** Reemplaza el archivo por uno nuevo con solo las entradas indicadas. */
+    public synchronized void rewrite(Map<String, CachedResponse> entries) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.deleteIfExists(tmp);
+            MappedByteBuffer next = map(tmp);
+            next.putInt(MAGIC).putInt(VERSION);
+            buffer = next;
+            for (Map.Entry<String, CachedResponse> entry : entries.entrySet()) {
+                if (!append(encodePut(entry.getKey(), entry.getValue())))
+                    break;
+            }
+            next.force();
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo reescribir el snapshot de cache " + file, e);
+        }
+    }
+
+    /** Bytes usados del log (cabecera incluida). */
+    public synchronized int used() {
+        return buffer == null ? 0 : buffer.position();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (buffer != null)
+            buffer.force();
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+
+    private boolean append(byte[] payload) {
+        if (buffer == null || buffer.remaining() < payload.length + 8)
+            return false;
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        terminate();
+        return true;
+    }
+
+    /** Marca el fin del log sin mover la posición de escritura. */
+    private void terminate() {
+        if (buffer.remaining() >= 4)
+            buffer.putInt(buffer.position(), 0);
+    }
+
+    private void replay(Map<String, CachedResponse> entries) {
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= 8) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                buffer.position(start);
+                return;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                log.warn("Registro corrupto en el snapshot de cache {} (offset {}); se ignora el resto", file, start);
+                buffer.position(start);
+                return;
+            }
+            try {
+                decode(payload, entries);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                buffer.position(start);
+                return;
+            }
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    private static void decode(ByteBuffer payload, Map<String, CachedResponse> entries) {
+        byte op = payload.get();
+        String key = readString(payload);
+        if (op == OP_REMOVE) {
+            entries.remove(key);
+            return;
+        }
+        if (op != OP_PUT)
+            throw new IllegalArgumentException("Operación desconocida: " + op);
+        long storedAt = payload.getLong();
+        long freshUntil = payload.getLong();
+        long staleUntil = payload.getLong();
+        int status = payload.getShort();
+        int headerCount = payload.getShort();
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (int i = 0; i < headerCount; i++)
+            headers.put(readString(payload), readString(payload));
+        byte[] body = new byte[payload.getInt()];
+        payload.get(body);
+        // LinkedHashMap: reinsertar mueve la clave al final (más reciente)
+        entries.remove(key);
+        entries.put(key, new CachedResponse(status, headers, body, storedAt, freshUntil, staleUntil));
+    }
+
+    private static byte[] encodePut(String key, CachedResponse entry) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        int size = 1 + 4 + k.length + 24 + 4 + 4 + entry.body().length;
+        byte[][] headers = new byte[entry.headers().size() * 2][];
+        int i = 0;
+        for (Map.Entry<String, String> header : entry.headers().entrySet()) {
+            headers[i] = header.getKey().getBytes(StandardCharsets.UTF_8);
+            headers[i + 1] = header.getValue().getBytes(StandardCharsets.UTF_8);
+            size += 8 + headers[i].length + headers[i + 1].length;
+            i += 2;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(size);
+        payload.put(OP_PUT).putInt(k.length).put(k);
+        payload.putLong(entry.storedAt()).putLong(entry.freshUntil()).putLong(entry.staleUntil());
+        payload.putShort((short) entry.status()).putShort((short) entry.headers().size());
+        for (byte[] h : headers)
+            payload.putInt(h.length).put(h);
+        payload.putInt(entry.body().length).put(entry.body());
+        return payload.array();
+    }
+
+    private static String readString(ByteBuffer payload) {
+        int length = payload.getInt();
+        if (length < 0 || length > payload.remaining())
+            throw new IllegalArgumentException("Largo inválido: " + length);
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
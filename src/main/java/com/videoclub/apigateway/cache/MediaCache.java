@@ -0,0 +1,274 @@
+package com.videoclub.apigateway.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache de cuerpos de medios en archivos locales, LRU acotado por bytes.
+ *
+ * El índice vive en memoria; cada cuerpo es un archivo del directorio. Se
+ * llena mientras la respuesta del backend pasa hacia el cliente: el archivo
+ * se crea con el Content-Length anunciado y se mapea en memoria, así cada
+ * buffer se copia al mapeo sin llamadas de escritura. Solo al recibir el
+ * cuerpo completo se publica la entrada (renombrado atómico).
+ *
+ * Las entradas se cuentan por referencias: un desalojo o reemplazo no borra
+ * el archivo mientras alguna respuesta lo esté enviando. El directorio se
+ * vacía al iniciar (el índice no se persiste).
+ */
+public class MediaCache {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaCache.class);
+
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder evictions = new LongAdder();
+    private long bytes;
+
+    public MediaCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.{media,tmp}")) {
+                for (Path file : files)
+                    Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo preparar el cache de medios en " + directory, e);
+        }
+    }
+
+    /**
+     * Entrada fresca para servir, ya retenida: el llamador debe
+     * {@link Entry#release() liberarla} al terminar de enviarla. Null si no
+     * existe o venció.
+     */
+    public synchronized Entry acquire(String key, long now) {
+        Entry entry = entries.get(key);
+        if (entry == null)
+            return null;
+        if (!entry.fresh(now)) {
+            remove(key);
+            return null;
+        }
+        return entry.retain() ? entry : null;
+    }
+
+    /**
+     * Empieza a llenar una entrada de {@code length} bytes. Null si no entra
+     * en el cache o no se pudo crear el archivo (la respuesta sigue sin
+     * cachearse).
+     */
+    public Fill begin(String key, long length, Map<String, String> headers, long freshUntil) {
+        if (length <= 0 || length > maxBytes || length > Integer.MAX_VALUE)
+            return null;
+        long id = sequence.incrementAndGet();
+        Path tmp = directory.resolve(id + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            return new Fill(key, tmp, directory.resolve(id + ".media"), mapping, length, headers, freshUntil);
+        } catch (IOException e) {
+            log.warn("No se pudo crear {} para el cache de medios: {}", tmp, e.getMessage());
+            delete(tmp);
+            return null;
+        }
+    }
+
+    public synchronized void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            bytes -= removed.length();
+            removed.release();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        Entry previous = entries.put(key, entry);
+        bytes += entry.length();
+        if (previous != null) {
+            bytes -= previous.length();
+            previous.release();
+        }
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> evicted = eldest.next();
+            if (evicted.getKey().equals(key))
+                continue;
+            bytes -= evicted.getValue().length();
+            eldest.remove();
+            evicted.getValue().release();
+            evictions.increment();
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar {} del cache de medios: {}", file, e.getMessage());
+        }
+    }
+
+    /** Cuerpo cacheado en un archivo, con los headers a devolver. */
+    public static final class Entry {
+
+        private final Path file;
+        private final long length;
+        private final Map<String, String> headers;
+        private final long storedAt;
+        private final long freshUntil;
+        // Una referencia del cache más una por cada respuesta en curso
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        Entry(Path file, long length, Map<String, String> headers, long storedAt, long freshUntil) {
+            this.file = file;
+            this.length = length;
+            this.headers = headers;
+            this.storedAt = storedAt;
+            this.freshUntil = freshUntil;
+        }
+
+        public Path file() {
+            return file;
+        }
+
+        public long length() {
+            return length;
+        }
+
+        public Map<String, String> headers() {
+            return headers;
+        }
+
+        public boolean fresh(long now) {
+            return now < freshUntil;
+        }
+
+        public long ageSeconds(long now) {
+            return Math.max(0, (now - storedAt) / 1000);
+        }
+
+        /** Mapea (solo lectura) el tramo pedido del archivo, sin copiarlo al heap. */
+        public ByteBuffer map(long position, long count) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, position, count);
+            }
+        }
+
+        boolean retain() {
+            int current;
+            do {
+                current = references.get();
+                if (current == 0)
+                    return false;
+            } while (!references.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        /** Devuelve una referencia; con la última se borra el archivo. */
+        public void release() {
+            if (references.decrementAndGet() == 0)
+                delete(file);
+        }
+    }
+
+    /** Entrada en construcción: recibe los buffers del backend en orden. */
+    public final class Fill {
+
+        private final String key;
+        private final Path tmp;
+        private final Path target;
+        private final MappedByteBuffer mapping;
+        private final long length;
+        private final Map<String, String> headers;
+        private final long freshUntil;
+        private boolean failed;
+        private boolean done;
+
+        private Fill(String key, Path tmp, Path target, MappedByteBuffer mapping, long length,
+                Map<String, String> headers, long freshUntil) {
+            this.key = key;
+            this.tmp = tmp;
+            this.target = target;
+            this.mapping = mapping;
+            this.length = length;
+            this.headers = headers;
+            this.freshUntil = freshUntil;
+        }
+
+        /** Copia los bytes legibles del buffer sin consumirlos ni liberarlo. */
+        public void write(DataBuffer buffer) {
+            if (failed || done)
+                return;
+            if (buffer.readableByteCount() > mapping.remaining()) {
+                // Más bytes que el Content-Length anunciado
+                failed = true;
+                return;
+            }
+            try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+                while (chunks.hasNext())
+                    mapping.put(chunks.next());
+            }
+        }
+
+        /** Publica la entrada si llegó el cuerpo completo; si no, la descarta. */
+        public void complete() {
+            if (done)
+                return;
+            if (failed || mapping.position() != length) {
+                abort();
+                return;
+            }
+            done = true;
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.warn("No se pudo publicar {} en el cache de medios: {}", target, e.getMessage());
+                delete(tmp);
+                return;
+            }
+            put(key, new Entry(target, length, headers, System.currentTimeMillis(), freshUntil));
+        }
+
+        public void abort() {
+            if (done)
+                return;
+            done = true;
+            delete(tmp);
+        }
+    }
+}
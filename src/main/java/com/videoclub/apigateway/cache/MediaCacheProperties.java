@@ -0,0 +1,44 @@
+package com.videoclub.apigateway.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache local de medios (pósters, trailers) en archivos
+ * ({@code videoclub.gateway.media-cache.*}).
+ *
+ * Solo para recursos públicos: la clave es ruta + path + query e ignora
+ * Authorization. Se guardan respuestas 200 completas con Content-Length y
+ * Content-Type entre contentTypes; los Range se resuelven en el gateway.
+ *
+ * @param enabled      activa el cache
+ * @param directory    directorio de los archivos (se vacía al iniciar)
+ * @param maxSize      espacio en disco (LRU por bytes)
+ * @param maxEntrySize cuerpo máximo cacheable por respuesta
+ * @param ttl          frescura si el backend no indica Cache-Control / Expires
+ * @param contentTypes tipos cacheables (admite comodines, p. ej. image/*)
+ * @param routes       paths de medios por id de ruta
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.media-cache")
+public record MediaCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("media-cache") Path directory,
+        @DefaultValue("1GB") DataSize maxSize,
+        @DefaultValue("256MB") DataSize maxEntrySize,
+        @DefaultValue("1h") Duration ttl,
+        @DefaultValue({ "image/*", "video/*" }) List<String> contentTypes,
+        @DefaultValue Map<String, RouteMedia> routes) {
+
+    /**
+     * @param paths patrones de path de medios; el resto de la ruta no pasa por
+     *              este cache
+     */
+    public record RouteMedia(@DefaultValue List<String> paths) {
+    }
+}
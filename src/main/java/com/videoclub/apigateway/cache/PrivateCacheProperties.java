@@ -0,0 +1,46 @@
+package com.videoclub.apigateway.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Cache privado por usuario para GET autenticados
+ * ({@code videoclub.gateway.private-cache.*}).
+ *
+ * A diferencia de {@link ResponseCacheProperties}, la clave incluye el
+ * subject del JWT y admite respuestas {@code Cache-Control: private}; sin
+ * usuario autenticado no se cachea.
+ *
+ * @param enabled          activa el cache
+ * @param ttl              tiempo máximo que una respuesta se sirve sin consultar
+ *                         al backend (menos si su Cache-Control lo indica)
+ * @param maxMemory        presupuesto total de memoria (LRU de usuarios)
+ * @param maxMemoryPerUser presupuesto de cada usuario (LRU de sus entradas)
+ * @param maxEntrySize     cuerpo máximo cacheable por respuesta
+ * @param routes           ids de ruta cuyos GET se cachean
+ * @param invalidateOn     ids de ruta cuyas escrituras (POST, PUT, PATCH,
+ *                         DELETE) vacían el cache de quien las envía
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.private-cache")
+public record PrivateCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10s") Duration ttl,
+        @DefaultValue("32MB") DataSize maxMemory,
+        @DefaultValue("256KB") DataSize maxMemoryPerUser,
+        @DefaultValue("64KB") DataSize maxEntrySize,
+        @DefaultValue Set<String> routes,
+        @DefaultValue Set<String> invalidateOn) {
+
+    public PrivateCacheProperties {
+        if (ttl.isNegative() || ttl.isZero())
+            throw new IllegalArgumentException("private-cache.ttl debe ser positivo");
+        if (maxMemoryPerUser.toBytes() > maxMemory.toBytes())
+            throw new IllegalArgumentException("private-cache.max-memory-per-user no puede superar max-memory");
+        if (maxEntrySize.toBytes() > maxMemoryPerUser.toBytes())
+            throw new IllegalArgumentException("private-cache.max-entry-size no puede superar max-memory-per-user");
+    }
+}
@@ -0,0 +1,175 @@
+package com.videoclub.apigateway.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache en memoria de respuestas privadas, particionado por usuario (subject
+ * del JWT): una entrada solo se busca dentro de la partición de quien la
+ * pidió, así nunca se sirve a otro usuario.
+ *
+ * Cada partición es un LRU acotado por bytes (maxBytesPerUser) y las
+ * particiones también lo son entre sí (maxBytes): al pasarse del total se
+ * desaloja entera la del usuario menos reciente.
+ *
+ * {@link #invalidate} vacía la partición de un usuario y marca el momento con
+ * un ticket: una respuesta pedida antes ({@link #ticket}) ya no se guarda, así
+ * una lectura que se cruzó con una escritura no deja datos viejos.
+ */
+public class PrivateResponseCache {
+
+    /** Overhead estimado por partición (subject, mapas) para el presupuesto de memoria. */
+    private static final int PARTITION_OVERHEAD = 256;
+
+    /** Entradas de un usuario. */
+    private static final class Partition {
+
+        final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+        long bytes = PARTITION_OVERHEAD;
+        long invalidatedAt;
+    }
+
+    private final long maxBytes;
+    private final long maxBytesPerUser;
+    private final LinkedHashMap<String, Partition> partitions = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+    private long tickets;
+    private long lastEviction;
+    private long invalidations;
+    private long evictedUsers;
+
+    public PrivateResponseCache(long maxBytes, long maxBytesPerUser) {
+        this.maxBytes = maxBytes;
+        this.maxBytesPerUser = maxBytesPerUser;
+    }
+
+    /** Ticket a tomar antes de consultar al backend y pasar a {@link #put}. */
+    public synchronized long ticket() {
+        return ++tickets;
+    }
+
+    /** Entrada fresca del usuario, o null si no existe o ya venció. */
+    public synchronized CachedResponse get(String user, String key, long now) {
+        Partition partition = partitions.get(user);
+        if (partition == null)
+            return null;
+        CachedResponse entry = partition.entries.get(key);
+        if (entry != null && !entry.fresh(now)) {
+            partition.entries.remove(key);
+            release(user, partition, entry.size());
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Guarda la respuesta salvo que exceda el límite por usuario o que el
+     * usuario haya invalidado su partición después de tomar el ticket.
+     */
+    public synchronized boolean put(String user, String key, CachedResponse entry, long ticket) {
+        long size = entry.size();
+        if (size + PARTITION_OVERHEAD > maxBytesPerUser || size + PARTITION_OVERHEAD > maxBytes)
+            return false;
+        Partition partition = partitions.get(user);
+        // Sin partición puede haberse desalojado con su ticket de invalidación
+        if (partition != null ? partition.invalidatedAt > ticket : lastEviction > ticket)
+            return false;
+        if (partition == null) {
+            partition = new Partition();
+            partitions.put(user, partition);
+            bytes += partition.bytes;
+        }
+
+        CachedResponse previous = partition.entries.put(key, entry);
+        long delta = size - (previous == null ? 0 : previous.size());
+        partition.bytes += delta;
+        bytes += delta;
+        Iterator<Map.Entry<String, CachedResponse>> eldest = partition.entries.entrySet().iterator();
+        while (partition.bytes > maxBytesPerUser && eldest.hasNext()) {
+            Map.Entry<String, CachedResponse> evicted = eldest.next();
+            if (evicted.getKey().equals(key))
+                continue;
+            eldest.remove();
+            partition.bytes -= evicted.getValue().size();
+            bytes -= evicted.getValue().size();
+        }
+
+        evictUsers(user);
+        return true;
+    }
+
+    /**
+     * Descarta las entradas del usuario. La partición queda vacía (con el
+     * ticket de invalidación) para rechazar respuestas pedidas antes; cuenta
+     * su overhead en el presupuesto total y se desaloja como cualquier otra.
+     */
+    public synchronized void invalidate(String user) {
+        invalidations++;
+        Partition partition = partitions.get(user);
+        if (partition == null) {
+            partition = new Partition();
+            partitions.put(user, partition);
+            bytes += partition.bytes;
+        } else {
+            bytes -= partition.bytes - PARTITION_OVERHEAD;
+            partition.bytes = PARTITION_OVERHEAD;
+            partition.entries.clear();
+        }
+        partition.invalidatedAt = ++tickets;
+        evictUsers(user);
+    }
+
+    /** Desaloja particiones enteras, de la menos reciente, hasta entrar en maxBytes. */
+    private void evictUsers(String keep) {
+        Iterator<Map.Entry<String, Partition>> eldest = partitions.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Partition> evicted = eldest.next();
+            if (evicted.getKey().equals(keep))
+                continue;
+            eldest.remove();
+            bytes -= evicted.getValue().bytes;
+            evictedUsers++;
+            lastEviction = ++tickets;
+        }
+    }
+
+    private void release(String user, Partition partition, long size) {
+        partition.bytes -= size;
+        bytes -= size;
+        if (partition.entries.isEmpty() && partition.invalidatedAt == 0) {
+            partitions.remove(user);
+            bytes -= partition.bytes;
+        }
+    }
+
+    /** Usuarios con partición en memoria. */
+    public synchronized int users() {
+        return partitions.size();
+    }
+
+    public synchronized int size() {
+        int size = 0;
+        for (Partition partition : partitions.values())
+            size += partition.entries.size();
+        return size;
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    public synchronized long bytes(String user) {
+        Partition partition = partitions.get(user);
+        return partition == null ? 0 : partition.bytes - PARTITION_OVERHEAD;
+    }
+
+    public synchronized long invalidations() {
+        return invalidations;
+    }
+
+    /** Particiones desalojadas enteras por el presupuesto total. */
+    public synchronized long evictedUsers() {
+        return evictedUsers;
+    }
+}
@@ -0,0 +1,174 @@
+package com.videoclub.apigateway.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Cache de respuestas en memoria, LRU acotado por bytes, con persistencia
+ * opcional en un {@link MappedSnapshotStore}.
+ * 
+ * Las entradas se conservan más allá de su frescura (hasta staleUntil) para
+ * poder servirlas si el backend no responde. Cada alta, baja o desalojo se
+ * replica en el snapshot; al iniciar se recarga desde él.
+ * 
+ * Compactar el snapshot (reescribir el archivo y forzarlo a disco) no corre en
+ * el event loop: se programa en compactor (boundedElastic) y, mientras dura,
+ * los cambios solo quedan en memoria y disparan otra compactación al terminar.
+ */
+public class ResponseCache implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCache.class);
+
+    private final long maxBytes;
+    private final MappedSnapshotStore snapshot;
+    private final Scheduler compactor;
+    private final Object compaction = new Object();
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+    private boolean compacting;
+    private boolean dirty;
+    private boolean closed;
+
+    public ResponseCache(long maxBytes) {
+        this(maxBytes, null);
+    }
+
+    public ResponseCache(long maxBytes, MappedSnapshotStore snapshot) {
+        this(maxBytes, snapshot, Schedulers.boundedElastic());
+    }
+
+    public ResponseCache(long maxBytes, MappedSnapshotStore snapshot, Scheduler compactor) {
+        this.maxBytes = maxBytes;
+        this.snapshot = snapshot;
+        this.compactor = compactor;
+        if (snapshot != null) {
+            long start = System.nanoTime();
+            snapshot.load(System.currentTimeMillis()).forEach(this::putInMemory);
+            log.info("Cache de respuestas recargado: {} entradas, {} bytes en {} ms", entries.size(), bytes,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /** Entrada vigente (fresca o stale), o null si no existe o ya venció. */
+    public synchronized CachedResponse get(String key, long now) {
+        CachedResponse entry = entries.get(key);
+        if (entry != null && entry.expired(now)) {
+            remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    public synchronized void put(String key, CachedResponse entry) {
+        if (entry.size() > maxBytes)
+            return;
+        putInMemory(key, entry);
+        persist(() -> snapshot.put(key, entry));
+    }
+
+    public synchronized void remove(String key) {
+        CachedResponse removed = entries.remove(key);
+        if (removed == null)
+            return;
+        bytes -= removed.size();
+        persist(() -> snapshot.remove(key));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    /** Hay una compactación del snapshot programada o en curso. */
+    public synchronized boolean compacting() {
+        return compacting;
+    }
+
+    /** Completa una compactación pendiente antes de forzar el snapshot a disco. */
+    @Override
+    public void close() {
+        if (snapshot == null)
+            return;
+        boolean pending;
+        synchronized (this) {
+            closed = true;
+            pending = compacting;
+        }
+        if (pending) {
+            synchronized (compaction) {
+                snapshot.rewrite(live());
+            }
+        }
+        snapshot.close();
+    }
+
+    /**
+     * Registra el cambio en el log del snapshot. Si el log está lleno, o ya hay
+     * una compactación en marcha, la programa fuera del llamador.
+     */
+    private void persist(BooleanSupplier append) {
+        if (snapshot == null)
+            return;
+        if (compacting) {
+            dirty = true;
+            return;
+        }
+        if (!append.getAsBoolean()) {
+            compacting = true;
+            compactor.schedule(this::compact);
+        }
+    }
+
+    private void compact() {
+        synchronized (compaction) {
+            if (isClosed())
+                return;
+            try {
+                snapshot.rewrite(live());
+            } catch (UncheckedIOException e) {
+                log.warn("No se pudo compactar el snapshot del cache: {}", e.getMessage());
+            }
+        }
+        synchronized (this) {
+            if (dirty && !closed)
+                compactor.schedule(this::compact);
+            else
+                compacting = false;
+        }
+    }
+
+    /** Copia de las entradas en memoria; limpia dirty porque la copia ya las incluye. */
+    private synchronized Map<String, CachedResponse> live() {
+        dirty = false;
+        return new LinkedHashMap<>(entries);
+    }
+
+    private synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private void putInMemory(String key, CachedResponse entry) {
+        CachedResponse previous = entries.put(key, entry);
+        bytes += entry.size() - (previous == null ? 0 : previous.size());
+        Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, CachedResponse> evicted = eldest.next();
+            if (evicted.getKey().equals(key))
+                continue;
+            bytes -= evicted.getValue().size();
+            eldest.remove();
+            persist(() -> snapshot.remove(evicted.getKey()));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.videoclub.apigateway.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache de respuestas públicas por ruta ({@code videoclub.gateway.response-cache.*}).
+ * 
+ * Solo para rutas cuya respuesta no depende del usuario: la clave es ruta +
+ * path + query (ya canonizada por el contrato de query params) e ignora
+ * Authorization. Solo se cachean GET; respuestas con Set-Cookie, no-store o
+ * private nunca se guardan.
+ *
+ * @param enabled      activa el cache
+ * @param maxMemory    presupuesto de memoria (LRU por bytes)
+ * @param maxEntrySize cuerpo máximo cacheable por respuesta
+ * @param snapshot     persistencia en disco
+ * @param routes       política por id de ruta
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.response-cache")
+public record ResponseCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("64MB") DataSize maxMemory,
+        @DefaultValue("512KB") DataSize maxEntrySize,
+        @DefaultValue Snapshot snapshot,
+        @DefaultValue Map<String, RouteCache> routes) {
+
+    /**
+     * @param enabled  persiste el cache en un archivo mapeado en memoria
+     * @param file     ruta del archivo
+     * @param fileSize tamaño del archivo (al llenarse se compacta)
+     */
+    public record Snapshot(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("response-cache.bin") Path file,
+            @DefaultValue("64MB") DataSize fileSize) {
+    }
+
+    /**
+     * @param ttl               tiempo que una respuesta se sirve sin consultar al
+     *                          backend (con honorCacheHeaders, solo si el
+     *                          backend no indica frescura explícita)
+     * @param maxStale          tiempo adicional que puede servirse vencida si
+     *                          el backend no responde (con header Warning)
+     * @param honorCacheHeaders toma la frescura de Cache-Control / Expires del
+     *                          backend
+     * @param paths             patrones de path cacheables (vacío: todos)
+     */
+    public record RouteCache(
+            @DefaultValue("30s") Duration ttl,
+            @DefaultValue("1h") Duration maxStale,
+            @DefaultValue("false") boolean honorCacheHeaders,
+            @DefaultValue List<String> paths) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.videoclub.apigateway.capture;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Captura de tráfico real para reproducirlo en benchmarks
+ * ({@code videoclub.gateway.capture.*}).
+ *
+ * Solo se guardan metadatos (método, ruta, path, query, tiempos, status y
+ * tamaños de cuerpo): ni headers, ni cuerpos, ni tokens. Los valores de los
+ * parámetros de query en redacted-params se reemplazan por "-".
+ *
+ * @param enabled        registra el filtro de captura
+ * @param directory      directorio de los logs; cada arranque crea un
+ *                       traffic-&lt;fecha&gt;.vcap nuevo
+ * @param maxFileSize    tamaño al que se deja de capturar
+ * @param sampleRate     fracción de las peticiones capturadas (0-1)
+ * @param queueCapacity  registros pendientes de escribir; con la cola llena
+ *                       se descartan (gateway.capture.dropped)
+ * @param redactedParams parámetros de query cuyo valor no se guarda
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.capture")
+public record CaptureProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("capture") Path directory,
+        @DefaultValue("256MB") DataSize maxFileSize,
+        @DefaultValue("1.0") double sampleRate,
+        @DefaultValue("8192") int queueCapacity,
+        @DefaultValue({ "token", "access_token", "id_token", "refresh_token", "code", "state", "password",
+                "secret", "key", "api_key", "signature" }) Set<String> redactedParams) {
+}
@@ -0,0 +1,30 @@
+package com.videoclub.apigateway.capture;
+
+/**
+ * Metadatos de una petición capturada.
+ *
+ * @param startMicros    inicio, en µs desde el comienzo de la captura
+ * @param durationMicros tiempo hasta completar la respuesta en el gateway
+ * @param method         método HTTP
+ * @param routeId        ruta que la atendió ("" si ninguna)
+ * @param path           path tal como lo envió el cliente
+ * @param query          query cruda, con los parámetros sensibles redactados
+ * @param contentType    Content-Type de la petición ("" si no tiene cuerpo)
+ * @param requestBytes   bytes del cuerpo de la petición
+ * @param responseBytes  bytes del cuerpo de la respuesta
+ * @param status         status de la respuesta (0 si terminó en error o se cortó antes de fijarlo)
+ * @param authenticated  si traía credenciales (el token no se guarda)
+ */
+public record CapturedRequest(
+        long startMicros,
+        long durationMicros,
+        String method,
+        String routeId,
+        String path,
+        String query,
+        String contentType,
+        long requestBytes,
+        long responseBytes,
+        int status,
+        boolean authenticated) {
+}
@@ -0,0 +1,176 @@
+package com.videoclub.apigateway.capture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Captura de tráfico hacia un log binario (ver {@link TrafficLogWriter}).
+ *
+ * Los filtros encolan registros sin bloquear; un hilo propio los escribe.
+ * Con la cola llena el registro se descarta, y al llegar a max-file-size se
+ * deja de capturar: la captura nunca frena al tráfico.
+ */
+public class TrafficCapture implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficCapture.class);
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final CaptureProperties properties;
+    private final BlockingQueue<CapturedRequest> queue;
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final long startNanos = System.nanoTime();
+    private volatile TrafficLogWriter writer;
+    private volatile Thread thread;
+    private volatile boolean accepting;
+    private volatile Path file;
+
+    public TrafficCapture(CaptureProperties properties) {
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+    }
+
+    /** Sortea si se captura una petición según sample-rate. */
+    public boolean sample() {
+        return accepting && (properties.sampleRate() >= 1
+                || ThreadLocalRandom.current().nextDouble() < properties.sampleRate());
+    }
+
+    /** µs transcurridos desde el inicio de la captura hasta nanoTime. */
+    public long offsetMicros(long nanoTime) {
+        return TimeUnit.NANOSECONDS.toMicros(nanoTime - startNanos);
+    }
+
+    public void record(CapturedRequest request) {
+        if (!accepting || !queue.offer(request))
+            dropped.increment();
+    }
+
+    /** Query cruda con los valores de redacted-params reemplazados por "-". */
+    public String redact(String rawQuery) {
+        return redact(rawQuery, properties.redactedParams());
+    }
+
+    static String redact(String rawQuery, Set<String> redactedParams) {
+        if (rawQuery == null || rawQuery.isEmpty())
+            return "";
+        StringBuilder redacted = new StringBuilder(rawQuery.length());
+        for (String pair : rawQuery.split("&")) {
+            if (!redacted.isEmpty())
+                redacted.append('&');
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            if (eq >= 0 && redactedParams.contains(name.toLowerCase(Locale.ROOT)))
+                redacted.append(name).append("=-");
+            else
+                redacted.append(pair);
+        }
+        return redacted.toString();
+    }
+
+    public long recorded() {
+        return recorded.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /** Bytes escritos en el log en curso. */
+    public long bytes() {
+        TrafficLogWriter current = writer;
+        return current == null ? 0 : current.size();
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    @Override
+    public void start() {
+        try {
+            Files.createDirectories(properties.directory());
+            Path target = properties.directory().resolve("traffic-" + LocalDateTime.now().format(FILE_DATE) + ".vcap");
+            OutputStream out = Files.newOutputStream(target, StandardOpenOption.CREATE_NEW);
+            writer = new TrafficLogWriter(out, System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(
+                    System.nanoTime() - startNanos));
+            file = target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el log de captura en " + properties.directory(), e);
+        }
+        accepting = true;
+        Thread worker = new Thread(this::drain, "traffic-capture");
+        worker.setDaemon(true);
+        thread = worker;
+        worker.start();
+        log.warn("Captura de tráfico activa en {} (sample-rate {})", file.toAbsolutePath(),
+                properties.sampleRate());
+    }
+
+    @Override
+    public void stop() {
+        accepting = false;
+        Thread worker = thread;
+        if (worker != null) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        thread = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    @Override
+    public int getPhase() {
+        // Se detiene después del drenado (fase Integer.MAX_VALUE), con las últimas peticiones ya encoladas
+        return Integer.MAX_VALUE - 1;
+    }
+
+    private void drain() {
+        TrafficLogWriter out = writer;
+        try (out) {
+            while (accepting || !queue.isEmpty()) {
+                CapturedRequest request = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (request == null) {
+                    out.flush();
+                    continue;
+                }
+                out.write(request);
+                recorded.increment();
+                if (accepting && out.size() >= properties.maxFileSize().toBytes()) {
+                    accepting = false;
+                    log.warn("Log de captura {} lleno ({} registros): se deja de capturar", file, recorded());
+                }
+            }
+        } catch (IOException e) {
+            accepting = false;
+            log.error("Error escribiendo el log de captura {}: se deja de capturar", file, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Captura de tráfico cerrada: {} registros, {} descartados", recorded(), dropped());
+    }
+}
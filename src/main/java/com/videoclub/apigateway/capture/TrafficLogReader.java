@@ -0,0 +1,118 @@
+package com.videoclub.apigateway.capture;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lectura secuencial de un log de captura (formato en {@link TrafficLogWriter}).
+ * Un registro truncado al final (captura cortada a mitad de escritura) se
+ * trata como fin del log.
+ */
+public class TrafficLogReader implements Closeable {
+
+    private final InputStream in;
+    private final long startEpochMillis;
+    private final List<String> dictionary = new ArrayList<>();
+    private long lastStartMicros;
+
+    public TrafficLogReader(InputStream in) throws IOException {
+        this.in = new BufferedInputStream(in, 64 * 1024);
+        byte[] magic = this.in.readNBytes(TrafficLogWriter.MAGIC.length);
+        if (!Arrays.equals(magic, TrafficLogWriter.MAGIC))
+            throw new IOException("No es un log de captura (.vcap)");
+        int version = this.in.read();
+        if (version != TrafficLogWriter.VERSION)
+            throw new IOException("Versión de log de captura no soportada: " + version);
+        long start = 0;
+        for (int i = 0; i < 8; i++)
+            start = (start << 8) | readByte();
+        startEpochMillis = start;
+    }
+
+    /** Inicio de la captura, en epoch ms. */
+    public long startEpochMillis() {
+        return startEpochMillis;
+    }
+
+    /** Siguiente registro, o null al final del log. */
+    public CapturedRequest next() throws IOException {
+        int first = in.read();
+        if (first < 0)
+            return null;
+        try {
+            long zigzag = readVarint(first);
+            long startMicros = lastStartMicros + ((zigzag >>> 1) ^ -(zigzag & 1));
+            long durationMicros = readVarint(readByte());
+            int status = (int) readVarint(readByte());
+            boolean authenticated = (readVarint(readByte()) & 1) != 0;
+            long requestBytes = readVarint(readByte());
+            long responseBytes = readVarint(readByte());
+            CapturedRequest request = new CapturedRequest(startMicros, durationMicros, readString(), readString(),
+                    readString(), readString(), readString(), requestBytes, responseBytes, status, authenticated);
+            lastStartMicros = startMicros;
+            return request;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /** Todos los registros restantes. */
+    public List<CapturedRequest> readAll() throws IOException {
+        List<CapturedRequest> requests = new ArrayList<>();
+        for (CapturedRequest request = next(); request != null; request = next())
+            requests.add(request);
+        return requests;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String readString() throws IOException {
+        long ref = readVarint(readByte());
+        if (ref == 0)
+            return "";
+        if (ref > 1) {
+            if (ref - 2 >= dictionary.size())
+                throw new IOException("Referencia de diccionario inválida: " + ref);
+            return dictionary.get((int) (ref - 2));
+        }
+        int length = (int) readVarint(readByte());
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length)
+            throw new EOFException();
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        if (dictionary.size() < TrafficLogWriter.MAX_DICTIONARY)
+            dictionary.add(value);
+        return value;
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0)
+            throw new EOFException();
+        return b;
+    }
+
+    private long readVarint(int first) throws IOException {
+        long value = first & 0x7F;
+        int shift = 7;
+        int b = first;
+        while ((b & 0x80) != 0) {
+            if (shift > 63)
+                throw new IOException("Varint inválido");
+            b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }
+        return value;
+    }
+}
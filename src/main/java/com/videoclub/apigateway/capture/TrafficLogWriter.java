@@ -0,0 +1,109 @@
+package com.videoclub.apigateway.capture;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Escritura del log binario de captura (.vcap).
+ *
+ * Formato (enteros como varint sin signo, LEB128):
+ *
+ * - cabecera: "VCAP", versión (1 byte), inicio de la captura en epoch ms
+ * (8 bytes big-endian)
+ * - registro: startMicros (diferencia con el registro anterior, en zigzag:
+ * se escriben al completar, así que no siempre crecen), durationMicros,
+ * status, flags (bit 0: authenticated), requestBytes, responseBytes y las
+ * cadenas method, routeId, path, query, contentType
+ * - cadena: 0 = vacía; 1 = literal (longitud + UTF-8) que además toma el
+ * siguiente índice del diccionario; n &ge; 2 = entrada n - 2 del
+ * diccionario. Rutas, paths y métodos se repiten mucho, así que la mayoría
+ * de los registros ocupa unos 15 bytes.
+ *
+ * No es thread-safe: la usa solo el hilo de {@link TrafficCapture}.
+ */
+public class TrafficLogWriter implements Closeable {
+
+    static final byte[] MAGIC = { 'V', 'C', 'A', 'P' };
+    static final int VERSION = 1;
+    /** Tope del diccionario; pasado este punto las cadenas nuevas van como literal sin índice. */
+    static final int MAX_DICTIONARY = 65_536;
+
+    private final OutputStream out;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private long size;
+    private long lastStartMicros;
+
+    public TrafficLogWriter(OutputStream out, long startEpochMillis) throws IOException {
+        this.out = new BufferedOutputStream(out, 64 * 1024);
+        this.out.write(MAGIC);
+        this.out.write(VERSION);
+        for (int shift = 56; shift >= 0; shift -= 8)
+            this.out.write((int) (startEpochMillis >>> shift));
+        size = MAGIC.length + 1 + 8;
+    }
+
+    public void write(CapturedRequest request) throws IOException {
+        long delta = request.startMicros() - lastStartMicros;
+        lastStartMicros = request.startMicros();
+        writeVarint((delta << 1) ^ (delta >> 63));
+        writeVarint(Math.max(0, request.durationMicros()));
+        writeVarint(request.status());
+        writeVarint(request.authenticated() ? 1 : 0);
+        writeVarint(request.requestBytes());
+        writeVarint(request.responseBytes());
+        writeString(request.method());
+        writeString(request.routeId());
+        writeString(request.path());
+        writeString(request.query());
+        writeString(request.contentType());
+    }
+
+    /** Bytes escritos, incluida la cabecera. */
+    public long size() {
+        return size;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            writeVarint(0);
+            return;
+        }
+        Integer index = dictionary.get(value);
+        if (index != null) {
+            writeVarint(index + 2L);
+            return;
+        }
+        if (dictionary.size() < MAX_DICTIONARY)
+            dictionary.put(value, dictionary.size());
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(1);
+        writeVarint(bytes.length);
+        out.write(bytes);
+        size += bytes.length;
+    }
+
+    private void writeVarint(long value) throws IOException {
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+            size++;
+        }
+        out.write((int) v);
+        size++;
+    }
+}
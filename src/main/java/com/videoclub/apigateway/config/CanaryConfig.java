@@ -0,0 +1,37 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.balancer.CanaryController;
+import com.videoclub.apigateway.balancer.CanaryEndpoint;
+import com.videoclub.apigateway.balancer.CanaryProperties;
+import com.videoclub.apigateway.balancer.ServiceRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Ruteo canary ponderado entre versiones de un servicio, con rollback
+ * automático por p99 o tasa de error. El LoadBalancerGlobalFilter consulta
+ * el {@link CanaryController} al resolver {@code lb://<servicio>}.
+ *
+ * Pesos y estado en /actuator/canary.
+ *
+ * Se desactiva con videoclub.gateway.canary.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(CanaryProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.canary", name = "enabled", matchIfMissing = true)
+public class CanaryConfig {
+
+    @Bean
+    public CanaryController canaryController(CanaryProperties properties, ServiceRegistry registry,
+            MeterRegistry meterRegistry) {
+        return new CanaryController(properties, registry, meterRegistry);
+    }
+
+    @Bean
+    public CanaryEndpoint canaryEndpoint(CanaryController controller, CanaryProperties properties) {
+        return new CanaryEndpoint(controller, properties);
+    }
+}
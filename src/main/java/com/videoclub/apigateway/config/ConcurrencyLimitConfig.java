@@ -0,0 +1,33 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.filter.AdaptiveConcurrencyGlobalFilter;
+import com.videoclub.apigateway.resilience.ConcurrencyLimitProperties;
+import com.videoclub.apigateway.resilience.ConcurrencyLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Límite de concurrencia adaptativo por backend, calculado en proceso a
+ * partir de la latencia observada.
+ * 
+ * Se desactiva con videoclub.gateway.concurrency.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.concurrency", name = "enabled", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public ConcurrencyLimiterRegistry concurrencyLimiterRegistry(ConcurrencyLimitProperties properties,
+            MeterRegistry meterRegistry) {
+        return new ConcurrencyLimiterRegistry(properties, meterRegistry);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyGlobalFilter adaptiveConcurrencyGlobalFilter(ConcurrencyLimiterRegistry registry) {
+        return new AdaptiveConcurrencyGlobalFilter(registry);
+    }
+}
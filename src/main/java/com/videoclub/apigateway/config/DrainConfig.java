@@ -0,0 +1,61 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.filter.DrainWebFilter;
+import com.videoclub.apigateway.health.DrainEndpoint;
+import com.videoclub.apigateway.health.DrainProperties;
+import com.videoclub.apigateway.health.GracefulDrain;
+import com.videoclub.apigateway.health.InFlightExchanges;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Drenaje por etapas al apagar: readiness fuera de servicio,
+ * {@code Connection: close} en las respuestas, cierre del puerto y espera de
+ * las peticiones en vuelo.
+ *
+ * Publica gateway.inflight (gauge) y el endpoint /actuator/drain con el
+ * detalle por ruta. El socket de escucha se obtiene del servidor Netty al
+ * enlazarse.
+ *
+ * Se desactiva con videoclub.gateway.drain.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(DrainProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.drain", name = "enabled", matchIfMissing = true)
+public class DrainConfig {
+
+    @Bean
+    public InFlightExchanges inFlightExchanges(MeterRegistry meterRegistry) {
+        InFlightExchanges inFlight = new InFlightExchanges();
+        Gauge.builder("gateway.inflight", inFlight, InFlightExchanges::total).register(meterRegistry);
+        return inFlight;
+    }
+
+    @Bean
+    public GracefulDrain gracefulDrain(DrainProperties properties, InFlightExchanges inFlight,
+            ApplicationEventPublisher publisher) {
+        return new GracefulDrain(properties, inFlight, publisher);
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> drainServerCustomizer(GracefulDrain drain) {
+        return factory -> factory.addServerCustomizers(server -> server.doOnBound(drain::bound));
+    }
+
+    @Bean
+    public DrainWebFilter drainWebFilter(GracefulDrain drain, InFlightExchanges inFlight) {
+        return new DrainWebFilter(drain, inFlight);
+    }
+
+    @Bean
+    public DrainEndpoint drainEndpoint(GracefulDrain drain) {
+        return new DrainEndpoint(drain);
+    }
+}
@@ -0,0 +1,64 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.balancer.ServiceRegistry;
+import com.videoclub.apigateway.events.EventFanout;
+import com.videoclub.apigateway.events.EventStreamHandler;
+import com.videoclub.apigateway.events.EventStreamProperties;
+import com.videoclub.apigateway.events.TopicHub;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Notificaciones de cambios del catálogo por SSE en
+ * videoclub.gateway.events.path (por defecto /api/eventos/{tópico}). El
+ * endpoint lo atiende el propio gateway, no se rutea.
+ *
+ * Publica gateway.sse.connections, gateway.sse.events, gateway.sse.dropped
+ * y gateway.sse.upstream.errors por tópico, gateway.sse.rejected y el timer
+ * gateway.sse.fanout (publicación del evento hasta que el writer del cliente
+ * lo toma).
+ */
+@Configuration
+@EnableConfigurationProperties(EventStreamProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.events", name = "enabled", matchIfMissing = true)
+public class EventStreamConfig {
+
+    @Bean
+    public EventFanout eventFanout(EventStreamProperties properties, ServiceRegistry registry,
+            WebClient.Builder webClientBuilder, MeterRegistry meterRegistry) {
+        EventFanout fanout = new EventFanout(properties, registry, webClientBuilder.build(),
+                topic -> new TopicHub(topic, properties.clientBuffer(), Timer.builder("gateway.sse.fanout")
+                        .tag("topic", topic)
+                        .publishPercentiles(0.5, 0.99)
+                        .register(meterRegistry)));
+        fanout.hubs().forEach((topic, hub) -> {
+            Gauge.builder("gateway.sse.connections", hub, TopicHub::connections).tag("topic", topic)
+                    .register(meterRegistry);
+            FunctionCounter.builder("gateway.sse.events", hub, TopicHub::published).tag("topic", topic)
+                    .register(meterRegistry);
+            FunctionCounter.builder("gateway.sse.dropped", hub, TopicHub::dropped).tag("topic", topic)
+                    .register(meterRegistry);
+            FunctionCounter.builder("gateway.sse.upstream.errors", fanout, f -> f.upstreamErrors(topic))
+                    .tag("topic", topic).register(meterRegistry);
+        });
+        FunctionCounter.builder("gateway.sse.rejected", fanout, EventFanout::rejected).register(meterRegistry);
+        return fanout;
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> eventStreamRoutes(EventStreamProperties properties, EventFanout fanout) {
+        EventStreamHandler handler = new EventStreamHandler(fanout);
+        return RouterFunctions.route(RequestPredicates.GET(properties.path() + "/{topic}"), handler::stream);
+    }
+}
@@ -0,0 +1,48 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.fault.FaultInjectionProperties;
+import com.videoclub.apigateway.fault.FaultInjector;
+import com.videoclub.apigateway.fault.FaultsEndpoint;
+import com.videoclub.apigateway.filter.FaultInjectionGlobalFilter;
+import com.videoclub.apigateway.filter.FaultThrottleGlobalFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Inyección de fallas por ruta (latencia, errores, conexiones abortadas y
+ * cuerpos lentos) para reproducir en local timeouts, expulsiones y descarte
+ * de carga contra backends que responden al instante.
+ *
+ * Fallas vigentes e inyectadas en /actuator/faults y en
+ * gateway.faults.injected.
+ *
+ * Desactivada por defecto; se activa con videoclub.gateway.faults.enabled=true.
+ */
+@Configuration
+@EnableConfigurationProperties(FaultInjectionProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.faults", name = "enabled", havingValue = "true")
+public class FaultInjectionConfig {
+
+    @Bean
+    public FaultInjector faultInjector(FaultInjectionProperties properties, MeterRegistry meterRegistry) {
+        return new FaultInjector(properties, meterRegistry);
+    }
+
+    @Bean
+    public FaultInjectionGlobalFilter faultInjectionGlobalFilter(FaultInjector injector) {
+        return new FaultInjectionGlobalFilter(injector);
+    }
+
+    @Bean
+    public FaultThrottleGlobalFilter faultThrottleGlobalFilter(FaultInjector injector) {
+        return new FaultThrottleGlobalFilter(injector);
+    }
+
+    @Bean
+    public FaultsEndpoint faultsEndpoint(FaultInjector injector, FaultInjectionProperties properties) {
+        return new FaultsEndpoint(injector, properties);
+    }
+}
@@ -0,0 +1,31 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.balancer.ServiceRegistry;
+import com.videoclub.apigateway.health.ActiveHealthChecker;
+import com.videoclub.apigateway.health.BackendsHealthIndicator;
+import com.videoclub.apigateway.health.HealthCheckProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Salud de los backends: probe activo periódico (desactivable con
+ * videoclub.gateway.health-check.enabled=false) y componente "backends" en
+ * /actuator/health. La expulsión pasiva por errores vive en el balanceador.
+ */
+@Configuration
+public class HealthCheckConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "videoclub.gateway.health-check", name = "enabled", matchIfMissing = true)
+    public ActiveHealthChecker activeHealthChecker(ServiceRegistry registry, HealthCheckProperties properties,
+            WebClient.Builder webClientBuilder) {
+        return new ActiveHealthChecker(registry, properties, webClientBuilder.build());
+    }
+
+    @Bean
+    public BackendsHealthIndicator backendsHealthIndicator(ServiceRegistry registry) {
+        return new BackendsHealthIndicator(registry);
+    }
+}
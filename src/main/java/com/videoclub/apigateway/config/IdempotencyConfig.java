@@ -0,0 +1,44 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.filter.IdempotencyGlobalFilter;
+import com.videoclub.apigateway.idempotency.IdempotencyProperties;
+import com.videoclub.apigateway.idempotency.IdempotencyStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Claves de idempotencia para los POST de compra, publicado en Micrometer:
+ * - gateway.idempotency.entries (gauge)
+ * - gateway.idempotency.replayed / attached / mismatched (contadores)
+ * 
+ * Se desactiva con videoclub.gateway.idempotency.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.idempotency", name = "enabled", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        IdempotencyStore store = new IdempotencyStore(properties.maxEntries());
+        Gauge.builder("gateway.idempotency.entries", store, IdempotencyStore::size).register(meterRegistry);
+        FunctionCounter.builder("gateway.idempotency.replayed", store, IdempotencyStore::replayed)
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.idempotency.attached", store, IdempotencyStore::attached)
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.idempotency.mismatched", store, IdempotencyStore::mismatched)
+                .register(meterRegistry);
+        return store;
+    }
+
+    @Bean
+    public IdempotencyGlobalFilter idempotencyGlobalFilter(IdempotencyStore store,
+            IdempotencyProperties properties) {
+        return new IdempotencyGlobalFilter(store, properties);
+    }
+}
@@ -0,0 +1,33 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.balancer.CanaryController;
+import com.videoclub.apigateway.balancer.LoadBalancerProperties;
+import com.videoclub.apigateway.balancer.ServiceRegistry;
+import com.videoclub.apigateway.filter.LoadBalancerGlobalFilter;
+import com.videoclub.apigateway.health.HealthCheckProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Balanceo client-side para rutas {@code lb://<servicio>} sobre instancias
+ * declaradas en videoclub.gateway.load-balancer.services.
+ */
+@Configuration
+@EnableConfigurationProperties({ LoadBalancerProperties.class, HealthCheckProperties.class })
+public class LoadBalancerConfig {
+
+    @Bean
+    public ServiceRegistry serviceRegistry(LoadBalancerProperties properties, HealthCheckProperties healthCheck,
+            MeterRegistry meterRegistry) {
+        return new ServiceRegistry(properties, healthCheck, meterRegistry);
+    }
+
+    @Bean
+    public LoadBalancerGlobalFilter loadBalancerGlobalFilter(ServiceRegistry registry,
+            ObjectProvider<CanaryController> canary) {
+        return new LoadBalancerGlobalFilter(registry, canary.getIfAvailable());
+    }
+}
@@ -0,0 +1,62 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.filter.PriorityLoadSheddingGlobalFilter;
+import com.videoclub.apigateway.resilience.AdmissionController;
+import com.videoclub.apigateway.resilience.LoadSheddingProperties;
+import com.videoclub.apigateway.resilience.LoadSignalSampler;
+import com.videoclub.apigateway.resilience.Priority;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ReactorResourceFactory;
+
+/**
+ * Descarte de carga por prioridad de ruta, publicado en Micrometer:
+ * - gateway.shedding.pressure / inflight / event-loop.lag / pending-acquires
+ * (gauges)
+ * - gateway.shedding.admitted / shed por prioridad (contadores)
+ * 
+ * Se desactiva con videoclub.gateway.load-shedding.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(LoadSheddingProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.load-shedding", name = "enabled", matchIfMissing = true)
+public class LoadSheddingConfig {
+
+    @Bean
+    public AdmissionController admissionController(LoadSheddingProperties properties, MeterRegistry meterRegistry) {
+        AdmissionController controller = new AdmissionController(properties);
+        Gauge.builder("gateway.shedding.pressure", controller, AdmissionController::pressure)
+                .register(meterRegistry);
+        Gauge.builder("gateway.shedding.inflight", controller, AdmissionController::inFlight)
+                .register(meterRegistry);
+        Gauge.builder("gateway.shedding.event-loop.lag", controller, AdmissionController::eventLoopLagMillis)
+                .baseUnit("milliseconds").register(meterRegistry);
+        Gauge.builder("gateway.shedding.pending-acquires", controller, AdmissionController::pendingAcquires)
+                .register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            FunctionCounter.builder("gateway.shedding.admitted", controller, c -> c.admitted(priority))
+                    .tag("priority", priority.name()).register(meterRegistry);
+            FunctionCounter.builder("gateway.shedding.shed", controller, c -> c.shed(priority))
+                    .tag("priority", priority.name()).register(meterRegistry);
+        }
+        return controller;
+    }
+
+    @Bean
+    public LoadSignalSampler loadSignalSampler(AdmissionController controller, LoadSheddingProperties properties,
+            ReactorResourceFactory resourceFactory, MeterRegistry meterRegistry) {
+        return new LoadSignalSampler(controller, resourceFactory.getLoopResources().onServer(true), meterRegistry,
+                properties.sampleInterval());
+    }
+
+    @Bean
+    public PriorityLoadSheddingGlobalFilter priorityLoadSheddingGlobalFilter(AdmissionController controller,
+            LoadSheddingProperties properties) {
+        return new PriorityLoadSheddingGlobalFilter(controller, properties);
+    }
+}
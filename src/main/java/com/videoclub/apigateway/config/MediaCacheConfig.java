@@ -0,0 +1,51 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.cache.CacheStats;
+import com.videoclub.apigateway.cache.MediaCache;
+import com.videoclub.apigateway.cache.MediaCacheProperties;
+import com.videoclub.apigateway.filter.MediaCacheGlobalFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache local de medios con soporte de Range, publicado en Micrometer:
+ * - gateway.media.cache.entries / bytes (gauges)
+ * - gateway.media.cache.evictions (contador)
+ * - gateway.media.cache.hits / misses por ruta (contadores)
+ * 
+ * Se desactiva con videoclub.gateway.media-cache.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(MediaCacheProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.media-cache", name = "enabled", matchIfMissing = true)
+public class MediaCacheConfig {
+
+    @Bean
+    public MediaCache mediaCache(MediaCacheProperties properties, MeterRegistry meterRegistry) {
+        MediaCache cache = new MediaCache(properties.directory(), properties.maxSize().toBytes());
+        Gauge.builder("gateway.media.cache.entries", cache, MediaCache::size).register(meterRegistry);
+        Gauge.builder("gateway.media.cache.bytes", cache, MediaCache::bytes).baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.media.cache.evictions", cache, MediaCache::evictions)
+                .register(meterRegistry);
+        return cache;
+    }
+
+    @Bean
+    public MediaCacheGlobalFilter mediaCacheGlobalFilter(MediaCache cache, MediaCacheProperties properties,
+            MeterRegistry meterRegistry) {
+        MediaCacheGlobalFilter filter = new MediaCacheGlobalFilter(cache, properties);
+        filter.stats().forEach((routeId, stats) -> {
+            FunctionCounter.builder("gateway.media.cache.hits", stats, CacheStats::hits)
+                    .tag("route", routeId).register(meterRegistry);
+            FunctionCounter.builder("gateway.media.cache.misses", stats, CacheStats::misses)
+                    .tag("route", routeId).register(meterRegistry);
+        });
+        return filter;
+    }
+}
@@ -0,0 +1,59 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.cache.CacheStats;
+import com.videoclub.apigateway.cache.PrivateCacheProperties;
+import com.videoclub.apigateway.cache.PrivateResponseCache;
+import com.videoclub.apigateway.filter.PrivateCacheGlobalFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache privado por usuario para GET autenticados, publicado en Micrometer:
+ * - gateway.cache.private.users / entries / bytes (gauges)
+ * - gateway.cache.private.invalidations / evicted.users (contadores)
+ * - gateway.cache.private.hits / misses por ruta (contadores)
+ * - gateway.cache.private.hit.ratio por ruta (gauge)
+ *
+ * Se desactiva con videoclub.gateway.private-cache.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(PrivateCacheProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.private-cache", name = "enabled", matchIfMissing = true)
+public class PrivateCacheConfig {
+
+    @Bean
+    public PrivateResponseCache privateResponseCache(PrivateCacheProperties properties,
+            MeterRegistry meterRegistry) {
+        PrivateResponseCache cache = new PrivateResponseCache(properties.maxMemory().toBytes(),
+                properties.maxMemoryPerUser().toBytes());
+        Gauge.builder("gateway.cache.private.users", cache, PrivateResponseCache::users).register(meterRegistry);
+        Gauge.builder("gateway.cache.private.entries", cache, PrivateResponseCache::size).register(meterRegistry);
+        Gauge.builder("gateway.cache.private.bytes", cache, PrivateResponseCache::bytes).baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.cache.private.invalidations", cache, PrivateResponseCache::invalidations)
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.cache.private.evicted.users", cache, PrivateResponseCache::evictedUsers)
+                .register(meterRegistry);
+        return cache;
+    }
+
+    @Bean
+    public PrivateCacheGlobalFilter privateCacheGlobalFilter(PrivateResponseCache cache,
+            PrivateCacheProperties properties, MeterRegistry meterRegistry) {
+        PrivateCacheGlobalFilter filter = new PrivateCacheGlobalFilter(cache, properties);
+        filter.stats().forEach((routeId, stats) -> {
+            FunctionCounter.builder("gateway.cache.private.hits", stats, CacheStats::hits)
+                    .tag("route", routeId).register(meterRegistry);
+            FunctionCounter.builder("gateway.cache.private.misses", stats, CacheStats::misses)
+                    .tag("route", routeId).register(meterRegistry);
+            Gauge.builder("gateway.cache.private.hit.ratio", stats, CacheStats::hitRatio)
+                    .tag("route", routeId).register(meterRegistry);
+        });
+        return filter;
+    }
+}
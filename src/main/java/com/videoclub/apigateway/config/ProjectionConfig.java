@@ -0,0 +1,40 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.filter.FieldProjectionGlobalFilter;
+import com.videoclub.apigateway.transform.ProjectionProperties;
+import com.videoclub.apigateway.transform.TransformStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Proyección de campos ({@code ?fields=}) por ruta, publicada en Micrometer:
+ * - gateway.projection.responses por ruta (contador)
+ * - gateway.projection.bytes.in / bytes.out por ruta (contadores): bytes del
+ * backend contra bytes enviados al cliente en respuestas proyectadas
+ * 
+ * Se desactiva con videoclub.gateway.projection.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(ProjectionProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.projection", name = "enabled", matchIfMissing = true)
+public class ProjectionConfig {
+
+    @Bean
+    public FieldProjectionGlobalFilter fieldProjectionGlobalFilter(ProjectionProperties properties,
+            MeterRegistry meterRegistry) {
+        FieldProjectionGlobalFilter filter = new FieldProjectionGlobalFilter(properties);
+        filter.stats().forEach((routeId, stats) -> {
+            FunctionCounter.builder("gateway.projection.responses", stats, TransformStats::responses)
+                    .tag("route", routeId).register(meterRegistry);
+            FunctionCounter.builder("gateway.projection.bytes.in", stats, TransformStats::bytesIn)
+                    .baseUnit("bytes").tag("route", routeId).register(meterRegistry);
+            FunctionCounter.builder("gateway.projection.bytes.out", stats, TransformStats::bytesOut)
+                    .baseUnit("bytes").tag("route", routeId).register(meterRegistry);
+        });
+        return filter;
+    }
+}
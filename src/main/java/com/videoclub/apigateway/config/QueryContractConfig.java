@@ -0,0 +1,24 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.contract.QueryContractProperties;
+import com.videoclub.apigateway.filter.QueryContractGlobalFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Validación en runtime de los contratos de query params por ruta.
+ * 
+ * Se desactiva con videoclub.gateway.query-contracts.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(QueryContractProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.query-contracts", name = "enabled", matchIfMissing = true)
+public class QueryContractConfig {
+
+    @Bean
+    public QueryContractGlobalFilter queryContractGlobalFilter(QueryContractProperties properties) {
+        return new QueryContractGlobalFilter(properties);
+    }
+}
@@ -0,0 +1,57 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.cache.CacheStats;
+import com.videoclub.apigateway.cache.MappedSnapshotStore;
+import com.videoclub.apigateway.cache.ResponseCache;
+import com.videoclub.apigateway.cache.ResponseCacheProperties;
+import com.videoclub.apigateway.filter.ResponseCacheGlobalFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache de respuestas públicas por ruta, con snapshot opcional en disco,
+ * publicado en Micrometer:
+ * - gateway.cache.entries / bytes (gauges)
+ * - gateway.cache.hits / misses / stale por ruta (contadores)
+ * - gateway.cache.hit.ratio por ruta (gauge)
+ * 
+ * Se desactiva con videoclub.gateway.response-cache.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.response-cache", name = "enabled", matchIfMissing = true)
+public class ResponseCacheConfig {
+
+    @Bean
+    public ResponseCache responseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        ResponseCacheProperties.Snapshot snapshot = properties.snapshot();
+        ResponseCache cache = new ResponseCache(properties.maxMemory().toBytes(), snapshot.enabled()
+                ? new MappedSnapshotStore(snapshot.file(), Math.toIntExact(snapshot.fileSize().toBytes()))
+                : null);
+        Gauge.builder("gateway.cache.entries", cache, ResponseCache::size).register(meterRegistry);
+        Gauge.builder("gateway.cache.bytes", cache, ResponseCache::bytes).baseUnit("bytes").register(meterRegistry);
+        return cache;
+    }
+
+    @Bean
+    public ResponseCacheGlobalFilter responseCacheGlobalFilter(ResponseCache cache,
+            ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        ResponseCacheGlobalFilter filter = new ResponseCacheGlobalFilter(cache, properties);
+        filter.stats().forEach((routeId, stats) -> {
+            FunctionCounter.builder("gateway.cache.hits", stats, CacheStats::hits)
+                    .tag("route", routeId).register(meterRegistry);
+            FunctionCounter.builder("gateway.cache.misses", stats, CacheStats::misses)
+                    .tag("route", routeId).register(meterRegistry);
+            FunctionCounter.builder("gateway.cache.stale", stats, CacheStats::stale)
+                    .tag("route", routeId).register(meterRegistry);
+            Gauge.builder("gateway.cache.hit.ratio", stats, CacheStats::hitRatio)
+                    .tag("route", routeId).register(meterRegistry);
+        });
+        return filter;
+    }
+}
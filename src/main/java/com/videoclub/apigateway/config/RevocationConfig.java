@@ -0,0 +1,52 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.security.RevocationFileWatcher;
+import com.videoclub.apigateway.security.RevocationList;
+import com.videoclub.apigateway.security.RevocationProperties;
+import com.videoclub.apigateway.security.RevocationsEndpoint;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Revocación de tokens y sesiones (jti / sid) antes de su exp, publicada en
+ * Micrometer:
+ * - gateway.revocation.entries (gauge)
+ * - gateway.revocation.filter.positives / rejected (contadores): positivos del
+ * filtro de Bloom y los confirmados por el conjunto exacto
+ * 
+ * El validador se agrega al JwtDecoder en SecurityConfig. Se desactiva con
+ * videoclub.gateway.revocation.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(RevocationProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.revocation", name = "enabled", matchIfMissing = true)
+public class RevocationConfig {
+
+    @Bean
+    public RevocationList revocationList(RevocationProperties properties, MeterRegistry meterRegistry) {
+        RevocationList revocations = new RevocationList(properties.expectedRevocations(),
+                properties.falsePositiveRate());
+        Gauge.builder("gateway.revocation.entries", revocations, RevocationList::size).register(meterRegistry);
+        FunctionCounter.builder("gateway.revocation.filter.positives", revocations, RevocationList::filterPositives)
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.revocation.rejected", revocations, RevocationList::confirmed)
+                .register(meterRegistry);
+        return revocations;
+    }
+
+    @Bean
+    public RevocationFileWatcher revocationFileWatcher(RevocationList revocations, RevocationProperties properties) {
+        return new RevocationFileWatcher(revocations, properties.file(), properties.watchInterval(),
+                properties.retention());
+    }
+
+    @Bean
+    public RevocationsEndpoint revocationsEndpoint(RevocationList revocations, RevocationProperties properties) {
+        return new RevocationsEndpoint(revocations, properties);
+    }
+}
@@ -1,7 +1,16 @@
 package com.videoclub.apigateway.config;
 
+import com.videoclub.apigateway.security.AuthorizationDecisionTable;
+import com.videoclub.apigateway.security.AuthorizationProperties;
+import com.videoclub.apigateway.security.DecisionTableAuthorizationManager;
+import com.videoclub.apigateway.security.IdentityHeaderSigner;
+import com.videoclub.apigateway.security.IdentityRelayProperties;
 import com.videoclub.apigateway.security.JwtIssuerValidator;
+import com.videoclub.apigateway.security.RevocationList;
+import com.videoclub.apigateway.security.RevocationValidator;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
@@ -14,56 +23,50 @@ import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
 import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Configuration
 @EnableWebFluxSecurity
+@EnableConfigurationProperties({ AuthorizationProperties.class, IdentityRelayProperties.class })
 public class SecurityConfig {
 
         @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}")
         private String issuerUri;
 
+        /**
+         * Tabla de autorización compilada (trie por segmento de path).
+         * 
+         * Reemplaza la lista ordenada de pathMatchers: las reglas se declaran en
+         * configuración y se resuelven con un único recorrido por petición.
+         */
+        @Bean
+        public AuthorizationDecisionTable authorizationDecisionTable(AuthorizationProperties properties) {
+                return AuthorizationDecisionTable.from(properties);
+        }
+
+        /**
+         * Firmador del header de identidad compacto (HMAC) para las rutas que
+         * no necesitan el JWT completo. Sin rutas configuradas, todo sigue
+         * igual: se reenvía el JWT.
+         */
+        @Bean
+        public IdentityHeaderSigner identityHeaderSigner(IdentityRelayProperties properties) {
+                return new IdentityHeaderSigner(properties);
+        }
+
         @Bean
-        public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                        AuthorizationDecisionTable decisionTable, ReactiveJwtDecoder jwtDecoder) {
                 http
                                 .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                                // Reglas método + path compiladas desde
+                                // videoclub.gateway.authorization (application.yml)
                                 .authorizeExchange(exchanges -> exchanges
-                                                // CORS preflight: OPTIONS siempre permitido (RFC 7231)
-                                                .pathMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**")
-                                                .permitAll()
-
-                                                // Rutas públicas (sin autenticación)
-                                                .pathMatchers("/auth/**", "/realms/**").permitAll()
-                                                .pathMatchers("/actuator/health", "/actuator/gateway/**").permitAll()
-
-                                                // Catálogo: solo lectura pública (GET), escritura protegida (POST, PUT,
-                                                // DELETE)
-                                                .pathMatchers(org.springframework.http.HttpMethod.GET,
-                                                                "/api/peliculas/**")
-                                                .permitAll()
-                                                .pathMatchers("/api/peliculas/**").authenticated()
-
-                                                // Categorías: GET público
-                                                .pathMatchers(org.springframework.http.HttpMethod.GET,
-                                                                "/api/categorias/**")
-                                                .permitAll()
-
-                                                // Ratings: GET público, POST/PUT/DELETE requieren autenticación
-                                                .pathMatchers(org.springframework.http.HttpMethod.GET,
-                                                                "/api/ratings/**")
-                                                .permitAll()
-                                                .pathMatchers("/api/ratings/**").authenticated()
-
-                                                // Carrito: requiere autenticación
-                                                .pathMatchers("/api/carrito/**").authenticated()
-
-                                                // Descuentos: requiere autenticación para listar o aplicar
-                                                .pathMatchers("/api/descuentos/**").authenticated()
-
-                                                // Cualquier otra ruta por defecto es pública
-                                                .anyExchange().permitAll())
+                                                .anyExchange()
+                                                .access(new DecisionTableAuthorizationManager(decisionTable)))
                                 .oauth2ResourceServer(oauth2 -> oauth2
-                                                .jwt(jwt -> jwt.jwtDecoder(reactiveJwtDecoder())));
+                                                .jwt(jwt -> jwt.jwtDecoder(jwtDecoder)));
 
                 return http.build();
         }
@@ -80,9 +83,13 @@ public class SecurityConfig {
          * - Tokens de keycloak-sso:8080 (producción dentro de Docker)
          * 
          * Comportamiento idéntico al servicio Ventas.
+         * 
+         * Con videoclub.gateway.revocation habilitado se agrega
+         * RevocationValidator: tokens o sesiones revocados se rechazan antes
+         * de su exp.
          */
         @Bean
-        public ReactiveJwtDecoder reactiveJwtDecoder() {
+        public ReactiveJwtDecoder reactiveJwtDecoder(ObjectProvider<RevocationList> revocations) {
                 NimbusReactiveJwtDecoder jwtDecoder = NimbusReactiveJwtDecoder.withIssuerLocation(issuerUri).build();
 
                 // Validador de timestamps (exp, nbf, iat)
@@ -95,10 +102,13 @@ public class SecurityConfig {
                                                 "http://localhost:9090/realms/videoclub" // Testing local
                                 ));
 
+                List<OAuth2TokenValidator<Jwt>> validators = new ArrayList<>(List.of(withTimestamp, withIssuers));
+
+                // Validador de revocación (jti / sid), al final: solo corre con tokens vigentes
+                revocations.ifAvailable(list -> validators.add(new RevocationValidator(list)));
+
                 // Combinar validadores
-                OAuth2TokenValidator<Jwt> validator = new DelegatingOAuth2TokenValidator<>(
-                                withTimestamp,
-                                withIssuers);
+                OAuth2TokenValidator<Jwt> validator = new DelegatingOAuth2TokenValidator<>(validators);
 
                 jwtDecoder.setJwtValidator(validator);
                 return jwtDecoder;
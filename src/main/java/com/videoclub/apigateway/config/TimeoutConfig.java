@@ -0,0 +1,42 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.filter.DeadlineHeadersFilter;
+import com.videoclub.apigateway.filter.RouteTimeoutGlobalFilter;
+import com.videoclub.apigateway.resilience.RouteTimeoutRegistry;
+import com.videoclub.apigateway.resilience.TimeoutProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Timeouts connect / response / total por ruta, con el plazo restante
+ * propagado a los backends en un header (el NettyRoutingFilter aplica todos
+ * los HttpHeadersFilter registrados como beans).
+ *
+ * Publica gateway.timeouts y gateway.timeouts.cancelled por ruta.
+ *
+ * Se desactiva con videoclub.gateway.timeouts.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(TimeoutProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.timeouts", name = "enabled", matchIfMissing = true)
+public class TimeoutConfig {
+
+    @Bean
+    public RouteTimeoutRegistry routeTimeoutRegistry(TimeoutProperties properties, MeterRegistry meterRegistry) {
+        return new RouteTimeoutRegistry(properties, meterRegistry);
+    }
+
+    @Bean
+    public RouteTimeoutGlobalFilter routeTimeoutGlobalFilter(RouteTimeoutRegistry registry,
+            TimeoutProperties properties) {
+        return new RouteTimeoutGlobalFilter(registry, properties);
+    }
+
+    @Bean
+    public DeadlineHeadersFilter deadlineHeadersFilter(TimeoutProperties properties) {
+        return new DeadlineHeadersFilter(properties.deadlineHeader());
+    }
+}
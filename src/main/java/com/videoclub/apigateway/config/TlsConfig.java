@@ -0,0 +1,52 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.tls.TlsProperties;
+import com.videoclub.apigateway.tls.TlsTermination;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.Ssl;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * TLS en server.port con HTTP/2 por ALPN, reanudación de sesiones, motor
+ * OpenSSL si está disponible y recarga del certificado al cambiar los
+ * archivos del SSL bundle (perfil spring "tls", ver application-tls.yml).
+ *
+ * Publica gateway.tls.handshake, gateway.tls.handshake.failures,
+ * gateway.tls.reloads y gateway.tls.certificate.expiry.
+ *
+ * Desactivado por defecto; se activa con videoclub.gateway.tls.enabled=true.
+ */
+@Configuration
+@EnableConfigurationProperties(TlsProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.tls", name = "enabled", havingValue = "true")
+public class TlsConfig {
+
+    @Bean
+    public TlsTermination tlsTermination(TlsProperties properties, SslBundles sslBundles,
+            MeterRegistry meterRegistry) {
+        TlsTermination tls = new TlsTermination(properties, sslBundles.getBundle(properties.bundle()), meterRegistry);
+        sslBundles.addBundleUpdateHandler(properties.bundle(), tls::reload);
+        FunctionCounter.builder("gateway.tls.reloads", tls, TlsTermination::reloads).register(meterRegistry);
+        Gauge.builder("gateway.tls.certificate.expiry", tls, TlsTermination::secondsToExpiry).baseUnit("seconds")
+                .register(meterRegistry);
+        return tls;
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> tlsServerCustomizer(TlsTermination tls) {
+        return factory -> {
+            if (Ssl.isEnabled(factory.getSsl()))
+                throw new IllegalStateException(
+                        "server.ssl y videoclub.gateway.tls son excluyentes: configurar TLS solo con videoclub.gateway.tls");
+            factory.addServerCustomizers(tls::apply);
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.filter.TraceContextWebFilter;
+import com.videoclub.apigateway.filter.TraceFiltersPhaseGlobalFilter;
+import com.videoclub.apigateway.filter.TraceUpstreamGlobalFilter;
+import com.videoclub.apigateway.tracing.SlowTraceStore;
+import com.videoclub.apigateway.tracing.TracesEndpoint;
+import com.videoclub.apigateway.tracing.TracingProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Trazas W3C sin backend externo.
+ * 
+ * Genera o propaga traceparent en cada petición, lo reenvía a los
+ * microservicios y guarda spans por fase (security, filters, upstream) en un
+ * store en memoria expuesto por /actuator/traces.
+ * 
+ * Se desactiva con videoclub.gateway.tracing.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.tracing", name = "enabled", matchIfMissing = true)
+public class TracingConfig {
+
+    @Bean
+    public SlowTraceStore slowTraceStore(TracingProperties properties) {
+        return new SlowTraceStore(properties.slowestCapacity(), properties.recentCapacity());
+    }
+
+    @Bean
+    public TraceContextWebFilter traceContextWebFilter(SlowTraceStore store) {
+        return new TraceContextWebFilter(store);
+    }
+
+    @Bean
+    public TraceFiltersPhaseGlobalFilter traceFiltersPhaseGlobalFilter() {
+        return new TraceFiltersPhaseGlobalFilter();
+    }
+
+    @Bean
+    public TraceUpstreamGlobalFilter traceUpstreamGlobalFilter() {
+        return new TraceUpstreamGlobalFilter();
+    }
+
+    @Bean
+    public TracesEndpoint tracesEndpoint(SlowTraceStore store) {
+        return new TracesEndpoint(store);
+    }
+}
@@ -0,0 +1,42 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.capture.CaptureProperties;
+import com.videoclub.apigateway.capture.TrafficCapture;
+import com.videoclub.apigateway.filter.TrafficCaptureGlobalFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Captura de tráfico a un log binario compacto, para reproducirlo contra
+ * backends stub con TrafficReplay (src/jmh/java, perfil benchmarks).
+ *
+ * Publica gateway.capture.records, gateway.capture.dropped y
+ * gateway.capture.bytes.
+ *
+ * Desactivada por defecto; se activa con videoclub.gateway.capture.enabled=true.
+ */
+@Configuration
+@EnableConfigurationProperties(CaptureProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.capture", name = "enabled", havingValue = "true")
+public class TrafficCaptureConfig {
+
+    @Bean
+    public TrafficCapture trafficCapture(CaptureProperties properties, MeterRegistry meterRegistry) {
+        TrafficCapture capture = new TrafficCapture(properties);
+        FunctionCounter.builder("gateway.capture.records", capture, TrafficCapture::recorded).register(meterRegistry);
+        FunctionCounter.builder("gateway.capture.dropped", capture, TrafficCapture::dropped).register(meterRegistry);
+        Gauge.builder("gateway.capture.bytes", capture, TrafficCapture::bytes).baseUnit("bytes")
+                .register(meterRegistry);
+        return capture;
+    }
+
+    @Bean
+    public TrafficCaptureGlobalFilter trafficCaptureGlobalFilter(TrafficCapture capture) {
+        return new TrafficCaptureGlobalFilter(capture);
+    }
+}
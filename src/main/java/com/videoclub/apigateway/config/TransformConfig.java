@@ -0,0 +1,39 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.filter.StreamingTransformGlobalFilter;
+import com.videoclub.apigateway.transform.TransformProperties;
+import com.videoclub.apigateway.transform.TransformStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Transformaciones en streaming del cuerpo por ruta, publicadas en Micrometer:
+ * - gateway.transform.responses por ruta (contador)
+ * - gateway.transform.bytes.in / bytes.out por ruta (contadores)
+ * 
+ * Se desactiva con videoclub.gateway.transforms.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(TransformProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.transforms", name = "enabled", matchIfMissing = true)
+public class TransformConfig {
+
+    @Bean
+    public StreamingTransformGlobalFilter streamingTransformGlobalFilter(TransformProperties properties,
+            MeterRegistry meterRegistry) {
+        StreamingTransformGlobalFilter filter = new StreamingTransformGlobalFilter(properties);
+        filter.stats().forEach((routeId, stats) -> {
+            FunctionCounter.builder("gateway.transform.responses", stats, TransformStats::responses)
+                    .tag("route", routeId).register(meterRegistry);
+            FunctionCounter.builder("gateway.transform.bytes.in", stats, TransformStats::bytesIn)
+                    .baseUnit("bytes").tag("route", routeId).register(meterRegistry);
+            FunctionCounter.builder("gateway.transform.bytes.out", stats, TransformStats::bytesOut)
+                    .baseUnit("bytes").tag("route", routeId).register(meterRegistry);
+        });
+        return filter;
+    }
+}
@@ -0,0 +1,52 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.filter.UserConcurrencyGlobalFilter;
+import com.videoclub.apigateway.resilience.UserConcurrencyEndpoint;
+import com.videoclub.apigateway.resilience.UserConcurrencyLimiter;
+import com.videoclub.apigateway.resilience.UserConcurrencyProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Límite de peticiones en vuelo por usuario, publicado en Micrometer:
+ * - gateway.user-concurrency.subjects (gauge)
+ * - gateway.user-concurrency.admitted / rejected (contadores)
+ * 
+ * Los usuarios con más rechazos se ven en /actuator/userconcurrency. Se
+ * desactiva con videoclub.gateway.user-concurrency.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(UserConcurrencyProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.user-concurrency", name = "enabled", matchIfMissing = true)
+public class UserConcurrencyConfig {
+
+    @Bean
+    public UserConcurrencyLimiter userConcurrencyLimiter(UserConcurrencyProperties properties,
+            MeterRegistry meterRegistry) {
+        UserConcurrencyLimiter limiter = new UserConcurrencyLimiter(properties);
+        Gauge.builder("gateway.user-concurrency.subjects", limiter, UserConcurrencyLimiter::subjects)
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.user-concurrency.admitted", limiter, UserConcurrencyLimiter::admitted)
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.user-concurrency.rejected", limiter, UserConcurrencyLimiter::rejected)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    @Bean
+    public UserConcurrencyGlobalFilter userConcurrencyGlobalFilter(UserConcurrencyLimiter limiter,
+            UserConcurrencyProperties properties) {
+        return new UserConcurrencyGlobalFilter(limiter, properties);
+    }
+
+    @Bean
+    public UserConcurrencyEndpoint userConcurrencyEndpoint(UserConcurrencyLimiter limiter,
+            UserConcurrencyProperties properties) {
+        return new UserConcurrencyEndpoint(limiter, properties);
+    }
+}
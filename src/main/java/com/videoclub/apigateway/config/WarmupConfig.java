@@ -0,0 +1,58 @@
+package com.videoclub.apigateway.config;
+
+import com.videoclub.apigateway.balancer.ServiceRegistry;
+import com.videoclub.apigateway.health.GatewayWarmup;
+import com.videoclub.apigateway.health.WarmupProperties;
+import com.videoclub.apigateway.health.WarmupReadinessStateHealthIndicator;
+import com.videoclub.apigateway.tls.TlsTermination;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calentamiento al iniciar con readiness condicionada a que termine.
+ * 
+ * Reemplaza el indicador "readinessState" de Spring Boot (mismo nombre de
+ * bean) y publica gateway.warmup.duration (gauge, sin valor hasta terminar).
+ * Las conexiones se abren con el HttpClient del gateway, así quedan en el
+ * mismo pool que usa el ruteo. Con TLS activo las peticiones sintéticas van
+ * por HTTPS, así también se calienta el handshake.
+ * 
+ * Se desactiva con videoclub.gateway.warmup.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(WarmupProperties.class)
+@ConditionalOnProperty(prefix = "videoclub.gateway.warmup", name = "enabled", matchIfMissing = true)
+public class WarmupConfig {
+
+    @Bean
+    public GatewayWarmup gatewayWarmup(WarmupProperties properties, RouteLocator routeLocator,
+            ServiceRegistry registry, ObjectProvider<HttpClient> httpClient,
+            ObjectProvider<ReactiveJwtDecoder> jwtDecoder, ObjectProvider<TlsTermination> tls,
+            MeterRegistry meterRegistry) {
+        TlsTermination termination = tls.getIfAvailable();
+        GatewayWarmup warmup = new GatewayWarmup(properties, routeLocator, registry,
+                httpClient.getIfAvailable(HttpClient::create), jwtDecoder.getIfAvailable(),
+                termination == null ? null : termination::loopbackClient);
+        TimeGauge.builder("gateway.warmup.duration", warmup, TimeUnit.MILLISECONDS,
+                w -> w.durationMillis() < 0 ? Double.NaN : w.durationMillis())
+                .register(meterRegistry);
+        return warmup;
+    }
+
+    @Bean
+    public WarmupReadinessStateHealthIndicator readinessStateHealthIndicator(ApplicationAvailability availability,
+            GatewayWarmup warmup) {
+        return new WarmupReadinessStateHealthIndicator(availability, warmup);
+    }
+}
@@ -0,0 +1,171 @@
+package com.videoclub.apigateway.contract;
+
+import com.videoclub.apigateway.contract.QueryContractProperties.ParamSpec;
+import com.videoclub.apigateway.contract.QueryContractProperties.RouteContract;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Contrato de query params de una ruta, compilado al iniciar.
+ *
+ * Valida cada valor con {@link ParamType#normalize(String)} y arma la query
+ * canónica: params ordenados por nombre y valores normalizados
+ * ({@code page=007&asc=TRUE} → {@code asc=true&page=7}). Dos URLs equivalentes
+ * producen la misma query, lo que mejora el hit rate de cualquier cache por
+ * URL aguas abajo.
+ *
+ * El orden de los params declarados se calcula al compilar: si la query solo
+ * trae params del contrato (el caso normal) se recorre ese orden sin copiar ni
+ * ordenar el mapa de la petición.
+ */
+public class CompiledQueryContract {
+
+    /** Código de error por defecto de una violación. */
+    public static final String DEFAULT_CODE = "INVALID_QUERY_PARAM";
+
+    /** Resultado de aplicar el contrato: una violación (con su código de error) o la query canónica. */
+    public record Outcome(String param, String violation, String code, String canonicalQuery) {
+
+        static Outcome invalid(String param, String violation) {
+            return new Outcome(param, violation, DEFAULT_CODE, null);
+        }
+
+        static Outcome invalid(ParamSpec spec, String violation) {
+            return new Outcome(spec.name(), violation, spec.code() == null ? DEFAULT_CODE : spec.code(), null);
+        }
+
+        public boolean valid() {
+            return violation == null;
+        }
+    }
+
+    private final Map<String, ParamSpec> specs = new HashMap<>();
+    private final List<ParamSpec> required = new ArrayList<>();
+    /** Params declarados, ordenados por nombre, con el nombre ya codificado. */
+    private final ParamSpec[] sorted;
+    private final String[] encodedNames;
+    private final boolean rejectUnknown;
+
+    public CompiledQueryContract(RouteContract contract) {
+        this.rejectUnknown = contract.rejectUnknown();
+        for (ParamSpec spec : contract.params()) {
+            if (spec.name() == null || spec.name().isBlank())
+                throw new IllegalArgumentException("Query param sin nombre en contrato");
+            if (specs.put(spec.name(), spec) != null)
+                throw new IllegalArgumentException("Query param duplicado en contrato: " + spec.name());
+            if (spec.required())
+                required.add(spec);
+        }
+        this.sorted = specs.values().stream().sorted(Comparator.comparing(ParamSpec::name)).toArray(ParamSpec[]::new);
+        this.encodedNames = new String[sorted.length];
+        for (int i = 0; i < sorted.length; i++)
+            encodedNames[i] = UriUtils.encode(sorted[i].name(), StandardCharsets.UTF_8);
+    }
+
+    public Outcome apply(MultiValueMap<String, String> params) {
+        for (ParamSpec spec : required) {
+            if (!params.containsKey(spec.name()))
+                return Outcome.invalid(spec, "es obligatorio");
+        }
+        if (params.isEmpty())
+            return new Outcome(null, null, null, "");
+
+        for (String name : params.keySet()) {
+            if (!specs.containsKey(name))
+                return applyWithUnknown(params);
+        }
+
+        StringBuilder query = new StringBuilder(64);
+        for (int i = 0; i < sorted.length; i++) {
+            List<String> values = params.get(sorted[i].name());
+            if (values == null)
+                continue;
+            String violation = appendValidated(query, sorted[i], encodedNames[i], values);
+            if (violation != null)
+                return Outcome.invalid(sorted[i], violation);
+        }
+        return new Outcome(null, null, null, query.toString());
+    }
+
+    /** Con params fuera del contrato: se ordena una copia del mapa para intercalarlos con los declarados. */
+    private Outcome applyWithUnknown(MultiValueMap<String, String> params) {
+        StringBuilder query = new StringBuilder(64);
+        for (Map.Entry<String, List<String>> entry : new TreeMap<>(params).entrySet()) {
+            String name = entry.getKey();
+            ParamSpec spec = specs.get(name);
+            if (spec == null) {
+                if (rejectUnknown)
+                    return Outcome.invalid(name, "no está definido en el contrato");
+                for (String value : entry.getValue())
+                    append(query, UriUtils.encode(name, StandardCharsets.UTF_8), value);
+                continue;
+            }
+            String violation = appendValidated(query, spec, UriUtils.encode(name, StandardCharsets.UTF_8),
+                    entry.getValue());
+            if (violation != null)
+                return Outcome.invalid(spec, violation);
+        }
+        return new Outcome(null, null, null, query.toString());
+    }
+
+    /** Valida el valor de un param declarado y lo agrega normalizado; devuelve la violación o null. */
+    private static String appendValidated(StringBuilder query, ParamSpec spec, String encodedName,
+            List<String> values) {
+        if (values.size() > 1)
+            return "no admite múltiples valores";
+        String raw = values.get(0);
+        String value = raw == null ? null : spec.type().normalize(raw);
+        if (value == null)
+            return "debe ser de tipo " + spec.type();
+        String violation = checkBounds(spec, value);
+        if (violation != null)
+            return violation;
+        append(query, encodedName, value);
+        return null;
+    }
+
+    private static String checkBounds(ParamSpec spec, String value) {
+        if (spec.type() == ParamType.INT || spec.type() == ParamType.LONG) {
+            long n = spec.type().longValue(value);
+            if (spec.min() != null && n < spec.min())
+                return "debe ser mayor o igual a " + spec.min();
+            if (spec.max() != null && n > spec.max())
+                return "debe ser menor o igual a " + spec.max();
+        }
+        if (spec.maxLength() != null && value.length() > spec.maxLength())
+            return "supera el largo máximo de " + spec.maxLength();
+        return null;
+    }
+
+    /**
+     * Los valores llegan ya decodificados: se codifican como componente
+     * estricto ({@code +}, {@code &}, {@code =} y {@code %} escapados), no con
+     * encodeQueryParam, que deja {@code +} y el backend lo leería como espacio.
+     */
+    private static void append(StringBuilder query, String encodedName, String value) {
+        if (!query.isEmpty())
+            query.append('&');
+        query.append(encodedName);
+        if (value != null)
+            query.append('=').append(unreserved(value) ? value : UriUtils.encode(value, StandardCharsets.UTF_8));
+    }
+
+    /** Valores sin nada que codificar (RFC 3986 unreserved): se agregan tal cual, sin pasar por bytes. */
+    private static boolean unreserved(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '.' || c == '_' || c == '~'))
+                return false;
+        }
+        return true;
+    }
+}
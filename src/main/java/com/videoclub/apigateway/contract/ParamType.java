@@ -0,0 +1,159 @@
+package com.videoclub.apigateway.contract;
+
+/**
+ * Tipos de query param soportados por los contratos, los mismos que modela
+ * QueryParamContractDriftTest en tiempo de test.
+ * 
+ * {@link #normalize(String)} valida el valor recorriendo sus caracteres (sin
+ * excepciones ni regex) y devuelve su forma canónica: la misma instancia si ya
+ * es canónica, o null si el valor no es válido para el tipo.
+ */
+public enum ParamType {
+
+    STRING {
+        @Override
+        public String normalize(String value) {
+            return value;
+        }
+    },
+    INT {
+        @Override
+        public String normalize(String value) {
+            return integer(value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+    },
+    LONG {
+        @Override
+        public String normalize(String value) {
+            return integer(value, Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+    },
+    BOOLEAN {
+        @Override
+        public String normalize(String value) {
+            if ("true".equalsIgnoreCase(value))
+                return "true";
+            if ("false".equalsIgnoreCase(value))
+                return "false";
+            return null;
+        }
+    },
+    DECIMAL {
+        @Override
+        public String normalize(String value) {
+            int len = value.length();
+            int start = (len > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) ? 1 : 0;
+            int digits = 0;
+            int dot = -1;
+            for (int i = start; i < len; i++) {
+                char c = value.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    digits++;
+                } else if (c == '.' && dot < 0) {
+                    dot = i;
+                } else {
+                    return null;
+                }
+            }
+            if (digits == 0)
+                return null;
+
+            // Forma canónica: sin ceros a la izquierda en la parte entera ni a la
+            // derecha en la decimal, sin '+', y "0" para cualquier cero
+            int intEnd = dot < 0 ? len : dot;
+            int intStart = start;
+            while (intStart < intEnd && value.charAt(intStart) == '0')
+                intStart++;
+            int fracEnd = len;
+            if (dot >= 0) {
+                while (fracEnd > dot + 1 && value.charAt(fracEnd - 1) == '0')
+                    fracEnd--;
+            }
+            boolean zeroInt = intStart == intEnd;
+            boolean fraction = dot >= 0 && fracEnd > dot + 1;
+            if (zeroInt && !fraction)
+                return "0".equals(value) ? value : "0";
+
+            boolean negative = value.charAt(0) == '-';
+            boolean canonical = start == 0 || negative;
+            canonical &= zeroInt ? intEnd - start == 1 : intStart == start;
+            canonical &= fraction ? fracEnd == len : dot < 0;
+            if (canonical)
+                return value;
+            return (negative ? "-" : "") + (zeroInt ? "0" : value.substring(intStart, intEnd))
+                    + (fraction ? value.substring(dot, fracEnd) : "");
+        }
+    },
+    LOCAL_DATE {
+        @Override
+        public String normalize(String value) {
+            // yyyy-MM-dd (ISO-8601), el formato que Spring usa por defecto para LocalDate
+            if (value.length() != 10 || value.charAt(4) != '-' || value.charAt(7) != '-')
+                return null;
+            int year = digits(value, 0, 4);
+            int month = digits(value, 5, 7);
+            int day = digits(value, 8, 10);
+            if (year < 0 || month < 1 || month > 12 || day < 1)
+                return null;
+            return day <= daysInMonth(year, month) ? value : null;
+        }
+    };
+
+    public abstract String normalize(String value);
+
+    /** Devuelve el valor numérico de un INT/LONG ya normalizado. */
+    public long longValue(String normalized) {
+        return Long.parseLong(normalized);
+    }
+
+    private static String integer(String value, long min, long max) {
+        int len = value.length();
+        if (len == 0)
+            return null;
+        boolean negative = value.charAt(0) == '-';
+        int start = (negative || value.charAt(0) == '+') ? 1 : 0;
+        if (start == len)
+            return null;
+
+        // Acumulado en negativo para cubrir Long.MIN_VALUE sin desbordar
+        long result = 0;
+        long limit = negative ? min : -max;
+        long multmin = limit / 10;
+        for (int i = start; i < len; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9')
+                return null;
+            int digit = c - '0';
+            if (result < multmin)
+                return null;
+            result *= 10;
+            if (result < limit + digit)
+                return null;
+            result -= digit;
+        }
+        long parsed = negative ? result : -result;
+
+        boolean canonical = start == 0 || (negative && parsed != 0);
+        canonical &= len - start == 1 || value.charAt(start) != '0';
+        return canonical ? value : Long.toString(parsed);
+    }
+
+    private static int digits(String value, int from, int to) {
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9')
+                return -1;
+            n = n * 10 + (c - '0');
+        }
+        return n;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+}
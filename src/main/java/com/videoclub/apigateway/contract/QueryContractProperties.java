@@ -0,0 +1,46 @@
+package com.videoclub.apigateway.contract;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contratos de query params por ruta ({@code videoclub.gateway.query-contracts.*}).
+ * 
+ * Misma forma que los contratos YAML de docs/contracts/query-params que usa
+ * QueryParamContractDriftTest (name, required, default, type), más límites
+ * opcionales para validar en el borde.
+ *
+ * @param enabled activa la validación en runtime
+ * @param routes  contrato por id de ruta
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.query-contracts")
+public record QueryContractProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue Map<String, RouteContract> routes) {
+
+    /**
+     * @param rejectUnknown rechaza params no declarados (si no, pasan sin
+     *                      cambios)
+     * @param params        params declarados
+     */
+    public record RouteContract(@DefaultValue("false") boolean rejectUnknown, @DefaultValue List<ParamSpec> params) {
+    }
+
+    /**
+     * @param name      nombre del query param
+     * @param type      tipo esperado
+     * @param required  obligatorio
+     * @param min       mínimo (INT, LONG)
+     * @param max       máximo (INT, LONG)
+     * @param maxLength largo máximo (STRING)
+     * @param code      código de error del 400 (por defecto
+     *                  INVALID_QUERY_PARAM); permite conservar el que ya
+     *                  devolvía el backend para ese param
+     */
+    public record ParamSpec(String name, @DefaultValue("STRING") ParamType type, boolean required, Long min,
+            Long max, Integer maxLength, @DefaultValue("INVALID_QUERY_PARAM") String code) {
+    }
+}
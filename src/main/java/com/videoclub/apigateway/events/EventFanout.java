@@ -0,0 +1,260 @@
+package com.videoclub.apigateway.events;
+
+import com.videoclub.apigateway.balancer.InstanceHealth;
+import com.videoclub.apigateway.balancer.P2cLoadBalancer;
+import com.videoclub.apigateway.balancer.ServiceInstance;
+import com.videoclub.apigateway.balancer.ServiceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Fuentes y reparto de los tópicos SSE.
+ *
+ * Por tópico hay una sola fuente contra el backend, sin importar cuántos
+ * clientes haya conectados: en POLL un GET periódico con If-None-Match que
+ * publica cuando cambia el cuerpo; en STREAM una suscripción SSE que reenvía
+ * los eventos del backend y se reconecta con backoff. La instancia se elige
+ * con el balanceador del servicio, igual que una petición ruteada.
+ *
+ * Al pasar readiness a REFUSING_TRAFFIC (drenado) se cierran todas las
+ * conexiones: un stream SSE no termina solo y retendría el drenado hasta el
+ * timeout; los clientes se reconectan a otra réplica.
+ */
+public class EventFanout implements SmartLifecycle, ApplicationListener<AvailabilityChangeEvent<ReadinessState>> {
+
+    private static final Logger log = LoggerFactory.getLogger(EventFanout.class);
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+    private static final String CHANGE_EVENT = "cambio";
+    private static final Duration RECONNECT_MIN = Duration.ofSeconds(1);
+    private static final Duration RECONNECT_MAX = Duration.ofSeconds(30);
+
+    private final EventStreamProperties properties;
+    private final ServiceRegistry registry;
+    private final WebClient webClient;
+    private final Map<String, TopicHub> hubs;
+    private final Map<String, PollState> pollStates = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> upstreamErrors = new LinkedHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile Disposable.Composite tasks;
+
+    public EventFanout(EventStreamProperties properties, ServiceRegistry registry, WebClient webClient,
+            Function<String, TopicHub> hubFactory) {
+        this.properties = properties;
+        this.registry = registry;
+        this.webClient = webClient;
+        Map<String, TopicHub> byTopic = new LinkedHashMap<>();
+        properties.topics().forEach((name, topic) -> {
+            if (topic.service() == null || registry.balancer(topic.service()) == null)
+                throw new IllegalStateException(
+                        "Tópico SSE " + name + ": servicio desconocido " + topic.service());
+            if (topic.upstreamPath() == null || topic.upstreamPath().isBlank())
+                throw new IllegalStateException("Tópico SSE " + name + ": falta upstream-path");
+            byTopic.put(name, hubFactory.apply(name));
+            upstreamErrors.put(name, new LongAdder());
+        });
+        this.hubs = Map.copyOf(byTopic);
+    }
+
+    public TopicHub hub(String topic) {
+        return hubs.get(topic);
+    }
+
+    public Map<String, TopicHub> hubs() {
+        return hubs;
+    }
+
+    /**
+     * Conecta un cliente al tópico. Devuelve null si se alcanzó
+     * max-connections. La conexión se cuenta al suscribirse al flujo (una
+     * respuesta que nunca se escribe no ocupa lugar), así que conexiones
+     * simultáneas pueden superar el máximo por unas pocas.
+     */
+    public Flux<ServerSentEvent<String>> connect(TopicHub hub, String lastEventId) {
+        if (connections.get() >= properties.maxConnections()) {
+            rejected.increment();
+            return null;
+        }
+        return hub.subscribe(lastEventId)
+                .doOnSubscribe(subscription -> connections.incrementAndGet())
+                .doFinally(signal -> connections.decrementAndGet());
+    }
+
+    public int connections() {
+        return connections.get();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public long upstreamErrors(String topic) {
+        return upstreamErrors.get(topic).sum();
+    }
+
+    @Override
+    public void start() {
+        Disposable.Composite composite = Disposables.composite();
+        composite.add(Flux.interval(properties.heartbeatInterval())
+                .onBackpressureDrop()
+                .subscribe(tick -> hubs.values().forEach(TopicHub::heartbeat)));
+        properties.topics().forEach((name, topic) -> composite.add(switch (topic.mode()) {
+            case POLL -> Flux.interval(Duration.ZERO, topic.pollInterval())
+                    .onBackpressureDrop()
+                    .concatMap(tick -> poll(name))
+                    .subscribe();
+            case STREAM -> stream(name).subscribe();
+        }));
+        tasks = composite;
+    }
+
+    @Override
+    public void stop() {
+        Disposable.Composite current = tasks;
+        if (current != null)
+            current.dispose();
+        tasks = null;
+        hubs.values().forEach(TopicHub::closeAll);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return tasks != null;
+    }
+
+    @Override
+    public void onApplicationEvent(AvailabilityChangeEvent<ReadinessState> event) {
+        if (event.getState() == ReadinessState.REFUSING_TRAFFIC && connections.get() > 0) {
+            log.info("Readiness fuera de servicio: se cierran {} conexiones SSE", connections.get());
+            hubs.values().forEach(TopicHub::closeAll);
+        }
+    }
+
+    /** Una ronda de POLL del tópico; publica si el cuerpo cambió. */
+    public Mono<Void> poll(String name) {
+        EventStreamProperties.Topic topic = properties.topics().get(name);
+        TopicHub hub = hubs.get(name);
+        PollState state = pollStates.computeIfAbsent(name, n -> new PollState());
+        ServiceInstance instance = choose(topic);
+        if (instance == null) {
+            upstreamError(name, "sin instancias disponibles de " + topic.service());
+            return Mono.empty();
+        }
+        instance.start();
+        long start = System.nanoTime();
+        return webClient.get().uri(instance.uri().resolve(topic.upstreamPath()))
+                .headers(headers -> {
+                    if (state.etag != null)
+                        headers.setIfNoneMatch(state.etag);
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED))
+                        return response.releaseBody().then(Mono.<Snapshot>empty());
+                    if (!response.statusCode().is2xxSuccessful())
+                        return response.releaseBody().then(Mono.<Snapshot>error(
+                                new UpstreamStatusException(response.statusCode().value())));
+                    String etag = response.headers().asHttpHeaders().getETag();
+                    return response.bodyToMono(String.class).defaultIfEmpty("")
+                            .map(body -> new Snapshot(etag, body));
+                })
+                .timeout(topic.timeout())
+                .doOnNext(snapshot -> {
+                    state.etag = snapshot.etag();
+                    if (!snapshot.body().equals(state.body)) {
+                        state.body = snapshot.body();
+                        hub.publish(CHANGE_EVENT, topic.includeBody() ? snapshot.body() : null);
+                    }
+                })
+                .doOnSuccess(ignored -> instance.finish(System.nanoTime() - start, false))
+                .doOnError(e -> instance.finish(System.nanoTime() - start, e instanceof UpstreamStatusException upstream
+                        ? InstanceHealth.isFailure(upstream.status)
+                        : InstanceHealth.isFailure(e)))
+                .doOnCancel(() -> instance.finish(System.nanoTime() - start, false))
+                .onErrorResume(e -> {
+                    upstreamError(name, describe(e));
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<Void> stream(String name) {
+        EventStreamProperties.Topic topic = properties.topics().get(name);
+        TopicHub hub = hubs.get(name);
+        return Flux.defer(() -> {
+                    ServiceInstance instance = choose(topic);
+                    if (instance == null)
+                        return Flux.error(new IllegalStateException("sin instancias disponibles de " + topic.service()));
+                    return webClient.get().uri(instance.uri().resolve(topic.upstreamPath()))
+                            .accept(MediaType.TEXT_EVENT_STREAM)
+                            .retrieve()
+                            .bodyToFlux(SSE_TYPE);
+                })
+                // Los comentarios (heartbeats del backend) no se reenvían
+                .filter(event -> event.data() != null)
+                .doOnNext(event -> hub.publish(Objects.requireNonNullElse(event.event(), CHANGE_EVENT), event.data()))
+                .doOnError(e -> upstreamError(name, describe(e)))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, RECONNECT_MIN).maxBackoff(RECONNECT_MAX))
+                .repeatWhen(completed -> completed.delayElements(RECONNECT_MIN))
+                .then();
+    }
+
+    private ServiceInstance choose(EventStreamProperties.Topic topic) {
+        P2cLoadBalancer balancer = registry.balancer(topic.service());
+        return balancer == null ? null : balancer.choose();
+    }
+
+    private void upstreamError(String topic, String reason) {
+        upstreamErrors.get(topic).increment();
+        log.debug("Fuente del tópico SSE {}: {}", topic, reason);
+    }
+
+    private static String describe(Throwable e) {
+        return e.getClass().getSimpleName() + (e.getMessage() == null ? "" : ": " + e.getMessage());
+    }
+
+    private record Snapshot(String etag, String body) {
+    }
+
+    /** Respuesta no 2xx del backend; el status decide si cuenta como fallo de la instancia. */
+    private static final class UpstreamStatusException extends IllegalStateException {
+
+        final int status;
+
+        UpstreamStatusException(int status) {
+            super("HTTP " + status);
+            this.status = status;
+        }
+    }
+
+    /** Última versión vista por el POLL de un tópico; la escribe solo su ronda, que es secuencial. */
+    private static final class PollState {
+        volatile String etag;
+        volatile String body;
+    }
+}
@@ -0,0 +1,54 @@
+package com.videoclub.apigateway.events;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * GET {@code <path>/{topic}}: stream text/event-stream del tópico. Respeta
+ * Last-Event-ID para no repetir el último evento al reconectar.
+ */
+public class EventStreamHandler {
+
+    /** Sugerencia de reconexión para EventSource al rechazar por capacidad. */
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    private final EventFanout fanout;
+
+    public EventStreamHandler(EventFanout fanout) {
+        this.fanout = fanout;
+    }
+
+    public Mono<ServerResponse> stream(ServerRequest request) {
+        String topic = request.pathVariable("topic");
+        TopicHub hub = fanout.hub(topic);
+        if (hub == null)
+            return error(HttpStatus.NOT_FOUND, "UNKNOWN_TOPIC", "Tópico de eventos desconocido", topic);
+        Flux<ServerSentEvent<String>> events = fanout.connect(hub,
+                request.headers().firstHeader("Last-Event-ID"));
+        if (events == null)
+            return error(HttpStatus.SERVICE_UNAVAILABLE, "TOO_MANY_STREAMS",
+                    "Se alcanzó el máximo de conexiones de eventos", topic);
+        return ServerResponse.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                // Evita que un proxy intermedio (nginx) acumule el stream
+                .header("X-Accel-Buffering", "no")
+                .body(BodyInserters.fromServerSentEvents(events));
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, String code, String message, String topic) {
+        String body = "{\"code\":\"" + code + "\",\"message\":\"" + message + "\",\"details\":{\"topic\":\""
+                + topic.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}}";
+        ServerResponse.BodyBuilder builder = ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON);
+        if (status == HttpStatus.SERVICE_UNAVAILABLE)
+            builder.header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return builder.bodyValue(body);
+    }
+}
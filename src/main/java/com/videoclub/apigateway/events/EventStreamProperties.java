@@ -0,0 +1,64 @@
+package com.videoclub.apigateway.events;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Notificaciones de cambios por Server-Sent Events
+ * ({@code videoclub.gateway.events.*}).
+ *
+ * Por cada tópico el gateway mantiene una sola fuente contra el backend (un
+ * poll periódico o una suscripción SSE) y reparte cada evento a todos los
+ * clientes conectados a {@code <path>/<tópico>}, en lugar de que cada
+ * cliente haga polling.
+ *
+ * @param enabled           registra el endpoint y las fuentes
+ * @param path              prefijo del endpoint SSE
+ * @param maxConnections    conexiones SSE simultáneas en total; por encima
+ *                          se responde 503
+ * @param clientBuffer      eventos pendientes por cliente; un cliente que no
+ *                          lee y lo llena se desconecta (se reconecta solo
+ *                          con EventSource)
+ * @param heartbeatInterval comentario periódico para mantener viva la
+ *                          conexión a través de proxies y detectar clientes
+ *                          muertos
+ * @param topics            fuentes por nombre de tópico
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.events")
+public record EventStreamProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("/api/eventos") String path,
+        @DefaultValue("10000") int maxConnections,
+        @DefaultValue("64") int clientBuffer,
+        @DefaultValue("15s") Duration heartbeatInterval,
+        @DefaultValue Map<String, Topic> topics) {
+
+    public enum Mode {
+        /** GET periódico con If-None-Match; publica cuando cambia el cuerpo. */
+        POLL,
+        /** Suscripción SSE al backend; reenvía sus eventos y se reconecta con backoff. */
+        STREAM
+    }
+
+    /**
+     * @param service      servicio de videoclub.gateway.load-balancer.services
+     * @param mode         tipo de fuente
+     * @param upstreamPath path (y query) en el backend
+     * @param pollInterval intervalo de POLL
+     * @param timeout      timeout de cada poll
+     * @param includeBody  POLL: el evento lleva el cuerpo completo; si no, solo
+     *                     el tópico y la versión (el cliente vuelve a pedir y
+     *                     le responde el cache)
+     */
+    public record Topic(
+            String service,
+            @DefaultValue("POLL") Mode mode,
+            String upstreamPath,
+            @DefaultValue("5s") Duration pollInterval,
+            @DefaultValue("5s") Duration timeout,
+            @DefaultValue("false") boolean includeBody) {
+    }
+}
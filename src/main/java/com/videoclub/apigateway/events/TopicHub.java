@@ -0,0 +1,155 @@
+package com.videoclub.apigateway.events;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reparto de los eventos de un tópico a sus clientes SSE.
+ *
+ * Cada cliente tiene una cola acotada (client-buffer); publicar nunca espera
+ * a un cliente: si su cola está llena se lo desconecta y se cuenta como
+ * descartado. Un cliente nuevo recibe primero el último evento, salvo que su
+ * Last-Event-ID indique que ya lo tiene.
+ */
+public class TopicHub {
+
+    /**
+     * Evento publicado: id secuencial, nombre SSE, datos e instante de
+     * publicación (0 si no se mide: heartbeat o último evento repetido al conectar).
+     */
+    record Event(long id, String name, String data, long publishedNanos) {
+    }
+
+    private static final Event HEARTBEAT = new Event(0, null, null, 0);
+
+    private final String topic;
+    private final int clientBuffer;
+    private final Timer fanout;
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile Event latest;
+
+    public TopicHub(String topic, int clientBuffer, Timer fanout) {
+        this.topic = topic;
+        this.clientBuffer = clientBuffer;
+        this.fanout = fanout;
+    }
+
+    public String topic() {
+        return topic;
+    }
+
+    /**
+     * Flujo de eventos para un cliente nuevo; termina al desconectarlo (cliente
+     * lento, drenado) o cuando el cliente cierra. El cliente se registra
+     * recién al suscribirse, así una respuesta que nunca llega a escribirse no
+     * queda registrada.
+     */
+    public Flux<ServerSentEvent<String>> subscribe(String lastEventId) {
+        return Flux.defer(() -> {
+            Client client = new Client(clientBuffer);
+            clients.add(client);
+            Event current = latest;
+            if (current != null && !Long.toString(current.id()).equals(lastEventId))
+                client.offer(new Event(current.id(), current.name(), current.data(), 0));
+            return client.events()
+                    .doOnNext(event -> {
+                        if (event.publishedNanos() != 0)
+                            fanout.record(System.nanoTime() - event.publishedNanos(), TimeUnit.NANOSECONDS);
+                    })
+                    .map(TopicHub::toSse)
+                    .doFinally(signal -> clients.remove(client));
+        });
+    }
+
+    /**
+     * Publica un evento a todos los clientes.
+     *
+     * @param data datos del evento; null publica solo tópico y versión
+     */
+    public void publish(String name, String data) {
+        long id = sequence.incrementAndGet();
+        Event event = new Event(id, name,
+                data != null ? data : "{\"topic\":\"" + topic + "\",\"version\":" + id + "}", System.nanoTime());
+        latest = event;
+        published.increment();
+        for (Client client : clients) {
+            if (!client.offer(event))
+                drop(client);
+        }
+    }
+
+    public void heartbeat() {
+        for (Client client : clients) {
+            if (!client.offer(HEARTBEAT))
+                drop(client);
+        }
+    }
+
+    /** Cierra todas las conexiones (los clientes se reconectan, p. ej. a otra réplica). */
+    public void closeAll() {
+        clients.forEach(Client::close);
+    }
+
+    public int connections() {
+        return clients.size();
+    }
+
+    public long published() {
+        return published.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    private void drop(Client client) {
+        if (client.close())
+            dropped.increment();
+    }
+
+    private static ServerSentEvent<String> toSse(Event event) {
+        if (event == HEARTBEAT)
+            return ServerSentEvent.<String>builder().comment("keepalive").build();
+        return ServerSentEvent.builder(event.data()).id(Long.toString(event.id())).event(event.name()).build();
+    }
+
+    /**
+     * Cola de un cliente. Se publica desde la fuente del tópico, el heartbeat
+     * y la suscripción inicial; las emisiones se serializan aquí.
+     */
+    private static final class Client {
+
+        private final Sinks.Many<Event> sink;
+        private final Sinks.One<Boolean> closed = Sinks.one();
+
+        Client(int buffer) {
+            sink = Sinks.many().unicast().onBackpressureBuffer(Queues.<Event>get(buffer).get());
+        }
+
+        synchronized boolean offer(Event event) {
+            return sink.tryEmitNext(event).isSuccess();
+        }
+
+        /** Devuelve true si esta llamada lo cerró. */
+        synchronized boolean close() {
+            return closed.tryEmitValue(Boolean.TRUE).isSuccess();
+        }
+
+        Flux<Event> events() {
+            // takeUntilOther corta al instante, sin esperar a que se vacíe la cola
+            return sink.asFlux().takeUntilOther(closed.asMono());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.videoclub.apigateway.fault;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Inyección de fallas para experimentos locales de resiliencia y rendimiento
+ * ({@code videoclub.gateway.faults.*}).
+ *
+ * Desactivada por defecto: con enabled=false no se registra ningún filtro ni
+ * el endpoint. Activada, solo afecta a las rutas con fallas configuradas
+ * (aquí o por POST /actuator/faults); cada falla se sortea por petición con
+ * su porcentaje.
+ *
+ * @param enabled   registra los filtros y el endpoint /actuator/faults
+ * @param adminRole rol de realm requerido para cambiar fallas por actuator
+ * @param routes    fallas por id de ruta
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.faults")
+public record FaultInjectionProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("admin") String adminRole,
+        @DefaultValue Map<String, Faults> routes) {
+
+    /**
+     * Fallas de una ruta. Latencia, error y aborto simulan al backend (se
+     * inyectan después del balanceo, así los ven la expulsión pasiva y el
+     * límite adaptativo); el throttle limita el cuerpo hacia el cliente.
+     */
+    public record Faults(
+            @DefaultValue Latency latency,
+            @DefaultValue ErrorResponse error,
+            @DefaultValue Abort abort,
+            @DefaultValue Throttle throttle) {
+    }
+
+    public enum Distribution {
+        /** Siempre median. */
+        FIXED,
+        /** Uniforme entre min y max. */
+        UNIFORM,
+        /** Log-normal con la mediana y el p99 indicados: cola larga como la de producción. */
+        LOGNORMAL
+    }
+
+    /**
+     * Demora antes de llamar al backend; la muestra se acota a [min, max].
+     *
+     * @param percent      peticiones demoradas (0-100)
+     * @param distribution forma de la distribución
+     * @param min          demora mínima (y piso de UNIFORM)
+     * @param median       demora de FIXED y mediana de LOGNORMAL
+     * @param p99          percentil 99 de LOGNORMAL
+     * @param max          demora máxima (y techo de UNIFORM)
+     */
+    public record Latency(
+            @DefaultValue("0") double percent,
+            @DefaultValue("FIXED") Distribution distribution,
+            @DefaultValue("0ms") Duration min,
+            @DefaultValue("100ms") Duration median,
+            @DefaultValue("1s") Duration p99,
+            @DefaultValue("30s") Duration max) {
+
+        /** z del percentil 99 de la normal estándar. */
+        private static final double Z_99 = 2.3263;
+
+        public Latency {
+            checkPercent("latency.percent", percent);
+            if (min.isNegative() || max.compareTo(min) < 0)
+                throw new IllegalArgumentException("latency: se requiere 0 <= min <= max");
+            if (distribution == Distribution.LOGNORMAL && (!median.isPositive() || p99.compareTo(median) < 0))
+                throw new IllegalArgumentException("latency: LOGNORMAL requiere 0 < median <= p99");
+        }
+
+        public Duration sample(RandomGenerator random) {
+            long nanos = switch (distribution) {
+                case FIXED -> median.toNanos();
+                case UNIFORM -> min.toNanos() + (long) (random.nextDouble() * (max.toNanos() - min.toNanos()));
+                case LOGNORMAL -> {
+                    double sigma = Math.log((double) p99.toNanos() / median.toNanos()) / Z_99;
+                    yield (long) (median.toNanos() * Math.exp(sigma * random.nextGaussian()));
+                }
+            };
+            return Duration.ofNanos(Math.max(min.toNanos(), Math.min(max.toNanos(), nanos)));
+        }
+    }
+
+    /**
+     * Respuesta de error en lugar de la del backend.
+     *
+     * @param percent peticiones que fallan (0-100)
+     * @param status  status HTTP devuelto
+     */
+    public record ErrorResponse(@DefaultValue("0") double percent, @DefaultValue("503") int status) {
+
+        public ErrorResponse {
+            checkPercent("error.percent", percent);
+            if (status < 400 || status > 599)
+                throw new IllegalArgumentException("error.status debe ser 4xx o 5xx: " + status);
+        }
+    }
+
+    /**
+     * Conexión con el backend abortada antes de la respuesta (la petición
+     * termina como un error de red, sin status del backend).
+     *
+     * @param percent peticiones abortadas (0-100)
+     */
+    public record Abort(@DefaultValue("0") double percent) {
+
+        public Abort {
+            checkPercent("abort.percent", percent);
+        }
+    }
+
+    /**
+     * Cuerpo de respuesta entregado al cliente a velocidad limitada.
+     *
+     * @param percent        respuestas limitadas (0-100)
+     * @param bytesPerSecond velocidad de entrega
+     */
+    public record Throttle(@DefaultValue("0") double percent, @DefaultValue("64KB") DataSize bytesPerSecond) {
+
+        public Throttle {
+            checkPercent("throttle.percent", percent);
+            if (bytesPerSecond.toBytes() <= 0)
+                throw new IllegalArgumentException("throttle.bytes-per-second debe ser positivo");
+        }
+    }
+
+    private static void checkPercent(String name, double percent) {
+        if (percent < 0 || percent > 100)
+            throw new IllegalArgumentException(name + " debe estar entre 0 y 100: " + percent);
+    }
+}
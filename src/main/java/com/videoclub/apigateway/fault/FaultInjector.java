@@ -0,0 +1,129 @@
+package com.videoclub.apigateway.fault;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fallas vigentes por ruta, modificables en caliente desde /actuator/faults.
+ *
+ * Arranca con las de videoclub.gateway.faults.routes. Cuenta las fallas
+ * inyectadas en gateway.faults.injected (tags route y kind); el contador de
+ * una ruta sobrevive a que se le quiten las fallas.
+ */
+public class FaultInjector {
+
+    private static final Logger log = LoggerFactory.getLogger(FaultInjector.class);
+
+    public enum Kind {
+        LATENCY, ERROR, ABORT, THROTTLE
+    }
+
+    private final Map<String, RouteState> routes = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public FaultInjector(FaultInjectionProperties properties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        properties.routes().forEach(this::set);
+    }
+
+    /** Fallas de la ruta, o null si no tiene. */
+    public FaultInjectionProperties.Faults faults(String routeId) {
+        RouteState state = routes.get(routeId);
+        return state == null ? null : state.faults;
+    }
+
+    public void set(String routeId, FaultInjectionProperties.Faults faults) {
+        routes.computeIfAbsent(routeId, this::register).faults = faults;
+        log.warn("Inyección de fallas activa en la ruta {}: {}", routeId, describe(faults));
+    }
+
+    /** Quita las fallas de la ruta; devuelve false si no tenía. */
+    public boolean clear(String routeId) {
+        RouteState state = routes.get(routeId);
+        if (state == null || state.faults == null)
+            return false;
+        state.faults = null;
+        log.info("Inyección de fallas desactivada en la ruta {}", routeId);
+        return true;
+    }
+
+    public void injected(String routeId, Kind kind) {
+        RouteState state = routes.get(routeId);
+        if (state != null)
+            state.counts[kind.ordinal()].increment();
+    }
+
+    /** Sortea una falla con su porcentaje (0-100). */
+    public static boolean roll(double percent) {
+        return percent > 0 && ThreadLocalRandom.current().nextDouble(100) < percent;
+    }
+
+    /** Estado para /actuator/faults: fallas vigentes e inyectadas por ruta. */
+    public Map<String, Object> report() {
+        Map<String, Object> report = new TreeMap<>();
+        routes.forEach((routeId, state) -> report.put(routeId, state.report()));
+        return report;
+    }
+
+    private RouteState register(String routeId) {
+        RouteState state = new RouteState();
+        for (Kind kind : Kind.values()) {
+            FunctionCounter.builder("gateway.faults.injected", state.counts[kind.ordinal()], LongAdder::sum)
+                    .tags("route", routeId, "kind", kind.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+        }
+        return state;
+    }
+
+    /** Solo las fallas con porcentaje distinto de 0, con duraciones y tamaños legibles. */
+    static Map<String, Object> describe(FaultInjectionProperties.Faults faults) {
+        Map<String, Object> description = new TreeMap<>();
+        FaultInjectionProperties.Latency latency = faults.latency();
+        if (latency.percent() > 0)
+            description.put("latency", Map.of("percent", latency.percent(),
+                    "distribution", latency.distribution().name(), "min", latency.min().toString(),
+                    "median", latency.median().toString(), "p99", latency.p99().toString(),
+                    "max", latency.max().toString()));
+        if (faults.error().percent() > 0)
+            description.put("error", Map.of("percent", faults.error().percent(), "status", faults.error().status()));
+        if (faults.abort().percent() > 0)
+            description.put("abort", Map.of("percent", faults.abort().percent()));
+        if (faults.throttle().percent() > 0)
+            description.put("throttle", Map.of("percent", faults.throttle().percent(),
+                    "bytesPerSecond", faults.throttle().bytesPerSecond().toBytes()));
+        return description;
+    }
+
+    private static final class RouteState {
+
+        private final LongAdder[] counts = new LongAdder[Kind.values().length];
+        private volatile FaultInjectionProperties.Faults faults;
+
+        RouteState() {
+            for (int i = 0; i < counts.length; i++)
+                counts[i] = new LongAdder();
+        }
+
+        Map<String, Object> report() {
+            Map<String, Object> report = new TreeMap<>();
+            FaultInjectionProperties.Faults current = faults;
+            report.put("active", current != null);
+            if (current != null)
+                report.put("faults", describe(current));
+            Map<String, Long> injected = new TreeMap<>();
+            for (Kind kind : Kind.values())
+                injected.put(kind.name().toLowerCase(Locale.ROOT), counts[kind.ordinal()].sum());
+            report.put("injected", injected);
+            return report;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.videoclub.apigateway.fault;
+
+import com.videoclub.apigateway.security.IdentityHeaderSigner;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.util.unit.DataSize;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Endpoint actuator {@code /actuator/faults}.
+ *
+ * - GET: fallas vigentes y fallas inyectadas por ruta
+ * - POST {@code {"route": "descuentos", "latencyPercent": 50, "latencyDistribution": "LOGNORMAL",
+ * "latencyMedian": "80ms", "latencyP99": "2s", "errorPercent": 5}}: reemplaza las
+ * fallas de la ruta; lo que no se envía queda en 0 (o en su valor por defecto)
+ * - DELETE {@code ?route=descuentos}: quita las fallas de la ruta, o de todas
+ * sin route
+ *
+ * POST y DELETE requieren un JWT con el rol de realm configurado en admin-role.
+ */
+@Endpoint(id = "faults")
+public class FaultsEndpoint {
+
+    private final FaultInjector injector;
+    private final FaultInjectionProperties properties;
+
+    public FaultsEndpoint(FaultInjector injector, FaultInjectionProperties properties) {
+        this.injector = injector;
+        this.properties = properties;
+    }
+
+    @ReadOperation
+    public Map<String, Object> faults() {
+        return injector.report();
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> set(Principal principal, String route,
+            @Nullable Double latencyPercent, @Nullable FaultInjectionProperties.Distribution latencyDistribution,
+            @Nullable Duration latencyMin, @Nullable Duration latencyMedian, @Nullable Duration latencyP99,
+            @Nullable Duration latencyMax, @Nullable Double errorPercent, @Nullable Integer errorStatus,
+            @Nullable Double abortPercent, @Nullable Double throttlePercent,
+            @Nullable DataSize throttleBytesPerSecond) {
+        if (!isAdmin(principal))
+            return forbidden();
+        FaultInjectionProperties.Faults faults;
+        try {
+            faults = new FaultInjectionProperties.Faults(
+                    new FaultInjectionProperties.Latency(or(latencyPercent, 0.0),
+                            or(latencyDistribution, FaultInjectionProperties.Distribution.FIXED),
+                            or(latencyMin, Duration.ZERO), or(latencyMedian, Duration.ofMillis(100)),
+                            or(latencyP99, Duration.ofSeconds(1)), or(latencyMax, Duration.ofSeconds(30))),
+                    new FaultInjectionProperties.ErrorResponse(or(errorPercent, 0.0), or(errorStatus, 503)),
+                    new FaultInjectionProperties.Abort(or(abortPercent, 0.0)),
+                    new FaultInjectionProperties.Throttle(or(throttlePercent, 0.0),
+                            or(throttleBytesPerSecond, DataSize.ofKilobytes(64))));
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(Map.of("error", e.getMessage()), WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        injector.set(route, faults);
+        return new WebEndpointResponse<>(Map.of(route, FaultInjector.describe(faults)), WebEndpointResponse.STATUS_OK);
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Map<String, Object>> clear(Principal principal, @Nullable String route) {
+        if (!isAdmin(principal))
+            return forbidden();
+        if (route == null) {
+            injector.report().keySet().forEach(injector::clear);
+            return new WebEndpointResponse<>(injector.report(), WebEndpointResponse.STATUS_OK);
+        }
+        if (!injector.clear(route))
+            return new WebEndpointResponse<>(Map.of("error", "Sin fallas en la ruta " + route),
+                    WebEndpointResponse.STATUS_NOT_FOUND);
+        return new WebEndpointResponse<>(injector.report(), WebEndpointResponse.STATUS_OK);
+    }
+
+    private boolean isAdmin(Principal principal) {
+        return principal instanceof JwtAuthenticationToken auth
+                && IdentityHeaderSigner.roles(auth.getToken()).contains(properties.adminRole());
+    }
+
+    private WebEndpointResponse<Map<String, Object>> forbidden() {
+        return new WebEndpointResponse<>(Map.of("error", "Se requiere el rol " + properties.adminRole()),
+                HttpStatus.FORBIDDEN.value());
+    }
+
+    private static <T> T or(@Nullable T value, T fallback) {
+        return value == null ? fallback : value;
+    }
+}
@@ -0,0 +1,69 @@
+package com.videoclub.apigateway.filter;
+
+import com.videoclub.apigateway.resilience.AdaptiveConcurrencyLimiter;
+import com.videoclub.apigateway.resilience.ConcurrencyLimiterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+
+/**
+ * Aplica el límite de concurrencia adaptativo del backend destino.
+ * 
+ * Corre después de RouteToRequestUrlFilter y del balanceo, cuando ya se
+ * conoce la instancia destino. Si el backend está al límite responde 503 con Retry-After sin
+ * abrir conexión; si no, mide la latencia hasta recibir la respuesta y la
+ * informa al limitador (5xx y errores cuentan como drop).
+ */
+public class AdaptiveConcurrencyGlobalFilter implements GlobalFilter, Ordered {
+
+    private final ConcurrencyLimiterRegistry registry;
+
+    public AdaptiveConcurrencyGlobalFilter(ConcurrencyLimiterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        URI target = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        if (target == null || target.getHost() == null)
+            return chain.filter(exchange);
+
+        AdaptiveConcurrencyLimiter limiter = registry.forBackend(backendKey(target));
+        int inFlightAtStart = limiter.inFlight();
+        if (!limiter.tryAcquire()) {
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+            return exchange.getResponse().setComplete();
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            if (signal == SignalType.CANCEL) {
+                limiter.releaseWithoutSample();
+                return;
+            }
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            boolean drop = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+            limiter.release(System.nanoTime() - start, inFlightAtStart + 1, drop);
+        });
+    }
+
+    static String backendKey(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + (uri.getPort() < 0 ? "" : ":" + uri.getPort());
+    }
+
+    @Override
+    public int getOrder() {
+        // Después del balanceo: el límite se aplica por instancia concreta
+        return LoadBalancerGlobalFilter.LOAD_BALANCER_FILTER_ORDER + 1;
+    }
+}
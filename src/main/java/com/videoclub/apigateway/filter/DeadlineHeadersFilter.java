@@ -0,0 +1,45 @@
+package com.videoclub.apigateway.filter;
+
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrega a la petición hacia el backend el header de deadline con los ms que
+ * quedan: el mínimo entre lo que resta del plazo total
+ * ({@link RouteTimeoutGlobalFilter#DEADLINE_ATTR}) y el response-timeout de
+ * la ruta. Se calcula al enviar, así descuenta la cola y el balanceo; un
+ * backend que recibe 0 puede descartar el trabajo.
+ *
+ * Reemplaza el valor que haya enviado el cliente.
+ */
+public class DeadlineHeadersFilter implements HttpHeadersFilter {
+
+    private final String header;
+
+    public DeadlineHeadersFilter(String header) {
+        this.header = header;
+    }
+
+    @Override
+    public HttpHeaders filter(HttpHeaders input, ServerWebExchange exchange) {
+        Long deadline = exchange.getAttribute(RouteTimeoutGlobalFilter.DEADLINE_ATTR);
+        if (deadline == null)
+            return input;
+        long remaining = Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route != null && route.getMetadata().get(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR) instanceof Number response
+                && response.longValue() >= 0)
+            remaining = Math.min(remaining, response.longValue());
+
+        HttpHeaders filtered = new HttpHeaders();
+        filtered.putAll(input);
+        filtered.set(header, Long.toString(remaining));
+        return filtered;
+    }
+}
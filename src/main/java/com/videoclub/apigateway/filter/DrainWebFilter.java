@@ -0,0 +1,47 @@
+package com.videoclub.apigateway.filter;
+
+import com.videoclub.apigateway.health.GracefulDrain;
+import com.videoclub.apigateway.health.InFlightExchanges;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Registra cada intercambio en {@link InFlightExchanges} y, durante el
+ * drenaje, agrega {@code Connection: close} a la respuesta para que el
+ * cliente cierre la conexión keep-alive y abra la siguiente en otra réplica.
+ *
+ * El header se decide al confirmar la respuesta, así también lo llevan las
+ * peticiones que empezaron antes del drenaje.
+ */
+public class DrainWebFilter implements WebFilter, Ordered {
+
+    private final GracefulDrain drain;
+    private final InFlightExchanges inFlight;
+
+    public DrainWebFilter(GracefulDrain drain, InFlightExchanges inFlight) {
+        this.drain = drain;
+        this.inFlight = inFlight;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.beforeCommit(() -> {
+            if (drain.draining())
+                response.getHeaders().set(HttpHeaders.CONNECTION, "close");
+            return Mono.empty();
+        });
+        return inFlight.track(exchange, chain.filter(exchange));
+    }
+
+    @Override
+    public int getOrder() {
+        // Justo después de la traza: cuenta también lo que rechaza la seguridad
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+}
@@ -0,0 +1,79 @@
+package com.videoclub.apigateway.filter;
+
+import com.videoclub.apigateway.fault.FaultInjectionProperties;
+import com.videoclub.apigateway.fault.FaultInjector;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Simula un backend lento o que falla en las rutas con fallas configuradas
+ * (ver {@link FaultInjector}): demora la llamada según la distribución de
+ * latencia y luego, en lugar de llamar al backend, puede abortar la conexión
+ * (error de red) o responder con el status de error configurado.
+ *
+ * Corre después del balanceo y del límite adaptativo, de modo que la
+ * latencia y los errores inyectados cuentan para la latencia EWMA, la
+ * expulsión pasiva y el límite por instancia igual que los reales; los
+ * timeouts por ruta y el descarte de carga los ven desde afuera.
+ */
+public class FaultInjectionGlobalFilter implements GlobalFilter, Ordered {
+
+    private final FaultInjector injector;
+
+    public FaultInjectionGlobalFilter(FaultInjector injector) {
+        this.injector = injector;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        FaultInjectionProperties.Faults faults = route == null ? null : injector.faults(route.getId());
+        if (faults == null)
+            return chain.filter(exchange);
+
+        String routeId = route.getId();
+        Mono<Void> upstream = Mono.defer(() -> {
+            if (FaultInjector.roll(faults.abort().percent())) {
+                injector.injected(routeId, FaultInjector.Kind.ABORT);
+                return Mono.error(new IOException("Falla inyectada: conexión con el backend abortada"));
+            }
+            if (FaultInjector.roll(faults.error().percent())) {
+                injector.injected(routeId, FaultInjector.Kind.ERROR);
+                return error(exchange.getResponse(), routeId, faults.error().status());
+            }
+            return chain.filter(exchange);
+        });
+        if (!FaultInjector.roll(faults.latency().percent()))
+            return upstream;
+        injector.injected(routeId, FaultInjector.Kind.LATENCY);
+        return Mono.delay(faults.latency().sample(ThreadLocalRandom.current())).then(upstream);
+    }
+
+    private static Mono<Void> error(ServerHttpResponse response, String routeId, int status) {
+        response.setStatusCode(HttpStatusCode.valueOf(status));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        String body = "{\"code\":\"FAULT_INJECTED\",\"message\":\"Error inyectado por el gateway\","
+                + "\"details\":{\"route\":\"" + routeId + "\",\"fault\":\""
+                + FaultInjector.Kind.ERROR.name().toLowerCase(Locale.ROOT) + "\"}}";
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Override
+    public int getOrder() {
+        // Justo después de AdaptiveConcurrencyGlobalFilter, en lugar de la llamada al backend
+        return LoadBalancerGlobalFilter.LOAD_BALANCER_FILTER_ORDER + 2;
+    }
+}
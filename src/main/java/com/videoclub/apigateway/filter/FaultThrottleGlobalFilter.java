@@ -0,0 +1,83 @@
+package com.videoclub.apigateway.filter;
+
+import com.videoclub.apigateway.fault.FaultInjectionProperties;
+import com.videoclub.apigateway.fault.FaultInjector;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Throttle de la inyección de fallas: entrega el cuerpo de la respuesta al
+ * cliente a bytes-per-second, como una red lenta. Cada buffer se retiene el
+ * tiempo que tardaría en transmitirse a esa velocidad.
+ *
+ * Es el filtro de respuesta más lejano al backend, así también se limitan
+ * las respuestas servidas desde los caches.
+ */
+public class FaultThrottleGlobalFilter implements GlobalFilter, Ordered {
+
+    private final FaultInjector injector;
+
+    public FaultThrottleGlobalFilter(FaultInjector injector) {
+        this.injector = injector;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        FaultInjectionProperties.Faults faults = route == null ? null : injector.faults(route.getId());
+        if (faults == null || !FaultInjector.roll(faults.throttle().percent()))
+            return chain.filter(exchange);
+
+        injector.injected(route.getId(), FaultInjector.Kind.THROTTLE);
+        return chain.filter(exchange.mutate()
+                .response(new ThrottledResponse(exchange.getResponse(), faults.throttle().bytesPerSecond().toBytes()))
+                .build());
+    }
+
+    @Override
+    public int getOrder() {
+        // Antes de QueryContractGlobalFilter y de los caches
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 6;
+    }
+
+    static class ThrottledResponse extends ServerHttpResponseDecorator {
+
+        private final long bytesPerSecond;
+
+        ThrottledResponse(ServerHttpResponse delegate, long bytesPerSecond) {
+            super(delegate);
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(throttle(body));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return super.writeAndFlushWith(Flux.from(body).map(this::throttle));
+        }
+
+        private Flux<DataBuffer> throttle(Publisher<? extends DataBuffer> body) {
+            return Flux.<DataBuffer>from(body)
+                    .concatMap(buffer -> Mono.just(buffer).delayElement(Duration.ofNanos(
+                            buffer.readableByteCount() * 1_000_000_000L / bytesPerSecond)))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.videoclub.apigateway.filter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.videoclub.apigateway.transform.JsonFieldFilter;
+import com.videoclub.apigateway.transform.ProjectionProperties;
+import com.videoclub.apigateway.transform.ProjectionProperties.RouteProjection;
+import com.videoclub.apigateway.transform.TransformPipeline;
+import com.videoclub.apigateway.transform.TransformStats;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Sparse fieldsets: con {@code ?fields=titulo,poster,precio} en las rutas de
+ * videoclub.gateway.projection.routes, la respuesta JSON se proyecta a esos
+ * campos de cada ítem.
+ *
+ * - el parámetro no llega al backend y se le pide la respuesta sin comprimir
+ * - la proyección es en streaming ({@link JsonFieldFilter} sobre
+ * {@link TransformPipeline}): cada buffer del backend se transforma y libera
+ * sin juntar el cuerpo completo
+ * - va después del cache de respuestas en la cadena, así el cache guarda la
+ * respuesta ya proyectada bajo su propia clave (la query canónica incluye
+ * {@code fields})
+ * - solo se proyectan respuestas 200 JSON; el resto pasa sin cambios
+ */
+public class FieldProjectionGlobalFilter implements GlobalFilter, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(FieldProjectionGlobalFilter.class);
+    private static final Pattern FIELD = Pattern.compile("[A-Za-z0-9_]{1,64}");
+
+    private record RoutePolicy(RouteProjection settings, TransformStats stats) {
+    }
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Map<String, RoutePolicy> policies = new HashMap<>();
+
+    public FieldProjectionGlobalFilter(ProjectionProperties properties) {
+        properties.routes().forEach((routeId, settings) -> policies.put(routeId,
+                new RoutePolicy(settings, new TransformStats())));
+    }
+
+    /** Contadores por id de ruta. */
+    public Map<String, TransformStats> stats() {
+        Map<String, TransformStats> stats = new HashMap<>();
+        policies.forEach((routeId, policy) -> stats.put(routeId, policy.stats()));
+        return stats;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        RoutePolicy policy = route == null ? null : policies.get(route.getId());
+        ServerHttpRequest request = exchange.getRequest();
+        if (policy == null || request.getMethod() != HttpMethod.GET)
+            return chain.filter(exchange);
+        String param = policy.settings().param();
+        String raw = request.getQueryParams().getFirst(param);
+        if (raw == null)
+            return chain.filter(exchange);
+
+        Set<String> fields = parseFields(raw, policy.settings().maxFields());
+        if (fields == null)
+            return reject(exchange.getResponse(), param);
+
+        URI upstream = UriComponentsBuilder.fromUri(request.getURI())
+                .replaceQueryParam(param)
+                .build(true)
+                .toUri();
+        ServerHttpRequest mutated = request.mutate()
+                .uri(upstream)
+                .headers(headers -> headers.remove(HttpHeaders.ACCEPT_ENCODING))
+                .build();
+        ProjectingResponse response = new ProjectingResponse(exchange.getResponse(), fields,
+                policy.settings().collections(), policy.stats());
+        return chain.filter(exchange.mutate().request(mutated).response(response).build());
+    }
+
+    /** Lista de campos válida, o null si está vacía, es muy larga o tiene nombres inválidos. */
+    static Set<String> parseFields(String raw, int maxFields) {
+        Set<String> fields = new LinkedHashSet<>();
+        for (String field : raw.split(",")) {
+            String name = field.trim();
+            if (!FIELD.matcher(name).matches())
+                return null;
+            fields.add(name);
+        }
+        return fields.isEmpty() || fields.size() > maxFields ? null : fields;
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, String param) {
+        response.setStatusCode(HttpStatus.BAD_REQUEST);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        String body = "{\"code\":\"INVALID_QUERY_PARAM\",\"message\":\"El parámetro '" + param
+                + "' debe ser una lista de campos separados por coma\",\"details\":{\"param\":\"" + param + "\"}}";
+        DataBuffer buffer = response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    @Override
+    public int getOrder() {
+        // Después del cache (que debe recibir el cuerpo ya proyectado) y antes de
+        // las transformaciones por ruta y de NettyWriteResponseFilter, que
+        // escribe en la respuesta que recibe
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+    }
+
+    /** Proyecta el cuerpo buffer por buffer al escribirlo. */
+    private class ProjectingResponse extends ServerHttpResponseDecorator {
+
+        private final Set<String> fields;
+        private final Set<String> collections;
+        private final TransformStats stats;
+
+        ProjectingResponse(ServerHttpResponse delegate, Set<String> fields, Set<String> collections,
+                TransformStats stats) {
+            super(delegate);
+            this.fields = fields;
+            this.collections = collections;
+            this.stats = stats;
+        }
+
+        private boolean projectable() {
+            HttpStatusCode status = getStatusCode();
+            return status != null && status.value() == 200
+                    && JsonFieldFilter.supports(getHeaders().getContentType())
+                    && !getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!projectable())
+                return super.writeWith(body);
+
+            getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            JsonFieldFilter projection = JsonFieldFilter.projection(jsonFactory, fields, collections);
+            return super.writeWith(TransformPipeline.apply(body, List.of(projection), bufferFactory(), stats)
+                    .doOnError(e -> log.warn("No se pudo proyectar la respuesta JSON: {}", e.getMessage())));
+        }
+    }
+}
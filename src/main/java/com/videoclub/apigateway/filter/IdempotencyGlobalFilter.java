@@ -0,0 +1,276 @@
+package com.videoclub.apigateway.filter;
+
+import com.videoclub.apigateway.cache.BodyCapture;
+import com.videoclub.apigateway.cache.CachedResponse;
+import com.videoclub.apigateway.idempotency.IdempotencyProperties;
+import com.videoclub.apigateway.idempotency.IdempotencyStore;
+import com.videoclub.apigateway.idempotency.IdempotencyStore.Claim;
+import com.videoclub.apigateway.idempotency.IdempotencyStore.Completed;
+import com.videoclub.apigateway.idempotency.IdempotencyStore.Entry;
+import com.videoclub.apigateway.idempotency.IdempotencyStore.InFlight;
+import com.videoclub.apigateway.idempotency.IdempotencyStore.Mismatch;
+import com.videoclub.apigateway.idempotency.IdempotencyStore.Owner;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Claves de idempotencia para los POST de las rutas configuradas
+ * (videoclub.gateway.idempotency.routes).
+ * 
+ * La clave es el header Idempotency-Key más el subject del JWT, así dos
+ * usuarios nunca comparten respuestas. Para cada clave:
+ * - primera vez: se reenvía al backend y se guarda la respuesta (&lt; 500)
+ * - duplicado con la original en curso: espera su respuesta sin reenviar
+ * - duplicado posterior: se repite la respuesta guardada
+ * 
+ * Cada clave queda atada a la huella (SHA-256 de método, path, query y
+ * cuerpo) de la petición que la usó primero: reusarla con otra petición
+ * responde 422 en lugar de repetir una respuesta ajena. El cuerpo se lee
+ * completo para la huella, hasta max-body-size (si no, 413).
+ * 
+ * Las respuestas repetidas llevan {@code Idempotent-Replayed: true}. Un
+ * duplicado que espera más de attach-timeout recibe 409. Si el cliente de la
+ * original cancela (desconexión, plazo total) después de rutearla, el llamado
+ * al backend sigue y su respuesta queda para el reintento; si se abandona sin
+ * respuesta, uno solo de los duplicados la ejecuta. Sin header la
+ * petición pasa sin cambios; con header pero sin JWT (ruta pública) se
+ * responde 401, porque sin subject la clave no tendría dueño.
+ */
+public class IdempotencyGlobalFilter implements GlobalFilter, Ordered {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final List<String> STORED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_ENCODING, HttpHeaders.LOCATION, HttpHeaders.ETAG);
+
+    private final IdempotencyStore store;
+    private final IdempotencyProperties properties;
+    private final int maxBodySize;
+
+    public IdempotencyGlobalFilter(IdempotencyStore store, IdempotencyProperties properties) {
+        this.store = store;
+        this.properties = properties;
+        this.maxBodySize = (int) properties.maxBodySize().toBytes();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String idempotencyKey = exchange.getRequest().getHeaders().getFirst(properties.header());
+        if (idempotencyKey == null || route == null || exchange.getRequest().getMethod() != HttpMethod.POST
+                || !properties.routes().contains(route.getId()))
+            return chain.filter(exchange);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > properties.maxKeyLength())
+            return error(exchange.getResponse(), HttpStatus.BAD_REQUEST, "INVALID_IDEMPOTENCY_KEY",
+                    "El header " + properties.header() + " debe tener entre 1 y " + properties.maxKeyLength()
+                            + " caracteres");
+
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(auth -> auth instanceof JwtAuthenticationToken)
+                .map(auth -> Optional.ofNullable(((JwtAuthenticationToken) auth).getToken().getSubject()))
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(subject -> subject
+                        .map(sub -> fingerprinted(exchange, chain, sub + '|' + idempotencyKey))
+                        .orElseGet(() -> error(exchange.getResponse(), HttpStatus.UNAUTHORIZED,
+                                "IDEMPOTENCY_REQUIRES_AUTH",
+                                "El header " + properties.header() + " requiere un usuario autenticado")));
+    }
+
+    /** Lee el cuerpo (hasta max-body-size) para la huella y lo vuelve a ofrecer al backend. */
+    private Mono<Void> fingerprinted(ServerWebExchange exchange, GatewayFilterChain chain, String key) {
+        ServerHttpRequest request = exchange.getRequest();
+        return DataBufferUtils.join(request.getBody(), maxBodySize)
+                .map(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .flatMap(body -> {
+                    ServerHttpRequest replayable = new ServerHttpRequestDecorator(request) {
+                        @Override
+                        public Flux<DataBuffer> getBody() {
+                            return Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory().wrap(body)));
+                        }
+                    };
+                    return handle(exchange.mutate().request(replayable).build(), chain, key,
+                            fingerprint(request, body));
+                })
+                .onErrorResume(DataBufferLimitException.class, e -> error(exchange.getResponse(),
+                        HttpStatus.PAYLOAD_TOO_LARGE, "IDEMPOTENCY_BODY_TOO_LARGE",
+                        "El cuerpo de una petición con " + properties.header() + " no puede superar "
+                                + properties.maxBodySize()));
+    }
+
+    /** SHA-256 de método, path, query y cuerpo. */
+    static String fingerprint(ServerHttpRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String query = request.getURI().getRawQuery();
+            digest.update((request.getMethod().name() + ' ' + request.getPath().value()
+                    + (query == null ? "" : "?" + query) + '\n').getBytes(StandardCharsets.UTF_8));
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private Mono<Void> handle(ServerWebExchange exchange, GatewayFilterChain chain, String key, String fingerprint) {
+        Claim claim = store.begin(key, fingerprint, System.currentTimeMillis());
+        if (claim instanceof Mismatch)
+            return error(exchange.getResponse(), HttpStatus.UNPROCESSABLE_ENTITY, "IDEMPOTENCY_KEY_REUSED",
+                    "La clave ya se usó con otra petición (método, path o cuerpo distintos)");
+        if (claim instanceof Completed completed)
+            return replay(exchange.getResponse(), completed.response());
+        if (claim instanceof InFlight inFlight)
+            // Vacío: la original se abandonó sin respuesta; se vuelve a pedir la
+            // clave y solo uno de los duplicados queda como dueño
+            return inFlight.response()
+                    .map(stored -> replay(exchange.getResponse(), stored))
+                    .defaultIfEmpty(Mono.defer(() -> handle(exchange, chain, key, fingerprint)))
+                    .timeout(properties.attachTimeout(), Mono.fromSupplier(() -> error(exchange.getResponse(),
+                            HttpStatus.CONFLICT, "IDEMPOTENCY_KEY_IN_USE",
+                            "La petición original con esta clave sigue en curso")))
+                    .flatMap(action -> action);
+
+        Entry entry = ((Owner) claim).entry();
+        RecordingResponse response = new RecordingResponse(exchange.getResponse(), entry);
+        ServerWebExchange recording = exchange.mutate().response(response).build();
+        // El llamado sigue aunque el cliente cancele (desconexión, plazo total):
+        // si ya salió hacia el backend la compra puede estar en curso, y el
+        // reintento debe engancharse a su respuesta en vez de ejecutarla otra vez.
+        // Solo se abandona la clave si la petición no llegó a rutearse.
+        return Mono.deferContextual(context -> {
+            Sinks.Empty<Void> done = Sinks.empty();
+            Disposable call = chain.filter(recording)
+                    .doFinally(signal -> {
+                        if (!response.recorded)
+                            store.abandon(entry);
+                    })
+                    .contextWrite(context)
+                    .subscribe(null, done::tryEmitError, done::tryEmitEmpty);
+            return done.asMono().doOnCancel(() -> {
+                if (!ServerWebExchangeUtils.isAlreadyRouted(recording))
+                    call.dispose();
+            });
+        });
+    }
+
+    private static Mono<Void> replay(ServerHttpResponse response, CachedResponse stored) {
+        response.setStatusCode(HttpStatusCode.valueOf(stored.status()));
+        stored.headers().forEach(response.getHeaders()::set);
+        response.getHeaders().set(REPLAYED_HEADER, "true");
+        response.getHeaders().setContentLength(stored.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(stored.body())));
+    }
+
+    private static Mono<Void> error(ServerHttpResponse response, HttpStatus status, String code, String message) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        String body = "{\"code\":\"" + code + "\",\"message\":\"" + message + "\",\"details\":{}}";
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Override
+    public int getOrder() {
+        // Antes de NettyWriteResponseFilter, para grabar la respuesta que escribe,
+        // y de las transformaciones por ruta, para grabarla ya transformada
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+    }
+
+    /**
+     * Graba la respuesta del backend y la publica a los duplicados. Se graba
+     * antes de escribirla al cliente, así queda aunque el cliente ya no esté;
+     * una respuesta de más de max-body-size pasa en streaming sin grabarse.
+     */
+    private class RecordingResponse extends ServerHttpResponseDecorator {
+
+        private final Entry entry;
+        private volatile boolean recorded;
+
+        RecordingResponse(ServerHttpResponse delegate, Entry entry) {
+            super(delegate);
+            this.entry = entry;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            long[] size = new long[1];
+            // El primer lote es el cuerpo completo, o lo leído hasta pasar el límite
+            return Flux.from(body)
+                    .bufferUntil(buffer -> (size[0] += buffer.readableByteCount()) > maxBodySize)
+                    .switchOnFirst((first, batches) -> {
+                        if (size[0] <= maxBodySize)
+                            record(first.hasValue() ? bytes(first.get()) : new byte[0]);
+                        return super.writeWith(batches.concatMapIterable(batch -> batch));
+                    })
+                    .then();
+        }
+
+        /** Copia los buffers sin consumirlos. */
+        private static byte[] bytes(List<? extends DataBuffer> buffers) {
+            BodyCapture copy = new BodyCapture(Integer.MAX_VALUE);
+            buffers.forEach(copy::write);
+            return copy.body();
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            record(new byte[0]);
+            return super.setComplete();
+        }
+
+        private void record(byte[] body) {
+            if (recorded)
+                return;
+            recorded = true;
+            HttpStatusCode status = getStatusCode();
+            int code = status == null ? 200 : status.value();
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (String name : STORED_HEADERS) {
+                String value = getHeaders().getFirst(name);
+                if (value != null)
+                    headers.put(name, value);
+            }
+            long now = System.currentTimeMillis();
+            long until = now + properties.retention().toMillis();
+            store.complete(entry, new CachedResponse(code, headers, body, now, until, until), code < 500);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.videoclub.apigateway.filter;
+
+import com.videoclub.apigateway.balancer.CanaryController;
+import com.videoclub.apigateway.balancer.CanaryRelease;
+import com.videoclub.apigateway.balancer.InstanceHealth;
+import com.videoclub.apigateway.balancer.P2cLoadBalancer;
+import com.videoclub.apigateway.balancer.ServiceInstance;
+import com.videoclub.apigateway.balancer.ServiceRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientResponse;
+
+import java.net.URI;
+
+/**
+ * Resuelve las rutas {@code lb://<servicio>} a una instancia concreta con
+ * {@link P2cLoadBalancer}.
+ * 
+ * Corre justo después de RouteToRequestUrlFilter: reemplaza scheme, host y
+ * puerto de la URL destino conservando path y query, y registra pendientes y
+ * latencia de la instancia elegida. Si ninguna instancia está disponible
+ * (caída según el probe activo o expulsada por fallos) responde 503 sin
+ * intentar la conexión.
+ * 
+ * Solo los fallos de la instancia ({@link InstanceHealth#isFailure}) cuentan
+ * para la expulsión pasiva: se mira el status que respondió el backend
+ * (CLIENT_RESPONSE_ATTR), no el de la respuesta, que puede ser un 503 del
+ * propio gateway (limitador adaptativo, fallas inyectadas) sin que la
+ * petición haya llegado a la instancia.
+ * 
+ * Un servicio con canary ({@link CanaryController}) elige primero la versión
+ * según el peso y registra en ella la latencia y el resultado (ahí sí cuenta
+ * cualquier 5xx del backend).
+ */
+public class LoadBalancerGlobalFilter implements GlobalFilter, Ordered {
+
+    public static final int LOAD_BALANCER_FILTER_ORDER = RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 1;
+
+    private static final String LB_SCHEME = "lb";
+
+    private final ServiceRegistry registry;
+    private final CanaryController canary;
+
+    public LoadBalancerGlobalFilter(ServiceRegistry registry) {
+        this(registry, null);
+    }
+
+    public LoadBalancerGlobalFilter(ServiceRegistry registry, CanaryController canary) {
+        this.registry = registry;
+        this.canary = canary;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        URI url = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        if (url == null || !LB_SCHEME.equals(url.getScheme()))
+            return chain.filter(exchange);
+
+        CanaryRelease release = canary == null ? null : canary.release(url.getHost());
+        CanaryRelease.Choice choice = release == null ? null : release.choose();
+        ServiceInstance instance;
+        if (release != null) {
+            instance = choice == null ? null : choice.instance();
+        } else {
+            P2cLoadBalancer balancer = registry.balancer(url.getHost());
+            instance = balancer == null ? null : balancer.choose();
+        }
+        if (instance == null)
+            return Mono.error(NotFoundException.create(true, "No hay instancias disponibles para " + url.getHost()));
+
+        URI target = UriComponentsBuilder.fromUri(url)
+                .scheme(instance.uri().getScheme())
+                .host(instance.uri().getHost())
+                .port(instance.uri().getPort())
+                .build(true)
+                .toUri();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, target);
+
+        instance.start();
+        long start = System.nanoTime();
+        Throwable[] failure = new Throwable[1];
+        return chain.filter(exchange)
+                .doOnError(e -> failure[0] = e)
+                .doFinally(signal -> {
+                    HttpClientResponse upstream = exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR);
+                    int upstreamStatus = upstream == null ? 0 : upstream.status().code();
+                    boolean instanceFailure = InstanceHealth.isFailure(failure[0])
+                            || InstanceHealth.isFailure(upstreamStatus);
+                    long latency = System.nanoTime() - start;
+                    instance.finish(latency, instanceFailure);
+                    if (choice != null)
+                        release.record(choice.version(), latency, instanceFailure || upstreamStatus >= 500);
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return LOAD_BALANCER_FILTER_ORDER;
+    }
+}
@@ -0,0 +1,276 @@
+package com.videoclub.apigateway.filter;
+
+import com.videoclub.apigateway.cache.CacheDirectives;
+import com.videoclub.apigateway.cache.CacheStats;
+import com.videoclub.apigateway.cache.MediaCache;
+import com.videoclub.apigateway.cache.MediaCacheProperties;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache de medios (pósters, trailers) en los paths de
+ * videoclub.gateway.media-cache.routes.
+ *
+ * - hit: se envía el archivo local con transferencia zero-copy (sendfile) o,
+ * si la respuesta está decorada, desde un mapeo en memoria del archivo
+ * - Range / If-Range se resuelven en el gateway: 206 con un único rango, 416
+ * si no es satisfacible; varios rangos o un If-Range que no coincide con el
+ * ETag / Last-Modified devuelven el cuerpo completo
+ * - miss: el 200 del backend se guarda mientras pasa hacia el cliente. Un
+ * Range desde el byte 0 (lo primero que pide un reproductor) se pide completo
+ * para llenar el cache; los demás Range van al backend tal cual
+ *
+ * Marca el intercambio con {@link #MEDIA_ATTR} para que el cache de
+ * respuestas en memoria no guarde también el cuerpo.
+ */
+public class MediaCacheGlobalFilter implements GlobalFilter, Ordered {
+
+    public static final String MEDIA_ATTR = MediaCacheGlobalFilter.class.getName() + ".media";
+    private static final List<String> STORED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CACHE_CONTROL, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED);
+
+    /** Paths de medios de una ruta, compilados. */
+    private record RoutePolicy(List<PathPattern> paths, CacheStats stats) {
+
+        boolean covers(PathContainer path) {
+            for (PathPattern pattern : paths) {
+                if (pattern.matches(path))
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    private final MediaCache cache;
+    private final long maxEntrySize;
+    private final long ttlMillis;
+    private final List<MediaType> contentTypes;
+    private final Map<String, RoutePolicy> policies = new HashMap<>();
+
+    public MediaCacheGlobalFilter(MediaCache cache, MediaCacheProperties properties) {
+        this.cache = cache;
+        this.maxEntrySize = properties.maxEntrySize().toBytes();
+        this.ttlMillis = properties.ttl().toMillis();
+        this.contentTypes = properties.contentTypes().stream().map(MediaType::parseMediaType).toList();
+        properties.routes().forEach((routeId, settings) -> {
+            if (!settings.paths().isEmpty())
+                policies.put(routeId, new RoutePolicy(
+                        settings.paths().stream().map(PathPatternParser.defaultInstance::parse).toList(),
+                        new CacheStats()));
+        });
+    }
+
+    /** Contadores por id de ruta. */
+    public Map<String, CacheStats> stats() {
+        Map<String, CacheStats> stats = new HashMap<>();
+        policies.forEach((routeId, policy) -> stats.put(routeId, policy.stats()));
+        return stats;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        RoutePolicy policy = route == null ? null : policies.get(route.getId());
+        ServerHttpRequest request = exchange.getRequest();
+        if (policy == null || request.getMethod() != HttpMethod.GET
+                || !policy.covers(request.getPath().pathWithinApplication()))
+            return chain.filter(exchange);
+
+        exchange.getAttributes().put(MEDIA_ATTR, Boolean.TRUE);
+        String key = key(route.getId(), request.getURI());
+        MediaCache.Entry entry = cache.acquire(key, System.currentTimeMillis());
+        if (entry != null) {
+            policy.stats().hit();
+            return serve(request, exchange.getResponse(), entry).doFinally(signal -> entry.release());
+        }
+
+        policy.stats().miss();
+        String range = request.getHeaders().getFirst(HttpHeaders.RANGE);
+        if (range != null && !startsAtZero(range))
+            return chain.filter(exchange);
+        ServerHttpRequest full = request.mutate()
+                .headers(headers -> {
+                    headers.remove(HttpHeaders.RANGE);
+                    headers.remove(HttpHeaders.IF_RANGE);
+                    headers.remove(HttpHeaders.IF_NONE_MATCH);
+                    headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+                })
+                .build();
+        return chain.filter(exchange.mutate()
+                .request(full)
+                .response(new FillingResponse(exchange.getResponse(), key))
+                .build());
+    }
+
+    static String key(String routeId, URI uri) {
+        String query = uri.getRawQuery();
+        return routeId + ' ' + uri.getRawPath() + (query == null || query.isEmpty() ? "" : "?" + query);
+    }
+
+    private static boolean startsAtZero(String range) {
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(range);
+            return ranges.size() == 1 && ranges.get(0).getRangeStart(Long.MAX_VALUE) == 0;
+        } catch (IllegalArgumentException e) {
+            // Range inválido: se ignora y se responde el cuerpo completo
+            return true;
+        }
+    }
+
+    private static Mono<Void> serve(ServerHttpRequest request, ServerHttpResponse response, MediaCache.Entry entry) {
+        long now = System.currentTimeMillis();
+        HttpHeaders headers = response.getHeaders();
+        entry.headers().forEach(headers::set);
+        headers.set(ResponseCacheGlobalFilter.CACHE_HEADER, "HIT");
+        headers.set(HttpHeaders.AGE, Long.toString(entry.ageSeconds(now)));
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        String etag = entry.headers().get(HttpHeaders.ETAG);
+        if (etag != null && request.getHeaders().getIfNoneMatch().contains(etag)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        long length = entry.length();
+        HttpRange range = requestedRange(request.getHeaders(), entry);
+        if (range == null) {
+            response.setStatusCode(HttpStatus.OK);
+            headers.setContentLength(length);
+            return writeFile(response, entry, 0, length);
+        }
+        long start = range.getRangeStart(length);
+        long end = range.getRangeEnd(length);
+        if (start > end) {
+            response.setStatusCode(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            headers.setContentLength(0);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.PARTIAL_CONTENT);
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        headers.setContentLength(end - start + 1);
+        return writeFile(response, entry, start, end - start + 1);
+    }
+
+    /** Rango único a servir, o null para el cuerpo completo. */
+    private static HttpRange requestedRange(HttpHeaders requestHeaders, MediaCache.Entry entry) {
+        String range = requestHeaders.getFirst(HttpHeaders.RANGE);
+        if (range == null || !ifRangeMatches(requestHeaders.getFirst(HttpHeaders.IF_RANGE), entry))
+            return null;
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(range);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** If-Range: ETag fuerte idéntico o fecha igual a Last-Modified (RFC 9110 13.1.5). */
+    private static boolean ifRangeMatches(String ifRange, MediaCache.Entry entry) {
+        if (ifRange == null)
+            return true;
+        String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/"))
+            return value.startsWith("\"") && value.equals(entry.headers().get(HttpHeaders.ETAG));
+        return value.equals(entry.headers().get(HttpHeaders.LAST_MODIFIED));
+    }
+
+    private static Mono<Void> writeFile(ServerHttpResponse response, MediaCache.Entry entry, long position,
+            long count) {
+        if (count == 0)
+            return response.setComplete();
+        if (response instanceof ZeroCopyHttpOutputMessage zeroCopy)
+            return zeroCopy.writeWith(entry.file(), position, count);
+        return Mono.fromCallable(() -> entry.map(position, count))
+                .flatMap(mapped -> response.writeWith(Mono.just(response.bufferFactory().wrap(mapped))));
+    }
+
+    @Override
+    public int getOrder() {
+        // Antes del cache de respuestas en memoria (que no debe guardar medios) y
+        // después del contrato de query params, que canoniza la query de la clave
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 4;
+    }
+
+    /** Copia al cache el cuerpo de un 200 de medios mientras se envía al cliente. */
+    private class FillingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+
+        FillingResponse(ServerHttpResponse delegate, String key) {
+            super(delegate);
+            this.key = key;
+        }
+
+        /** Frescura en millis, o {@link CacheDirectives#NOT_STORABLE} si no se guarda. */
+        private long freshness() {
+            HttpHeaders headers = getHeaders();
+            HttpStatusCode status = getStatusCode();
+            MediaType contentType = headers.getContentType();
+            long length = headers.getContentLength();
+            if (status == null || status.value() != 200 || contentType == null || length <= 0
+                    || length > maxEntrySize || headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+                    || headers.containsKey(HttpHeaders.SET_COOKIE) || "*".equals(headers.getFirst(HttpHeaders.VARY))
+                    || contentTypes.stream().noneMatch(type -> type.includes(contentType)))
+                return CacheDirectives.NOT_STORABLE;
+            return CacheDirectives.freshnessMillis(headers, ttlMillis);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            long freshness = freshness();
+            getHeaders().set(ResponseCacheGlobalFilter.CACHE_HEADER, "MISS");
+            if (freshness <= 0)
+                return super.writeWith(body);
+
+            Map<String, String> stored = new LinkedHashMap<>();
+            for (String name : STORED_HEADERS) {
+                String value = getHeaders().getFirst(name);
+                if (value != null)
+                    stored.put(name, value);
+            }
+            MediaCache.Fill fill = cache.begin(key, getHeaders().getContentLength(), stored,
+                    System.currentTimeMillis() + freshness);
+            if (fill == null)
+                return super.writeWith(body);
+            getHeaders().set(HttpHeaders.ACCEPT_RANGES, "bytes");
+            return super.writeWith(Flux.from(body)
+                    .doOnNext(fill::write)
+                    .doFinally(signal -> {
+                        if (signal == SignalType.ON_COMPLETE)
+                            fill.complete();
+                        else
+                            fill.abort();
+                    }));
+        }
+    }
+}
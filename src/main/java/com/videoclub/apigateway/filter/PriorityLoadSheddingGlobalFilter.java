@@ -0,0 +1,52 @@
+package com.videoclub.apigateway.filter;
+
+import com.videoclub.apigateway.resilience.AdmissionController;
+import com.videoclub.apigateway.resilience.LoadSheddingProperties;
+import com.videoclub.apigateway.resilience.Priority;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Descarte de carga por prioridad de ruta.
+ * 
+ * Corre primero entre los GlobalFilter para que una petición descartada no
+ * pague validación, balanceo ni conexión. Responde 503 con Retry-After y no
+ * toca el backend.
+ */
+public class PriorityLoadSheddingGlobalFilter implements GlobalFilter, Ordered {
+
+    private final AdmissionController controller;
+    private final LoadSheddingProperties properties;
+    private final String retryAfter;
+
+    public PriorityLoadSheddingGlobalFilter(AdmissionController controller, LoadSheddingProperties properties) {
+        this.controller = controller;
+        this.properties = properties;
+        this.retryAfter = Long.toString(Math.max(1, properties.retryAfter().toSeconds()));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        Priority priority = properties.priorityOf(route == null ? null : route.getId());
+        if (!controller.tryAdmit(priority)) {
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+            return exchange.getResponse().setComplete();
+        }
+        return chain.filter(exchange).doFinally(signal -> controller.release());
+    }
+
+    @Override
+    public int getOrder() {
+        // Después de TraceFiltersPhaseGlobalFilter, antes de cualquier otro trabajo
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+}
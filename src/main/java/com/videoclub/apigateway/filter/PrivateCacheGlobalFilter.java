@@ -0,0 +1,213 @@
+package com.videoclub.apigateway.filter;
+
+import com.videoclub.apigateway.cache.BodyCapture;
+import com.videoclub.apigateway.cache.CacheDirectives;
+import com.videoclub.apigateway.cache.CacheStats;
+import com.videoclub.apigateway.cache.CachedResponse;
+import com.videoclub.apigateway.cache.PrivateCacheProperties;
+import com.videoclub.apigateway.cache.PrivateResponseCache;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cache privado por usuario de los GET autenticados de las rutas configuradas
+ * en videoclub.gateway.private-cache.routes (p. ej. los descuentos aplicables,
+ * que el frontend pide en casi todas las páginas).
+ *
+ * La clave es el subject del JWT más ruta, path y query normalizada (orden
+ * por nombre), así un usuario nunca recibe la respuesta de otro. Se guardan
+ * los 200 sin Set-Cookie durante la frescura que indica el backend
+ * (Cache-Control o Expires; no-store y no-cache no se guardan), acotada por
+ * ttl, que es también la frescura si el backend no indica ninguna
+ * (X-Cache: HIT / MISS). El cuerpo se copia mientras pasa hacia el cliente y
+ * no se guarda si supera max-entry-size.
+ *
+ * Un POST, PUT, PATCH o DELETE del usuario en las rutas de invalidate-on
+ * (carrito, descuentos) vacía su cache al empezar y al terminar, para que
+ * ninguna lectura cruzada con la escritura quede guardada. Un GET con
+ * {@code Cache-Control: no-cache} consulta al backend y refresca la entrada.
+ */
+public class PrivateCacheGlobalFilter implements GlobalFilter, Ordered {
+
+    private static final Set<HttpMethod> WRITES = Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH,
+            HttpMethod.DELETE);
+    private static final List<String> STORED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_ENCODING, HttpHeaders.CONTENT_LANGUAGE, HttpHeaders.CACHE_CONTROL,
+            HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED);
+
+    private final PrivateResponseCache cache;
+    private final PrivateCacheProperties properties;
+    private final int maxEntrySize;
+    private final Map<String, CacheStats> stats = new HashMap<>();
+
+    public PrivateCacheGlobalFilter(PrivateResponseCache cache, PrivateCacheProperties properties) {
+        this.cache = cache;
+        this.properties = properties;
+        this.maxEntrySize = (int) properties.maxEntrySize().toBytes();
+        properties.routes().forEach(routeId -> stats.put(routeId, new CacheStats()));
+    }
+
+    /** Contadores por id de ruta. */
+    public Map<String, CacheStats> stats() {
+        return Map.copyOf(stats);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        HttpMethod method = exchange.getRequest().getMethod();
+        boolean cacheable = route != null && method == HttpMethod.GET && stats.containsKey(route.getId());
+        boolean invalidates = route != null && WRITES.contains(method)
+                && properties.invalidateOn().contains(route.getId());
+        if (!cacheable && !invalidates)
+            return chain.filter(exchange);
+
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(auth -> auth instanceof JwtAuthenticationToken)
+                .map(auth -> Optional.ofNullable(((JwtAuthenticationToken) auth).getToken().getSubject()))
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(subject -> subject
+                        .map(user -> cacheable
+                                ? lookup(exchange, chain, route.getId(), user)
+                                : invalidating(exchange, chain, user))
+                        .orElseGet(() -> chain.filter(exchange)));
+    }
+
+    private Mono<Void> invalidating(ServerWebExchange exchange, GatewayFilterChain chain, String user) {
+        cache.invalidate(user);
+        return chain.filter(exchange).doFinally(signal -> cache.invalidate(user));
+    }
+
+    private Mono<Void> lookup(ServerWebExchange exchange, GatewayFilterChain chain, String routeId, String user) {
+        CacheStats routeStats = stats.get(routeId);
+        String key = key(routeId, exchange.getRequest());
+        long now = System.currentTimeMillis();
+        String requestCacheControl = exchange.getRequest().getHeaders().getCacheControl();
+        CachedResponse cached = requestCacheControl != null && requestCacheControl.contains("no-cache")
+                ? null
+                : cache.get(user, key, now);
+        if (cached != null) {
+            routeStats.hit();
+            return write(exchange.getResponse(), cached, now);
+        }
+
+        routeStats.miss();
+        CachingResponse response = new CachingResponse(exchange.getResponse(), user, key, cache.ticket());
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    /** Ruta, path y query con los parámetros ordenados por nombre (estable entre valores repetidos). */
+    static String key(String routeId, ServerHttpRequest request) {
+        URI uri = request.getURI();
+        String query = uri.getRawQuery();
+        String key = routeId + ' ' + uri.getRawPath();
+        if (query != null && !query.isEmpty())
+            key += '?' + Arrays.stream(query.split("&"))
+                    .filter(param -> !param.isEmpty())
+                    .sorted(Comparator.comparing(param -> param.indexOf('=') < 0
+                            ? param
+                            : param.substring(0, param.indexOf('='))))
+                    .collect(Collectors.joining("&"));
+        String acceptEncoding = request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains("gzip") ? key + " gzip" : key;
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, CachedResponse entry, long now) {
+        response.setStatusCode(HttpStatusCode.valueOf(entry.status()));
+        HttpHeaders headers = response.getHeaders();
+        entry.headers().forEach(headers::set);
+        headers.set(ResponseCacheGlobalFilter.CACHE_HEADER, "HIT");
+        headers.set(HttpHeaders.AGE, Long.toString(entry.ageSeconds(now)));
+        headers.setContentLength(entry.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(entry.body())));
+    }
+
+    private static boolean storable(HttpHeaders headers) {
+        return !headers.containsKey(HttpHeaders.SET_COOKIE) && !"*".equals(headers.getFirst(HttpHeaders.VARY));
+    }
+
+    @Override
+    public int getOrder() {
+        // Mismo lugar que el cache público: antes de NettyWriteResponseFilter y de
+        // la proyección de campos, para guardar la respuesta ya proyectada
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 3;
+    }
+
+    /** Captura el 200 del backend para guardarlo en la partición del usuario. */
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final String user;
+        private final String key;
+        private final long ticket;
+
+        CachingResponse(ServerHttpResponse delegate, String user, String key, long ticket) {
+            super(delegate);
+            this.user = user;
+            this.key = key;
+            this.ticket = ticket;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            getHeaders().set(ResponseCacheGlobalFilter.CACHE_HEADER, "MISS");
+            HttpStatusCode status = getStatusCode();
+            long maxTtl = properties.ttl().toMillis();
+            long ttl = status == null || status.value() != 200 || !storable(getHeaders())
+                    ? CacheDirectives.NOT_STORABLE
+                    : Math.min(maxTtl, CacheDirectives.freshnessMillis(getHeaders(), maxTtl, true));
+            if (ttl <= 0 || getHeaders().getContentLength() > maxEntrySize)
+                return super.writeWith(body);
+            // Se copia mientras pasa hacia el cliente; si supera max-entry-size no se guarda
+            BodyCapture capture = new BodyCapture(maxEntrySize);
+            return super.writeWith(Flux.from(body)
+                    .doOnNext(capture::write)
+                    .doOnComplete(() -> {
+                        byte[] bytes = capture.body();
+                        if (bytes != null)
+                            store(bytes, ttl);
+                    }));
+        }
+
+        private void store(byte[] body, long ttl) {
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (String name : STORED_HEADERS) {
+                String value = getHeaders().getFirst(name);
+                if (value != null)
+                    headers.put(name, value);
+            }
+            long now = System.currentTimeMillis();
+            long freshUntil = now + ttl;
+            cache.put(user, key, new CachedResponse(200, headers, body, now, freshUntil, freshUntil), ticket);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.videoclub.apigateway.filter;
+
+import com.videoclub.apigateway.contract.CompiledQueryContract;
+import com.videoclub.apigateway.contract.QueryContractProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Valida y canoniza los query params de cada ruta según su contrato
+ * (videoclub.gateway.query-contracts).
+ * 
+ * Un valor inválido ({@code page=abc}) se responde con 400 en el gateway, con
+ * la misma forma de error que usan los backends ({@code code}, {@code message},
+ * {@code details}), sin llegar al microservicio. El code es el del param en el
+ * contrato (p. ej. INVALID_PAGE, el que ya devolvía catalogo-backend), o
+ * INVALID_QUERY_PARAM. Los válidos se reenvían con la
+ * query canónica (orden por nombre, valores normalizados).
+ */
+public class QueryContractGlobalFilter implements GlobalFilter, Ordered {
+
+    private final Map<String, CompiledQueryContract> contracts = new HashMap<>();
+
+    public QueryContractGlobalFilter(QueryContractProperties properties) {
+        properties.routes().forEach((routeId, contract) -> contracts.put(routeId, new CompiledQueryContract(contract)));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        CompiledQueryContract contract = route == null ? null : contracts.get(route.getId());
+        if (contract == null || exchange.getRequest().getMethod() == HttpMethod.OPTIONS)
+            return chain.filter(exchange);
+
+        ServerHttpRequest request = exchange.getRequest();
+        CompiledQueryContract.Outcome outcome = contract.apply(request.getQueryParams());
+        if (!outcome.valid())
+            return reject(exchange.getResponse(), outcome);
+
+        URI uri = request.getURI();
+        String rawQuery = uri.getRawQuery() == null ? "" : uri.getRawQuery();
+        if (rawQuery.equals(outcome.canonicalQuery()))
+            return chain.filter(exchange);
+
+        URI canonical = UriComponentsBuilder.fromUri(uri)
+                .replaceQuery(outcome.canonicalQuery().isEmpty() ? null : outcome.canonicalQuery())
+                .build(true)
+                .toUri();
+        return chain.filter(exchange.mutate().request(request.mutate().uri(canonical).build()).build());
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response, CompiledQueryContract.Outcome outcome) {
+        response.setStatusCode(HttpStatus.BAD_REQUEST);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        String body = "{\"code\":\"" + escape(outcome.code()) + "\",\"message\":\"El parámetro '" + escape(outcome.param())
+                + "' " + escape(outcome.violation()) + "\",\"details\":{\"param\":\"" + escape(outcome.param())
+                + "\"}}";
+        DataBuffer buffer = response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    @Override
+    public int getOrder() {
+        // Antes de los caches de medios y de respuestas, que arman la clave con la
+        // query canónica. Los preflight OPTIONS pasan sin validar hasta CorsPreflightGlobalFilter
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 5;
+    }
+}
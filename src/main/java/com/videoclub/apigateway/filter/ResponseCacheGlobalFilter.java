@@ -0,0 +1,248 @@
+package com.videoclub.apigateway.filter;
+
+import com.videoclub.apigateway.cache.BodyCapture;
+import com.videoclub.apigateway.cache.CacheDirectives;
+import com.videoclub.apigateway.cache.CacheStats;
+import com.videoclub.apigateway.cache.CachedResponse;
+import com.videoclub.apigateway.cache.ResponseCache;
+import com.videoclub.apigateway.cache.ResponseCacheProperties;
+import com.videoclub.apigateway.cache.ResponseCacheProperties.RouteCache;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache de respuestas GET de las rutas configuradas en
+ * videoclub.gateway.response-cache.routes.
+ * 
+ * - fresca: se responde desde el gateway (X-Cache: HIT)
+ * - vencida o ausente: se consulta al backend y un 200 cacheable reemplaza la
+ * entrada (X-Cache: MISS)
+ * - backend caído (error de conexión, timeout o 5xx) con una entrada dentro de
+ * max-stale: se sirve la vencida con {@code Warning: 110} (X-Cache: STALE)
+ * 
+ * Con honor-cache-headers la frescura sale de Cache-Control / Expires del
+ * backend (p. ej. recursos de tema y discovery de Keycloak); con paths solo se
+ * cachean los paths listados, así los endpoints de login y token nunca entran.
+ * Las respuestas comprimidas se guardan aparte de las planas. Los paths que
+ * atiende {@link MediaCacheGlobalFilter} quedan fuera de este cache.
+ *
+ * Es un cache compartido: la respuesta a una petición con Authorization solo
+ * se guarda si el backend la declara compartible (public, s-maxage o
+ * must-revalidate, RFC 9111 §3.5); si no, podría servirse a otro usuario.
+ */
+public class ResponseCacheGlobalFilter implements GlobalFilter, Ordered {
+
+    public static final String CACHE_HEADER = "X-Cache";
+    static final String STALE_WARNING = "110 - \"Response is Stale\"";
+    private static final List<String> STORED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_ENCODING, HttpHeaders.CONTENT_LANGUAGE, HttpHeaders.CACHE_CONTROL,
+            HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED);
+
+    /** Política de una ruta con sus patrones de path compilados. */
+    private record RoutePolicy(RouteCache settings, List<PathPattern> paths, CacheStats stats) {
+
+        boolean covers(PathContainer path) {
+            if (paths.isEmpty())
+                return true;
+            for (PathPattern pattern : paths) {
+                if (pattern.matches(path))
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    private final ResponseCache cache;
+    private final int maxEntrySize;
+    private final Map<String, RoutePolicy> policies = new HashMap<>();
+
+    public ResponseCacheGlobalFilter(ResponseCache cache, ResponseCacheProperties properties) {
+        this.cache = cache;
+        this.maxEntrySize = (int) properties.maxEntrySize().toBytes();
+        properties.routes().forEach((routeId, settings) -> policies.put(routeId, new RoutePolicy(settings,
+                settings.paths().stream().map(PathPatternParser.defaultInstance::parse).toList(),
+                new CacheStats())));
+    }
+
+    /** Contadores por id de ruta. */
+    public Map<String, CacheStats> stats() {
+        Map<String, CacheStats> stats = new HashMap<>();
+        policies.forEach((routeId, policy) -> stats.put(routeId, policy.stats()));
+        return stats;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        RoutePolicy policy = route == null ? null : policies.get(route.getId());
+        if (policy == null || exchange.getRequest().getMethod() != HttpMethod.GET
+                || exchange.getAttribute(MediaCacheGlobalFilter.MEDIA_ATTR) != null
+                || !policy.covers(exchange.getRequest().getPath().pathWithinApplication()))
+            return chain.filter(exchange);
+
+        CacheStats routeStats = policy.stats();
+        String key = key(route.getId(), exchange.getRequest());
+        long now = System.currentTimeMillis();
+        CachedResponse cached = cache.get(key, now);
+        if (cached != null && cached.fresh(now)) {
+            routeStats.hit();
+            return write(exchange.getResponse(), cached, "HIT", now);
+        }
+
+        routeStats.miss();
+        ServerHttpResponse original = exchange.getResponse();
+        HttpHeaders headersBefore = new HttpHeaders();
+        headersBefore.putAll(original.getHeaders());
+        boolean authorized = exchange.getRequest().getHeaders().containsKey(HttpHeaders.AUTHORIZATION);
+        CachingResponse response = new CachingResponse(original, key, policy.settings(), cached, headersBefore,
+                routeStats, authorized);
+        return chain.filter(exchange.mutate().response(response).build())
+                .onErrorResume(e -> response.canServeStale() && !original.isCommitted()
+                        ? response.serveStale()
+                        : Mono.error(e));
+    }
+
+    static String key(String routeId, ServerHttpRequest request) {
+        URI uri = request.getURI();
+        String query = uri.getRawQuery();
+        String key = routeId + ' ' + uri.getRawPath() + (query == null || query.isEmpty() ? "" : "?" + query);
+        String acceptEncoding = request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains("gzip") ? key + " gzip" : key;
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, CachedResponse entry, String result, long now) {
+        response.setStatusCode(HttpStatusCode.valueOf(entry.status()));
+        HttpHeaders headers = response.getHeaders();
+        entry.headers().forEach(headers::set);
+        headers.set(CACHE_HEADER, result);
+        headers.set(HttpHeaders.AGE, Long.toString(entry.ageSeconds(now)));
+        headers.setContentLength(entry.body().length);
+        if (!entry.fresh(now))
+            headers.set(HttpHeaders.WARNING, STALE_WARNING);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(entry.body())));
+    }
+
+    private static boolean cacheable(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl != null && (cacheControl.contains("no-store") || cacheControl.contains("private")))
+            return false;
+        return !headers.containsKey(HttpHeaders.SET_COOKIE) && !"*".equals(headers.getFirst(HttpHeaders.VARY));
+    }
+
+    @Override
+    public int getOrder() {
+        // Antes de NettyWriteResponseFilter, que escribe en la respuesta que recibe
+        // (el decorador); después del contrato de query params y del cache de
+        // medios, y antes de la proyección de campos, para guardar la respuesta
+        // ya proyectada
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 3;
+    }
+
+    /** Captura el 200 para cachearlo o reemplaza un 5xx por la entrada stale. */
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final RouteCache policy;
+        private final CachedResponse stale;
+        private final HttpHeaders headersBefore;
+        private final CacheStats stats;
+        private final boolean authorized;
+
+        CachingResponse(ServerHttpResponse delegate, String key, RouteCache policy, CachedResponse stale,
+                HttpHeaders headersBefore, CacheStats stats, boolean authorized) {
+            super(delegate);
+            this.key = key;
+            this.policy = policy;
+            this.stale = stale;
+            this.headersBefore = headersBefore;
+            this.stats = stats;
+            this.authorized = authorized;
+        }
+
+        boolean canServeStale() {
+            return stale != null && !stale.expired(System.currentTimeMillis());
+        }
+
+        Mono<Void> serveStale() {
+            stats.staleServed();
+            HttpHeaders headers = getDelegate().getHeaders();
+            headers.clear();
+            headers.putAll(headersBefore);
+            return write(getDelegate(), stale, "STALE", System.currentTimeMillis());
+        }
+
+        private boolean upstreamFailed() {
+            HttpStatusCode status = getStatusCode();
+            return status != null && status.is5xxServerError() && canServeStale();
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (upstreamFailed())
+                return Flux.from(body).doOnNext(DataBufferUtils::release).then(Mono.defer(this::serveStale));
+
+            HttpStatusCode status = getStatusCode();
+            long ttl = status == null || status.value() != 200 || !cacheable(getHeaders())
+                    || (authorized && !CacheDirectives.storableWithAuthorization(getHeaders()))
+                    ? CacheDirectives.NOT_STORABLE
+                    : policy.honorCacheHeaders()
+                            ? CacheDirectives.freshnessMillis(getHeaders(), policy.ttl().toMillis())
+                            : policy.ttl().toMillis();
+            getHeaders().set(CACHE_HEADER, "MISS");
+            if (ttl <= 0 || getHeaders().getContentLength() > maxEntrySize)
+                return super.writeWith(body);
+            // Se copia mientras pasa hacia el cliente; si supera max-entry-size no se guarda
+            BodyCapture capture = new BodyCapture(maxEntrySize);
+            return super.writeWith(Flux.from(body)
+                    .doOnNext(capture::write)
+                    .doOnComplete(() -> {
+                        byte[] bytes = capture.body();
+                        if (bytes != null)
+                            store(bytes, ttl);
+                    }));
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            return upstreamFailed() ? serveStale() : super.setComplete();
+        }
+
+        private void store(byte[] body, long ttl) {
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (String name : STORED_HEADERS) {
+                String value = getHeaders().getFirst(name);
+                if (value != null)
+                    headers.put(name, value);
+            }
+            long now = System.currentTimeMillis();
+            long freshUntil = now + ttl;
+            cache.put(key, new CachedResponse(200, headers, body, now, freshUntil,
+                    freshUntil + policy.maxStale().toMillis()));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.videoclub.apigateway.filter;
+
+import com.videoclub.apigateway.resilience.RouteTimeoutPolicy;
+import com.videoclub.apigateway.resilience.RouteTimeoutRegistry;
+import com.videoclub.apigateway.resilience.TimeoutProperties;
+import io.netty.channel.ConnectTimeoutException;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Timeouts por ruta (videoclub.gateway.timeouts).
+ *
+ * - connect y response: se pasan al NettyRoutingFilter como metadata de la
+ * ruta (ver {@link RouteTimeoutPolicy#routed(Route)})
+ * - total: plazo hasta que la respuesta empieza a enviarse al cliente (cola,
+ * balanceo, backend y filtros); al vencer se cancela la llamada al backend, lo
+ * que cierra su conexión. El cuerpo ya comprometido no tiene plazo total, así
+ * una descarga grande (medios, trailers) no se corta a la mitad
+ * - el plazo restante viaja al backend en el header de deadline
+ * ({@link DeadlineHeadersFilter})
+ *
+ * Los tres timeouts responden 504 con el cuerpo de error del gateway y se
+ * cuentan por ruta.
+ * Si el cliente se desconecta, Reactor Netty cancela la cadena y con ella la
+ * llamada al backend; aquí solo se cuenta.
+ */
+public class RouteTimeoutGlobalFilter implements GlobalFilter, Ordered {
+
+    /** Instante (System.nanoTime) en que vence el plazo total del intercambio. */
+    public static final String DEADLINE_ATTR = RouteTimeoutGlobalFilter.class.getName() + ".deadline";
+
+    private final RouteTimeoutRegistry registry;
+    private final TimeoutProperties properties;
+
+    public RouteTimeoutGlobalFilter(RouteTimeoutRegistry registry, TimeoutProperties properties) {
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null)
+            return chain.filter(exchange);
+
+        RouteTimeoutPolicy policy = registry.forRoute(route.getId());
+        long budget = budgetMillis(exchange, policy);
+        if (budget <= 0) {
+            // El cliente ya no espera la respuesta: no se molesta al backend
+            policy.timedOut(RouteTimeoutPolicy.Kind.TOTAL);
+            return reject(exchange.getResponse(), route.getId(), RouteTimeoutPolicy.Kind.TOTAL, 0);
+        }
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, policy.routed(route));
+        exchange.getAttributes().put(DEADLINE_ATTR, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget));
+        ServerHttpResponse response = exchange.getResponse();
+        // Si al vencer ya se enviaron los headers, el cuerpo sigue sin plazo
+        Mono<Long> deadline = Mono.delay(Duration.ofMillis(budget))
+                .flatMap(tick -> response.isCommitted() ? Mono.never() : Mono.just(tick));
+        return chain.filter(exchange)
+                .timeout(deadline)
+                .onErrorResume(error -> {
+                    RouteTimeoutPolicy.Kind kind = kind(error);
+                    if (kind == null)
+                        return Mono.error(error);
+                    policy.timedOut(kind);
+                    if (response.isCommitted())
+                        return Mono.error(error);
+                    return reject(response, route.getId(), kind, switch (kind) {
+                        case CONNECT -> policy.limits().connect().toMillis();
+                        case RESPONSE -> policy.limits().response().toMillis();
+                        case TOTAL -> budget;
+                    });
+                })
+                .doOnCancel(policy::cancelled);
+    }
+
+    /** Plazo total en ms: el de la ruta, o el del cliente si es menor. */
+    private long budgetMillis(ServerWebExchange exchange, RouteTimeoutPolicy policy) {
+        long total = policy.limits().total().toMillis();
+        if (!properties.honorClientDeadline())
+            return total;
+        String header = exchange.getRequest().getHeaders().getFirst(properties.deadlineHeader());
+        if (header == null)
+            return total;
+        try {
+            return Math.min(total, Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            return total;
+        }
+    }
+
+    static RouteTimeoutPolicy.Kind kind(Throwable error) {
+        if (error instanceof TimeoutException)
+            return RouteTimeoutPolicy.Kind.TOTAL;
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectTimeoutException)
+                return RouteTimeoutPolicy.Kind.CONNECT;
+            // Lanzada por NettyRoutingFilter al vencer response-timeout (envuelta en un 504)
+            if (cause instanceof org.springframework.cloud.gateway.support.TimeoutException)
+                return RouteTimeoutPolicy.Kind.RESPONSE;
+        }
+        return null;
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, String routeId, RouteTimeoutPolicy.Kind kind,
+            long timeoutMillis) {
+        response.setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        String body = "{\"code\":\"UPSTREAM_TIMEOUT\",\"message\":\"El servicio no respondió a tiempo\","
+                + "\"details\":{\"route\":\"" + routeId + "\",\"timeout\":\"" + kind.name().toLowerCase(Locale.ROOT)
+                + "\",\"timeoutMs\":" + timeoutMillis + "}}";
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Override
+    public int getOrder() {
+        // Después del descarte de carga y del límite por usuario: el plazo corre
+        // desde que la petición es admitida en la ruta
+        return Ordered.HIGHEST_PRECEDENCE + 3;
+    }
+}
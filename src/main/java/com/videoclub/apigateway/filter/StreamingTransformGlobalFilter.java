@@ -0,0 +1,129 @@
+package com.videoclub.apigateway.filter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.videoclub.apigateway.transform.BodyTransform;
+import com.videoclub.apigateway.transform.JsonFieldFilter;
+import com.videoclub.apigateway.transform.LinkRewriteTransform;
+import com.videoclub.apigateway.transform.TransformPipeline;
+import com.videoclub.apigateway.transform.TransformProperties;
+import com.videoclub.apigateway.transform.TransformProperties.LinkRewrite;
+import com.videoclub.apigateway.transform.TransformProperties.RouteTransforms;
+import com.videoclub.apigateway.transform.TransformStats;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transformaciones del cuerpo de respuesta configuradas por ruta
+ * (videoclub.gateway.transforms.routes), aplicadas en streaming con
+ * {@link TransformPipeline}.
+ * 
+ * - redact-fields: elimina campos de respuestas JSON
+ * - rewrite-links: reemplaza URLs internas en respuestas JSON o de texto
+ * 
+ * A las rutas con transformaciones se les pide la respuesta sin comprimir;
+ * una respuesta que igual llega comprimida pasa sin cambios. Es el filtro de
+ * respuesta más cercano al backend, así el cache y la idempotencia guardan el
+ * cuerpo ya transformado.
+ */
+public class StreamingTransformGlobalFilter implements GlobalFilter, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingTransformGlobalFilter.class);
+
+    private record RoutePolicy(RouteTransforms settings, TransformStats stats) {
+    }
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Map<String, RoutePolicy> policies = new HashMap<>();
+
+    public StreamingTransformGlobalFilter(TransformProperties properties) {
+        properties.routes().forEach((routeId, settings) -> {
+            for (LinkRewrite rewrite : settings.rewriteLinks()) {
+                if (rewrite.from() == null || rewrite.from().isEmpty())
+                    throw new IllegalArgumentException("rewrite-links sin 'from' en la ruta " + routeId);
+            }
+            policies.put(routeId, new RoutePolicy(settings, new TransformStats()));
+        });
+    }
+
+    /** Contadores por id de ruta. */
+    public Map<String, TransformStats> stats() {
+        Map<String, TransformStats> stats = new HashMap<>();
+        policies.forEach((routeId, policy) -> stats.put(routeId, policy.stats()));
+        return stats;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        RoutePolicy policy = route == null ? null : policies.get(route.getId());
+        if (policy == null)
+            return chain.filter(exchange);
+
+        return chain.filter(exchange.mutate()
+                .request(exchange.getRequest().mutate()
+                        .headers(headers -> headers.remove(HttpHeaders.ACCEPT_ENCODING))
+                        .build())
+                .response(new TransformingResponse(exchange.getResponse(), policy))
+                .build());
+    }
+
+    /** Etapas que aplican a la respuesta según su Content-Type (vacío: pasa sin cambios). */
+    private List<BodyTransform> stages(RouteTransforms settings, HttpHeaders headers) {
+        List<BodyTransform> stages = new ArrayList<>(2);
+        MediaType contentType = headers.getContentType();
+        if (contentType == null || headers.containsKey(HttpHeaders.CONTENT_ENCODING))
+            return stages;
+        boolean json = JsonFieldFilter.supports(contentType);
+        if (json && !settings.redactFields().isEmpty())
+            stages.add(JsonFieldFilter.redaction(jsonFactory, settings.redactFields()));
+        if ((json || "text".equals(contentType.getType())) && !settings.rewriteLinks().isEmpty())
+            stages.add(new LinkRewriteTransform(settings.rewriteLinks()));
+        return stages;
+    }
+
+    @Override
+    public int getOrder() {
+        // Antes de NettyWriteResponseFilter, que escribe en la respuesta que recibe
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    private class TransformingResponse extends ServerHttpResponseDecorator {
+
+        private final RoutePolicy policy;
+
+        TransformingResponse(ServerHttpResponse delegate, RoutePolicy policy) {
+            super(delegate);
+            this.policy = policy;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            List<BodyTransform> stages = stages(policy.settings(), getHeaders());
+            if (stages.isEmpty())
+                return super.writeWith(body);
+
+            getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            return super.writeWith(TransformPipeline.apply(body, stages, bufferFactory(), policy.stats())
+                    .doOnError(e -> log.warn("No se pudo transformar la respuesta: {}", e.getMessage())));
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.videoclub.apigateway.filter;
 
+import com.videoclub.apigateway.security.IdentityHeaderSigner;
+import com.videoclub.apigateway.security.IdentityRelayProperties.RelayMode;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
@@ -18,12 +22,33 @@ import reactor.core.publisher.Mono;
  * Spring Cloud Gateway valida el JWT pero NO lo reenvía automáticamente.
  * Este filtro extrae el token del SecurityContext y lo agrega al header
  * Authorization de todas las peticiones ruteadas a los microservicios.
+ * 
+ * Las rutas configuradas en videoclub.gateway.identity.routes pueden recibir
+ * en su lugar (o además) un header de identidad compacto firmado con HMAC
+ * (ver {@link IdentityHeaderSigner}), evitando que el backend vuelva a
+ * verificar la firma RSA del JWT. El header de identidad que envíe el cliente
+ * siempre se descarta.
  */
 @Component
 public class TokenRelayGlobalFilter implements GlobalFilter, Ordered {
 
+    private final IdentityHeaderSigner identitySigner;
+
+    public TokenRelayGlobalFilter(IdentityHeaderSigner identitySigner) {
+        this.identitySigner = identitySigner;
+    }
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route == null ? null : route.getId();
+        RelayMode mode = identitySigner.modeFor(routeId);
+
+        // Nunca confiar en un header de identidad enviado por el cliente
+        ServerWebExchange sanitized = exchange.getRequest().getHeaders().containsKey(identitySigner.headerName())
+                ? exchange.mutate().request(r -> r.headers(h -> h.remove(identitySigner.headerName()))).build()
+                : exchange;
+
         return ReactiveSecurityContextHolder.getContext()
                 .map(SecurityContext::getAuthentication)
                 .filter(auth -> auth instanceof JwtAuthenticationToken)
@@ -32,15 +57,25 @@ public class TokenRelayGlobalFilter implements GlobalFilter, Ordered {
                     // Extraer token JWT del contexto de seguridad
                     String tokenValue = jwtAuth.getToken().getTokenValue();
 
-                    // Agregar Authorization header al request downstream
-                    ServerHttpRequest mutatedRequest = exchange.getRequest().mutate()
-                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenValue)
+                    // Agregar Authorization (y/o identidad firmada) al request downstream
+                    ServerHttpRequest mutatedRequest = sanitized.getRequest().mutate()
+                            .headers(h -> {
+                                if (mode == RelayMode.IDENTITY) {
+                                    h.remove(HttpHeaders.AUTHORIZATION);
+                                } else {
+                                    h.set(HttpHeaders.AUTHORIZATION, "Bearer " + tokenValue);
+                                }
+                                if (mode != RelayMode.JWT) {
+                                    h.set(identitySigner.headerName(),
+                                            identitySigner.sign(routeId, jwtAuth.getToken()));
+                                }
+                            })
                             .build();
 
                     // Crear nuevo exchange con el request mutado
-                    return exchange.mutate().request(mutatedRequest).build();
+                    return sanitized.mutate().request(mutatedRequest).build();
                 })
-                .defaultIfEmpty(exchange)
+                .defaultIfEmpty(sanitized)
                 .flatMap(chain::filter);
     }
 
@@ -0,0 +1,56 @@
+package com.videoclub.apigateway.filter;
+
+import com.videoclub.apigateway.tracing.ExchangeTrace;
+import com.videoclub.apigateway.tracing.SlowTraceStore;
+import com.videoclub.apigateway.tracing.TraceContext;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFilter que abre la traza de cada petición.
+ * 
+ * Corre antes que Spring Security (orden HIGHEST_PRECEDENCE) para que la fase
+ * "security" (validación JWT + autorización) quede medida. Toma el
+ * traceparent entrante o genera uno nuevo, y al finalizar el exchange guarda
+ * la traza en el {@link SlowTraceStore}.
+ */
+public class TraceContextWebFilter implements WebFilter, Ordered {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final SlowTraceStore store;
+
+    public TraceContextWebFilter(SlowTraceStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        TraceContext incoming = TraceContext.parse(
+                exchange.getRequest().getHeaders().getFirst(TraceContext.TRACEPARENT));
+        ExchangeTrace trace = new ExchangeTrace(incoming);
+        exchange.getAttributes().put(ExchangeTrace.ATTRIBUTE, trace);
+        exchange.getResponse().getHeaders().set(TRACE_ID_HEADER, trace.root().traceId());
+
+        return chain.filter(exchange).doFinally(signal -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            store.record(trace.finish(
+                    exchange.getRequest().getMethod().name(),
+                    exchange.getRequest().getPath().value(),
+                    route == null ? null : route.getId(),
+                    status == null ? 200 : status.value()));
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,30 @@
+package com.videoclub.apigateway.filter;
+
+import com.videoclub.apigateway.tracing.ExchangeTrace;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Marca el fin de la fase "security" y el comienzo de la fase "filters".
+ * 
+ * Es el primer GlobalFilter de la cadena: todo lo que ocurrió antes (Spring
+ * Security, CORS) se atribuye a la fase security.
+ */
+public class TraceFiltersPhaseGlobalFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ExchangeTrace trace = ExchangeTrace.from(exchange);
+        if (trace != null)
+            trace.markFiltersStart();
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
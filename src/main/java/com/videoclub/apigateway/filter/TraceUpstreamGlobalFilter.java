@@ -0,0 +1,37 @@
+package com.videoclub.apigateway.filter;
+
+import com.videoclub.apigateway.tracing.ExchangeTrace;
+import com.videoclub.apigateway.tracing.TraceContext;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Abre el span "upstream" e inyecta el header traceparent hacia el backend,
+ * junto al Authorization que agrega {@link TokenRelayGlobalFilter}.
+ * 
+ * Corre inmediatamente antes de NettyRoutingFilter (LOWEST_PRECEDENCE), cuyo
+ * Mono completa al recibir los headers de respuesta del backend.
+ */
+public class TraceUpstreamGlobalFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ExchangeTrace trace = ExchangeTrace.from(exchange);
+        if (trace == null)
+            return chain.filter(exchange);
+
+        TraceContext upstream = trace.startUpstream();
+        ServerWebExchange mutated = exchange.mutate()
+                .request(r -> r.headers(h -> h.set(TraceContext.TRACEPARENT, upstream.toTraceparent())))
+                .build();
+        return chain.filter(mutated).doFinally(signal -> trace.endUpstream());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+}
@@ -0,0 +1,149 @@
+package com.videoclub.apigateway.filter;
+
+import com.videoclub.apigateway.capture.CapturedRequest;
+import com.videoclub.apigateway.capture.TrafficCapture;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Captura los metadatos de cada petición ruteada para reproducirla después
+ * (ver {@link TrafficCapture}). Cuenta los bytes de los cuerpos al pasar, sin
+ * copiarlos; de la petición solo se mira si trae Authorization, nunca su valor.
+ *
+ * El registro se emite cuando terminan la cadena y el cuerpo de la
+ * respuesta: con un cuerpo en streaming, Reactor Netty completa la escritura
+ * antes de que el cuerpo termine de pasar.
+ */
+public class TrafficCaptureGlobalFilter implements GlobalFilter, Ordered {
+
+    private final TrafficCapture capture;
+
+    public TrafficCaptureGlobalFilter(TrafficCapture capture) {
+        this.capture = capture;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!capture.sample())
+            return chain.filter(exchange);
+
+        long start = System.nanoTime();
+        CountingRequest request = new CountingRequest(exchange.getRequest());
+        CountingResponse response = new CountingResponse(exchange.getResponse(),
+                bytes -> record(exchange, start, request.bytes.get(), bytes));
+        return chain.filter(exchange.mutate().request(request).response(response).build())
+                .doFinally(signal -> {
+                    // Con error o cancelación un cuerpo puede no llegar a suscribirse: se registra ya
+                    if (signal == SignalType.ON_COMPLETE)
+                        response.done();
+                    else
+                        response.fire();
+                });
+    }
+
+    private void record(ServerWebExchange exchange, long start, long requestBytes, long responseBytes) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        MediaType contentType = headers.getContentType();
+        capture.record(new CapturedRequest(
+                capture.offsetMicros(start),
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start),
+                exchange.getRequest().getMethod().name(),
+                route == null ? "" : route.getId(),
+                exchange.getRequest().getPath().value(),
+                capture.redact(exchange.getRequest().getURI().getRawQuery()),
+                contentType == null ? "" : contentType.toString(),
+                Math.max(requestBytes, headers.getContentLength()),
+                responseBytes,
+                status == null ? 0 : status.value(),
+                headers.containsKey(HttpHeaders.AUTHORIZATION)));
+    }
+
+    @Override
+    public int getOrder() {
+        // Junto a la fase de trazas: la duración incluye descarte de carga, límites y caches
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private static final class CountingRequest extends ServerHttpRequestDecorator {
+
+        private final AtomicLong bytes = new AtomicLong();
+
+        CountingRequest(ServerHttpRequest delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return super.getBody().doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount()));
+        }
+    }
+
+    /** Cuenta los bytes enviados y avisa cuando terminan la cadena y todos los cuerpos escritos. */
+    private static final class CountingResponse extends ServerHttpResponseDecorator {
+
+        private final AtomicLong bytes = new AtomicLong();
+        /** La cadena más cada cuerpo que todavía está pasando. */
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final AtomicBoolean fired = new AtomicBoolean();
+        private final LongConsumer onDone;
+
+        CountingResponse(ServerHttpResponse delegate, LongConsumer onDone) {
+            super(delegate);
+            this.onDone = onDone;
+        }
+
+        void done() {
+            if (pending.decrementAndGet() == 0)
+                fire();
+        }
+
+        void fire() {
+            if (fired.compareAndSet(false, true))
+                onDone.accept(bytes.get());
+        }
+
+        private <T> Flux<T> tracked(Publisher<T> publisher) {
+            pending.incrementAndGet();
+            return Flux.from(publisher).doFinally(signal -> done());
+        }
+
+        private Flux<DataBuffer> counted(Publisher<? extends DataBuffer> body) {
+            return tracked(Flux.<DataBuffer>from(body)
+                    .doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount())));
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(counted(body));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return super.writeAndFlushWith(tracked(Flux.from(body).map(this::counted)));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.videoclub.apigateway.filter;
+
+import com.videoclub.apigateway.resilience.UserConcurrencyLimiter;
+import com.videoclub.apigateway.resilience.UserConcurrencyProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Límite de peticiones en vuelo por usuario en las rutas de
+ * videoclub.gateway.user-concurrency.routes.
+ * 
+ * El lugar se toma antes de cualquier trabajo de la ruta y se devuelve al
+ * terminar la respuesta (o al cancelarse). Lo que excede el límite espera un
+ * momento en la cola del usuario o recibe 429 con Retry-After; las peticiones
+ * sin JWT no se cuentan (la autorización ya las rechaza).
+ */
+public class UserConcurrencyGlobalFilter implements GlobalFilter, Ordered {
+
+    private final UserConcurrencyLimiter limiter;
+    private final UserConcurrencyProperties properties;
+    private final String retryAfter;
+
+    public UserConcurrencyGlobalFilter(UserConcurrencyLimiter limiter, UserConcurrencyProperties properties) {
+        this.limiter = limiter;
+        this.properties = properties;
+        this.retryAfter = Long.toString(Math.max(1, properties.retryAfter().toSeconds()));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null || !properties.routes().contains(route.getId()))
+            return chain.filter(exchange);
+
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(auth -> auth instanceof JwtAuthenticationToken)
+                .map(auth -> Optional.of(((JwtAuthenticationToken) auth).getToken().getSubject()))
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(subject -> subject
+                        .map(sub -> limited(exchange, chain, sub))
+                        .orElseGet(() -> chain.filter(exchange)));
+    }
+
+    private Mono<Void> limited(ServerWebExchange exchange, GatewayFilterChain chain, String subject) {
+        return limiter.acquire(subject)
+                .map(permit -> chain.filter(exchange).doFinally(signal -> permit.release()))
+                .defaultIfEmpty(Mono.defer(() -> reject(exchange.getResponse())))
+                .flatMap(action -> action);
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        String body = "{\"code\":\"TOO_MANY_CONCURRENT_REQUESTS\",\"message\":\"Demasiadas peticiones en curso para "
+                + "este usuario\",\"details\":{\"maxInFlight\":" + properties.maxInFlight() + "}}";
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Override
+    public int getOrder() {
+        // Después del descarte de carga global, antes de validar o balancear
+        return Ordered.HIGHEST_PRECEDENCE + 2;
+    }
+}
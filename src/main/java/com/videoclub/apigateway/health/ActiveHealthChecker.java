@@ -0,0 +1,92 @@
+package com.videoclub.apigateway.health;
+
+import com.videoclub.apigateway.balancer.P2cLoadBalancer;
+import com.videoclub.apigateway.balancer.ServiceInstance;
+import com.videoclub.apigateway.balancer.ServiceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * Probe activo de todas las instancias del {@link ServiceRegistry}.
+ * 
+ * Cada intervalo hace un GET al path configurado de cada instancia: cualquier
+ * respuesta &lt; 500 cuenta como sana; 5xx, timeout o error de conexión como
+ * falla. El resultado alimenta el {@code InstanceHealth} de la instancia, que
+ * el balanceador consulta en cada elección.
+ */
+public class ActiveHealthChecker implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ActiveHealthChecker.class);
+
+    private final ServiceRegistry registry;
+    private final HealthCheckProperties properties;
+    private final WebClient webClient;
+    private volatile Disposable task;
+
+    public ActiveHealthChecker(ServiceRegistry registry, HealthCheckProperties properties, WebClient webClient) {
+        this.registry = registry;
+        this.properties = properties;
+        this.webClient = webClient;
+    }
+
+    @Override
+    public void start() {
+        task = Flux.interval(properties.interval())
+                .onBackpressureDrop()
+                .concatMap(tick -> probeAll())
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = task;
+        if (current != null)
+            current.dispose();
+        task = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return task != null;
+    }
+
+    /** Ejecuta una ronda de probes sobre todas las instancias. */
+    public Mono<Void> probeAll() {
+        return Flux.fromIterable(registry.balancers().values())
+                .flatMapIterable(P2cLoadBalancer::instances)
+                .flatMap(this::probe)
+                .then();
+    }
+
+    private Mono<Void> probe(ServiceInstance instance) {
+        URI target = instance.uri().resolve(properties.path());
+        return webClient.get().uri(target)
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()))
+                .timeout(properties.timeout())
+                .doOnNext(status -> {
+                    if (status.is5xxServerError())
+                        failure(instance, "HTTP " + status.value());
+                    else
+                        instance.health().onProbeSuccess();
+                })
+                .onErrorResume(e -> {
+                    failure(instance, e.getClass().getSimpleName() + (e.getMessage() == null ? "" : ": " + e.getMessage()));
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private void failure(ServiceInstance instance, String reason) {
+        boolean wasUp = instance.health().probeUp();
+        instance.health().onProbeFailure(reason);
+        if (wasUp && !instance.health().probeUp())
+            log.warn("Instancia {} de {} marcada como caída: {}", instance.id(), instance.service(), reason);
+    }
+}
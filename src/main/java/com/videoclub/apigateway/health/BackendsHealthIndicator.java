@@ -0,0 +1,54 @@
+package com.videoclub.apigateway.health;
+
+import com.videoclub.apigateway.balancer.P2cLoadBalancer;
+import com.videoclub.apigateway.balancer.ServiceInstance;
+import com.videoclub.apigateway.balancer.ServiceRegistry;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Componente "backends" de /actuator/health: estado de cada instancia de cada
+ * servicio.
+ * 
+ * - UP: todos los servicios tienen al menos una instancia disponible
+ * - DEGRADED: algún servicio no tiene instancias disponibles (el gateway sigue
+ * vivo; se mapea a HTTP 200 para no reiniciarlo por una caída ajena)
+ */
+public class BackendsHealthIndicator implements HealthIndicator {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "Algún backend sin instancias disponibles");
+
+    private final ServiceRegistry registry;
+
+    public BackendsHealthIndicator(ServiceRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Health health() {
+        boolean degraded = false;
+        Map<String, Object> services = new LinkedHashMap<>();
+        for (P2cLoadBalancer balancer : registry.balancers().values()) {
+            Map<String, Object> instances = new LinkedHashMap<>();
+            boolean anyAvailable = false;
+            for (ServiceInstance instance : balancer.instances()) {
+                anyAvailable |= instance.available();
+                Map<String, Object> detail = new LinkedHashMap<>();
+                detail.put("status", instance.available() ? "UP"
+                        : instance.health().probeUp() ? "EJECTED" : "DOWN");
+                detail.put("outstanding", instance.outstanding());
+                detail.put("latencyEwmaMs", Math.round(instance.ewmaLatencyMillis() * 10) / 10.0);
+                if (instance.health().lastFailure() != null)
+                    detail.put("lastFailure", instance.health().lastFailure());
+                instances.put(instance.id(), detail);
+            }
+            degraded |= !anyAvailable;
+            services.put(balancer.service(), instances);
+        }
+        return Health.status(degraded ? DEGRADED : Status.UP).withDetails(services).build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.videoclub.apigateway.health;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * Endpoint actuator {@code /actuator/drain}: etapa del apagado y peticiones
+ * en vuelo, en total y por ruta (al terminar, también las que se cortaron).
+ */
+@Endpoint(id = "drain")
+public class DrainEndpoint {
+
+    private final GracefulDrain drain;
+
+    public DrainEndpoint(GracefulDrain drain) {
+        this.drain = drain;
+    }
+
+    @ReadOperation
+    public Map<String, Object> drain() {
+        return drain.report();
+    }
+}
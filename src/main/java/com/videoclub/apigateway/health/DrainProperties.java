@@ -0,0 +1,28 @@
+package com.videoclub.apigateway.health;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Apagado por etapas del gateway ({@code videoclub.gateway.drain.*}).
+ *
+ * @param enabled        activa el drenaje (sin él, el servidor se cierra con
+ *                       lo que esté en vuelo)
+ * @param readinessDelay tiempo que se sigue atendiendo con readiness fuera de
+ *                       servicio, para que el orquestador y los balanceadores
+ *                       dejen de enviar tráfico antes de cerrar el puerto
+ * @param timeout        plazo máximo para que terminen las peticiones en
+ *                       vuelo una vez cerrado el puerto; lo que siga abierto
+ *                       se corta al cerrar el servidor
+ * @param reportInterval cada cuánto se registran las peticiones en vuelo por
+ *                       ruta mientras se espera
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.drain")
+public record DrainProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("5s") Duration readinessDelay,
+        @DefaultValue("20s") Duration timeout,
+        @DefaultValue("2s") Duration reportInterval) {
+}
@@ -0,0 +1,249 @@
+package com.videoclub.apigateway.health;
+
+import com.videoclub.apigateway.balancer.P2cLoadBalancer;
+import com.videoclub.apigateway.balancer.ServiceInstance;
+import com.videoclub.apigateway.balancer.ServiceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.ApplicationListener;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Calentamiento del gateway al iniciar, para que las primeras peticiones
+ * tras un despliegue no paguen el arranque en frío:
+ *
+ * 1. abre connectionsPerInstance conexiones del pool del gateway hacia cada
+ * URI de ruta (las {@code lb://} se expanden a sus instancias)
+ * 2. carga discovery y JWK Set en el {@link ReactiveJwtDecoder} real,
+ * decodificando un token sintético con un kid inexistente: falla la firma,
+ * pero las claves quedan en su cache
+ * 3. recorre la cadena de filtros completa con peticiones GET sintéticas al
+ * propio gateway, en rondas, hasta que la mediana de latencia se estabiliza
+ * (o se agotan maxRounds / maxDuration)
+ *
+ * Corre en un hilo propio al recibir ApplicationReadyEvent; mientras tanto
+ * {@link WarmupReadinessStateHealthIndicator} reporta readiness
+ * OUT_OF_SERVICE. Un paso que falla (backend caído, Keycloak sin responder)
+ * se registra y no bloquea la readiness.
+ */
+public class GatewayWarmup implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(GatewayWarmup.class);
+
+    /** Variación que se tolera siempre entre rondas (ruido del reloj en latencias de loopback). */
+    private static final double MIN_SLACK_MILLIS = 0.5;
+
+    private static final String SYNTHETIC_TOKEN = base64("{\"alg\":\"RS256\",\"typ\":\"JWT\",\"kid\":\"warmup\"}")
+            + "." + base64("{\"sub\":\"warmup\"}") + "." + base64("warmup");
+
+    public enum Phase {
+        PENDING, RUNNING, DONE
+    }
+
+    private final WarmupProperties properties;
+    private final RouteLocator routeLocator;
+    private final ServiceRegistry registry;
+    private final HttpClient httpClient;
+    private final ReactiveJwtDecoder jwtDecoder;
+    /** Configura TLS para llamar al propio gateway; null si escucha en HTTP plano. */
+    private final UnaryOperator<HttpClient> loopbackTls;
+
+    private volatile Phase phase = Phase.PENDING;
+    private volatile long durationMillis = -1;
+    private volatile int connectionsOpened;
+    private volatile int connectionsAttempted;
+    private volatile String jwks = "skipped";
+    private volatile int rounds;
+    private volatile double medianMillis = Double.NaN;
+    private volatile boolean stabilized;
+
+    public GatewayWarmup(WarmupProperties properties, RouteLocator routeLocator, ServiceRegistry registry,
+            HttpClient httpClient, ReactiveJwtDecoder jwtDecoder) {
+        this(properties, routeLocator, registry, httpClient, jwtDecoder, null);
+    }
+
+    public GatewayWarmup(WarmupProperties properties, RouteLocator routeLocator, ServiceRegistry registry,
+            HttpClient httpClient, ReactiveJwtDecoder jwtDecoder, UnaryOperator<HttpClient> loopbackTls) {
+        this.properties = properties;
+        this.routeLocator = routeLocator;
+        this.registry = registry;
+        this.httpClient = httpClient;
+        this.jwtDecoder = jwtDecoder;
+        this.loopbackTls = loopbackTls;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (phase != Phase.PENDING)
+            return;
+        phase = Phase.RUNNING;
+        Integer port = event.getApplicationContext().getEnvironment().getProperty("local.server.port", Integer.class);
+        Thread thread = new Thread(() -> run(port), "gateway-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public boolean finished() {
+        return phase == Phase.DONE;
+    }
+
+    /** Duración del último calentamiento en ms, o -1 si no terminó. */
+    public long durationMillis() {
+        return durationMillis;
+    }
+
+    /** Resumen para el detalle de readiness. */
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("phase", phase.name());
+        if (durationMillis >= 0)
+            report.put("durationMs", durationMillis);
+        report.put("connections", connectionsOpened + "/" + connectionsAttempted);
+        report.put("jwks", jwks);
+        report.put("rounds", rounds);
+        if (!Double.isNaN(medianMillis))
+            report.put("medianMs", Math.round(medianMillis * 100) / 100.0);
+        report.put("stabilized", stabilized);
+        return report;
+    }
+
+    private void run(Integer port) {
+        long start = System.nanoTime();
+        long deadline = start + properties.maxDuration().toNanos();
+        try {
+            preconnect();
+            loadJwks();
+            if (port != null && port > 0)
+                synthetic(port, deadline);
+        } catch (RuntimeException e) {
+            log.warn("Calentamiento interrumpido: {}", e.getMessage());
+        } finally {
+            durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            phase = Phase.DONE;
+            log.info("Calentamiento terminado en {} ms: {}", durationMillis, report());
+        }
+    }
+
+    /** URIs base de las rutas; las {@code lb://} se expanden a sus instancias. */
+    public List<URI> targets() {
+        List<Route> routes = routeLocator.getRoutes().collectList().block(properties.stepTimeout());
+        Set<URI> targets = new LinkedHashSet<>();
+        for (Route route : routes == null ? List.<Route>of() : routes) {
+            URI uri = route.getUri();
+            String scheme = uri.getScheme();
+            if ("lb".equals(scheme)) {
+                P2cLoadBalancer balancer = registry.balancer(uri.getHost());
+                if (balancer != null)
+                    balancer.instances().stream().map(ServiceInstance::uri).forEach(targets::add);
+            } else if ("http".equals(scheme) || "https".equals(scheme)) {
+                targets.add(URI.create(scheme + "://" + uri.getRawAuthority()));
+            }
+        }
+        return List.copyOf(targets);
+    }
+
+    private void preconnect() {
+        List<URI> targets = targets();
+        int perTarget = properties.connectionsPerInstance();
+        connectionsAttempted = targets.size() * perTarget;
+        // En paralelo: con HTTP/1.1 cada petición en vuelo ocupa su propia conexión del pool
+        Integer opened = Flux.fromIterable(targets)
+                .flatMap(target -> Flux.range(0, perTarget)
+                        .flatMap(i -> open(target.resolve(properties.preconnectPath()))))
+                .reduce(0, Integer::sum)
+                .block();
+        connectionsOpened = opened == null ? 0 : opened;
+    }
+
+    private Mono<Integer> open(URI uri) {
+        return httpClient.get().uri(uri.toString())
+                .response((response, body) -> body.then(Mono.just(1)))
+                .next()
+                .timeout(properties.stepTimeout())
+                .onErrorResume(e -> {
+                    log.debug("Calentamiento: no se pudo conectar a {}: {}", uri, e.toString());
+                    return Mono.just(0);
+                });
+    }
+
+    private void loadJwks() {
+        if (jwtDecoder == null)
+            return;
+        jwks = jwtDecoder.decode(SYNTHETIC_TOKEN)
+                .thenReturn("loaded")
+                .timeout(properties.stepTimeout())
+                // Token rechazado (firma o kid): el decoder ya obtuvo las claves
+                .onErrorResume(BadJwtException.class, e -> Mono.just("loaded"))
+                .onErrorResume(e -> {
+                    log.warn("Calentamiento: no se pudo cargar el JWK Set: {}", e.getMessage());
+                    return Mono.just("failed");
+                })
+                .block();
+    }
+
+    private void synthetic(int port, long deadline) {
+        List<String> paths = properties.requests();
+        if (paths.isEmpty())
+            return;
+        HttpClient plain = HttpClient.create()
+                .baseUrl((loopbackTls == null ? "http" : "https") + "://localhost:" + port)
+                .headers(headers -> headers.set("User-Agent", "videoclub-gateway-warmup"));
+        HttpClient client = loopbackTls == null ? plain : loopbackTls.apply(plain);
+        double previous = Double.NaN;
+        int stable = 0;
+        while (rounds < properties.maxRounds() && System.nanoTime() < deadline) {
+            List<Long> latencies = Flux.range(0, properties.roundSize())
+                    .flatMap(i -> timed(client, paths.get(i % paths.size())), properties.concurrency())
+                    .collectSortedList()
+                    .block();
+            rounds++;
+            if (latencies == null || latencies.isEmpty())
+                return;
+            double median = latencies.get(latencies.size() / 2) / 1_000_000.0;
+            medianMillis = median;
+            stable = steady(previous, median) ? stable + 1 : 0;
+            previous = median;
+            if (stable >= properties.stableRounds()) {
+                stabilized = true;
+                return;
+            }
+        }
+    }
+
+    private boolean steady(double previous, double median) {
+        return !Double.isNaN(previous)
+                && Math.abs(median - previous) <= Math.max(properties.tolerance() * previous, MIN_SLACK_MILLIS);
+    }
+
+    /** Latencia en nanos de un GET completo (cuerpo incluido); vacío si falla. */
+    private Mono<Long> timed(HttpClient client, String path) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return client.get().uri(path)
+                    .response((response, body) -> body.then(Mono.fromSupplier(() -> System.nanoTime() - start)))
+                    .next();
+        }).timeout(properties.stepTimeout()).onErrorResume(e -> Mono.empty());
+    }
+
+    private static String base64(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,157 @@
+package com.videoclub.apigateway.health;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import reactor.netty.DisposableServer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Apagado por etapas para reemplazar el contenedor sin cortar peticiones
+ * (checkout de ventas-service sobre todo):
+ *
+ * 1. READINESS_DOWN: readiness pasa a REFUSING_TRAFFIC y durante
+ * readinessDelay se sigue atendiendo normalmente; cada respuesta lleva
+ * {@code Connection: close}, así los clientes con keep-alive abren la
+ * siguiente conexión contra otra réplica
+ * 2. NOT_ACCEPTING: se cierra el socket de escucha (las conexiones abiertas
+ * siguen) y se espera hasta timeout a que terminen las peticiones en vuelo,
+ * registrando cuántas quedan por ruta
+ * 3. DONE: lo que siga en vuelo se informa por ruta y lo corta el cierre del
+ * servidor, que Spring hace en una fase posterior
+ *
+ * Es la primera fase en detenerse. El drenaje corre en su propio hilo y avisa
+ * al terminar, por eso spring.lifecycle.timeout-per-shutdown-phase debe
+ * superar readinessDelay + timeout.
+ */
+public class GracefulDrain implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(GracefulDrain.class);
+
+    private static final long POLL_MILLIS = 50;
+
+    public enum Stage {
+        SERVING, READINESS_DOWN, NOT_ACCEPTING, DONE
+    }
+
+    private final DrainProperties properties;
+    private final InFlightExchanges inFlight;
+    private final ApplicationEventPublisher publisher;
+    private final List<DisposableServer> servers = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private volatile Stage stage = Stage.SERVING;
+    private volatile long durationMillis = -1;
+    private volatile Map<String, Integer> cutOff = Map.of();
+
+    public GracefulDrain(DrainProperties properties, InFlightExchanges inFlight, ApplicationEventPublisher publisher) {
+        this.properties = properties;
+        this.inFlight = inFlight;
+        this.publisher = publisher;
+    }
+
+    /** Servidor HTTP enlazado cuyo socket de escucha se cierra en NOT_ACCEPTING. */
+    public void bound(DisposableServer server) {
+        servers.add(server);
+    }
+
+    /** true desde que readiness pasa a fuera de servicio. */
+    public boolean draining() {
+        return stage != Stage.SERVING;
+    }
+
+    public Stage stage() {
+        return stage;
+    }
+
+    /** Estado para /actuator/drain. */
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("stage", stage.name());
+        report.put("inFlight", inFlight.total());
+        report.put("routes", inFlight.byRoute());
+        if (stage == Stage.DONE) {
+            report.put("durationMs", durationMillis);
+            report.put("cutOff", cutOff);
+        }
+        return report;
+    }
+
+    @Override
+    public void start() {
+        stage = Stage.SERVING;
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        drain();
+        running = false;
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        Thread thread = new Thread(() -> {
+            try {
+                stop();
+            } finally {
+                callback.run();
+            }
+        }, "gateway-drain");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Antes que el servidor web y que el resto de los componentes
+        return Integer.MAX_VALUE;
+    }
+
+    private void drain() {
+        long start = System.nanoTime();
+        stage = Stage.READINESS_DOWN;
+        AvailabilityChangeEvent.publish(publisher, this, ReadinessState.REFUSING_TRAFFIC);
+        log.info("Drenaje: readiness fuera de servicio, {} en vuelo; se deja de aceptar conexiones en {} ms",
+                inFlight.total(), properties.readinessDelay().toMillis());
+        try {
+            Thread.sleep(properties.readinessDelay().toMillis());
+
+            stage = Stage.NOT_ACCEPTING;
+            for (DisposableServer server : servers)
+                server.channel().close();
+            long deadline = System.nanoTime() + properties.timeout().toNanos();
+            long nextReport = System.nanoTime();
+            while (inFlight.total() > 0 && System.nanoTime() < deadline) {
+                if (System.nanoTime() >= nextReport) {
+                    log.info("Drenaje: sin aceptar conexiones, en vuelo por ruta {}", inFlight.byRoute());
+                    nextReport = System.nanoTime() + properties.reportInterval().toNanos();
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        cutOff = inFlight.byRoute();
+        durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        stage = Stage.DONE;
+        if (cutOff.isEmpty())
+            log.info("Drenaje terminado en {} ms sin peticiones en vuelo", durationMillis);
+        else
+            log.warn("Drenaje: vence el plazo tras {} ms, se cortan en vuelo por ruta {}", durationMillis, cutOff);
+    }
+}
@@ -0,0 +1,43 @@
+package com.videoclub.apigateway.health;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Chequeo de salud de las instancias de backend
+ * ({@code videoclub.gateway.health-check.*}).
+ *
+ * @param enabled            activa el probe activo
+ * @param path               path consultado en cada instancia (cualquier
+ *                           respuesta &lt; 500 cuenta como sana)
+ * @param interval           intervalo entre probes
+ * @param timeout            timeout de cada probe
+ * @param unhealthyThreshold probes fallidos consecutivos para marcar caída
+ * @param healthyThreshold   probes exitosos consecutivos para volver
+ * @param passiveFailures    fallos consecutivos de tráfico real (conexión,
+ *                           timeout, 502/503/504 del backend) que expulsan la
+ *                           instancia
+ * @param ejectionDuration   tiempo fuera de rotación tras una expulsión pasiva
+ * @param maxEjectionPercent porcentaje máximo de instancias de un servicio
+ *                           expulsadas a la vez; la última disponible nunca se
+ *                           expulsa
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.health-check")
+public record HealthCheckProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("/actuator/health") String path,
+        @DefaultValue("10s") Duration interval,
+        @DefaultValue("2s") Duration timeout,
+        @DefaultValue("2") int unhealthyThreshold,
+        @DefaultValue("1") int healthyThreshold,
+        @DefaultValue("5") int passiveFailures,
+        @DefaultValue("30s") Duration ejectionDuration,
+        @DefaultValue("50") int maxEjectionPercent) {
+
+    public HealthCheckProperties {
+        if (maxEjectionPercent < 0 || maxEjectionPercent > 100)
+            throw new IllegalArgumentException("health-check.max-ejection-percent debe estar entre 0 y 100");
+    }
+}
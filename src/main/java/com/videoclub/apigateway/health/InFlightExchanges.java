@@ -0,0 +1,49 @@
+package com.videoclub.apigateway.health;
+
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Intercambios en vuelo (desde que entran al servidor hasta que se termina
+ * de escribir la respuesta).
+ *
+ * Se guardan los intercambios y no contadores por ruta: la ruta se resuelve
+ * después de los WebFilter, así que la agrupación se calcula al consultar,
+ * con la ruta que tenga cada uno en ese momento ({@link #NO_ROUTE} si aún no
+ * tiene o no corresponde a ninguna, como /actuator).
+ */
+public class InFlightExchanges {
+
+    public static final String NO_ROUTE = "-";
+
+    private final Set<ServerWebExchange> exchanges = ConcurrentHashMap.newKeySet();
+
+    /** Registra el intercambio mientras dura {@code chain}. */
+    public Mono<Void> track(ServerWebExchange exchange, Mono<Void> chain) {
+        return Mono.defer(() -> {
+            exchanges.add(exchange);
+            return chain;
+        }).doFinally(signal -> exchanges.remove(exchange));
+    }
+
+    public int total() {
+        return exchanges.size();
+    }
+
+    /** En vuelo por id de ruta, ordenado por id. */
+    public Map<String, Integer> byRoute() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (ServerWebExchange exchange : exchanges) {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            counts.merge(route == null ? NO_ROUTE : route.getId(), 1, Integer::sum);
+        }
+        return counts;
+    }
+}
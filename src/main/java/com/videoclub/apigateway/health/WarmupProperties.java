@@ -0,0 +1,46 @@
+package com.videoclub.apigateway.health;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Calentamiento al iniciar, antes de reportar readiness
+ * ({@code videoclub.gateway.warmup.*}).
+ *
+ * @param enabled                activa el calentamiento (sin él, readiness
+ *                               queda como la reporta Spring Boot)
+ * @param connectionsPerInstance conexiones que se abren en el pool hacia
+ *                               cada instancia de backend
+ * @param preconnectPath         path consultado para abrir esas conexiones
+ *                               (cualquier respuesta sirve)
+ * @param requests               paths GET del propio gateway con los que se
+ *                               recorre la cadena de filtros completa
+ * @param roundSize              peticiones sintéticas por ronda
+ * @param concurrency            peticiones sintéticas en paralelo
+ * @param tolerance              variación máxima de la mediana entre rondas
+ *                               para considerarla estable (0-1)
+ * @param stableRounds           rondas estables consecutivas para terminar
+ * @param maxRounds              rondas máximas aunque la latencia no se
+ *                               estabilice
+ * @param stepTimeout            timeout de cada paso de red (conexiones,
+ *                               JWKs, cada petición)
+ * @param maxDuration            duración máxima del calentamiento; al
+ *                               vencer, readiness pasa a UP igual
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.warmup")
+public record WarmupProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("4") int connectionsPerInstance,
+        @DefaultValue("/actuator/health") String preconnectPath,
+        @DefaultValue List<String> requests,
+        @DefaultValue("50") int roundSize,
+        @DefaultValue("4") int concurrency,
+        @DefaultValue("0.1") double tolerance,
+        @DefaultValue("3") int stableRounds,
+        @DefaultValue("30") int maxRounds,
+        @DefaultValue("5s") Duration stepTimeout,
+        @DefaultValue("60s") Duration maxDuration) {
+}
@@ -0,0 +1,34 @@
+package com.videoclub.apigateway.health;
+
+import org.springframework.boot.actuate.availability.ReadinessStateHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityState;
+import org.springframework.boot.availability.ReadinessState;
+
+/**
+ * Componente "readinessState" (/actuator/health/readiness) que reporta
+ * REFUSING_TRAFFIC (OUT_OF_SERVICE) hasta que termina {@link GatewayWarmup};
+ * después, el estado de Spring Boot. El detalle "warmup" incluye la duración
+ * y el resultado de cada paso.
+ */
+public class WarmupReadinessStateHealthIndicator extends ReadinessStateHealthIndicator {
+
+    private final GatewayWarmup warmup;
+
+    public WarmupReadinessStateHealthIndicator(ApplicationAvailability availability, GatewayWarmup warmup) {
+        super(availability);
+        this.warmup = warmup;
+    }
+
+    @Override
+    protected AvailabilityState getState(ApplicationAvailability availability) {
+        return warmup.finished() ? super.getState(availability) : ReadinessState.REFUSING_TRAFFIC;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) throws Exception {
+        super.doHealthCheck(builder);
+        builder.withDetail("warmup", warmup.report());
+    }
+}
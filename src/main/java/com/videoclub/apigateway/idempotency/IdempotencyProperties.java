@@ -0,0 +1,35 @@
+package com.videoclub.apigateway.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Claves de idempotencia en el gateway ({@code videoclub.gateway.idempotency.*}).
+ *
+ * @param enabled       activa el filtro
+ * @param header        header con la clave enviada por el cliente
+ * @param routes        ids de ruta cuyos POST admiten la clave
+ * @param maxEntries    entradas completadas en memoria (LRU); las en curso
+ *                      no se desalojan
+ * @param retention     tiempo que se conserva una respuesta completada
+ * @param maxBodySize   cuerpo máximo de respuesta que se guarda para replay
+ *                      y de petición que se lee para la huella
+ * @param attachTimeout espera máxima de un duplicado por la petición original
+ *                      en curso
+ * @param maxKeyLength  largo máximo de la clave
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("Idempotency-Key") String header,
+        @DefaultValue Set<String> routes,
+        @DefaultValue("10000") int maxEntries,
+        @DefaultValue("24h") Duration retention,
+        @DefaultValue("256KB") DataSize maxBodySize,
+        @DefaultValue("30s") Duration attachTimeout,
+        @DefaultValue("255") int maxKeyLength) {
+}
@@ -0,0 +1,149 @@
+package com.videoclub.apigateway.idempotency;
+
+import com.videoclub.apigateway.cache.CachedResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Peticiones idempotentes en curso y completadas, acotadas por cantidad (LRU).
+ * 
+ * Una entrada nace en curso ({@link #begin}) con un sink al que se enganchan
+ * los duplicados concurrentes; al terminar se completa con la respuesta, que
+ * queda disponible para replay hasta vencer, o se descarta si no debe
+ * repetirse (5xx, error, cancelación).
+ * 
+ * Cada entrada guarda la huella de la petición (método, path y cuerpo): la
+ * misma clave con otra huella es {@link Mismatch}, nunca un replay. El límite
+ * de cantidad solo desaloja entradas completadas; las en curso se quedan hasta
+ * completarse o abandonarse, así un duplicado nunca pasa por un desalojo.
+ */
+public class IdempotencyStore {
+
+    /** Resultado de {@link #begin}: dueño de la petición, en curso o completada. */
+    public sealed interface Claim permits Owner, InFlight, Completed, Mismatch {
+    }
+
+    /** La petición es nueva: quien la recibe debe ejecutarla y completarla. */
+    public record Owner(Entry entry) implements Claim {
+    }
+
+    /** Un duplicado llega mientras la original sigue en curso. */
+    public record InFlight(Mono<CachedResponse> response) implements Claim {
+    }
+
+    /** Un duplicado llega con la respuesta original ya guardada. */
+    public record Completed(CachedResponse response) implements Claim {
+    }
+
+    /** La clave ya se usó (en curso o completada) con otra petición. */
+    public record Mismatch() implements Claim {
+    }
+
+    /** Entrada de una clave. */
+    public static final class Entry {
+
+        private final String key;
+        private final String fingerprint;
+        private final Sinks.One<CachedResponse> sink = Sinks.one();
+        private volatile CachedResponse response;
+
+        private Entry(String key, String fingerprint) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder attached = new LongAdder();
+    private final LongAdder mismatched = new LongAdder();
+
+    public IdempotencyStore(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @param fingerprint huella de la petición; la misma clave con otra huella
+     *                    devuelve {@link Mismatch}
+     */
+    public synchronized Claim begin(String key, String fingerprint, long now) {
+        Entry entry = entries.get(key);
+        if (entry != null && (entry.response == null || entry.response.fresh(now))
+                && !entry.fingerprint.equals(fingerprint)) {
+            mismatched.increment();
+            return new Mismatch();
+        }
+        if (entry != null) {
+            CachedResponse response = entry.response;
+            if (response == null) {
+                attached.increment();
+                return new InFlight(entry.sink.asMono());
+            }
+            if (response.fresh(now)) {
+                replayed.increment();
+                return new Completed(response);
+            }
+        }
+        Entry created = new Entry(key, fingerprint);
+        entries.put(key, created);
+        evict();
+        return new Owner(created);
+    }
+
+    /** Desaloja completadas, de la menos reciente, hasta volver a maxEntries. */
+    private void evict() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            if (eldest.next().response != null)
+                eldest.remove();
+        }
+    }
+
+    /**
+     * Completa la petición: los duplicados enganchados reciben la respuesta y,
+     * si keep es true, queda guardada para los que lleguen después.
+     */
+    public void complete(Entry entry, CachedResponse response, boolean keep) {
+        synchronized (this) {
+            if (keep)
+                entry.response = response;
+            else
+                entries.remove(entry.key, entry);
+        }
+        entry.sink.tryEmitValue(response);
+    }
+
+    /**
+     * Descarta la petición sin respuesta: los duplicados enganchados reciben
+     * vacío y vuelven a llamar a {@link #begin}; el primero queda como dueño y
+     * el resto se engancha a él, así la petición se ejecuta una sola vez.
+     */
+    public void abandon(Entry entry) {
+        synchronized (this) {
+            entries.remove(entry.key, entry);
+        }
+        entry.sink.tryEmitEmpty();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long replayed() {
+        return replayed.sum();
+    }
+
+    public long attached() {
+        return attached.sum();
+    }
+
+    /** Claves reusadas con otra petición (rechazadas). */
+    public long mismatched() {
+        return mismatched.sum();
+    }
+}
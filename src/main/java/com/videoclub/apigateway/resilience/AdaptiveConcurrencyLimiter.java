@@ -0,0 +1,127 @@
+package com.videoclub.apigateway.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Límite de peticiones en vuelo hacia un backend, ajustado según la latencia
+ * observada (algoritmo de gradiente, en la línea de TCP Vegas).
+ * 
+ * Se compara la latencia de cada respuesta con una media móvil larga
+ * (referencia sin carga):
+ * - si la latencia se mantiene cerca de la referencia, el límite crece de a
+ * sqrt(límite) (margen para encolar)
+ * - si sube, el límite baja en proporción (gradiente entre 0.5 y 1)
+ * - ante errores o timeouts, el límite se multiplica por backoffRatio
+ * 
+ * Adquirir un permiso es un CAS sin bloqueo; lo que excede el límite se
+ * rechaza de inmediato.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final ConcurrencyLimitProperties settings;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos;
+    private volatile long lastRttNanos;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties settings) {
+        this.settings = settings;
+        this.estimatedLimit = settings.initialLimit();
+        this.limit = settings.initialLimit();
+    }
+
+    /** Intenta reservar un lugar. Devuelve false si el backend está al límite. */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera el lugar y actualiza el límite con la muestra.
+     *
+     * @param rttNanos        latencia observada
+     * @param inFlightAtStart peticiones en vuelo al momento de adquirir
+     * @param drop            la petición terminó en error o timeout
+     */
+    public void release(long rttNanos, int inFlightAtStart, boolean drop) {
+        inFlight.decrementAndGet();
+        if (drop)
+            dropped.increment();
+        update(rttNanos, inFlightAtStart, drop);
+    }
+
+    /** Libera el lugar sin muestra (p.ej. cliente que canceló). */
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    synchronized void update(long rttNanos, int inFlightAtStart, boolean drop) {
+        double newLimit;
+        if (drop) {
+            newLimit = estimatedLimit * settings.backoffRatio();
+        } else {
+            lastRttNanos = rttNanos;
+            if (longRttNanos == 0) {
+                longRttNanos = rttNanos;
+            } else {
+                longRttNanos += (rttNanos - longRttNanos) / settings.longWindow();
+                // Si la referencia quedó muy por encima (carga pasada), se acerca rápido
+                if (longRttNanos / rttNanos > 2)
+                    longRttNanos *= 0.95;
+            }
+
+            // Con poca carga la latencia no dice nada sobre la capacidad
+            if (inFlightAtStart < estimatedLimit / 2)
+                return;
+
+            double gradient = Math.max(0.5, Math.min(1.0, settings.rttTolerance() * longRttNanos / rttNanos));
+            newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            newLimit = estimatedLimit * (1 - settings.smoothing()) + newLimit * settings.smoothing();
+        }
+        estimatedLimit = Math.max(settings.minLimit(), Math.min(settings.maxLimit(), newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long accepted() {
+        return accepted.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public synchronized double longRttMillis() {
+        return longRttNanos / 1_000_000.0;
+    }
+
+    public double lastRttMillis() {
+        return lastRttNanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,84 @@
+package com.videoclub.apigateway.resilience;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Control de admisión del gateway completo según prioridad.
+ * 
+ * Las peticiones en vuelo se cuentan acá mismo (exactas); lag del event loop y
+ * conexiones pendientes del pool las publica {@link LoadSignalSampler} cada
+ * sampleInterval. La decisión por petición es una lectura de volátiles y una
+ * comparación: no agrega contención al camino caliente.
+ */
+public class AdmissionController {
+
+    private final LoadSheddingProperties properties;
+    private final double maxLagMillis;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Priority, LongAdder> admitted = new EnumMap<>(Priority.class);
+    private final Map<Priority, LongAdder> shed = new EnumMap<>(Priority.class);
+    private volatile double eventLoopLagMillis;
+    private volatile int pendingAcquires;
+
+    public AdmissionController(LoadSheddingProperties properties) {
+        this.properties = properties;
+        this.maxLagMillis = properties.maxEventLoopLag().toNanos() / 1_000_000.0;
+        for (Priority priority : Priority.values()) {
+            admitted.put(priority, new LongAdder());
+            shed.put(priority, new LongAdder());
+        }
+    }
+
+    /** Admite la petición (y la cuenta en vuelo) o la descarta. */
+    public boolean tryAdmit(Priority priority) {
+        if (pressure() >= properties.thresholdFor(priority)) {
+            shed.get(priority).increment();
+            return false;
+        }
+        inFlight.incrementAndGet();
+        admitted.get(priority).increment();
+        return true;
+    }
+
+    /** Fin de una petición admitida. */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /** Actualiza las señales muestreadas. */
+    public void updateSignals(double eventLoopLagMillis, int pendingAcquires) {
+        this.eventLoopLagMillis = eventLoopLagMillis;
+        this.pendingAcquires = pendingAcquires;
+    }
+
+    /** Máximo entre las señales relativas a su tope; 1 es saturación. */
+    public double pressure() {
+        double byInFlight = (double) inFlight.get() / properties.maxInFlight();
+        double byLag = eventLoopLagMillis / maxLagMillis;
+        double byPending = (double) pendingAcquires / properties.maxPendingAcquires();
+        return Math.max(byInFlight, Math.max(byLag, byPending));
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public double eventLoopLagMillis() {
+        return eventLoopLagMillis;
+    }
+
+    public int pendingAcquires() {
+        return pendingAcquires;
+    }
+
+    public long admitted(Priority priority) {
+        return admitted.get(priority).sum();
+    }
+
+    public long shed(Priority priority) {
+        return shed.get(priority).sum();
+    }
+}
@@ -0,0 +1,31 @@
+package com.videoclub.apigateway.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Límite de concurrencia adaptativo por backend
+ * ({@code videoclub.gateway.concurrency.*}).
+ *
+ * @param enabled      activa el límite
+ * @param initialLimit peticiones en vuelo permitidas al arrancar
+ * @param minLimit     piso del límite
+ * @param maxLimit     techo del límite
+ * @param smoothing    peso de cada nuevo cálculo sobre el límite actual (0-1)
+ * @param rttTolerance cuánto puede crecer la latencia sobre la de referencia
+ *                     antes de reducir el límite
+ * @param longWindow   cantidad de muestras de la media móvil de latencia de
+ *                     referencia
+ * @param backoffRatio factor aplicado al límite ante un error o timeout
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.concurrency")
+public record ConcurrencyLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("20") int initialLimit,
+        @DefaultValue("4") int minLimit,
+        @DefaultValue("500") int maxLimit,
+        @DefaultValue("0.2") double smoothing,
+        @DefaultValue("1.5") double rttTolerance,
+        @DefaultValue("600") int longWindow,
+        @DefaultValue("0.9") double backoffRatio) {
+}
@@ -0,0 +1,54 @@
+package com.videoclub.apigateway.resilience;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Un {@link AdaptiveConcurrencyLimiter} por backend (scheme://host:port),
+ * creado al primer uso y publicado en Micrometer:
+ * - gateway.concurrency.limit / inflight / rtt.long / rtt.last (gauges)
+ * - gateway.concurrency.accepted / rejected / dropped (contadores)
+ */
+public class ConcurrencyLimiterRegistry {
+
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimiterRegistry(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public AdaptiveConcurrencyLimiter forBackend(String backend) {
+        AdaptiveConcurrencyLimiter limiter = limiters.get(backend);
+        return limiter != null ? limiter : limiters.computeIfAbsent(backend, this::create);
+    }
+
+    public Map<String, AdaptiveConcurrencyLimiter> limiters() {
+        return Map.copyOf(limiters);
+    }
+
+    private AdaptiveConcurrencyLimiter create(String backend) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+        Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                .tag("backend", backend).register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                .tag("backend", backend).register(meterRegistry);
+        Gauge.builder("gateway.concurrency.rtt.long", limiter, AdaptiveConcurrencyLimiter::longRttMillis)
+                .tag("backend", backend).baseUnit("milliseconds").register(meterRegistry);
+        Gauge.builder("gateway.concurrency.rtt.last", limiter, AdaptiveConcurrencyLimiter::lastRttMillis)
+                .tag("backend", backend).baseUnit("milliseconds").register(meterRegistry);
+        FunctionCounter.builder("gateway.concurrency.accepted", limiter, AdaptiveConcurrencyLimiter::accepted)
+                .tag("backend", backend).register(meterRegistry);
+        FunctionCounter.builder("gateway.concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::rejected)
+                .tag("backend", backend).register(meterRegistry);
+        FunctionCounter.builder("gateway.concurrency.dropped", limiter, AdaptiveConcurrencyLimiter::dropped)
+                .tag("backend", backend).register(meterRegistry);
+        return limiter;
+    }
+}
@@ -0,0 +1,55 @@
+package com.videoclub.apigateway.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Descarte de carga por prioridad ({@code videoclub.gateway.load-shedding.*}).
+ * 
+ * La presión es el máximo entre las tres señales relativas a su tope
+ * (en vuelo / maxInFlight, lag del event loop / maxEventLoopLag, conexiones
+ * esperando al pool / maxPendingAcquires). Cada prioridad se descarta cuando
+ * la presión alcanza su umbral.
+ *
+ * @param enabled            activa el descarte
+ * @param defaultPriority    prioridad de las rutas no listadas
+ * @param routes             prioridad por id de ruta
+ * @param sampleInterval     intervalo de muestreo de lag y pool
+ * @param maxInFlight        peticiones en vuelo en todo el gateway con presión 1
+ * @param maxEventLoopLag    lag del event loop con presión 1
+ * @param maxPendingAcquires conexiones esperando al pool con presión 1
+ * @param sheddableAt        presión desde la que se descarta SHEDDABLE
+ * @param standardAt         presión desde la que se descarta STANDARD
+ * @param criticalAt         presión desde la que se descarta CRITICAL
+ * @param retryAfter         valor de Retry-After en las respuestas 503
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.load-shedding")
+public record LoadSheddingProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("STANDARD") Priority defaultPriority,
+        @DefaultValue Map<String, Priority> routes,
+        @DefaultValue("100ms") Duration sampleInterval,
+        @DefaultValue("1000") int maxInFlight,
+        @DefaultValue("100ms") Duration maxEventLoopLag,
+        @DefaultValue("200") int maxPendingAcquires,
+        @DefaultValue("0.5") double sheddableAt,
+        @DefaultValue("0.8") double standardAt,
+        @DefaultValue("1.0") double criticalAt,
+        @DefaultValue("2s") Duration retryAfter) {
+
+    public Priority priorityOf(String routeId) {
+        Priority priority = routeId == null ? null : routes.get(routeId);
+        return priority != null ? priority : defaultPriority;
+    }
+
+    public double thresholdFor(Priority priority) {
+        return switch (priority) {
+            case CRITICAL -> criticalAt;
+            case STANDARD -> standardAt;
+            case SHEDDABLE -> sheddableAt;
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package com.videoclub.apigateway.resilience;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.concurrent.EventExecutor;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Muestrea las señales de carga que no se pueden medir por petición y las
+ * publica en el {@link AdmissionController}:
+ * - lag del event loop: en cada muestra encola una tarea vacía en cada event
+ * loop del servidor y mide cuánto tarda en ejecutarse. Si la tarea anterior
+ * todavía no corrió, el loop lleva al menos ese tiempo bloqueado.
+ * - conexiones esperando al pool de Reactor Netty: suma del gauge
+ * reactor.netty.connection.provider.pending.connections (requiere
+ * httpclient.pool.metrics=true; sin él la señal queda en 0).
+ */
+public class LoadSignalSampler implements SmartLifecycle {
+
+    static final String PENDING_CONNECTIONS = "reactor.netty.connection.provider.pending.connections";
+
+    private final AdmissionController controller;
+    private final List<EventExecutor> eventLoops = new ArrayList<>();
+    private final MeterRegistry meterRegistry;
+    private final Duration interval;
+    private final AtomicLongArray submittedAt;
+    private final AtomicLongArray lastLag;
+    private volatile ScheduledExecutorService scheduler;
+
+    public LoadSignalSampler(AdmissionController controller, Iterable<EventExecutor> eventLoops,
+            MeterRegistry meterRegistry, Duration interval) {
+        this.controller = controller;
+        eventLoops.forEach(this.eventLoops::add);
+        this.meterRegistry = meterRegistry;
+        this.interval = interval;
+        this.submittedAt = new AtomicLongArray(this.eventLoops.size());
+        this.lastLag = new AtomicLongArray(this.eventLoops.size());
+    }
+
+    @Override
+    public void start() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "load-signal-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = interval.toNanos();
+        executor.scheduleAtFixedRate(this::sample, period, period, TimeUnit.NANOSECONDS);
+        scheduler = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        if (executor != null)
+            executor.shutdownNow();
+        scheduler = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    void sample() {
+        controller.updateSignals(sampleEventLoopLag() / 1_000_000.0, pendingAcquires());
+    }
+
+    private long sampleEventLoopLag() {
+        long now = System.nanoTime();
+        long max = 0;
+        for (int i = 0; i < eventLoops.size(); i++) {
+            long submitted = submittedAt.get(i);
+            if (submitted != 0) {
+                max = Math.max(max, now - submitted);
+                continue;
+            }
+            max = Math.max(max, lastLag.get(i));
+            int loop = i;
+            submittedAt.set(loop, now);
+            eventLoops.get(loop).execute(() -> {
+                lastLag.set(loop, System.nanoTime() - now);
+                submittedAt.set(loop, 0);
+            });
+        }
+        return max;
+    }
+
+    private int pendingAcquires() {
+        double pending = 0;
+        for (Gauge gauge : meterRegistry.find(PENDING_CONNECTIONS).gauges())
+            pending += gauge.value();
+        return (int) pending;
+    }
+}
@@ -0,0 +1,14 @@
+package com.videoclub.apigateway.resilience;
+
+/**
+ * Clase de prioridad de una ruta para el descarte de carga. Ante sobrecarga se
+ * descarta primero SHEDDABLE, después STANDARD; CRITICAL solo al saturarse.
+ */
+public enum Priority {
+    /** Tráfico que genera ingresos (checkout, compras). */
+    CRITICAL,
+    /** Resto del tráfico autenticado. */
+    STANDARD,
+    /** Navegación pública, reintentable sin costo para el usuario. */
+    SHEDDABLE
+}
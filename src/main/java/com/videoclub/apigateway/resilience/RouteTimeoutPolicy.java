@@ -0,0 +1,86 @@
+package com.videoclub.apigateway.resilience;
+
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timeouts de una ruta y sus contadores.
+ *
+ * Connect y response los aplica el NettyRoutingFilter de Spring Cloud Gateway
+ * a partir de la metadata de la ruta: {@link #routed(Route)} devuelve una
+ * copia de la ruta con esa metadata, que se construye una vez por instancia
+ * de ruta (se reconstruye si las rutas se recargan).
+ */
+public class RouteTimeoutPolicy {
+
+    public enum Kind {
+        CONNECT, RESPONSE, TOTAL
+    }
+
+    private record Copy(Route source, Route routed) {
+    }
+
+    private final TimeoutProperties.Limits limits;
+    private final LongAdder connect = new LongAdder();
+    private final LongAdder response = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private volatile Copy copy;
+
+    public RouteTimeoutPolicy(TimeoutProperties.Limits limits) {
+        this.limits = limits;
+    }
+
+    public TimeoutProperties.Limits limits() {
+        return limits;
+    }
+
+    /** La ruta con connect-timeout y response-timeout en su metadata. */
+    public Route routed(Route route) {
+        Copy current = copy;
+        if (current != null && current.source() == route)
+            return current.routed();
+        Map<String, Object> metadata = new HashMap<>(route.getMetadata());
+        metadata.put(RouteMetadataUtils.CONNECT_TIMEOUT_ATTR, limits.connect().toMillis());
+        metadata.put(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR, limits.response().toMillis());
+        Route routed = Route.async()
+                .id(route.getId())
+                .uri(route.getUri())
+                .order(route.getOrder())
+                .asyncPredicate(route.getPredicate())
+                .replaceFilters(route.getFilters())
+                .replaceMetadata(metadata)
+                .build();
+        copy = new Copy(route, routed);
+        return routed;
+    }
+
+    public void timedOut(Kind kind) {
+        switch (kind) {
+            case CONNECT -> connect.increment();
+            case RESPONSE -> response.increment();
+            case TOTAL -> total.increment();
+        }
+    }
+
+    public void cancelled() {
+        cancelled.increment();
+    }
+
+    public long timeouts(Kind kind) {
+        return switch (kind) {
+            case CONNECT -> connect.sum();
+            case RESPONSE -> response.sum();
+            case TOTAL -> total.sum();
+        };
+    }
+
+    /** Intercambios abandonados por el cliente antes de terminar. */
+    public long cancelledCount() {
+        return cancelled.sum();
+    }
+}
@@ -0,0 +1,47 @@
+package com.videoclub.apigateway.resilience;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Una {@link RouteTimeoutPolicy} por id de ruta, creada al primer uso y
+ * publicada en Micrometer:
+ * - gateway.timeouts (contador, tags route y kind = connect / response / total)
+ * - gateway.timeouts.cancelled (contador, tag route): desconexiones del cliente
+ */
+public class RouteTimeoutRegistry {
+
+    private final TimeoutProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteTimeoutPolicy> policies = new ConcurrentHashMap<>();
+
+    public RouteTimeoutRegistry(TimeoutProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public RouteTimeoutPolicy forRoute(String routeId) {
+        RouteTimeoutPolicy policy = policies.get(routeId);
+        return policy != null ? policy : policies.computeIfAbsent(routeId, this::create);
+    }
+
+    public Map<String, RouteTimeoutPolicy> policies() {
+        return Map.copyOf(policies);
+    }
+
+    private RouteTimeoutPolicy create(String routeId) {
+        RouteTimeoutPolicy policy = new RouteTimeoutPolicy(properties.forRoute(routeId));
+        for (RouteTimeoutPolicy.Kind kind : RouteTimeoutPolicy.Kind.values())
+            FunctionCounter.builder("gateway.timeouts", policy, p -> p.timeouts(kind))
+                    .tag("route", routeId)
+                    .tag("kind", kind.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+        FunctionCounter.builder("gateway.timeouts.cancelled", policy, RouteTimeoutPolicy::cancelledCount)
+                .tag("route", routeId).register(meterRegistry);
+        return policy;
+    }
+}
@@ -0,0 +1,46 @@
+package com.videoclub.apigateway.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Timeouts por ruta y propagación del plazo a los backends
+ * ({@code videoclub.gateway.timeouts.*}).
+ *
+ * @param enabled             activa los timeouts propios (sin ellos, los
+ *                            globales de spring.cloud.gateway.httpclient)
+ * @param deadlineHeader      header con los ms que le quedan al backend para
+ *                            responder; relativo, para no depender de relojes
+ *                            sincronizados
+ * @param honorClientDeadline un cliente que envía deadlineHeader con un valor
+ *                            menor acorta el plazo total (nunca lo alarga)
+ * @param defaults            timeouts de las rutas que no están en routes
+ * @param routes              timeouts por id de ruta
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.timeouts")
+public record TimeoutProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("X-Request-Timeout-Ms") String deadlineHeader,
+        @DefaultValue("true") boolean honorClientDeadline,
+        @DefaultValue Limits defaults,
+        @DefaultValue Map<String, Limits> routes) {
+
+    /**
+     * @param connect  conexión TCP con la instancia
+     * @param response espera de los headers de respuesta del backend
+     * @param total    en el gateway hasta empezar a enviar la respuesta (cola,
+     *                 balanceo y backend); no limita el envío del cuerpo
+     */
+    public record Limits(
+            @DefaultValue("2s") Duration connect,
+            @DefaultValue("10s") Duration response,
+            @DefaultValue("15s") Duration total) {
+    }
+
+    public Limits forRoute(String routeId) {
+        return routes.getOrDefault(routeId, defaults);
+    }
+}
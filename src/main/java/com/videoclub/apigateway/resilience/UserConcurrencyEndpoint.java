@@ -0,0 +1,46 @@
+package com.videoclub.apigateway.resilience;
+
+import com.videoclub.apigateway.security.IdentityHeaderSigner;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Endpoint actuator {@code /actuator/userconcurrency}: límite por usuario,
+ * totales y los usuarios con más rechazos o peticiones en vuelo. Como lista
+ * subjects de usuarios, requiere un JWT con el rol de realm configurado en
+ * admin-role.
+ */
+@Endpoint(id = "userconcurrency")
+public class UserConcurrencyEndpoint {
+
+    private final UserConcurrencyLimiter limiter;
+    private final UserConcurrencyProperties properties;
+
+    public UserConcurrencyEndpoint(UserConcurrencyLimiter limiter, UserConcurrencyProperties properties) {
+        this.limiter = limiter;
+        this.properties = properties;
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<Map<String, Object>> userConcurrency(Principal principal) {
+        if (!(principal instanceof JwtAuthenticationToken auth)
+                || !IdentityHeaderSigner.roles(auth.getToken()).contains(properties.adminRole()))
+            return new WebEndpointResponse<>(Map.of("error", "Se requiere el rol " + properties.adminRole()),
+                    HttpStatus.FORBIDDEN.value());
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("maxInFlight", properties.maxInFlight());
+        body.put("maxQueued", properties.maxQueued());
+        body.put("subjects", limiter.subjects());
+        body.put("admitted", limiter.admitted());
+        body.put("rejected", limiter.rejected());
+        body.put("topOffenders", limiter.topOffenders(properties.topOffenders()));
+        return new WebEndpointResponse<>(body);
+    }
+}
@@ -0,0 +1,293 @@
+package com.videoclub.apigateway.resilience;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Peticiones en vuelo por usuario (subject del JWT).
+ * 
+ * El mapa de usuarios es un ConcurrentHashMap (particionado por bin) y cada
+ * usuario lleva su contador atómico: tomar y devolver un lugar es un CAS, sin
+ * locks en el camino de la petición. Al llegar al límite la petición espera
+ * hasta queueTimeout en una cola corta por usuario; quien libera un lugar se
+ * lo pasa directo al primero de la cola.
+ * 
+ * El lugar asignado a un waiter queda a su nombre hasta que el suscriptor lo
+ * recibe; si el suscriptor se va antes (cancelación cruzada con la
+ * asignación) o el sink no acepta el valor, el lugar se devuelve.
+ * 
+ * Los usuarios inactivos se olvidan en un barrido perezoso: el contador pasa a
+ * RETIRED con CAS (solo si está en 0 y sin cola) y quien lo encuentre retirado
+ * crea uno nuevo.
+ */
+public class UserConcurrencyLimiter {
+
+    private static final int RETIRED = Integer.MIN_VALUE;
+
+    /** Vista de un usuario para /actuator/userconcurrency. */
+    public record Offender(String subject, int inFlight, int queued, long admitted, long rejected) {
+    }
+
+    /** Lugar tomado; se devuelve una sola vez con {@link #release()}. */
+    public final class Permit {
+
+        private final Subject subject;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Subject subject) {
+            this.subject = subject;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true))
+                UserConcurrencyLimiter.this.release(subject);
+        }
+    }
+
+    private static final class Subject {
+
+        final String id;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger queued = new AtomicInteger();
+        final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+        final LongAdder admitted = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        volatile long lastActive;
+
+        Subject(String id) {
+            this.id = id;
+        }
+
+        boolean tryIncrement(int limit) {
+            for (;;) {
+                int n = inFlight.get();
+                if (n < 0 || n >= limit)
+                    return false;
+                if (inFlight.compareAndSet(n, n + 1))
+                    return true;
+            }
+        }
+
+        boolean retired() {
+            return inFlight.get() < 0;
+        }
+    }
+
+    /**
+     * Petición en cola. state: null (esperando), el {@link Permit} asignado,
+     * DELIVERED (el suscriptor lo recibió) o CANCELLED.
+     */
+    private static final class Waiter {
+
+        private static final Object DELIVERED = new Object(), CANCELLED = new Object();
+
+        final AtomicReference<Object> state = new AtomicReference<>();
+        final Sinks.One<Permit> sink = Sinks.one();
+
+        boolean grant(Permit permit) {
+            return state.compareAndSet(null, permit);
+        }
+
+        boolean cancel() {
+            return state.compareAndSet(null, CANCELLED);
+        }
+
+        /** El suscriptor toma el lugar asignado; falla si ya se devolvió. */
+        boolean deliver() {
+            Object granted = state.get();
+            return granted instanceof Permit && state.compareAndSet(granted, DELIVERED);
+        }
+
+        /** El suscriptor se fue sin recibir el lugar asignado: se devuelve. */
+        void abandon() {
+            Object granted = state.get();
+            if (granted instanceof Permit permit && state.compareAndSet(granted, CANCELLED))
+                permit.release();
+        }
+    }
+
+    private final ConcurrentHashMap<String, Subject> subjects = new ConcurrentHashMap<>();
+    private final int maxInFlight;
+    private final int maxQueued;
+    private final Duration queueTimeout;
+    private final long idleTtlMillis;
+    private final AtomicLong lastSweep = new AtomicLong();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public UserConcurrencyLimiter(UserConcurrencyProperties properties) {
+        if (properties.maxInFlight() < 1)
+            throw new IllegalArgumentException("max-in-flight debe ser al menos 1");
+        this.maxInFlight = properties.maxInFlight();
+        this.maxQueued = Math.max(0, properties.maxQueued());
+        this.queueTimeout = properties.queueTimeout();
+        this.idleTtlMillis = properties.idleTtl().toMillis();
+    }
+
+    /**
+     * Toma un lugar para el usuario: enseguida si tiene lugar, después de
+     * esperar en la cola si se libera uno a tiempo, o vacío si se rechaza.
+     */
+    public Mono<Permit> acquire(String subjectId) {
+        long now = System.currentTimeMillis();
+        maybeSweep(now);
+        for (;;) {
+            Subject subject = subjects.computeIfAbsent(subjectId, Subject::new);
+            subject.lastActive = now;
+            if (subject.tryIncrement(maxInFlight))
+                return Mono.just(admit(subject));
+            if (subject.retired()) {
+                subjects.remove(subjectId, subject);
+                continue;
+            }
+            Mono<Permit> queued = enqueue(subject);
+            if (queued != null)
+                return queued;
+        }
+    }
+
+    /** Cola de espera; null si el contador se retiró mientras tanto y hay que reintentar. */
+    private Mono<Permit> enqueue(Subject subject) {
+        if (subject.queued.incrementAndGet() > maxQueued) {
+            subject.queued.decrementAndGet();
+            return reject(subject);
+        }
+        Waiter waiter = new Waiter();
+        subject.waiters.add(waiter);
+        Mono<Permit> granted = waiter.sink.asMono();
+        Mono<Permit> waiting = granted
+                .timeout(queueTimeout, Mono.defer(() -> {
+                    if (waiter.cancel()) {
+                        dequeued(subject, waiter);
+                        return reject(subject);
+                    }
+                    return granted;
+                }))
+                .filter(permit -> waiter.deliver())
+                .doOnCancel(() -> {
+                    if (waiter.cancel())
+                        dequeued(subject, waiter);
+                    else
+                        waiter.abandon();
+                });
+
+        // Se liberó un lugar entre el intento y el encolado: no esperar a otra liberación
+        if (subject.tryIncrement(maxInFlight)) {
+            Permit permit = new Permit(subject);
+            if (waiter.grant(permit)) {
+                dequeued(subject, waiter);
+                counted(subject);
+                return Mono.just(permit);
+            }
+            // Otro hilo ya le asignó un lugar a este waiter: sobra el recién tomado
+            release(subject);
+            return waiting;
+        }
+        if (subject.retired() && waiter.cancel()) {
+            dequeued(subject, waiter);
+            return null;
+        }
+        return waiting;
+    }
+
+    private void dequeued(Subject subject, Waiter waiter) {
+        subject.waiters.remove(waiter);
+        subject.queued.decrementAndGet();
+    }
+
+    private Permit admit(Subject subject) {
+        counted(subject);
+        return new Permit(subject);
+    }
+
+    private void counted(Subject subject) {
+        subject.admitted.increment();
+        admitted.increment();
+    }
+
+    private Mono<Permit> reject(Subject subject) {
+        subject.rejected.increment();
+        rejected.increment();
+        return Mono.empty();
+    }
+
+    private void release(Subject subject) {
+        subject.inFlight.decrementAndGet();
+        subject.lastActive = System.currentTimeMillis();
+        // Pasa el lugar al primero de la cola; si el waiter encontrado ya se
+        // canceló, devuelve el lugar y vuelve a mirar la cola
+        while (!subject.waiters.isEmpty() && subject.tryIncrement(maxInFlight)) {
+            Waiter waiter = subject.waiters.poll();
+            Permit permit = new Permit(subject);
+            if (waiter != null && waiter.grant(permit)) {
+                subject.queued.decrementAndGet();
+                counted(subject);
+                if (waiter.sink.tryEmitValue(permit).isFailure())
+                    waiter.abandon();
+                return;
+            }
+            subject.inFlight.decrementAndGet();
+        }
+    }
+
+    private void maybeSweep(long now) {
+        long last = lastSweep.get();
+        if (now - last >= idleTtlMillis && lastSweep.compareAndSet(last, now))
+            sweep(now);
+    }
+
+    /** Olvida los usuarios sin peticiones ni actividad en idleTtl. */
+    public void sweep(long now) {
+        for (Subject subject : subjects.values()) {
+            if (now - subject.lastActive < idleTtlMillis || subject.queued.get() != 0)
+                continue;
+            if (subject.inFlight.compareAndSet(0, RETIRED)) {
+                if (subject.queued.get() != 0)
+                    subject.inFlight.set(0);
+                else
+                    subjects.remove(subject.id, subject);
+            }
+        }
+    }
+
+    public int inFlight(String subjectId) {
+        Subject subject = subjects.get(subjectId);
+        return subject == null ? 0 : Math.max(0, subject.inFlight.get());
+    }
+
+    /** Usuarios con más rechazos (y después más peticiones en vuelo). */
+    public List<Offender> topOffenders(int limit) {
+        return subjects.values().stream()
+                .map(s -> new Offender(s.id, Math.max(0, s.inFlight.get()), s.queued.get(), s.admitted.sum(),
+                        s.rejected.sum()))
+                .filter(o -> o.rejected() > 0 || o.inFlight() > 0)
+                .sorted(Comparator.comparingLong(Offender::rejected)
+                        .thenComparingInt(Offender::inFlight)
+                        .reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public int subjects() {
+        return subjects.size();
+    }
+
+    public long admitted() {
+        return admitted.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+}
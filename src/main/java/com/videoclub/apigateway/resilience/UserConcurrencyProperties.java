@@ -0,0 +1,41 @@
+package com.videoclub.apigateway.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Límite de peticiones en vuelo por usuario ({@code videoclub.gateway.user-concurrency.*}).
+ * 
+ * Distinto del rate limiting: no limita cuántas peticiones hace un usuario por
+ * segundo sino cuántas tiene abiertas a la vez, así un cliente (o un script
+ * con un token válido) que abre cientos en paralelo no deja a los demás en
+ * cola detrás suyo.
+ *
+ * @param enabled      activa el límite
+ * @param routes       ids de ruta alcanzados (peticiones autenticadas)
+ * @param maxInFlight  peticiones en vuelo por usuario
+ * @param maxQueued    peticiones por usuario que pueden esperar un lugar (0:
+ *                     se rechazan enseguida)
+ * @param queueTimeout espera máxima en la cola antes de rechazar
+ * @param idleTtl      tiempo sin actividad tras el cual se olvida un usuario
+ *                     (y sus contadores de rechazos)
+ * @param topOffenders usuarios listados en /actuator/userconcurrency
+ * @param retryAfter   valor de Retry-After en las respuestas 429
+ * @param adminRole    rol de realm requerido para leer /actuator/userconcurrency
+ *                     (expone subjects de usuarios)
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.user-concurrency")
+public record UserConcurrencyProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue Set<String> routes,
+        @DefaultValue("8") int maxInFlight,
+        @DefaultValue("4") int maxQueued,
+        @DefaultValue("250ms") Duration queueTimeout,
+        @DefaultValue("10m") Duration idleTtl,
+        @DefaultValue("10") int topOffenders,
+        @DefaultValue("1s") Duration retryAfter,
+        @DefaultValue("admin") String adminRole) {
+}
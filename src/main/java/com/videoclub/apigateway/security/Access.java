@@ -0,0 +1,13 @@
+package com.videoclub.apigateway.security;
+
+/**
+ * Decisión de acceso de una regla de autorización.
+ */
+public enum Access {
+    /** Público, sin autenticación. */
+    PERMIT,
+    /** Requiere un JWT válido. */
+    AUTHENTICATED,
+    /** Siempre rechazado. */
+    DENY
+}
@@ -0,0 +1,166 @@
+package com.videoclub.apigateway.security;
+
+import org.springframework.http.server.PathContainer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tabla de decisiones de autorización compilada a partir de las reglas de
+ * configuración.
+ *
+ * Los patrones se cargan en un trie indexado por segmento de path. Cada nodo
+ * guarda, por método, la decisión "exacta" (el patrón termina en ese nodo) y
+ * la de "resto" (el patrón termina en {@code /**}) de la regla de menor
+ * prioridad: la decisión de cada ruta queda resuelta al compilar la tabla, y
+ * no hay un cache por path que un cliente pueda llenar con paths únicos.
+ * Resolver una petición recorre el trie una sola vez, así que el costo
+ * depende de la profundidad del path y no de la cantidad de reglas. Entre las
+ * reglas que coinciden gana la de menor prioridad (la primera declarada),
+ * igual que la cadena de pathMatchers original.
+ *
+ * Los segmentos de la petición se comparan decodificados y sin parámetros de
+ * matriz ({@link PathContainer.PathSegment#valueToMatch()}), como los
+ * predicados Path del gateway: {@code /api/%63arrito} es {@code /api/carrito}.
+ */
+public class AuthorizationDecisionTable {
+
+    private static final List<String> METHODS = List.of(
+            "GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE");
+    private static final int ANY_METHOD = (1 << METHODS.size()) - 1;
+    private static final int OTHER_METHOD = 1 << METHODS.size();
+
+    private final Node root = new Node();
+    private final Access defaultAccess;
+
+    public AuthorizationDecisionTable(List<AuthorizationProperties.Rule> rules, Access defaultAccess) {
+        this.defaultAccess = defaultAccess;
+        for (int priority = 0; priority < rules.size(); priority++) {
+            AuthorizationProperties.Rule rule = rules.get(priority);
+            if (rule.paths() == null || rule.paths().isEmpty() || rule.access() == null)
+                throw new IllegalArgumentException("Regla de autorización #" + priority + " sin paths o access");
+            int mask = methodMask(rule.methods());
+            for (String pattern : rule.paths()) {
+                insert(pattern.trim(), new Decision(priority, mask, rule.access()));
+            }
+        }
+    }
+
+    public static AuthorizationDecisionTable from(AuthorizationProperties properties) {
+        return new AuthorizationDecisionTable(properties.rules(), properties.defaultAccess());
+    }
+
+    /** Resuelve la decisión para el método y path (sin decodificar) de una petición. */
+    public Access decide(String method, String path) {
+        return decide(method, PathContainer.parsePath(path));
+    }
+
+    /** Resuelve la decisión para el método y path de una petición. */
+    public Access decide(String method, PathContainer path) {
+        Decision best = match(root, segments(path), 0, methodIndex(method), null);
+        return best == null ? defaultAccess : best.access;
+    }
+
+    private Decision match(Node node, List<String> segments, int index, int method, Decision best) {
+        best = pick(node.rest[method], best);
+        if (index == segments.size())
+            return pick(node.exact[method], best);
+
+        Node literal = node.children.get(segments.get(index));
+        if (literal != null)
+            best = match(literal, segments, index + 1, method, best);
+        if (node.wildcard != null)
+            best = match(node.wildcard, segments, index + 1, method, best);
+        return best;
+    }
+
+    private static Decision pick(Decision candidate, Decision best) {
+        return candidate != null && (best == null || candidate.priority < best.priority) ? candidate : best;
+    }
+
+    private void insert(String pattern, Decision decision) {
+        if (!pattern.startsWith("/"))
+            throw new IllegalArgumentException("El patrón '" + pattern + "' debe comenzar con /");
+        String[] segments = pattern.substring(1).split("/", -1);
+        Node node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if ("**".equals(segment)) {
+                if (i != segments.length - 1)
+                    throw new IllegalArgumentException("'**' solo se admite al final del patrón: " + pattern);
+                keep(node.rest, decision);
+                return;
+            }
+            if ("*".equals(segment) || (segment.startsWith("{") && segment.endsWith("}"))) {
+                if (node.wildcard == null)
+                    node.wildcard = new Node();
+                node = node.wildcard;
+            } else if (segment.contains("*") || segment.contains("{")) {
+                throw new IllegalArgumentException("Segmento no soportado '" + segment + "' en " + pattern);
+            } else {
+                node = node.children.computeIfAbsent(segment, s -> new Node());
+            }
+        }
+        keep(node.exact, decision);
+    }
+
+    /** Deja en cada método la decisión de menor prioridad. */
+    private static void keep(Decision[] byMethod, Decision decision) {
+        for (int i = 0; i < byMethod.length; i++) {
+            if ((decision.methods & (1 << i)) != 0)
+                byMethod[i] = pick(decision, byMethod[i]);
+        }
+    }
+
+    /** "/a/b" -> [a, b]; "/a/" -> [a, ""]; "/" -> [""]; "//a" -> ["", a]. */
+    private static List<String> segments(PathContainer path) {
+        List<String> segments = new ArrayList<>(8);
+        for (PathContainer.Element element : path.elements()) {
+            if (element instanceof PathContainer.PathSegment segment) {
+                if (segments.isEmpty())
+                    segments.add(segment.valueToMatch());
+                else
+                    segments.set(segments.size() - 1, segment.valueToMatch());
+            } else {
+                segments.add("");
+            }
+        }
+        return segments;
+    }
+
+    private static int methodMask(List<String> methods) {
+        if (methods == null || methods.isEmpty())
+            return ANY_METHOD | OTHER_METHOD;
+        int mask = 0;
+        for (String m : methods) {
+            int bit = methodBit(m.trim());
+            if (bit == OTHER_METHOD)
+                throw new IllegalArgumentException("Método HTTP no soportado en regla de autorización: " + m);
+            mask |= bit;
+        }
+        return mask;
+    }
+
+    private static int methodBit(String method) {
+        return 1 << methodIndex(method);
+    }
+
+    /** Posición del método en las máscaras; los no listados comparten la última. */
+    private static int methodIndex(String method) {
+        int idx = METHODS.indexOf(method.toUpperCase(Locale.ROOT));
+        return idx < 0 ? METHODS.size() : idx;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final Decision[] exact = new Decision[METHODS.size() + 1];
+        private final Decision[] rest = new Decision[METHODS.size() + 1];
+        private Node wildcard;
+    }
+
+    private record Decision(int priority, int methods, Access access) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.videoclub.apigateway.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Reglas de autorización por método y path
+ * ({@code videoclub.gateway.authorization.*}).
+ * 
+ * Las reglas se evalúan en orden: gana la primera que coincide, igual que la
+ * cadena de pathMatchers de Spring Security. Si ninguna coincide se aplica
+ * defaultAccess.
+ *
+ * @param defaultAccess decisión cuando ninguna regla coincide
+ * @param rules         reglas ordenadas
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.authorization")
+public record AuthorizationProperties(
+        @DefaultValue("PERMIT") Access defaultAccess,
+        @DefaultValue List<Rule> rules) {
+
+    /**
+     * @param methods métodos HTTP alcanzados (vacío = todos)
+     * @param paths   patrones de path: segmentos literales, {@code *},
+     *                {@code {variable}} o {@code **} final
+     * @param access  decisión si la regla coincide
+     */
+    public record Rule(@DefaultValue List<String> methods, List<String> paths, Access access) {
+    }
+}
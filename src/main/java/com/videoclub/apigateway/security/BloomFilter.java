@@ -0,0 +1,92 @@
+package com.videoclub.apigateway.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de strings, de tamaño fijo.
+ * 
+ * Un solo hash de 64 bits por clave (FNV-1a + mezcla final de murmur3) y las
+ * k posiciones por doble hashing (Kirsch-Mitzenmacher). Consultar no reserva
+ * memoria ni toma locks: son k lecturas de un AtomicLongArray.
+ * 
+ * Sin falsos negativos: si {@link #mightContain(String)} devuelve false, la
+ * clave no se agregó.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    /**
+     * @param expectedInsertions claves esperadas
+     * @param falsePositiveRate  tasa de falsos positivos con esa cantidad
+     */
+    BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1)
+            throw new IllegalArgumentException("Parámetros de filtro de Bloom inválidos");
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        long words = Math.max(1, (m + 63) >>> 6);
+        if (words > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Filtro de Bloom demasiado grande");
+        this.words = new AtomicLongArray((int) words);
+        this.bits = words << 6;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+    }
+
+    void put(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; i++) {
+            long bit = index(h1, h2, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+            } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; i++) {
+            long bit = index(h1, h2, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    int hashes() {
+        return hashes;
+    }
+
+    long bits() {
+        return bits;
+    }
+
+    private long index(int h1, int h2, int i) {
+        int combined = h1 + i * h2;
+        if (combined < 0)
+            combined = ~combined;
+        return combined % bits;
+    }
+
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
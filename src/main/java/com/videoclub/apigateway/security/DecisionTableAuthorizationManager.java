@@ -0,0 +1,52 @@
+package com.videoclub.apigateway.security;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authorization.AuthenticatedReactiveAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import reactor.core.publisher.Mono;
+
+/**
+ * AuthorizationManager de Spring Security respaldado por
+ * {@link AuthorizationDecisionTable}.
+ * 
+ * Reemplaza la cadena de pathMatchers: una sola consulta a la tabla por
+ * petición, y para AUTHENTICATED se delega en el mismo chequeo que usa
+ * {@code .authenticated()}.
+ */
+public class DecisionTableAuthorizationManager implements ReactiveAuthorizationManager<AuthorizationContext> {
+
+    private static final Mono<AuthorizationResult> GRANTED = Mono.just(new AuthorizationDecision(true));
+    private static final Mono<AuthorizationResult> DENIED = Mono.just(new AuthorizationDecision(false));
+
+    private final AuthorizationDecisionTable table;
+    private final ReactiveAuthorizationManager<AuthorizationContext> authenticated = AuthenticatedReactiveAuthorizationManager
+            .authenticated();
+
+    public DecisionTableAuthorizationManager(AuthorizationDecisionTable table) {
+        this.table = table;
+    }
+
+    @Override
+    public Mono<AuthorizationResult> authorize(Mono<Authentication> authentication, AuthorizationContext context) {
+        ServerHttpRequest request = context.getExchange().getRequest();
+        Access access = table.decide(request.getMethod().name(), request.getPath().pathWithinApplication());
+        return switch (access) {
+            case PERMIT -> GRANTED;
+            case DENY -> DENIED;
+            case AUTHENTICATED -> authenticated.authorize(authentication, context);
+        };
+    }
+
+    /** Abstracto en la interfaz; Spring Security usa {@link #authorize}. */
+    @Override
+    @Deprecated
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, AuthorizationContext context) {
+        return authorize(authentication, context).map(result -> result instanceof AuthorizationDecision decision
+                ? decision
+                : new AuthorizationDecision(result.isGranted()));
+    }
+}
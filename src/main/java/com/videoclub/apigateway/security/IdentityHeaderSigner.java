@@ -0,0 +1,130 @@
+package com.videoclub.apigateway.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videoclub.apigateway.security.IdentityRelayProperties.RelayMode;
+import com.videoclub.apigateway.security.IdentityRelayProperties.RouteIdentity;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Firma la identidad compacta que el gateway envía a los backends en lugar del
+ * JWT completo.
+ * 
+ * Formato del header: {@code v1.<keyId>.<payload>.<firma>} donde payload es
+ * JSON en base64url con sub, roles, aud (id de ruta), iat y exp, y la firma es
+ * HMAC-SHA256 sobre {@code v1.<keyId>.<payload>}. El backend sólo necesita la
+ * clave simétrica de su ruta: no descarga JWKs ni verifica RSA.
+ * 
+ * El exp es el menor entre el exp del JWT y ahora + maxTtl, de modo que un
+ * header capturado deja de servir en segundos.
+ */
+public class IdentityHeaderSigner {
+
+    static final String VERSION = "v1";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+
+    private final IdentityRelayProperties properties;
+    private final Map<String, SigningKey> keys = new HashMap<>();
+    private final Clock clock;
+
+    public IdentityHeaderSigner(IdentityRelayProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    public IdentityHeaderSigner(IdentityRelayProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        properties.keys().forEach((id, secret) -> keys.put(id, new SigningKey(secret)));
+        properties.routes().forEach((route, cfg) -> {
+            if (cfg.mode() != RelayMode.JWT && !keys.containsKey(cfg.keyId()))
+                throw new IllegalArgumentException(
+                        "La ruta '" + route + "' usa identidad firmada pero la clave '" + cfg.keyId()
+                                + "' no está definida en videoclub.gateway.identity.keys");
+        });
+    }
+
+    public String headerName() {
+        return properties.header();
+    }
+
+    public RelayMode modeFor(String routeId) {
+        RouteIdentity cfg = routeId == null ? null : properties.routes().get(routeId);
+        return cfg == null ? RelayMode.JWT : cfg.mode();
+    }
+
+    /** Genera el header firmado para la ruta a partir de un JWT ya validado. */
+    public String sign(String routeId, Jwt jwt) {
+        RouteIdentity cfg = properties.routes().get(routeId);
+        SigningKey key = keys.get(cfg.keyId());
+
+        Instant now = clock.instant();
+        Instant exp = now.plus(properties.maxTtl());
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isBefore(exp))
+            exp = jwt.getExpiresAt();
+
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", jwt.getSubject());
+        claims.put("roles", roles(jwt));
+        claims.put("aud", routeId);
+        claims.put("iat", now.getEpochSecond());
+        claims.put("exp", exp.getEpochSecond());
+
+        String payload;
+        try {
+            payload = B64.encodeToString(MAPPER.writeValueAsBytes(claims));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la identidad", e);
+        }
+        String signingInput = VERSION + "." + cfg.keyId() + "." + payload;
+        return signingInput + "." + B64.encodeToString(key.mac(signingInput));
+    }
+
+    /** Roles de realm de Keycloak (claim realm_access.roles). */
+    public static List<String> roles(Jwt jwt) {
+        Map<String, Object> realmAccess = jwt.getClaimAsMap("realm_access");
+        if (realmAccess == null || !(realmAccess.get("roles") instanceof List<?> roles))
+            return List.of();
+        return roles.stream().map(String::valueOf).toList();
+    }
+
+    static final class SigningKey {
+        private final SecretKeySpec spec;
+        private final ThreadLocal<Mac> mac;
+
+        SigningKey(String secret) {
+            byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length < 32)
+                throw new IllegalArgumentException("Las claves HMAC de identidad deben tener al menos 32 bytes");
+            this.spec = new SecretKeySpec(bytes, "HmacSHA256");
+            this.mac = ThreadLocal.withInitial(this::newMac);
+        }
+
+        byte[] mac(String input) {
+            return mac.get().doFinal(input.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        private Mac newMac() {
+            try {
+                Mac m = Mac.getInstance("HmacSHA256");
+                m.init(spec);
+                return m;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 no disponible", e);
+            }
+        }
+    }
+}
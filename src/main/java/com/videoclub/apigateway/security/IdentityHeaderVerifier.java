@@ -0,0 +1,69 @@
+package com.videoclub.apigateway.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Verificación del header de identidad firmado por {@link IdentityHeaderSigner}.
+ * 
+ * Es la referencia de lo que debe hacer cada backend: recalcular el
+ * HMAC-SHA256, compararlo en tiempo constante, y rechazar headers vencidos o
+ * emitidos para otra ruta (aud).
+ */
+public class IdentityHeaderVerifier {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Base64.Decoder B64 = Base64.getUrlDecoder();
+
+    private final Map<String, IdentityHeaderSigner.SigningKey> keys = new HashMap<>();
+    private final Clock clock;
+
+    public IdentityHeaderVerifier(Map<String, String> keys, Clock clock) {
+        keys.forEach((id, secret) -> this.keys.put(id, new IdentityHeaderSigner.SigningKey(secret)));
+        this.clock = clock;
+    }
+
+    public record VerifiedIdentity(String subject, List<String> roles, long expiresAt) {
+    }
+
+    public Optional<VerifiedIdentity> verify(String header, String expectedAudience) {
+        if (header == null)
+            return Optional.empty();
+        String[] parts = header.split("\\.");
+        if (parts.length != 4 || !IdentityHeaderSigner.VERSION.equals(parts[0]))
+            return Optional.empty();
+        IdentityHeaderSigner.SigningKey key = keys.get(parts[1]);
+        if (key == null)
+            return Optional.empty();
+
+        try {
+            byte[] expected = key.mac(parts[0] + "." + parts[1] + "." + parts[2]);
+            if (!MessageDigest.isEqual(expected, B64.decode(parts[3])))
+                return Optional.empty();
+
+            JsonNode claims = MAPPER.readTree(new String(B64.decode(parts[2]), StandardCharsets.UTF_8));
+            long exp = claims.path("exp").asLong(0);
+            if (exp <= clock.instant().getEpochSecond())
+                return Optional.empty();
+            if (!claims.path("aud").asText("").equals(expectedAudience))
+                return Optional.empty();
+
+            List<String> roles = new ArrayList<>();
+            claims.path("roles").forEach(r -> roles.add(r.asText()));
+            return Optional.of(new VerifiedIdentity(claims.path("sub").asText(null), List.copyOf(roles), exp));
+        } catch (IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+}
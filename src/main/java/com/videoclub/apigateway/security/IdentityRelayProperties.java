@@ -0,0 +1,43 @@
+package com.videoclub.apigateway.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Modo de propagación de identidad hacia los backends
+ * ({@code videoclub.gateway.identity.*}).
+ *
+ * Las rutas sin entrada en routes siguen reenviando el JWT completo.
+ *
+ * @param header nombre del header firmado con la identidad compacta
+ * @param maxTtl vigencia máxima del header firmado (protección contra replay:
+ *               nunca supera el exp del JWT)
+ * @param keys   secretos HMAC por id de clave (mínimo 32 bytes)
+ * @param routes configuración por id de ruta
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.identity")
+public record IdentityRelayProperties(
+        @DefaultValue("X-Identity") String header,
+        @DefaultValue("30s") Duration maxTtl,
+        @DefaultValue Map<String, String> keys,
+        @DefaultValue Map<String, RouteIdentity> routes) {
+
+    /**
+     * @param mode  modo de propagación de la ruta
+     * @param keyId id de la clave (en keys) con la que se firma para esa ruta
+     */
+    public record RouteIdentity(@DefaultValue("JWT") RelayMode mode, String keyId) {
+    }
+
+    public enum RelayMode {
+        /** Reenvía el JWT completo en Authorization (comportamiento original). */
+        JWT,
+        /** Reemplaza el JWT por el header de identidad firmado. */
+        IDENTITY,
+        /** Envía ambos (útil durante la migración de un backend). */
+        BOTH
+    }
+}
@@ -0,0 +1,153 @@
+package com.videoclub.apigateway.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mantenimiento periódico de la {@link RevocationList}: poda los ids vencidos
+ * y, si hay archivo configurado, lo recarga cuando cambia su fecha de
+ * modificación o su tamaño.
+ * 
+ * Revisar por fecha (en vez de WatchService) funciona igual con volúmenes
+ * montados en Docker. Los ids del archivo se suman a los revocados por
+ * actuator; quitar una línea no des-revoca (el id vence con su retención).
+ * Un id sin vencimiento explícito vence a retention de la primera carga que
+ * lo vio: recargar el archivo no le renueva el plazo.
+ */
+public class RevocationFileWatcher implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocationFileWatcher.class);
+
+    private final RevocationList revocations;
+    private final Path file;
+    private final Duration interval;
+    private final Duration retention;
+    private volatile FileTime lastModified;
+    private volatile long lastSize = -1;
+    /** Vencimiento asignado a los ids sin vencimiento explícito que siguen en el archivo. */
+    private volatile Map<String, Long> firstSeen = Map.of();
+    private volatile ScheduledExecutorService scheduler;
+
+    public RevocationFileWatcher(RevocationList revocations, Path file, Duration interval, Duration retention) {
+        this.revocations = revocations;
+        this.file = file;
+        this.interval = interval;
+        this.retention = retention;
+    }
+
+    @Override
+    public void start() {
+        // La primera carga es sincrónica: al aceptar tráfico las revocaciones ya rigen
+        tick();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "revocation-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = interval.toMillis();
+        executor.scheduleWithFixedDelay(this::tick, period, period, TimeUnit.MILLISECONDS);
+        scheduler = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        if (executor != null)
+            executor.shutdownNow();
+        scheduler = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    void tick() {
+        long now = Instant.now().getEpochSecond();
+        try {
+            revocations.prune(now);
+            if (file != null)
+                reloadIfChanged(now);
+        } catch (RuntimeException e) {
+            log.warn("Error al actualizar revocaciones: {}", e.getMessage());
+        }
+    }
+
+    private void reloadIfChanged(long now) {
+        FileTime modified;
+        long size;
+        try {
+            modified = Files.getLastModifiedTime(file);
+            size = Files.size(file);
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            log.warn("No se pudo leer {}: {}", file, e.getMessage());
+            return;
+        }
+        if (modified.equals(lastModified) && size == lastSize)
+            return;
+
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file);
+        } catch (IOException e) {
+            log.warn("No se pudo leer {}: {}", file, e.getMessage());
+            return;
+        }
+        long defaultUntil = now + retention.toSeconds();
+        Map<String, Long> seen = new HashMap<>();
+        Map<String, Long> previous = firstSeen;
+        Map<String, Long> entries = parse(lines,
+                id -> seen.computeIfAbsent(id, key -> previous.getOrDefault(key, defaultUntil)), now);
+        revocations.revokeAll(entries);
+        firstSeen = seen;
+        lastModified = modified;
+        lastSize = size;
+        log.info("Revocaciones recargadas desde {}: {} vigentes en el archivo", file, entries.size());
+    }
+
+    /**
+     * Líneas {@code id} o {@code id vencimiento-epoch-segundos}; ignora vencidas, vacías y comentarios.
+     * defaultUntil da el vencimiento de las líneas sin él.
+     */
+    static Map<String, Long> parse(List<String> lines, Function<String, Long> defaultUntil, long now) {
+        Map<String, Long> entries = new HashMap<>();
+        for (String raw : lines) {
+            String line = raw.strip();
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+            String[] parts = line.split("\\s+");
+            long until;
+            if (parts.length == 1) {
+                until = defaultUntil.apply(parts[0]);
+            } else {
+                try {
+                    until = Long.parseLong(parts[1]);
+                } catch (NumberFormatException e) {
+                    log.warn("Línea de revocación ignorada (vencimiento inválido): {}", line);
+                    continue;
+                }
+            }
+            if (until > now)
+                entries.merge(parts[0], until, Math::max);
+        }
+        return entries;
+    }
+}
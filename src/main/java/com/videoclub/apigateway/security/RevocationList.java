@@ -0,0 +1,109 @@
+package com.videoclub.apigateway.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Identificadores revocados ({@code jti} de tokens o {@code sid} de sesiones
+ * de Keycloak), consultados en cada petición autenticada.
+ * 
+ * Un filtro de Bloom va delante del conjunto exacto: el caso normal (token no
+ * revocado) se resuelve con unas pocas lecturas de bits, sin hashear en el
+ * mapa. Solo un positivo del filtro (revocado o falso positivo) consulta el
+ * conjunto exacto, que es el que decide.
+ * 
+ * Las escrituras (revocar, podar, recargar) son raras y se serializan; las
+ * lecturas no toman locks. Cada id se guarda hasta su vencimiento, que debe
+ * cubrir la vida máxima del token o la sesión; al podar se reconstruye el
+ * filtro, porque un filtro de Bloom no admite borrados. Al revocar solo se
+ * reconstruye cuando el conjunto supera la capacidad del filtro actual, y el
+ * nuevo se dimensiona al doble para que las reconstrucciones sean raras.
+ */
+public class RevocationList {
+
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private final LongAdder filterPositives = new LongAdder();
+    private final LongAdder confirmed = new LongAdder();
+    private volatile BloomFilter filter;
+    /** Ids para los que se dimensionó el filtro actual; se accede bajo el lock de escritura. */
+    private int filterCapacity;
+
+    public RevocationList(int expectedRevocations, double falsePositiveRate) {
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filterCapacity = expectedRevocations;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    /** Revoca {@code id} hasta {@code untilEpochSecond} (si ya estaba, queda el vencimiento mayor). */
+    public synchronized void revoke(String id, long untilEpochSecond) {
+        if (id == null || id.isBlank())
+            throw new IllegalArgumentException("Identificador a revocar vacío");
+        // Primero el conjunto exacto: quien vea los bits ya encuentra la entrada
+        revoked.merge(id, untilEpochSecond, Math::max);
+        if (revoked.size() > filterCapacity)
+            rebuild();
+        else
+            filter.put(id);
+    }
+
+    /** Revoca varios ids de una vez (p. ej. al recargar el archivo). */
+    public synchronized void revokeAll(Map<String, Long> entries) {
+        entries.forEach((id, until) -> revoked.merge(id, until, Math::max));
+        rebuild();
+    }
+
+    public boolean isRevoked(String id) {
+        if (id == null || !filter.mightContain(id))
+            return false;
+        filterPositives.increment();
+        if (!revoked.containsKey(id))
+            return false;
+        confirmed.increment();
+        return true;
+    }
+
+    /** Quita los ids vencidos y reconstruye el filtro; devuelve cuántos quitó. */
+    public synchronized int prune(long nowEpochSecond) {
+        int before = revoked.size();
+        revoked.values().removeIf(until -> until <= nowEpochSecond);
+        int removed = before - revoked.size();
+        if (removed > 0)
+            rebuild();
+        return removed;
+    }
+
+    private void rebuild() {
+        int capacity = Math.max(expectedRevocations, revoked.size() * 2);
+        BloomFilter rebuilt = new BloomFilter(capacity, falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+        filterCapacity = capacity;
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    /** Consultas que pasaron el filtro de Bloom (revocadas + falsos positivos). */
+    public long filterPositives() {
+        return filterPositives.sum();
+    }
+
+    /** Consultas confirmadas como revocadas por el conjunto exacto. */
+    public long confirmed() {
+        return confirmed.sum();
+    }
+
+    public long filterBits() {
+        return filter.bits();
+    }
+
+    /** Ids para los que está dimensionado el filtro actual. */
+    public synchronized int filterCapacity() {
+        return filterCapacity;
+    }
+}
@@ -0,0 +1,35 @@
+package com.videoclub.apigateway.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Revocación de tokens y sesiones en el gateway ({@code videoclub.gateway.revocation.*}).
+ *
+ * @param enabled             agrega {@link RevocationValidator} a la validación
+ *                            del JWT
+ * @param file                archivo vigilado con ids revocados, uno por línea
+ *                            ({@code id} o {@code id vencimiento-epoch-segundos};
+ *                            {@code #} comenta). Sin archivo solo se alimenta
+ *                            por /actuator/revocations
+ * @param watchInterval       cada cuánto se revisa el archivo y se podan vencidos
+ * @param retention           vigencia de una revocación sin vencimiento
+ *                            explícito (debe cubrir la vida máxima de tokens y
+ *                            sesiones)
+ * @param expectedRevocations revocaciones vigentes esperadas (tamaño del filtro)
+ * @param falsePositiveRate   tasa de falsos positivos del filtro de Bloom
+ * @param adminRole           rol de realm requerido para revocar por actuator
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.revocation")
+public record RevocationProperties(
+        @DefaultValue("true") boolean enabled,
+        Path file,
+        @DefaultValue("5s") Duration watchInterval,
+        @DefaultValue("12h") Duration retention,
+        @DefaultValue("100000") int expectedRevocations,
+        @DefaultValue("0.001") double falsePositiveRate,
+        @DefaultValue("admin") String adminRole) {
+}
@@ -0,0 +1,29 @@
+package com.videoclub.apigateway.security;
+
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Rechaza los JWT revocados antes de su {@code exp}: el token ({@code jti}) o
+ * la sesión de Keycloak a la que pertenece ({@code sid}) están en la
+ * {@link RevocationList}.
+ */
+public class RevocationValidator implements OAuth2TokenValidator<Jwt> {
+
+    private static final OAuth2Error REVOKED = new OAuth2Error("invalid_token", "El token fue revocado", null);
+
+    private final RevocationList revocations;
+
+    public RevocationValidator(RevocationList revocations) {
+        this.revocations = revocations;
+    }
+
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt jwt) {
+        if (revocations.isRevoked(jwt.getId()) || revocations.isRevoked(jwt.getClaimAsString("sid")))
+            return OAuth2TokenValidatorResult.failure(REVOKED);
+        return OAuth2TokenValidatorResult.success();
+    }
+}
@@ -0,0 +1,66 @@
+package com.videoclub.apigateway.security;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Endpoint actuator {@code /actuator/revocations}.
+ * 
+ * - GET: tamaño de la lista y contadores del filtro
+ * - POST {@code {"id": "<jti o sid>", "ttlSeconds": 3600}}: revoca un token o
+ * una sesión (ttlSeconds opcional, por defecto la retención configurada).
+ * Requiere un JWT con el rol de realm configurado en admin-role.
+ */
+@Endpoint(id = "revocations")
+public class RevocationsEndpoint {
+
+    private final RevocationList revocations;
+    private final RevocationProperties properties;
+
+    public RevocationsEndpoint(RevocationList revocations, RevocationProperties properties) {
+        this.revocations = revocations;
+        this.properties = properties;
+    }
+
+    @ReadOperation
+    public Map<String, Object> revocations() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("revoked", revocations.size());
+        body.put("filterBits", revocations.filterBits());
+        body.put("filterCapacity", revocations.filterCapacity());
+        body.put("filterPositives", revocations.filterPositives());
+        body.put("confirmed", revocations.confirmed());
+        return body;
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> revoke(Principal principal, String id,
+            @Nullable Long ttlSeconds) {
+        if (!(principal instanceof JwtAuthenticationToken auth)
+                || !IdentityHeaderSigner.roles(auth.getToken()).contains(properties.adminRole()))
+            return new WebEndpointResponse<>(Map.of("error", "Se requiere el rol " + properties.adminRole()),
+                    HttpStatus.FORBIDDEN.value());
+        if (id == null || id.isBlank() || (ttlSeconds != null && ttlSeconds <= 0))
+            return new WebEndpointResponse<>(Map.of("error", "id obligatorio y ttlSeconds positivo"),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+
+        Duration ttl = ttlSeconds == null ? properties.retention() : Duration.ofSeconds(ttlSeconds);
+        Instant until = Instant.now().plus(ttl);
+        revocations.revoke(id, until.getEpochSecond());
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", id);
+        body.put("until", until.toString());
+        return new WebEndpointResponse<>(body, WebEndpointResponse.STATUS_OK);
+    }
+}
@@ -0,0 +1,41 @@
+package com.videoclub.apigateway.tls;
+
+import io.netty.handler.ssl.OpenSslSessionContext;
+import io.netty.handler.ssl.OpenSslSessionTicketKey;
+import io.netty.handler.ssl.SslContext;
+
+import java.security.SecureRandom;
+
+/**
+ * Claves de session tickets del motor OpenSSL: la primera cifra los tickets
+ * nuevos y la anterior todavía descifra los emitidos antes de la última
+ * rotación. Netty deshabilita los tickets en OpenSSL hasta que se le dan
+ * claves.
+ *
+ * Aislada en su propia clase para no cargar tipos de netty-tcnative con el
+ * motor JDK.
+ */
+final class OpenSslTicketKeys {
+
+    private final SecureRandom random = new SecureRandom();
+    private volatile OpenSslSessionTicketKey[] keys = {newKey()};
+
+    /** Genera una clave nueva y conserva la vigente para descifrar. */
+    void rotate() {
+        keys = new OpenSslSessionTicketKey[]{newKey(), keys[0]};
+    }
+
+    void applyTo(SslContext context) {
+        ((OpenSslSessionContext) context.sessionContext()).setTicketKeys(keys);
+    }
+
+    private OpenSslSessionTicketKey newKey() {
+        byte[] name = new byte[OpenSslSessionTicketKey.NAME_SIZE];
+        byte[] hmacKey = new byte[OpenSslSessionTicketKey.HMAC_KEY_SIZE];
+        byte[] aesKey = new byte[OpenSslSessionTicketKey.AES_KEY_SIZE];
+        random.nextBytes(name);
+        random.nextBytes(hmacKey);
+        random.nextBytes(aesKey);
+        return new OpenSslSessionTicketKey(name, hmacKey, aesKey);
+    }
+}
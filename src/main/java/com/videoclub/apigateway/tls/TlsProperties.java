@@ -0,0 +1,56 @@
+package com.videoclub.apigateway.tls;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Terminación TLS en el puerto del gateway ({@code videoclub.gateway.tls.*}).
+ *
+ * Certificado y clave salen del SSL bundle de Spring Boot indicado en
+ * {@code bundle} (spring.ssl.bundle.pem.* o jks.*); con
+ * {@code reload-on-update: true} en el bundle, un cambio en los archivos se
+ * aplica a las conexiones nuevas sin reiniciar. No se combina con
+ * server.ssl.
+ *
+ * @param enabled           activa TLS en server.port
+ * @param bundle            nombre del SSL bundle con certificado y clave
+ * @param http2             ofrece h2 por ALPN además de http/1.1
+ * @param engine            motor TLS; AUTO usa OpenSSL (netty-tcnative) si está
+ *                          en el classpath y si no el del JDK
+ * @param sessionCacheSize  sesiones TLS cacheadas para reanudación por id
+ * @param sessionTimeout    vida de una sesión reanudable (cache y tickets)
+ * @param sessionTickets    reanudación por session tickets (RFC 5077/8446)
+ *                          con claves rotadas por el gateway; solo con
+ *                          OpenSSL, con el JDK los gobierna
+ *                          jdk.tls.server.enableSessionTicketExtension
+ * @param ticketKeyRotation cada cuánto se rota la clave de tickets; la anterior
+ *                          sigue aceptándose un período más
+ * @param handshakeTimeout  handshake máximo antes de cerrar la conexión
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.tls")
+public record TlsProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("gateway") String bundle,
+        @DefaultValue("true") boolean http2,
+        @DefaultValue("AUTO") Engine engine,
+        @DefaultValue("20480") int sessionCacheSize,
+        @DefaultValue("1h") Duration sessionTimeout,
+        @DefaultValue("true") boolean sessionTickets,
+        @DefaultValue("12h") Duration ticketKeyRotation,
+        @DefaultValue("10s") Duration handshakeTimeout) {
+
+    public enum Engine {
+        AUTO, OPENSSL, JDK
+    }
+
+    public TlsProperties {
+        if (sessionCacheSize < 0)
+            throw new IllegalArgumentException("session-cache-size no puede ser negativo: " + sessionCacheSize);
+        if (sessionTimeout.toSeconds() < 1)
+            throw new IllegalArgumentException("session-timeout debe ser de al menos 1s: " + sessionTimeout);
+        if (ticketKeyRotation.toSeconds() < 1)
+            throw new IllegalArgumentException("ticket-key-rotation debe ser de al menos 1s: " + ticketKeyRotation);
+    }
+}
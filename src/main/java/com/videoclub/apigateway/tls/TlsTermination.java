@@ -0,0 +1,356 @@
+package com.videoclub.apigateway.tls;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.SslHandshakeCompletionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ssl.SslBundle;
+import org.springframework.boot.ssl.SslOptions;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.netty.NettyPipeline;
+import reactor.netty.http.Http11SslContextSpec;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.tcp.SslProvider;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedTrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.net.Socket;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contexto TLS del servidor: motor (OpenSSL o JDK), ALPN h2/http1.1, cache
+ * de sesiones y session tickets, y recarga del certificado.
+ *
+ * El contexto vigente se entrega por conexión (mapping SNI, consultado
+ * también cuando el cliente no envía SNI), así que una recarga aplica a las
+ * conexiones nuevas y las abiertas siguen con el anterior. Si la recarga falla se conserva el certificado anterior.
+ *
+ * Mide cada handshake en gateway.tls.handshake (tags resumed, protocol, alpn
+ * y engine), desde que se acepta la conexión hasta que termina el handshake.
+ */
+public class TlsTermination implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TlsTermination.class);
+
+    private static final String HANDSHAKE_OBSERVER = "videoclub.tlsHandshakeObserver";
+
+    private final TlsProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final io.netty.handler.ssl.SslProvider engine;
+    /** Solo con OpenSSL y session-tickets; con el JDK los tickets son del propio JDK. */
+    private final OpenSslTicketKeys ticketKeys;
+    private final Counter handshakeFailures;
+    private final LongAdder reloads = new LongAdder();
+    private volatile SslProvider provider;
+    private volatile SslBundle bundle;
+    private volatile Instant notAfter;
+    private volatile Disposable rotation;
+
+    public TlsTermination(TlsProperties properties, SslBundle bundle, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.engine = resolveEngine(properties);
+        this.ticketKeys = engine == io.netty.handler.ssl.SslProvider.OPENSSL && properties.sessionTickets()
+                ? new OpenSslTicketKeys() : null;
+        this.handshakeFailures = Counter.builder("gateway.tls.handshake.failures").register(meterRegistry);
+        this.provider = build(bundle);
+        this.bundle = bundle;
+        this.notAfter = notAfter(bundle);
+        log.info("TLS con motor {}{}, protocolos {}, tickets {}, certificado vence {}",
+                engine, engine == io.netty.handler.ssl.SslProvider.OPENSSL ? " (" + OpenSsl.versionString() + ")" : "",
+                properties.http2() ? "h2, http/1.1" : "http/1.1",
+                ticketKeys != null ? "rotados cada " + properties.ticketKeyRotation()
+                        : engine == io.netty.handler.ssl.SslProvider.JDK ? "del JDK" : "no",
+                notAfter);
+    }
+
+    /** Motor efectivo: AUTO cae al JDK si netty-tcnative no está o no soporta ALPN. */
+    static io.netty.handler.ssl.SslProvider resolveEngine(TlsProperties properties) {
+        boolean openSsl = OpenSsl.isAvailable() && (!properties.http2()
+                || io.netty.handler.ssl.SslProvider.isAlpnSupported(io.netty.handler.ssl.SslProvider.OPENSSL));
+        return switch (properties.engine()) {
+            case AUTO -> openSsl ? io.netty.handler.ssl.SslProvider.OPENSSL : io.netty.handler.ssl.SslProvider.JDK;
+            case JDK -> io.netty.handler.ssl.SslProvider.JDK;
+            case OPENSSL -> {
+                if (!openSsl)
+                    throw new IllegalStateException("videoclub.gateway.tls.engine=OPENSSL pero netty-tcnative no "
+                            + "está disponible (perfil maven openssl): " + OpenSsl.unavailabilityCause());
+                yield io.netty.handler.ssl.SslProvider.OPENSSL;
+            }
+        };
+    }
+
+    /** Aplica TLS, los protocolos y la medición de handshakes al servidor. */
+    public HttpServer apply(HttpServer server) {
+        HttpProtocol[] protocols = properties.http2()
+                ? new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11}
+                : new HttpProtocol[]{HttpProtocol.HTTP11};
+        return server
+                .secure(spec -> spec.sslContext(provider.getSslContext())
+                        .handshakeTimeout(properties.handshakeTimeout())
+                        // Resuelto por conexión: después de una recarga las conexiones nuevas usan el vigente.
+                        // El handler SNI consulta el mapping también sin SNI (serverName null, p. ej.
+                        // conexiones por IP), así que el contexto de arriba nunca atiende un handshake
+                        .setSniAsyncMappings((serverName, promise) -> promise.setSuccess(provider)))
+                .protocol(protocols)
+                .doOnChannelInit((observer, channel, remoteAddress) -> {
+                    if (channel.pipeline().get(NettyPipeline.SslHandler) != null)
+                        channel.pipeline().addAfter(NettyPipeline.SslHandler, HANDSHAKE_OBSERVER,
+                                new HandshakeObserver());
+                });
+    }
+
+    /** Reemplaza el certificado (handler de actualización del SSL bundle). */
+    public void reload(SslBundle bundle) {
+        try {
+            SslProvider next = build(bundle);
+            Instant expiry = notAfter(bundle);
+            provider = next;
+            this.bundle = bundle;
+            notAfter = expiry;
+            reloads.increment();
+            log.info("Certificado TLS recargado, vence {}", expiry);
+        } catch (RuntimeException e) {
+            log.error("No se pudo recargar el certificado TLS; se sigue usando el anterior", e);
+        }
+    }
+
+    /**
+     * Cliente para llamadas del gateway a sí mismo (calentamiento): confía solo
+     * en el certificado vigente y no verifica el nombre, que no tiene por qué
+     * ser localhost.
+     */
+    public HttpClient loopbackClient(HttpClient client) {
+        KeyStore keyStore = bundle.getStores().getKeyStore();
+        try {
+            KeyStore trusted = KeyStore.getInstance(KeyStore.getDefaultType());
+            trusted.load(null, null);
+            for (String alias : Collections.list(keyStore.aliases())) {
+                Certificate certificate = keyStore.getCertificate(alias);
+                if (certificate != null)
+                    trusted.setCertificateEntry(alias, certificate);
+            }
+            TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(
+                    TrustManagerFactory.getDefaultAlgorithm());
+            trustManagers.init(trusted);
+            X509TrustManager chain = (X509TrustManager) trustManagers.getTrustManagers()[0];
+            SslContext context = (properties.http2() ? Http2SslContextSpec.forClient() : Http11SslContextSpec.forClient())
+                    .configure(builder -> builder.trustManager(new LoopbackTrustManager(chain)))
+                    .sslContext();
+            return client
+                    .secure(spec -> spec.sslContext(context))
+                    .protocol(properties.http2()
+                            ? new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11}
+                            : new HttpProtocol[]{HttpProtocol.HTTP11});
+        } catch (GeneralSecurityException | IOException e) {
+            throw new IllegalStateException("No se pudo armar el cliente TLS hacia el propio gateway", e);
+        }
+    }
+
+    public io.netty.handler.ssl.SslProvider engine() {
+        return engine;
+    }
+
+    public long reloads() {
+        return reloads.sum();
+    }
+
+    /** Segundos hasta el vencimiento del certificado (negativo si ya venció). */
+    public double secondsToExpiry() {
+        return Duration.between(Instant.now(), notAfter).toSeconds();
+    }
+
+    /** Contexto vigente (para pruebas y benchmarks). */
+    public SslContext sslContext() {
+        return provider.getSslContext();
+    }
+
+    @Override
+    public void start() {
+        if (ticketKeys != null) {
+            Duration every = properties.ticketKeyRotation();
+            rotation = Flux.interval(every, every)
+                    .onBackpressureDrop()
+                    .subscribe(tick -> rotateTicketKeys());
+        }
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = rotation;
+        if (current != null)
+            current.dispose();
+        rotation = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return rotation != null;
+    }
+
+    void rotateTicketKeys() {
+        ticketKeys.rotate();
+        ticketKeys.applyTo(provider.getSslContext());
+        log.debug("Clave de session tickets rotada");
+    }
+
+    private SslProvider build(SslBundle bundle) {
+        KeyManagerFactory keyManagers = bundle.getManagers().getKeyManagerFactory();
+        SslProvider.GenericSslContextSpec<SslContextBuilder> spec = properties.http2()
+                ? Http2SslContextSpec.forServer(keyManagers)
+                : Http11SslContextSpec.forServer(keyManagers);
+        SslOptions options = bundle.getOptions();
+        spec.configure(builder -> {
+            builder.sslProvider(engine)
+                    .sessionCacheSize(properties.sessionCacheSize())
+                    .sessionTimeout(properties.sessionTimeout().toSeconds());
+            if (options.getEnabledProtocols() != null)
+                builder.protocols(options.getEnabledProtocols());
+            if (options.getCiphers() != null)
+                builder.ciphers(SslOptions.asSet(options.getCiphers()));
+        });
+        SslProvider built = SslProvider.builder().sslContext(spec)
+                .handshakeTimeout(properties.handshakeTimeout())
+                .build();
+        if (ticketKeys != null)
+            ticketKeys.applyTo(built.getSslContext());
+        return built;
+    }
+
+    private static Instant notAfter(SslBundle bundle) {
+        KeyStore keyStore = bundle.getStores().getKeyStore();
+        if (keyStore == null)
+            throw new IllegalStateException("El SSL bundle no tiene keystore con el certificado del servidor");
+        try {
+            Instant earliest = null;
+            for (String alias : Collections.list(keyStore.aliases())) {
+                Certificate certificate = keyStore.getCertificate(alias);
+                if (certificate instanceof X509Certificate x509) {
+                    Instant expiry = x509.getNotAfter().toInstant();
+                    if (earliest == null || expiry.isBefore(earliest))
+                        earliest = expiry;
+                }
+            }
+            if (earliest == null)
+                throw new IllegalStateException("El SSL bundle no tiene certificados X.509");
+            return earliest;
+        } catch (KeyStoreException e) {
+            throw new IllegalStateException("No se pudo leer el keystore del SSL bundle", e);
+        }
+    }
+
+    private void handshake(SslHandler ssl, long startMillis, long nanos) {
+        SSLSession session = ssl.engine().getSession();
+        // Una sesión reanudada conserva el instante de creación de la original
+        boolean resumed = session.getCreationTime() < startMillis;
+        String alpn = ssl.applicationProtocol();
+        Timer.builder("gateway.tls.handshake")
+                .tag("resumed", Boolean.toString(resumed))
+                .tag("protocol", session.getProtocol())
+                .tag("alpn", alpn == null ? "none" : alpn)
+                .tag("engine", engine.name())
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Uno por conexión: se quita del pipeline al terminar el handshake. */
+    private final class HandshakeObserver extends ChannelInboundHandlerAdapter {
+
+        private final long startNanos = System.nanoTime();
+        private final long startMillis = System.currentTimeMillis();
+
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object event) throws Exception {
+            if (event instanceof SslHandshakeCompletionEvent completion) {
+                ctx.pipeline().remove(this);
+                SslHandler ssl = ctx.pipeline().get(SslHandler.class);
+                if (completion.isSuccess() && ssl != null)
+                    handshake(ssl, startMillis, System.nanoTime() - startNanos);
+                else
+                    handshakeFailures.increment();
+            }
+            super.userEventTriggered(ctx, event);
+        }
+    }
+
+    /**
+     * Valida la cadena contra el certificado vigente pero ignora la
+     * identificación del endpoint: el cliente HTTP la activa en el engine y el
+     * certificado no tiene por qué nombrar a localhost.
+     */
+    private static final class LoopbackTrustManager extends X509ExtendedTrustManager {
+
+        private final X509TrustManager delegate;
+
+        LoopbackTrustManager(X509TrustManager delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+            delegate.checkServerTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket)
+                throws CertificateException {
+            delegate.checkServerTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+                throws CertificateException {
+            delegate.checkServerTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+            throw new CertificateException("El cliente de loopback no autentica clientes");
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket)
+                throws CertificateException {
+            checkClientTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+                throws CertificateException {
+            checkClientTrusted(chain, authType);
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return delegate.getAcceptedIssuers();
+        }
+    }
+}
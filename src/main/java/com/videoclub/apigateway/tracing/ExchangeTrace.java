@@ -0,0 +1,85 @@
+package com.videoclub.apigateway.tracing;
+
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estado de traza asociado a un exchange mientras la petición está en curso.
+ * 
+ * Las fases se marcan con System.nanoTime() desde los filtros:
+ * - security: desde la entrada al gateway hasta el primer GlobalFilter
+ * (incluye validación JWT y autorización)
+ * - filters: GlobalFilters y GatewayFilters de la ruta
+ * - upstream: desde el envío al backend hasta recibir los headers de respuesta
+ */
+public class ExchangeTrace {
+
+    public static final String ATTRIBUTE = ExchangeTrace.class.getName();
+
+    private final TraceContext root;
+    private final String parentSpanId;
+    private final long startNanos = System.nanoTime();
+    private final long startEpochMillis = System.currentTimeMillis();
+
+    private volatile long filtersStartNanos;
+    private volatile long upstreamStartNanos;
+    private volatile long upstreamEndNanos;
+    private volatile TraceContext upstream;
+
+    public ExchangeTrace(TraceContext incoming) {
+        this.root = incoming == null ? TraceContext.newRoot() : incoming.child();
+        this.parentSpanId = incoming == null ? null : incoming.spanId();
+    }
+
+    public static ExchangeTrace from(ServerWebExchange exchange) {
+        return exchange.getAttribute(ATTRIBUTE);
+    }
+
+    public TraceContext root() {
+        return root;
+    }
+
+    public void markFiltersStart() {
+        if (filtersStartNanos == 0)
+            filtersStartNanos = System.nanoTime();
+    }
+
+    /** Marca el inicio de la fase upstream y devuelve el contexto a propagar. */
+    public TraceContext startUpstream() {
+        upstreamStartNanos = System.nanoTime();
+        upstream = root.child();
+        return upstream;
+    }
+
+    public void endUpstream() {
+        if (upstreamStartNanos != 0 && upstreamEndNanos == 0)
+            upstreamEndNanos = System.nanoTime();
+    }
+
+    /** Cierra la traza y arma el registro con los spans de cada fase. */
+    public TraceRecord finish(String method, String path, String routeId, int status) {
+        long endNanos = System.nanoTime();
+        List<Span> spans = new ArrayList<>(4);
+        spans.add(span("gateway", root.spanId(), parentSpanId, startNanos, endNanos));
+        long securityEnd = filtersStartNanos != 0 ? filtersStartNanos : endNanos;
+        spans.add(span("security", TraceContext.randomHex(8), root.spanId(), startNanos, securityEnd));
+        if (filtersStartNanos != 0) {
+            long filtersEnd = upstreamStartNanos != 0 ? upstreamStartNanos : endNanos;
+            spans.add(span("filters", TraceContext.randomHex(8), root.spanId(), filtersStartNanos, filtersEnd));
+        }
+        TraceContext up = upstream;
+        if (up != null) {
+            long upstreamEnd = upstreamEndNanos != 0 ? upstreamEndNanos : endNanos;
+            spans.add(span("upstream", up.spanId(), root.spanId(), upstreamStartNanos, upstreamEnd));
+        }
+        return new TraceRecord(root.traceId(), method, path, routeId, status, startEpochMillis,
+                (endNanos - startNanos) / 1_000, List.copyOf(spans));
+    }
+
+    private Span span(String name, String spanId, String parentId, long from, long to) {
+        long startMillis = startEpochMillis + (from - startNanos) / 1_000_000;
+        return new Span(name, spanId, parentId, startMillis, Math.max(0, to - from) / 1_000);
+    }
+}
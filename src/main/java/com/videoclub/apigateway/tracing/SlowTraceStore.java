@@ -0,0 +1,83 @@
+package com.videoclub.apigateway.tracing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Almacén en memoria de tamaño fijo para trazas.
+ * 
+ * Mantiene dos vistas acotadas:
+ * - las N trazas más lentas (min-heap por duración: la más rápida se
+ * descarta al llegar una más lenta)
+ * - las M trazas más recientes (buffer circular)
+ * 
+ * No requiere backend de tracing: se consulta vía actuator (/actuator/traces).
+ */
+public class SlowTraceStore {
+
+    private static final Comparator<TraceRecord> BY_DURATION = Comparator.comparingLong(TraceRecord::durationMicros);
+
+    private final int slowestCapacity;
+    private final PriorityQueue<TraceRecord> slowest;
+    private final TraceRecord[] recent;
+    private int recentNext;
+    private long recorded;
+
+    public SlowTraceStore(int slowestCapacity, int recentCapacity) {
+        if (slowestCapacity < 1 || recentCapacity < 1)
+            throw new IllegalArgumentException("Las capacidades del store de trazas deben ser positivas");
+        this.slowestCapacity = slowestCapacity;
+        this.slowest = new PriorityQueue<>(slowestCapacity, BY_DURATION);
+        this.recent = new TraceRecord[recentCapacity];
+    }
+
+    public synchronized void record(TraceRecord trace) {
+        recorded++;
+        recent[recentNext] = trace;
+        recentNext = (recentNext + 1) % recent.length;
+
+        if (slowest.size() < slowestCapacity) {
+            slowest.add(trace);
+        } else if (slowest.peek().durationMicros() < trace.durationMicros()) {
+            slowest.poll();
+            slowest.add(trace);
+        }
+    }
+
+    /** Trazas más lentas, de mayor a menor duración. */
+    public synchronized List<TraceRecord> slowest() {
+        List<TraceRecord> out = new ArrayList<>(slowest);
+        out.sort(BY_DURATION.reversed());
+        return out;
+    }
+
+    /** Trazas más recientes, de la más nueva a la más vieja. */
+    public synchronized List<TraceRecord> recent() {
+        List<TraceRecord> out = new ArrayList<>(recent.length);
+        for (int i = 1; i <= recent.length; i++) {
+            TraceRecord r = recent[Math.floorMod(recentNext - i, recent.length)];
+            if (r == null)
+                break;
+            out.add(r);
+        }
+        return out;
+    }
+
+    public synchronized TraceRecord find(String traceId) {
+        for (TraceRecord r : recent) {
+            if (r != null && r.traceId().equals(traceId))
+                return r;
+        }
+        for (TraceRecord r : slowest) {
+            if (r.traceId().equals(traceId))
+                return r;
+        }
+        return null;
+    }
+
+    public synchronized long recorded() {
+        return recorded;
+    }
+}
@@ -0,0 +1,8 @@
+package com.videoclub.apigateway.tracing;
+
+/**
+ * Span finalizado de una traza: una fase medida dentro del gateway
+ * (gateway, security, filters, upstream).
+ */
+public record Span(String name, String spanId, String parentSpanId, long startEpochMillis, long durationMicros) {
+}
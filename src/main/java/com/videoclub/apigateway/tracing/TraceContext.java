@@ -0,0 +1,91 @@
+package com.videoclub.apigateway.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Contexto de traza W3C (header {@code traceparent}).
+ * 
+ * Formato: {@code 00-<trace-id 32 hex>-<parent-id 16 hex>-<flags 2 hex>}.
+ * Si el header entrante no es válido se genera una traza nueva, tal como
+ * indica la especificación Trace Context.
+ */
+public record TraceContext(String traceId, String spanId, boolean sampled) {
+
+    public static final String TRACEPARENT = "traceparent";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Interpreta un header traceparent. Devuelve null si está ausente o mal
+     * formado.
+     */
+    public static TraceContext parse(String header) {
+        if (header == null || header.length() < 55)
+            return null;
+        String value = header.trim();
+        if (value.length() < 55 || value.charAt(2) != '-' || value.charAt(35) != '-' || value.charAt(52) != '-')
+            return null;
+        String version = value.substring(0, 2);
+        // Versión ff es inválida; versión 00 no admite campos extra
+        if (!isHex(version) || "ff".equals(version) || ("00".equals(version) && value.length() != 55))
+            return null;
+        String traceId = value.substring(3, 35);
+        String parentId = value.substring(36, 52);
+        String flags = value.substring(53, 55);
+        if (!isHex(traceId) || !isHex(parentId) || !isHex(flags) || isZero(traceId) || isZero(parentId))
+            return null;
+        boolean sampled = (Character.digit(flags.charAt(1), 16) & 0x1) == 1;
+        return new TraceContext(traceId, parentId, sampled);
+    }
+
+    /** Crea una traza raíz nueva (muestreada). */
+    public static TraceContext newRoot() {
+        return new TraceContext(randomHex(16), randomHex(8), true);
+    }
+
+    /** Crea un span hijo dentro de la misma traza. */
+    public TraceContext child() {
+        return new TraceContext(traceId, randomHex(8), sampled);
+    }
+
+    /** Serializa el contexto como valor del header traceparent. */
+    public String toTraceparent() {
+        return "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+    }
+
+    static String randomHex(int bytes) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] out = new char[bytes * 2];
+        long bits = 0;
+        do {
+            for (int i = 0; i < out.length; i++) {
+                if ((i & 15) == 0)
+                    bits = random.nextLong();
+                out[i] = HEX[(int) (bits & 0xf)];
+                bits >>>= 4;
+            }
+        } while (isZero(out));
+        return new String(out);
+    }
+
+    private static boolean isHex(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f')))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isZero(String s) {
+        return isZero(s.toCharArray());
+    }
+
+    private static boolean isZero(char[] s) {
+        for (char c : s) {
+            if (c != '0')
+                return false;
+        }
+        return true;
+    }
+}
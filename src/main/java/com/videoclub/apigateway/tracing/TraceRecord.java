@@ -0,0 +1,11 @@
+package com.videoclub.apigateway.tracing;
+
+import java.util.List;
+
+/**
+ * Traza completa de una petición atendida por el gateway, tal como se
+ * guarda en {@link SlowTraceStore}.
+ */
+public record TraceRecord(String traceId, String method, String path, String routeId, int status,
+        long startEpochMillis, long durationMicros, List<Span> spans) {
+}
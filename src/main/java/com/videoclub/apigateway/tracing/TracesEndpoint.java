@@ -0,0 +1,37 @@
+package com.videoclub.apigateway.tracing;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Endpoint actuator {@code /actuator/traces}: expone las trazas más lentas y
+ * las más recientes guardadas en memoria. {@code /actuator/traces/{traceId}}
+ * devuelve una traza puntual.
+ */
+@Endpoint(id = "traces")
+public class TracesEndpoint {
+
+    private final SlowTraceStore store;
+
+    public TracesEndpoint(SlowTraceStore store) {
+        this.store = store;
+    }
+
+    @ReadOperation
+    public Map<String, Object> traces() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("recorded", store.recorded());
+        body.put("slowest", store.slowest());
+        body.put("recent", store.recent());
+        return body;
+    }
+
+    @ReadOperation
+    public TraceRecord trace(@Selector String traceId) {
+        return store.find(traceId);
+    }
+}
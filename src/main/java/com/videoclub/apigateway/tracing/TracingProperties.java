@@ -0,0 +1,18 @@
+package com.videoclub.apigateway.tracing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuración de trazas del gateway ({@code videoclub.gateway.tracing.*}).
+ *
+ * @param enabled         genera/propaga traceparent y registra spans
+ * @param slowestCapacity cantidad de trazas más lentas a conservar
+ * @param recentCapacity  cantidad de trazas más recientes a conservar
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.tracing")
+public record TracingProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("50") int slowestCapacity,
+        @DefaultValue("200") int recentCapacity) {
+}
@@ -0,0 +1,29 @@
+package com.videoclub.apigateway.transform;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+
+import java.util.List;
+
+/**
+ * Etapa de transformación del cuerpo de una respuesta, fragmento por
+ * fragmento. Una instancia por respuesta (puede guardar estado entre
+ * fragmentos, p. ej. un parser JSON o bytes de arrastre).
+ *
+ * Contrato de buffers: el fragmento de entrada pertenece al
+ * {@link TransformPipeline}, que lo libera después de la llamada, así que la
+ * etapa no debe retenerlo. Los buffers que agrega a {@code out} pasan a ser del
+ * pipeline, que los libera si la respuesta se cancela o falla.
+ */
+public interface BodyTransform {
+
+    /** Transforma un fragmento y agrega a {@code out} la salida disponible. */
+    void transform(DataBuffer chunk, DataBufferFactory factory, List<DataBuffer> out);
+
+    /** Fin del cuerpo: agrega la salida pendiente. */
+    void finish(DataBufferFactory factory, List<DataBuffer> out);
+
+    /** Libera recursos propios si el cuerpo no se completó. */
+    default void dispose() {
+    }
+}
@@ -0,0 +1,66 @@
+package com.videoclub.apigateway.transform;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * OutputStream que escribe en un buffer de la fábrica de la respuesta (pooled
+ * con Netty), reservado al primer byte. {@link #take()} entrega el buffer
+ * armado y el siguiente fragmento empieza uno nuevo.
+ */
+class ChunkOutput extends OutputStream {
+
+    private final int initialCapacity;
+    private DataBufferFactory factory;
+    private DataBuffer current;
+
+    ChunkOutput(int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+    }
+
+    /** Fábrica de la que se reservan los próximos buffers. */
+    void bind(DataBufferFactory factory) {
+        this.factory = factory;
+    }
+
+    private DataBuffer buffer() {
+        if (current == null)
+            current = factory.allocateBuffer(initialCapacity);
+        return current;
+    }
+
+    @Override
+    public void write(int b) {
+        buffer().write((byte) b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        if (length > 0)
+            buffer().write(bytes, offset, length);
+    }
+
+    /** Agrega el buffer armado a {@code out}, si tiene contenido. */
+    void take(List<DataBuffer> out) {
+        DataBuffer taken = current;
+        current = null;
+        if (taken == null)
+            return;
+        if (taken.readableByteCount() == 0)
+            DataBufferUtils.release(taken);
+        else
+            out.add(taken);
+    }
+
+    /** Libera el buffer a medio armar (error o cancelación). */
+    void discard() {
+        if (current != null) {
+            DataBufferUtils.release(current);
+            current = null;
+        }
+    }
+}
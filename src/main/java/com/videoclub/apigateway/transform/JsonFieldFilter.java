@@ -0,0 +1,173 @@
+package com.videoclub.apigateway.transform;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Filtro de campos sobre un JSON que llega por partes.
+ *
+ * Usa el parser no bloqueante de Jackson: cada fragmento se alimenta al
+ * parser y lo que ya se puede emitir se escribe en un buffer nuevo, así la
+ * memoria queda acotada al fragmento más la profundidad de anidamiento, no al
+ * cuerpo completo.
+ *
+ * - {@link #projection}: de cada ítem de las colecciones (los objetos de un
+ * arreglo raíz o de los arreglos raíz listados, p. ej. {@code content} de una
+ * página) se conservan solo los campos pedidos; el resto del documento
+ * (metadatos de paginación) pasa sin cambios
+ * - {@link #redaction}: se eliminan los campos con esos nombres a cualquier
+ * profundidad
+ *
+ * Un JSON inválido o incompleto falla con {@link UncheckedIOException}.
+ */
+public class JsonFieldFilter implements BodyTransform {
+
+    /** Decide si un campo se conserva. */
+    @FunctionalInterface
+    private interface FieldRule {
+        boolean keep(String name, boolean inItem);
+    }
+
+    /** Nivel de anidamiento abierto en la salida. */
+    private record Frame(boolean collection, boolean item) {
+    }
+
+    private final FieldRule rule;
+    private final Set<String> collections;
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+    private final ChunkOutput out = new ChunkOutput(1024);
+    private final JsonGenerator generator;
+    private final Deque<Frame> frames = new ArrayDeque<>();
+
+    private boolean skipNext;
+    private int skipDepth;
+    private boolean collectionNext;
+
+    private JsonFieldFilter(JsonFactory factory, FieldRule rule, Set<String> collections) {
+        this.rule = rule;
+        this.collections = collections;
+        try {
+            this.parser = factory.createNonBlockingByteBufferParser();
+            this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+            this.generator = factory.createGenerator(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Conserva solo {@code fields} en cada ítem de las colecciones. */
+    public static JsonFieldFilter projection(JsonFactory factory, Set<String> fields, Set<String> collections) {
+        return new JsonFieldFilter(factory, (name, inItem) -> !inItem || fields.contains(name), collections);
+    }
+
+    /** Elimina los campos {@code names} en todo el documento. */
+    public static JsonFieldFilter redaction(JsonFactory factory, Set<String> names) {
+        return new JsonFieldFilter(factory, (name, inItem) -> !names.contains(name), Set.of());
+    }
+
+    /** Si el filtro puede leer un cuerpo con este Content-Type. */
+    public static boolean supports(MediaType contentType) {
+        return contentType != null && (MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                || contentType.getSubtype().endsWith("+json"));
+    }
+
+    @Override
+    public void transform(DataBuffer chunk, DataBufferFactory factory, List<DataBuffer> output) {
+        out.bind(factory);
+        try (DataBuffer.ByteBufferIterator buffers = chunk.readableByteBuffers()) {
+            while (buffers.hasNext()) {
+                ByteBuffer buffer = buffers.next();
+                feeder.feedInput(buffer);
+                drain();
+            }
+            generator.flush();
+            out.take(output);
+        } catch (IOException e) {
+            out.discard();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            out.discard();
+            throw e;
+        }
+    }
+
+    @Override
+    public void finish(DataBufferFactory factory, List<DataBuffer> output) {
+        out.bind(factory);
+        try {
+            feeder.endOfInput();
+            drain();
+            if (!frames.isEmpty())
+                throw new IOException("JSON incompleto");
+            generator.flush();
+            out.take(output);
+            generator.close();
+            parser.close();
+        } catch (IOException e) {
+            out.discard();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        out.discard();
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE)
+            onToken(token);
+    }
+
+    private void onToken(JsonToken token) throws IOException {
+        if (skipDepth > 0) {
+            if (token.isStructStart())
+                skipDepth++;
+            else if (token.isStructEnd())
+                skipDepth--;
+            return;
+        }
+        if (skipNext) {
+            skipNext = false;
+            if (token.isStructStart())
+                skipDepth = 1;
+            return;
+        }
+
+        Frame parent = frames.peek();
+        if (token == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            if (!rule.keep(name, parent != null && parent.item())) {
+                skipNext = true;
+                return;
+            }
+            collectionNext = frames.size() == 1 && collections.contains(name);
+        } else if (token.isStructStart()) {
+            boolean array = token == JsonToken.START_ARRAY;
+            frames.push(new Frame(array && (parent == null || collectionNext),
+                    !array && parent != null && parent.collection()));
+            collectionNext = false;
+        } else if (token.isStructEnd()) {
+            frames.pop();
+        } else {
+            collectionNext = false;
+        }
+        generator.copyCurrentEvent(parser);
+    }
+}
@@ -0,0 +1,92 @@
+package com.videoclub.apigateway.transform;
+
+import com.videoclub.apigateway.transform.TransformProperties.LinkRewrite;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reemplaza URLs internas del backend por las públicas del gateway
+ * ({@code http://catalogo-backend:8081/} → {@code /api/}) a nivel de bytes, sin
+ * parsear el cuerpo.
+ *
+ * Una URL puede quedar partida entre dos fragmentos: si el final de un
+ * fragmento es prefijo de algún patrón, esos bytes se retienen (a lo sumo el
+ * largo del patrón más largo menos uno) y se completan con el siguiente.
+ */
+public class LinkRewriteTransform implements BodyTransform {
+
+    private final byte[][] from;
+    private final byte[][] to;
+    private byte[] carry = new byte[0];
+
+    public LinkRewriteTransform(List<LinkRewrite> rewrites) {
+        this.from = new byte[rewrites.size()][];
+        this.to = new byte[rewrites.size()][];
+        for (int i = 0; i < rewrites.size(); i++) {
+            LinkRewrite rewrite = rewrites.get(i);
+            if (rewrite.from() == null || rewrite.from().isEmpty())
+                throw new IllegalArgumentException("rewrite-links: 'from' vacío");
+            from[i] = rewrite.from().getBytes(StandardCharsets.UTF_8);
+            to[i] = rewrite.to() == null ? new byte[0] : rewrite.to().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public void transform(DataBuffer chunk, DataBufferFactory factory, List<DataBuffer> out) {
+        int length = chunk.readableByteCount();
+        byte[] data = Arrays.copyOf(carry, carry.length + length);
+        chunk.read(data, carry.length, length);
+
+        DataBuffer buffer = factory.allocateBuffer(data.length);
+        int i = 0;
+        int literalStart = 0;
+        scan:
+        while (i < data.length) {
+            for (int p = 0; p < from.length; p++) {
+                int match = matchAt(data, i, from[p]);
+                if (match == from[p].length) {
+                    buffer.write(data, literalStart, i - literalStart);
+                    buffer.write(to[p]);
+                    i += match;
+                    literalStart = i;
+                    continue scan;
+                }
+                if (match == data.length - i) {
+                    // Prefijo de un patrón al final del fragmento: se completa con el siguiente
+                    break scan;
+                }
+            }
+            i++;
+        }
+        buffer.write(data, literalStart, i - literalStart);
+        carry = Arrays.copyOfRange(data, i, data.length);
+        emit(buffer, out);
+    }
+
+    @Override
+    public void finish(DataBufferFactory factory, List<DataBuffer> out) {
+        if (carry.length > 0)
+            out.add(factory.wrap(carry));
+        carry = new byte[0];
+    }
+
+    /** Bytes de {@code pattern} que coinciden desde {@code offset}. */
+    private static int matchAt(byte[] data, int offset, byte[] pattern) {
+        int n = 0;
+        while (n < pattern.length && offset + n < data.length && data[offset + n] == pattern[n])
+            n++;
+        return n;
+    }
+
+    private static void emit(DataBuffer buffer, List<DataBuffer> out) {
+        if (buffer.readableByteCount() == 0)
+            DataBufferUtils.release(buffer);
+        else
+            out.add(buffer);
+    }
+}
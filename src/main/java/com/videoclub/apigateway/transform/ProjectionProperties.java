@@ -0,0 +1,34 @@
+package com.videoclub.apigateway.transform;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Proyección de campos a pedido del cliente ({@code videoclub.gateway.projection.*}).
+ *
+ * Con {@code ?fields=titulo,poster,precio} el gateway devuelve solo esos
+ * campos de cada ítem. Es opt-in: sin el parámetro la respuesta pasa intacta.
+ *
+ * @param enabled activa el filtro
+ * @param routes  configuración por id de ruta
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.projection")
+public record ProjectionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue Map<String, RouteProjection> routes) {
+
+    /**
+     * @param param       query param con la lista de campos
+     * @param collections propiedades raíz que contienen la colección de ítems
+     *                    (un arreglo raíz siempre lo es)
+     * @param maxFields   cantidad máxima de campos pedidos
+     */
+    public record RouteProjection(
+            @DefaultValue("fields") String param,
+            @DefaultValue({ "content", "items" }) Set<String> collections,
+            @DefaultValue("20") int maxFields) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.videoclub.apigateway.transform;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aplica una cadena de {@link BodyTransform} a un cuerpo en streaming.
+ *
+ * A diferencia de ModifyResponseBody, nunca junta el cuerpo: cada fragmento
+ * recorre las etapas y se libera apenas se transformó, así la memoria por
+ * petición queda en el orden del fragmento y no del cuerpo completo.
+ *
+ * Se pide un fragmento por vez al backend (prefetch 1), así la contrapresión
+ * del cliente llega hasta la conexión upstream en vez de acumular fragmentos.
+ *
+ * Manejo de buffers:
+ * - cada buffer de entrada (del backend o de la etapa anterior) se libera
+ * después de transformarlo, también si la etapa falla
+ * - los buffers ya producidos y no consumidos se liberan ante error o
+ * cancelación, y las etapas reciben {@link BodyTransform#dispose()}
+ */
+public final class TransformPipeline {
+
+    private TransformPipeline() {
+    }
+
+    public static Flux<DataBuffer> apply(Publisher<? extends DataBuffer> body, List<BodyTransform> stages,
+            DataBufferFactory factory, TransformStats stats) {
+        if (stages.isEmpty())
+            return Flux.from(body);
+        stats.transformed();
+        return Flux.<DataBuffer>from(body)
+                .concatMapIterable(chunk -> {
+                    stats.bytesIn(chunk.readableByteCount());
+                    return run(stages, 0, List.of(chunk), factory);
+                }, 1)
+                .concatWith(Flux.defer(() -> Flux.fromIterable(finish(stages, factory))))
+                .doOnNext(buffer -> stats.bytesOut(buffer.readableByteCount()))
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .doOnCancel(() -> stages.forEach(BodyTransform::dispose))
+                .doOnError(e -> stages.forEach(BodyTransform::dispose));
+    }
+
+    /** Pasa {@code input} por las etapas desde {@code from}; toma posesión de los buffers de entrada. */
+    private static List<DataBuffer> run(List<BodyTransform> stages, int from, List<DataBuffer> input,
+            DataBufferFactory factory) {
+        List<DataBuffer> current = input;
+        for (int i = from; i < stages.size(); i++) {
+            List<DataBuffer> next = new ArrayList<>(2);
+            int consumed = 0;
+            try {
+                for (DataBuffer buffer : current) {
+                    try {
+                        stages.get(i).transform(buffer, factory, next);
+                    } finally {
+                        consumed++;
+                        DataBufferUtils.release(buffer);
+                    }
+                }
+            } catch (RuntimeException e) {
+                releaseAll(current.subList(consumed, current.size()));
+                releaseAll(next);
+                throw e;
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    /** Cierra las etapas en orden: la salida final de cada una pasa por las siguientes. */
+    private static List<DataBuffer> finish(List<BodyTransform> stages, DataBufferFactory factory) {
+        List<DataBuffer> output = new ArrayList<>();
+        for (int i = 0; i < stages.size(); i++) {
+            List<DataBuffer> tail = new ArrayList<>(1);
+            try {
+                stages.get(i).finish(factory, tail);
+            } catch (RuntimeException e) {
+                releaseAll(tail);
+                releaseAll(output);
+                throw e;
+            }
+            try {
+                output.addAll(run(stages, i + 1, tail, factory));
+            } catch (RuntimeException e) {
+                releaseAll(output);
+                throw e;
+            }
+        }
+        return output;
+    }
+
+    private static void releaseAll(List<DataBuffer> buffers) {
+        for (DataBuffer buffer : buffers)
+            DataBufferUtils.release(buffer);
+    }
+}
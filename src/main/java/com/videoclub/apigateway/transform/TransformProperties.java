@@ -0,0 +1,43 @@
+package com.videoclub.apigateway.transform;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transformaciones en streaming del cuerpo de respuesta por ruta
+ * ({@code videoclub.gateway.transforms.*}).
+ *
+ * Reemplaza a ModifyResponseBody para reescrituras simples: el cuerpo nunca se
+ * junta en memoria. Se aplican en orden: primero redact-fields y después
+ * rewrite-links.
+ *
+ * @param enabled activa el filtro
+ * @param routes  transformaciones por id de ruta
+ */
+@ConfigurationProperties(prefix = "videoclub.gateway.transforms")
+public record TransformProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue Map<String, RouteTransforms> routes) {
+
+    /**
+     * @param redactFields campos JSON que se eliminan a cualquier profundidad
+     *                     (respuestas JSON)
+     * @param rewriteLinks reemplazos literales de URLs internas (respuestas
+     *                     JSON o de texto)
+     */
+    public record RouteTransforms(
+            @DefaultValue Set<String> redactFields,
+            @DefaultValue List<LinkRewrite> rewriteLinks) {
+    }
+
+    /**
+     * @param from prefijo interno, p. ej. {@code http://catalogo-backend:8081/}
+     * @param to   reemplazo público, p. ej. {@code /api/}
+     */
+    public record LinkRewrite(String from, String to) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.videoclub.apigateway.transform;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Contadores de las transformaciones de cuerpo de una ruta. */
+public class TransformStats {
+
+    private final LongAdder transformed = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+
+    public void transformed() {
+        transformed.increment();
+    }
+
+    public void bytesIn(long bytes) {
+        bytesIn.add(bytes);
+    }
+
+    public void bytesOut(long bytes) {
+        bytesOut.add(bytes);
+    }
+
+    public long responses() {
+        return transformed.sum();
+    }
+
+    /** Bytes recibidos del backend en respuestas transformadas. */
+    public long bytesIn() {
+        return bytesIn.sum();
+    }
+
+    /** Bytes enviados al cliente después de transformar. */
+    public long bytesOut() {
+        return bytesOut.sum();
+    }
+}
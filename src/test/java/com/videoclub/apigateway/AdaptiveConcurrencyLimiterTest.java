@@ -0,0 +1,83 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.resilience.AdaptiveConcurrencyLimiter;
+import com.videoclub.apigateway.resilience.ConcurrencyLimitProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = 1_000_000;
+
+    private final ConcurrencyLimitProperties settings = new ConcurrencyLimitProperties(true, 10, 2, 100, 0.5, 1.5,
+            100, 0.9);
+
+    @Test
+    @DisplayName("lo que excede el límite se rechaza sin esperar")
+    void rechazaAlLimite() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(settings);
+        for (int i = 0; i < 10; i++)
+            assertTrue(limiter.tryAcquire());
+
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.rejected());
+
+        limiter.releaseWithoutSample();
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("con latencia estable y carga alta el límite crece")
+    void creceConLatenciaEstable() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(settings);
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(10 * MS, limiter.limit(), false);
+        }
+        assertTrue(limiter.limit() > 10, "limit=" + limiter.limit());
+    }
+
+    @Test
+    @DisplayName("cuando la latencia se dispara el límite baja")
+    void bajaConLatenciaAlta() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(settings);
+        for (int i = 0; i < 30; i++) {
+            limiter.tryAcquire();
+            limiter.release(10 * MS, limiter.limit(), false);
+        }
+        int before = limiter.limit();
+        for (int i = 0; i < 30; i++) {
+            limiter.tryAcquire();
+            limiter.release(200 * MS, limiter.limit(), false);
+        }
+        assertTrue(limiter.limit() < before, "before=" + before + " after=" + limiter.limit());
+    }
+
+    @Test
+    @DisplayName("errores reducen el límite hasta el piso")
+    void erroresReducenHastaElPiso() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(settings);
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(10 * MS, 1, true);
+        }
+        assertEquals(2, limiter.limit());
+        assertEquals(100, limiter.dropped());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    @DisplayName("con poca carga el límite no cambia")
+    void pocaCargaNoAjusta() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(settings);
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(10 * MS, 1, false);
+        }
+        assertEquals(10, limiter.limit());
+    }
+}
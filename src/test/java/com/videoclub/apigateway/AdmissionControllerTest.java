@@ -0,0 +1,63 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.resilience.AdmissionController;
+import com.videoclub.apigateway.resilience.LoadSheddingProperties;
+import com.videoclub.apigateway.resilience.Priority;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControllerTest {
+
+    private final LoadSheddingProperties properties = new LoadSheddingProperties(true, Priority.STANDARD,
+            Map.of("catalogo", Priority.SHEDDABLE, "ventas-compras", Priority.CRITICAL), Duration.ofMillis(100),
+            10, Duration.ofMillis(100), 20, 0.5, 0.8, 1.0, Duration.ofSeconds(2));
+
+    @Test
+    @DisplayName("con más peticiones en vuelo se descarta primero lo de menor prioridad")
+    void descartaPorPrioridad() {
+        AdmissionController controller = new AdmissionController(properties);
+        for (int i = 0; i < 5; i++)
+            assertTrue(controller.tryAdmit(Priority.SHEDDABLE));
+
+        // 5 de 10 en vuelo: presión 0.5
+        assertFalse(controller.tryAdmit(Priority.SHEDDABLE));
+        for (int i = 0; i < 3; i++)
+            assertTrue(controller.tryAdmit(Priority.STANDARD));
+        assertFalse(controller.tryAdmit(Priority.STANDARD));
+        assertTrue(controller.tryAdmit(Priority.CRITICAL));
+        assertTrue(controller.tryAdmit(Priority.CRITICAL));
+        assertFalse(controller.tryAdmit(Priority.CRITICAL));
+
+        assertEquals(10, controller.inFlight());
+        assertEquals(1, controller.shed(Priority.SHEDDABLE));
+        assertEquals(1, controller.shed(Priority.CRITICAL));
+
+        controller.release();
+        assertTrue(controller.tryAdmit(Priority.CRITICAL));
+    }
+
+    @Test
+    @DisplayName("lag del event loop o pool saturado descartan catálogo pero no checkout")
+    void descartaPorSenalesMuestreadas() {
+        AdmissionController controller = new AdmissionController(properties);
+
+        controller.updateSignals(60, 0);
+        assertFalse(controller.tryAdmit(properties.priorityOf("catalogo")));
+        assertTrue(controller.tryAdmit(properties.priorityOf("otra-ruta")));
+        assertTrue(controller.tryAdmit(properties.priorityOf("ventas-compras")));
+
+        controller.updateSignals(0, 18);
+        assertFalse(controller.tryAdmit(Priority.STANDARD));
+        assertTrue(controller.tryAdmit(Priority.CRITICAL));
+
+        controller.updateSignals(0, 0);
+        assertTrue(controller.tryAdmit(Priority.SHEDDABLE));
+    }
+}
@@ -0,0 +1,131 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.security.Access;
+import com.videoclub.apigateway.security.AuthorizationDecisionTable;
+import com.videoclub.apigateway.security.AuthorizationProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AuthorizationDecisionTableTest {
+
+    /** Reglas tal como estaban declaradas con pathMatchers en SecurityConfig. */
+    private record ReferenceRule(ServerWebExchangeMatcher matcher, Access access) {
+    }
+
+    private static final List<ReferenceRule> REFERENCE = List.of(
+            new ReferenceRule(ServerWebExchangeMatchers.pathMatchers(HttpMethod.OPTIONS, "/**"), Access.PERMIT),
+            new ReferenceRule(ServerWebExchangeMatchers.pathMatchers("/auth/**", "/realms/**"), Access.PERMIT),
+            new ReferenceRule(ServerWebExchangeMatchers.pathMatchers("/actuator/health", "/actuator/gateway/**"),
+                    Access.PERMIT),
+            // Endpoints operativos agregados después, todos con JWT
+            new ReferenceRule(ServerWebExchangeMatchers.pathMatchers("/actuator/revocations/**",
+                    "/actuator/canary/**", "/actuator/faults/**", "/actuator/userconcurrency/**",
+                    "/actuator/traces/**", "/actuator/drain/**"), Access.AUTHENTICATED),
+            new ReferenceRule(ServerWebExchangeMatchers.pathMatchers(HttpMethod.GET, "/api/peliculas/**"),
+                    Access.PERMIT),
+            new ReferenceRule(ServerWebExchangeMatchers.pathMatchers("/api/peliculas/**"), Access.AUTHENTICATED),
+            new ReferenceRule(ServerWebExchangeMatchers.pathMatchers(HttpMethod.GET, "/api/categorias/**"),
+                    Access.PERMIT),
+            new ReferenceRule(ServerWebExchangeMatchers.pathMatchers(HttpMethod.GET, "/api/ratings/**"),
+                    Access.PERMIT),
+            new ReferenceRule(ServerWebExchangeMatchers.pathMatchers("/api/ratings/**"), Access.AUTHENTICATED),
+            new ReferenceRule(ServerWebExchangeMatchers.pathMatchers("/api/carrito/**"), Access.AUTHENTICATED),
+            new ReferenceRule(ServerWebExchangeMatchers.pathMatchers("/api/descuentos/**"), Access.AUTHENTICATED));
+
+    private static final List<String> PATHS = List.of(
+            "/", "/auth", "/auth/login", "/realms/videoclub/protocol/openid-connect/token",
+            "/actuator/health", "/actuator/health/", "/actuator/health/liveness", "/actuator/gateway/routes",
+            "/actuator/info", "/actuator/traces", "/actuator/traces/abc", "/actuator/revocations",
+            "/actuator/canary", "/actuator/faults", "/actuator/userconcurrency", "/actuator/drain",
+            "/api/peliculas", "/api/peliculas/", "/api/peliculas/42", "/api/peliculas/42/rating",
+            "/api/categorias", "/api/categorias/3",
+            "/api/ratings", "/api/ratings/pelicula/7",
+            "/api/carrito", "/api/carrito/confirmar", "/api/carrito/items/1",
+            "/api/compras", "/api/compras/123",
+            "/api/descuentos", "/api/descuentos/aplicar",
+            "/api/admin/peliculas", "/api/admin/descuentos/listar",
+            "/api/ventas/1", "/otra/ruta", "/apix/peliculas",
+            // Codificados, parámetros de matriz y segmentos vacíos: se comparan como los predicados Path
+            "/api/%63arrito/confirmar", "/api/%64escuentos/aplicar", "/%61pi/carrito", "/api/peliculas/%34%32",
+            "/api/carrito;jsessionid=1/confirmar", "/api//carrito/confirmar", "/api/carrito//confirmar", "/api/carrito//");
+
+    private static final List<HttpMethod> METHODS = List.of(
+            HttpMethod.GET, HttpMethod.HEAD, HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH,
+            HttpMethod.DELETE, HttpMethod.OPTIONS);
+
+    @Test
+    @DisplayName("la tabla de application.yml decide igual que los pathMatchers originales")
+    void equivalenteLocal() throws IOException {
+        assertEquivalent(load("application.yml"));
+    }
+
+    @Test
+    @DisplayName("la tabla de application-docker.yml decide igual que los pathMatchers originales")
+    void equivalenteDocker() throws IOException {
+        assertEquivalent(load("application-docker.yml"));
+    }
+
+    @Test
+    @DisplayName("un segmento codificado no esquiva la regla del path decodificado")
+    void pathCodificado() throws IOException {
+        AuthorizationDecisionTable table = load("application.yml");
+        assertEquals(Access.AUTHENTICATED, table.decide("GET", "/api/%63arrito/confirmar"));
+        assertEquals(Access.AUTHENTICATED, table.decide("POST", "/api/%64escuentos/aplicar"));
+        assertEquals(Access.AUTHENTICATED, table.decide("POST", "/api/%70eliculas/1"));
+        assertEquals(Access.PERMIT, table.decide("GET", "/api/%70eliculas/1"));
+    }
+
+    @Test
+    @DisplayName("patrones no soportados fallan al iniciar")
+    void patronInvalido() {
+        var rule = new AuthorizationProperties.Rule(List.of(), List.of("/api/**/x"), Access.PERMIT);
+        assertThrows(IllegalArgumentException.class,
+                () -> new AuthorizationDecisionTable(List.of(rule), Access.PERMIT));
+    }
+
+    private void assertEquivalent(AuthorizationDecisionTable table) {
+        for (HttpMethod method : METHODS) {
+            for (String path : PATHS) {
+                assertEquals(reference(method, path), table.decide(method.name(), path),
+                        () -> "Decisión distinta para " + method + " " + path);
+            }
+        }
+    }
+
+    private Access reference(HttpMethod method, String path) {
+        MockServerWebExchange exchange = MockServerWebExchange
+                .from(MockServerHttpRequest.method(method, URI.create(path)).build());
+        for (ReferenceRule rule : REFERENCE) {
+            if (rule.matcher().matches(exchange).block().isMatch())
+                return rule.access();
+        }
+        return Access.PERMIT;
+    }
+
+    private AuthorizationDecisionTable load(String resource) throws IOException {
+        StandardEnvironment env = new StandardEnvironment();
+        new YamlPropertySourceLoader().load(resource, new ClassPathResource(resource))
+                .forEach(env.getPropertySources()::addLast);
+        AuthorizationProperties properties = new Binder(ConfigurationPropertySources.get(env))
+                .bind("videoclub.gateway.authorization", AuthorizationProperties.class)
+                .get();
+        return AuthorizationDecisionTable.from(properties);
+    }
+}
@@ -0,0 +1,110 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.balancer.CanaryController;
+import com.videoclub.apigateway.balancer.CanaryProperties;
+import com.videoclub.apigateway.balancer.CanaryRelease;
+import com.videoclub.apigateway.balancer.LatencyHistogram;
+import com.videoclub.apigateway.balancer.LoadBalancerProperties;
+import com.videoclub.apigateway.balancer.ServiceInstance;
+import com.videoclub.apigateway.balancer.ServiceRegistry;
+import com.videoclub.apigateway.health.HealthCheckProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CanaryReleaseTest {
+
+    private static final CanaryProperties PROPERTIES = new CanaryProperties(true, Duration.ofSeconds(10), 100, 1.5,
+            Duration.ofMillis(20), 0.02, "admin", Map.of("catalogo-backend",
+                    new CanaryProperties.Release("catalogo-backend-canary", 30)));
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final ServiceRegistry registry = new ServiceRegistry(new LoadBalancerProperties(0.3, Map.of(
+            "catalogo-backend", new LoadBalancerProperties.Service(List.of("http://stable:8081")),
+            "catalogo-backend-canary", new LoadBalancerProperties.Service(List.of("http://canary:8081")))),
+            new HealthCheckProperties(true, "/actuator/health", Duration.ofSeconds(10), Duration.ofSeconds(2),
+                    2, 1, 5, Duration.ofSeconds(30), 50),
+            meters);
+    private final CanaryController controller = new CanaryController(PROPERTIES, registry, meters);
+    private final CanaryRelease release = controller.release("catalogo-backend");
+
+    private void record(CanaryRelease.Version version, int requests, long millis, int errors) {
+        for (int i = 0; i < requests; i++)
+            release.record(version, TimeUnit.MILLISECONDS.toNanos(millis), i < errors);
+    }
+
+    @Test
+    @DisplayName("el histograma estima el p99 con error relativo acotado")
+    void percentil() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 1000; ms++)
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(ms));
+        long[] snapshot = histogram.drain();
+        assertEquals(1000, LatencyHistogram.count(snapshot));
+        double p99 = LatencyHistogram.percentileMillis(snapshot, 0.99);
+        assertTrue(p99 >= 990 && p99 <= 990 * 1.125, "p99 " + p99);
+        assertEquals(0, LatencyHistogram.count(histogram.drain()));
+    }
+
+    @Test
+    @DisplayName("el tráfico se reparte según el peso y una canary sin instancias cede a la estable")
+    void repartoPorPeso() {
+        int canary = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (release.choose().version() == CanaryRelease.Version.CANARY)
+                canary++;
+        }
+        assertTrue(canary > 2_700 && canary < 3_300, "canary " + canary);
+
+        ServiceInstance down = registry.balancer("catalogo-backend-canary").instances().get(0);
+        down.health().onProbeFailure("HTTP 503");
+        down.health().onProbeFailure("HTTP 503");
+        for (int i = 0; i < 100; i++)
+            assertEquals(CanaryRelease.Version.STABLE, release.choose().version());
+    }
+
+    @Test
+    @DisplayName("una regresión de p99 lleva el peso a 0; con pocas muestras se sigue acumulando")
+    void rollbackPorLatencia() {
+        record(CanaryRelease.Version.STABLE, 100, 10, 0);
+        record(CanaryRelease.Version.CANARY, 60, 80, 0);
+        assertFalse(release.evaluate(PROPERTIES));
+        assertEquals(30, release.weight());
+
+        record(CanaryRelease.Version.CANARY, 40, 80, 0);
+        assertTrue(release.evaluate(PROPERTIES));
+        assertEquals(0, release.weight());
+        assertEquals(CanaryRelease.State.ROLLED_BACK, release.state());
+        assertEquals(1.0, meters.get("gateway.canary.rollbacks").functionCounter().count());
+        assertTrue(meters.get("gateway.canary.p99").tag("version", "canary").gauge().value() >= 80);
+        for (int i = 0; i < 100; i++)
+            assertEquals(CanaryRelease.Version.STABLE, release.choose().version());
+
+        release.weight(10);
+        assertEquals(CanaryRelease.State.ACTIVE, release.state());
+        assertThrows(IllegalArgumentException.class, () -> release.weight(101));
+    }
+
+    @Test
+    @DisplayName("una regresión de la tasa de error hace rollback; una diferencia menor al umbral no")
+    void rollbackPorErrores() {
+        record(CanaryRelease.Version.STABLE, 200, 10, 2);
+        record(CanaryRelease.Version.CANARY, 200, 10, 4);
+        assertFalse(release.evaluate(PROPERTIES));
+
+        record(CanaryRelease.Version.STABLE, 200, 10, 2);
+        record(CanaryRelease.Version.CANARY, 200, 10, 20);
+        assertTrue(release.evaluate(PROPERTIES));
+        assertTrue(release.report().get("reason").toString().startsWith("errores"));
+    }
+}
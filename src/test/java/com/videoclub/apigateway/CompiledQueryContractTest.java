@@ -0,0 +1,141 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.contract.CompiledQueryContract;
+import com.videoclub.apigateway.contract.ParamType;
+import com.videoclub.apigateway.contract.QueryContractProperties.ParamSpec;
+import com.videoclub.apigateway.contract.QueryContractProperties.RouteContract;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledQueryContractTest {
+
+    private final CompiledQueryContract catalogo = new CompiledQueryContract(new RouteContract(false, List.of(
+            new ParamSpec("page", ParamType.INT, false, 0L, null, null, null),
+            new ParamSpec("size", ParamType.INT, false, 1L, null, null, null),
+            new ParamSpec("sort", ParamType.STRING, false, null, null, null, null),
+            new ParamSpec("asc", ParamType.BOOLEAN, false, null, null, null, null))));
+
+    private static MultiValueMap<String, String> query(String q) {
+        return new LinkedMultiValueMap<>(UriComponentsBuilder.fromUriString("/x?" + q).build().getQueryParams());
+    }
+
+    @Test
+    @DisplayName("normalize valida y canoniza cada tipo")
+    void normalizaTipos() {
+        assertSame("12", ParamType.INT.normalize("12"));
+        assertEquals("7", ParamType.INT.normalize("007"));
+        assertEquals("5", ParamType.INT.normalize("+5"));
+        assertEquals("0", ParamType.INT.normalize("-0"));
+        assertEquals("-2147483648", ParamType.INT.normalize("-2147483648"));
+        assertNull(ParamType.INT.normalize("2147483648"));
+        assertNull(ParamType.INT.normalize("abc"));
+        assertNull(ParamType.INT.normalize(""));
+        assertEquals("9223372036854775807", ParamType.LONG.normalize("9223372036854775807"));
+        assertNull(ParamType.LONG.normalize("9223372036854775808"));
+        assertEquals("true", ParamType.BOOLEAN.normalize("TRUE"));
+        assertNull(ParamType.BOOLEAN.normalize("si"));
+        assertEquals("1.5", ParamType.DECIMAL.normalize("1.50"));
+        assertEquals("0", ParamType.DECIMAL.normalize("0.00"));
+        assertNull(ParamType.DECIMAL.normalize("1.2.3"));
+        assertSame("2024-02-29", ParamType.LOCAL_DATE.normalize("2024-02-29"));
+        assertNull(ParamType.LOCAL_DATE.normalize("2023-02-29"));
+        assertNull(ParamType.LOCAL_DATE.normalize("2024-13-01"));
+    }
+
+    @Test
+    @DisplayName("DECIMAL canoniza igual que BigDecimal sin instanciarlo")
+    void decimalesComoBigDecimal() {
+        for (String value : List.of("0", "-0", "+0", "0.0", ".0", "0.", "00", "1", "+1", "-1", "007", "1.50",
+                "1.0", "-1.0", ".5", "-.5", "5.", "100", "100.00", "-0.050", "0010.0100", "123456789012345678901.5")) {
+            BigDecimal parsed = new BigDecimal(value);
+            String expected = parsed.signum() == 0 ? "0" : parsed.stripTrailingZeros().toPlainString();
+            assertEquals(expected, ParamType.DECIMAL.normalize(value), value);
+        }
+        assertSame("-12.5", ParamType.DECIMAL.normalize("-12.5"));
+        assertSame("0.25", ParamType.DECIMAL.normalize("0.25"));
+        assertNull(ParamType.DECIMAL.normalize("."));
+        assertNull(ParamType.DECIMAL.normalize("-"));
+        assertNull(ParamType.DECIMAL.normalize("1e5"));
+    }
+
+    @Test
+    @DisplayName("page=abc se rechaza en el borde")
+    void rechazaTipoInvalido() {
+        CompiledQueryContract.Outcome outcome = catalogo.apply(query("page=abc&size=12"));
+
+        assertFalse(outcome.valid());
+        assertEquals("page", outcome.param());
+    }
+
+    @Test
+    @DisplayName("límites y valores repetidos se rechazan")
+    void rechazaLimitesYRepetidos() {
+        assertEquals("page", catalogo.apply(query("page=-1")).param());
+        assertEquals("size", catalogo.apply(query("size=0")).param());
+        assertEquals("page", catalogo.apply(query("page=1&page=2")).param());
+    }
+
+    @Test
+    @DisplayName("URLs equivalentes producen la misma query canónica")
+    void canonizaQuery() {
+        String a = catalogo.apply(query("size=12&page=007&asc=TRUE&sort=titulo")).canonicalQuery();
+        String b = catalogo.apply(query("asc=true&page=7&size=12&sort=titulo")).canonicalQuery();
+
+        assertEquals("asc=true&page=7&size=12&sort=titulo", a);
+        assertEquals(a, b);
+    }
+
+    @Test
+    @DisplayName("params no declarados pasan salvo reject-unknown")
+    void paramsDesconocidos() {
+        assertTrue(catalogo.apply(query("genero=accion&page=0")).valid());
+        assertEquals("asc=true&genero=accion&page=0&zona=sur",
+                catalogo.apply(query("zona=sur&page=0&genero=accion&asc=true")).canonicalQuery());
+
+        CompiledQueryContract estricto = new CompiledQueryContract(new RouteContract(true,
+                List.of(new ParamSpec("page", ParamType.INT, true, null, null, null, null))));
+        assertEquals("genero", estricto.apply(query("genero=accion&page=0")).param());
+        assertEquals("page", estricto.apply(query("")).param());
+    }
+
+    @Test
+    @DisplayName("los valores decodificados vuelven a codificarse sin perder +, &, = ni %")
+    void roundTripDeCaracteresReservados() {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("q", "c++ & a=b 100%");
+        params.add("sort", "+titulo");
+
+        String canonical = catalogo.apply(params).canonicalQuery();
+
+        assertEquals("q=c%2B%2B%20%26%20a%3Db%20100%25&sort=%2Btitulo", canonical);
+        MultiValueMap<String, String> decoded = UriComponentsBuilder.fromUriString("/x?" + canonical)
+                .build(true).getQueryParams();
+        assertEquals("c++ & a=b 100%", UriUtils.decode(decoded.getFirst("q"), StandardCharsets.UTF_8));
+        assertEquals("+titulo", UriUtils.decode(decoded.getFirst("sort"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("el 400 usa el código configurado para el param")
+    void codigoDeError() {
+        CompiledQueryContract contrato = new CompiledQueryContract(new RouteContract(false, List.of(
+                new ParamSpec("page", ParamType.INT, false, 0L, null, null, "INVALID_PAGE"),
+                new ParamSpec("sort", ParamType.STRING, false, null, null, null, null))));
+
+        assertEquals("INVALID_PAGE", contrato.apply(query("page=-1")).code());
+        assertEquals(CompiledQueryContract.DEFAULT_CODE, contrato.apply(query("sort=a&sort=b")).code());
+    }
+}
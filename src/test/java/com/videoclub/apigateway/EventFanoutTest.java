@@ -0,0 +1,197 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.balancer.LoadBalancerProperties;
+import com.videoclub.apigateway.balancer.ServiceRegistry;
+import com.videoclub.apigateway.events.EventFanout;
+import com.videoclub.apigateway.events.EventStreamProperties;
+import com.videoclub.apigateway.events.TopicHub;
+import com.videoclub.apigateway.health.HealthCheckProperties;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventFanoutTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final Timer fanout = Timer.builder("gateway.sse.fanout").register(meters);
+
+    /** Cliente que pide de a {@code request} eventos y anota lo recibido. */
+    private static final class Client extends BaseSubscriber<ServerSentEvent<String>> {
+
+        final List<ServerSentEvent<String>> received = new CopyOnWriteArrayList<>();
+        final AtomicBoolean completed = new AtomicBoolean();
+        private final long request;
+
+        Client(long request) {
+            this.request = request;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            request(request);
+        }
+
+        @Override
+        protected void hookOnNext(ServerSentEvent<String> event) {
+            received.add(event);
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            completed.set(true);
+        }
+    }
+
+    @Test
+    @DisplayName("cada evento llega a todos los clientes y se mide su reparto")
+    void repartoATodos() {
+        TopicHub hub = new TopicHub("peliculas", 16, fanout);
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            Client client = new Client(Long.MAX_VALUE);
+            hub.subscribe(null).subscribe(client);
+            clients.add(client);
+        }
+        assertEquals(2_000, hub.connections());
+
+        hub.publish("cambio", null);
+        hub.publish("cambio", "{\"id\":7}");
+        hub.heartbeat();
+
+        for (Client client : clients) {
+            assertEquals(3, client.received.size());
+            assertEquals("1", client.received.get(0).id());
+            assertEquals("{\"topic\":\"peliculas\",\"version\":1}", client.received.get(0).data());
+            assertEquals("{\"id\":7}", client.received.get(1).data());
+            assertEquals("keepalive", client.received.get(2).comment());
+        }
+        assertEquals(4_000, fanout.count());
+        assertEquals(2, hub.published());
+
+        clients.get(0).dispose();
+        assertEquals(1_999, hub.connections());
+        hub.closeAll();
+        assertTrue(clients.get(1).completed.get());
+        assertEquals(0, hub.connections());
+        assertEquals(0, hub.dropped());
+    }
+
+    @Test
+    @DisplayName("un cliente que no lee se desconecta al llenar su cola sin frenar al resto")
+    void clienteLentoSeDescarta() {
+        TopicHub hub = new TopicHub("peliculas", 8, fanout);
+        Client slow = new Client(1);
+        Client fast = new Client(Long.MAX_VALUE);
+        hub.subscribe(null).subscribe(slow);
+        hub.subscribe(null).subscribe(fast);
+
+        for (int i = 0; i < 20; i++)
+            hub.publish("cambio", null);
+
+        assertEquals(20, fast.received.size());
+        assertTrue(slow.completed.get());
+        assertEquals(1, slow.received.size());
+        assertEquals(1, hub.dropped());
+        assertEquals(1, hub.connections());
+    }
+
+    @Test
+    @DisplayName("un cliente nuevo recibe el último evento salvo que Last-Event-ID diga que ya lo tiene")
+    void ultimoEventoAlConectar() {
+        TopicHub hub = new TopicHub("peliculas", 8, fanout);
+        hub.publish("cambio", null);
+        hub.publish("cambio", null);
+
+        Client fresh = new Client(Long.MAX_VALUE);
+        hub.subscribe(null).subscribe(fresh);
+        assertEquals(1, fresh.received.size());
+        assertEquals("2", fresh.received.get(0).id());
+        assertEquals(0, fanout.count(), "el evento repetido al conectar no cuenta como reparto");
+
+        Client resumed = new Client(Long.MAX_VALUE);
+        hub.subscribe("2").subscribe(resumed);
+        assertTrue(resumed.received.isEmpty());
+    }
+
+    @Test
+    @DisplayName("el cliente se registra al suscribirse: un flujo nunca suscrito no queda conectado")
+    void registroAlSuscribirse() {
+        TopicHub hub = new TopicHub("peliculas", 8, fanout);
+        Flux<ServerSentEvent<String>> pending = hub.subscribe(null);
+        hub.publish("cambio", null);
+        assertEquals(0, hub.connections());
+
+        Client client = new Client(Long.MAX_VALUE);
+        pending.subscribe(client);
+        assertEquals(1, hub.connections());
+        assertEquals("1", client.received.get(0).id());
+        client.dispose();
+        assertEquals(0, hub.connections());
+    }
+
+    @Test
+    @DisplayName("el poll publica solo cuando cambia el cuerpo, revalida con If-None-Match y limita conexiones")
+    void pollConEtag() throws Exception {
+        try (MockWebServer backend = new MockWebServer()) {
+            backend.enqueue(new MockResponse().setHeader("ETag", "\"v1\"").setBody("[1]"));
+            backend.enqueue(new MockResponse().setResponseCode(304));
+            backend.enqueue(new MockResponse().setHeader("ETag", "\"v2\"").setBody("[1,2]"));
+            backend.enqueue(new MockResponse().setBody("[1,2]"));
+            backend.enqueue(new MockResponse().setResponseCode(503));
+            backend.start();
+
+            ServiceRegistry registry = new ServiceRegistry(new LoadBalancerProperties(0.3, Map.of(
+                    "catalogo-backend", new LoadBalancerProperties.Service(
+                            List.of(backend.url("/").toString())))),
+                    new HealthCheckProperties(true, "/actuator/health", Duration.ofSeconds(10),
+                            Duration.ofSeconds(2), 2, 1, 5, Duration.ofSeconds(30), 50),
+                    meters);
+            EventStreamProperties properties = new EventStreamProperties(true, "/api/eventos", 1, 8,
+                    Duration.ofSeconds(15), Map.of("peliculas", new EventStreamProperties.Topic("catalogo-backend",
+                            EventStreamProperties.Mode.POLL, "/peliculas?page=0", Duration.ofSeconds(5),
+                            Duration.ofSeconds(2), true)));
+            EventFanout events = new EventFanout(properties, registry, WebClient.create(),
+                    topic -> new TopicHub(topic, properties.clientBuffer(), fanout));
+            TopicHub hub = events.hub("peliculas");
+
+            Client client = new Client(Long.MAX_VALUE);
+            events.connect(hub, null).subscribe(client);
+            assertNull(events.connect(hub, null));
+            assertEquals(1, events.rejected());
+
+            for (int i = 0; i < 5; i++)
+                events.poll("peliculas").block(Duration.ofSeconds(5));
+
+            assertEquals("/peliculas?page=0", backend.takeRequest(1, TimeUnit.SECONDS).getPath());
+            assertEquals("\"v1\"", backend.takeRequest(1, TimeUnit.SECONDS).getHeader("If-None-Match"));
+            assertEquals(2, hub.published());
+            assertEquals(List.of("[1]", "[1,2]"), client.received.stream().map(ServerSentEvent::data).toList());
+            assertEquals(1, events.upstreamErrors("peliculas"));
+
+            client.dispose();
+            assertEquals(0, events.connections());
+            assertFalse(client.completed.get());
+        }
+    }
+}
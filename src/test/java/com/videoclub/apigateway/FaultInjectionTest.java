@@ -0,0 +1,166 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.fault.FaultInjectionProperties;
+import com.videoclub.apigateway.fault.FaultInjector;
+import com.videoclub.apigateway.filter.FaultInjectionGlobalFilter;
+import com.videoclub.apigateway.filter.FaultThrottleGlobalFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FaultInjectionTest {
+
+    private static final FaultInjectionProperties.Latency NO_LATENCY = latency(0,
+            FaultInjectionProperties.Distribution.FIXED, 100, 1000);
+    private static final FaultInjectionProperties.ErrorResponse NO_ERROR =
+            new FaultInjectionProperties.ErrorResponse(0, 503);
+    private static final FaultInjectionProperties.Abort NO_ABORT = new FaultInjectionProperties.Abort(0);
+    private static final FaultInjectionProperties.Throttle NO_THROTTLE =
+            new FaultInjectionProperties.Throttle(0, DataSize.ofKilobytes(64));
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final FaultInjector injector = new FaultInjector(
+            new FaultInjectionProperties(true, "admin", Map.of()), meters);
+    private final FaultInjectionGlobalFilter filter = new FaultInjectionGlobalFilter(injector);
+
+    private static FaultInjectionProperties.Latency latency(double percent,
+            FaultInjectionProperties.Distribution distribution, long medianMillis, long p99Millis) {
+        return new FaultInjectionProperties.Latency(percent, distribution, Duration.ZERO,
+                Duration.ofMillis(medianMillis), Duration.ofMillis(p99Millis), Duration.ofSeconds(30));
+    }
+
+    private static MockServerWebExchange exchange(String routeId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/descuentos/1"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id(routeId).uri("lb://descuentos-service").predicate(e -> true).build());
+        return exchange;
+    }
+
+    private double injected(String kind) {
+        return meters.get("gateway.faults.injected").tag("route", "descuentos").tag("kind", kind)
+                .functionCounter().count();
+    }
+
+    @Test
+    @DisplayName("la latencia log-normal respeta mediana y p99; los parámetros inválidos se rechazan")
+    void distribucion() {
+        FaultInjectionProperties.Latency lognormal = latency(100,
+                FaultInjectionProperties.Distribution.LOGNORMAL, 50, 800);
+        Random random = new Random(42);
+        long[] samples = new long[20_000];
+        for (int i = 0; i < samples.length; i++)
+            samples[i] = lognormal.sample(random).toMillis();
+        Arrays.sort(samples);
+        long median = samples[samples.length / 2];
+        long p99 = samples[(int) (samples.length * 0.99)];
+        assertTrue(median >= 45 && median <= 55, "mediana " + median);
+        assertTrue(p99 >= 650 && p99 <= 950, "p99 " + p99);
+
+        FaultInjectionProperties.Latency uniform = new FaultInjectionProperties.Latency(100,
+                FaultInjectionProperties.Distribution.UNIFORM, Duration.ofMillis(10), Duration.ZERO,
+                Duration.ZERO, Duration.ofMillis(20));
+        for (int i = 0; i < 1000; i++) {
+            long ms = uniform.sample(random).toMillis();
+            assertTrue(ms >= 10 && ms <= 20, "uniforme " + ms);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> latency(101,
+                FaultInjectionProperties.Distribution.FIXED, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> latency(10,
+                FaultInjectionProperties.Distribution.LOGNORMAL, 500, 100));
+        assertThrows(IllegalArgumentException.class, () -> new FaultInjectionProperties.ErrorResponse(5, 200));
+    }
+
+    @Test
+    @DisplayName("un error inyectado responde sin llamar al backend; un aborto termina en error de red")
+    void errorYAborto() {
+        AtomicBoolean upstream = new AtomicBoolean();
+        GatewayFilterChain chain = e -> Mono.fromRunnable(() -> upstream.set(true));
+
+        MockServerWebExchange sinFallas = exchange("catalogo");
+        filter.filter(sinFallas, chain).block();
+        assertTrue(upstream.getAndSet(false));
+
+        injector.set("descuentos", new FaultInjectionProperties.Faults(NO_LATENCY,
+                new FaultInjectionProperties.ErrorResponse(100, 502), NO_ABORT, NO_THROTTLE));
+        MockServerWebExchange error = exchange("descuentos");
+        filter.filter(error, chain).block();
+        assertFalse(upstream.get());
+        assertEquals(HttpStatus.BAD_GATEWAY, error.getResponse().getStatusCode());
+        assertTrue(error.getResponse().getBodyAsString().block().contains("\"code\":\"FAULT_INJECTED\""));
+        assertEquals(1, injected("error"));
+
+        injector.set("descuentos", new FaultInjectionProperties.Faults(NO_LATENCY, NO_ERROR,
+                new FaultInjectionProperties.Abort(100), NO_THROTTLE));
+        Throwable aborted = filter.filter(exchange("descuentos"), chain)
+                .then(Mono.<Throwable>empty()).onErrorResume(Mono::just).block();
+        assertInstanceOf(IOException.class, aborted);
+        assertFalse(upstream.get());
+        assertEquals(1, injected("abort"));
+
+        assertTrue(injector.clear("descuentos"));
+        assertFalse(injector.clear("descuentos"));
+        filter.filter(exchange("descuentos"), chain).block();
+        assertTrue(upstream.get());
+        assertEquals(false, ((Map<?, ?>) injector.report().get("descuentos")).get("active"));
+    }
+
+    @Test
+    @DisplayName("la latencia inyectada demora la llamada al backend")
+    void latencia() {
+        injector.set("descuentos", new FaultInjectionProperties.Faults(
+                latency(100, FaultInjectionProperties.Distribution.FIXED, 200, 200), NO_ERROR, NO_ABORT, NO_THROTTLE));
+        AtomicBoolean upstream = new AtomicBoolean();
+        long start = System.nanoTime();
+        filter.filter(exchange("descuentos"), e -> Mono.fromRunnable(() -> upstream.set(true)))
+                .block(Duration.ofSeconds(2));
+        long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        assertTrue(upstream.get());
+        assertTrue(elapsed >= 190, "demora " + elapsed);
+        assertEquals(1, injected("latency"));
+    }
+
+    @Test
+    @DisplayName("el throttle entrega el cuerpo completo a la velocidad configurada")
+    void throttle() {
+        injector.set("descuentos", new FaultInjectionProperties.Faults(NO_LATENCY, NO_ERROR, NO_ABORT,
+                new FaultInjectionProperties.Throttle(100, DataSize.ofKilobytes(20))));
+        FaultThrottleGlobalFilter throttle = new FaultThrottleGlobalFilter(injector);
+        MockServerWebExchange exchange = exchange("descuentos");
+        byte[] chunk = new byte[1024];
+        Arrays.fill(chunk, (byte) 'x');
+
+        long start = System.nanoTime();
+        throttle.filter(exchange, e -> e.getResponse().writeWith(Flux.range(0, 4)
+                .map(i -> e.getResponse().bufferFactory().wrap(chunk.clone()))))
+                .block(Duration.ofSeconds(2));
+        long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        // 4 KB a 20 KB/s: 200 ms
+        assertTrue(elapsed >= 180, "demora " + elapsed);
+        assertEquals(4096, exchange.getResponse().getBodyAsString().block().length());
+        assertEquals(1, injected("throttle"));
+    }
+}
@@ -4,7 +4,6 @@ import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterAll;
-import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,7 +19,9 @@ import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// Sin warmup: sus peticiones sintéticas consumirían las respuestas encoladas en MockWebServer
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "videoclub.gateway.warmup.enabled=false")
 @AutoConfigureWebTestClient
 class GatewayCatalogE2EContractTest {
 
@@ -66,16 +67,6 @@ class GatewayCatalogE2EContractTest {
         }
     }
 
-    @BeforeAll
-    static void beforeAll(@Autowired MockWebServer mockWebServer) {
-        // ensure MockWebServer queue is empty
-        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
-        try {
-            mockWebServer.takeRequest();
-        } catch (InterruptedException ignored) {
-        }
-    }
-
     @AfterAll
     static void afterAll(@Autowired MockWebServer mockWebServer) throws Exception {
         mockWebServer.shutdown();
@@ -139,14 +130,8 @@ class GatewayCatalogE2EContractTest {
     @Test
     @DisplayName("publicCatalog_invalidPaging_returns400WithStableShape")
     void publicCatalog_invalidPaging_returns400WithStableShape(@Autowired MockWebServer mockWebServer) {
-        String errorJson = "{\"code\":\"INVALID_PAGE\",\"message\":\"Page index must not be negative\",\"details\":null}";
-
-        MockWebServer server = mockWebServer;
-        server.enqueue(new MockResponse()
-                .setResponseCode(400)
-                .setHeader("Content-Type", "application/json")
-                .setBody(errorJson));
-
+        // El contrato de query params responde en el gateway, sin llegar al backend,
+        // con el mismo código que devolvía catalogo-backend (query-contracts code)
         webTestClient.get()
                 .uri("/api/peliculas?page=-1&size=0")
                 .exchange()
@@ -11,7 +11,7 @@ import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@SpringBootTest
+@SpringBootTest(properties = "videoclub.gateway.warmup.enabled=false")
 public class GatewayRoutingContractTest {
 
         @Autowired
@@ -0,0 +1,95 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.balancer.LoadBalancerProperties;
+import com.videoclub.apigateway.balancer.ServiceRegistry;
+import com.videoclub.apigateway.health.GatewayWarmup;
+import com.videoclub.apigateway.health.HealthCheckProperties;
+import com.videoclub.apigateway.health.WarmupProperties;
+import com.videoclub.apigateway.health.WarmupReadinessStateHealthIndicator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.availability.ApplicationAvailabilityBean;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GatewayWarmupTest {
+
+    private static Route route(String id, String uri) {
+        return Route.async().id(id).uri(uri).predicate(exchange -> true).build();
+    }
+
+    private static GatewayWarmup warmup(AtomicInteger decodes) {
+        RouteLocator routes = () -> Flux.just(route("catalogo", "lb://catalogo-backend"),
+                route("keycloak", "http://127.0.0.1:1/realms"), route("local", "forward:/fallback"));
+        ServiceRegistry registry = new ServiceRegistry(new LoadBalancerProperties(0.3,
+                Map.of("catalogo-backend", new LoadBalancerProperties.Service(
+                        List.of("http://127.0.0.1:1", "http://127.0.0.1:2")))),
+                new HealthCheckProperties(true, "/actuator/health", Duration.ofSeconds(10), Duration.ofSeconds(2),
+                        2, 1, 5, Duration.ofSeconds(30), 50),
+                new SimpleMeterRegistry());
+        WarmupProperties properties = new WarmupProperties(true, 2, "/actuator/health", List.of(), 10, 2, 0.1, 3,
+                5, Duration.ofMillis(500), Duration.ofSeconds(10));
+        return new GatewayWarmup(properties, routes, registry, HttpClient.create(), token -> {
+            decodes.incrementAndGet();
+            return Mono.error(new BadJwtException("kid desconocido"));
+        });
+    }
+
+    @Test
+    @DisplayName("las rutas lb:// se expanden a sus instancias y se ignoran los esquemas no HTTP")
+    void destinosDelPreconnect() {
+        assertEquals(List.of(URI.create("http://127.0.0.1:1"), URI.create("http://127.0.0.1:2")),
+                warmup(new AtomicInteger()).targets());
+    }
+
+    @Test
+    @DisplayName("readiness queda fuera de servicio hasta que termina el calentamiento, aunque fallen los backends")
+    void readinessEsperaAlCalentamiento() throws Exception {
+        AtomicInteger decodes = new AtomicInteger();
+        GatewayWarmup warmup = warmup(decodes);
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.refresh();
+        ApplicationAvailabilityBean availability = new ApplicationAvailabilityBean();
+        availability.onApplicationEvent(new AvailabilityChangeEvent<>(this, ReadinessState.ACCEPTING_TRAFFIC));
+        WarmupReadinessStateHealthIndicator readiness = new WarmupReadinessStateHealthIndicator(availability, warmup);
+
+        assertEquals(Status.OUT_OF_SERVICE, readiness.health().getStatus());
+
+        warmup.onApplicationEvent(new ApplicationReadyEvent(new SpringApplication(),
+                new String[0], context, Duration.ZERO));
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!warmup.finished() && System.nanoTime() < deadline)
+            Thread.sleep(20);
+
+        Health health = readiness.health();
+        assertEquals(Status.UP, health.getStatus());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> report = (Map<String, Object>) health.getDetails().get("warmup");
+        assertEquals("DONE", report.get("phase"));
+        assertEquals("0/4", report.get("connections"));
+        assertEquals("loaded", report.get("jwks"));
+        assertTrue((Long) report.get("durationMs") >= 0);
+        assertEquals(1, decodes.get());
+    }
+}
@@ -0,0 +1,103 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.filter.DrainWebFilter;
+import com.videoclub.apigateway.health.DrainProperties;
+import com.videoclub.apigateway.health.GracefulDrain;
+import com.videoclub.apigateway.health.InFlightExchanges;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GracefulDrainTest {
+
+    private final InFlightExchanges inFlight = new InFlightExchanges();
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+
+    private GracefulDrain drain(Duration timeout) {
+        GracefulDrain drain = new GracefulDrain(
+                new DrainProperties(true, Duration.ofMillis(100), timeout, Duration.ofSeconds(1)), inFlight,
+                events::add);
+        drain.start();
+        return drain;
+    }
+
+    /** Intercambio de la ruta indicada cuya respuesta se completa al emitir en el sink. */
+    private static MockServerWebExchange exchange(String routeId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/ventas"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id(routeId).uri("http://localhost").predicate(e -> true).build());
+        return exchange;
+    }
+
+    private static Mono<Void> respond(MockServerWebExchange exchange, Sinks.Empty<Void> done) {
+        return done.asMono().then(Mono.defer(() -> exchange.getResponse().setComplete()));
+    }
+
+    @Test
+    @DisplayName("readiness baja primero y el apagado espera a las peticiones en vuelo, que salen con Connection: close")
+    void esperaEnVueloYCierraKeepAlive() throws Exception {
+        GracefulDrain drain = drain(Duration.ofSeconds(5));
+        DrainWebFilter filter = new DrainWebFilter(drain, inFlight);
+        MockServerWebExchange before = exchange("ventas-carrito-confirmar");
+        Sinks.Empty<Void> done = Sinks.empty();
+        filter.filter(before, e -> respond(before, done)).subscribe();
+        assertEquals(Map.of("ventas-carrito-confirmar", 1), inFlight.byRoute());
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        drain.stop(stopped::countDown);
+        Thread.sleep(30);
+        assertTrue(drain.draining());
+        assertEquals(GracefulDrain.Stage.READINESS_DOWN, drain.stage());
+        assertEquals(ReadinessState.REFUSING_TRAFFIC, ((AvailabilityChangeEvent<?>) events.get(0)).getState());
+
+        Thread.sleep(200);
+        assertEquals(GracefulDrain.Stage.NOT_ACCEPTING, drain.stage());
+        assertEquals(1, stopped.getCount());
+
+        done.tryEmitEmpty();
+        assertTrue(stopped.await(2, TimeUnit.SECONDS));
+        assertEquals(GracefulDrain.Stage.DONE, drain.stage());
+        assertEquals("close", before.getResponse().getHeaders().getFirst(HttpHeaders.CONNECTION));
+        assertEquals(0, inFlight.total());
+        assertEquals(Map.of(), drain.report().get("cutOff"));
+        assertFalse(drain.isRunning());
+    }
+
+    @Test
+    @DisplayName("al vencer el plazo se informan por ruta las peticiones que se cortan")
+    void vencePlazoInformaCortadas() throws Exception {
+        GracefulDrain drain = drain(Duration.ofMillis(100));
+        DrainWebFilter filter = new DrainWebFilter(drain, inFlight);
+        MockServerWebExchange idle = exchange("catalogo");
+        filter.filter(idle, e -> idle.getResponse().setComplete()).block();
+        assertNull(idle.getResponse().getHeaders().getFirst(HttpHeaders.CONNECTION));
+
+        MockServerWebExchange slow = exchange("ventas-carrito-confirmar");
+        filter.filter(slow, e -> respond(slow, Sinks.empty())).subscribe();
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        drain.stop(stopped::countDown);
+        assertTrue(stopped.await(2, TimeUnit.SECONDS));
+        assertEquals(Map.of("ventas-carrito-confirmar", 1), drain.report().get("cutOff"));
+    }
+}
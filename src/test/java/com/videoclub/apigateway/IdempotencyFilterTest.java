@@ -0,0 +1,116 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.filter.IdempotencyGlobalFilter;
+import com.videoclub.apigateway.idempotency.IdempotencyProperties;
+import com.videoclub.apigateway.idempotency.IdempotencyStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.util.unit.DataSize;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IdempotencyFilterTest {
+
+    private static final String PATH = "/api/carrito/confirmar";
+
+    private final IdempotencyProperties properties = new IdempotencyProperties(true, "Idempotency-Key",
+            Set.of("ventas-carrito"), 100, Duration.ofHours(1), DataSize.ofBytes(64), Duration.ofSeconds(5), 255);
+    private final IdempotencyStore store = new IdempotencyStore(100);
+    private final IdempotencyGlobalFilter filter = new IdempotencyGlobalFilter(store, properties);
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private static MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post(PATH)
+                .header("Idempotency-Key", "k-1")
+                .body("{\"carrito\":7}"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id("ventas-carrito").uri("lb://ventas-service").predicate(e -> true).build());
+        return exchange;
+    }
+
+    private Mono<Void> run(MockServerWebExchange exchange, GatewayFilterChain chain) {
+        Jwt jwt = Jwt.withTokenValue("t").header("alg", "none").subject("ana")
+                .issuedAt(Instant.now()).expiresAt(Instant.now().plusSeconds(60)).build();
+        return filter.filter(exchange, chain)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(new JwtAuthenticationToken(jwt)));
+    }
+
+    /** Backend que tarda en responder; routedAfter indica cuándo la petición sale del gateway. */
+    private GatewayFilterChain backend(Duration routedAfter, Duration respondAfter, String body) {
+        return exchange -> Mono.delay(routedAfter)
+                .doOnNext(tick -> {
+                    ServerWebExchangeUtils.setAlreadyRouted(exchange);
+                    upstreamCalls.incrementAndGet();
+                })
+                .then(Mono.delay(respondAfter))
+                .then(Mono.defer(() -> {
+                    exchange.getResponse().setStatusCode(HttpStatus.CREATED);
+                    return exchange.getResponse().writeWith(Flux.just(body, "")
+                            .map(part -> exchange.getResponse().bufferFactory()
+                                    .wrap(part.getBytes(StandardCharsets.UTF_8))));
+                }));
+    }
+
+    @Test
+    @DisplayName("si el cliente cancela después de rutear, el reintento recibe la respuesta sin repetir la compra")
+    void cancelacionYReintento() {
+        Disposable first = run(exchange(), backend(Duration.ZERO, Duration.ofMillis(500), "{\"compra\":1}"))
+                .subscribe();
+        Mono.delay(Duration.ofMillis(100)).block();
+        first.dispose();
+
+        MockServerWebExchange retry = exchange();
+        run(retry, backend(Duration.ZERO, Duration.ZERO, "{\"compra\":2}")).block(Duration.ofSeconds(5));
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(HttpStatus.CREATED, retry.getResponse().getStatusCode());
+        assertEquals("true", retry.getResponse().getHeaders().getFirst(IdempotencyGlobalFilter.REPLAYED_HEADER));
+        assertEquals("{\"compra\":1}", retry.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    @DisplayName("si el cliente cancela antes de rutear, la clave se libera y el reintento ejecuta la compra")
+    void cancelacionAntesDeRutear() {
+        Disposable first = run(exchange(), backend(Duration.ofSeconds(2), Duration.ZERO, "{\"compra\":1}"))
+                .subscribe();
+        Mono.delay(Duration.ofMillis(100)).block();
+        first.dispose();
+
+        MockServerWebExchange retry = exchange();
+        run(retry, backend(Duration.ZERO, Duration.ZERO, "{\"compra\":2}")).block(Duration.ofSeconds(5));
+
+        assertEquals(1, upstreamCalls.get());
+        assertNull(retry.getResponse().getHeaders().getFirst(IdempotencyGlobalFilter.REPLAYED_HEADER));
+        assertEquals("{\"compra\":2}", retry.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    @DisplayName("una respuesta de más de max-body-size llega completa sin grabarse")
+    void respuestaGrande() {
+        String large = "x".repeat(200);
+        MockServerWebExchange exchange = exchange();
+        run(exchange, backend(Duration.ZERO, Duration.ZERO, large)).block(Duration.ofSeconds(5));
+
+        assertEquals(large, exchange.getResponse().getBodyAsString().block());
+        assertEquals(0, store.size());
+    }
+}
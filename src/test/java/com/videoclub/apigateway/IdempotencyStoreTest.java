@@ -0,0 +1,125 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.cache.CachedResponse;
+import com.videoclub.apigateway.idempotency.IdempotencyStore;
+import com.videoclub.apigateway.idempotency.IdempotencyStore.Completed;
+import com.videoclub.apigateway.idempotency.IdempotencyStore.InFlight;
+import com.videoclub.apigateway.idempotency.IdempotencyStore.Mismatch;
+import com.videoclub.apigateway.idempotency.IdempotencyStore.Owner;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTest {
+
+    private static final long NOW = 1_000_000;
+
+    private static CachedResponse response(int status, String body) {
+        return new CachedResponse(status, Map.of(), body.getBytes(StandardCharsets.UTF_8), NOW, NOW + 60_000,
+                NOW + 60_000);
+    }
+
+    @Test
+    @DisplayName("un duplicado en curso se engancha y los posteriores reciben el replay")
+    void enganchaYRepite() {
+        IdempotencyStore store = new IdempotencyStore(100);
+        Owner owner = assertInstanceOf(Owner.class, store.begin("u1|/api/compras|k1", "h", NOW));
+        InFlight attached = assertInstanceOf(InFlight.class, store.begin("u1|/api/compras|k1", "h", NOW));
+
+        CachedResponse created = response(201, "{\"compra\":1}");
+        store.complete(owner.entry(), created, true);
+
+        assertEquals(created, attached.response().block());
+        Completed later = assertInstanceOf(Completed.class, store.begin("u1|/api/compras|k1", "h", NOW + 1));
+        assertEquals(201, later.response().status());
+        assertEquals(1, store.attached());
+        assertEquals(1, store.replayed());
+    }
+
+    @Test
+    @DisplayName("un 5xx llega a los enganchados pero no se guarda; un abandono libera la clave")
+    void fallasNoSeGuardan() {
+        IdempotencyStore store = new IdempotencyStore(100);
+        Owner owner = assertInstanceOf(Owner.class, store.begin("k", "h", NOW));
+        InFlight attached = assertInstanceOf(InFlight.class, store.begin("k", "h", NOW));
+        store.complete(owner.entry(), response(503, ""), false);
+
+        assertEquals(503, attached.response().block().status());
+        Owner retry = assertInstanceOf(Owner.class, store.begin("k", "h", NOW));
+
+        InFlight waiting = assertInstanceOf(InFlight.class, store.begin("k", "h", NOW));
+        store.abandon(retry.entry());
+        assertNull(waiting.response().block());
+        assertInstanceOf(Owner.class, store.begin("k", "h", NOW));
+    }
+
+    @Test
+    @DisplayName("las respuestas vencidas y las más viejas fuera del límite se olvidan")
+    void acotado() {
+        IdempotencyStore store = new IdempotencyStore(2);
+        for (String key : new String[] { "a", "b", "c" }) {
+            Owner owner = (Owner) store.begin(key, "h", NOW);
+            store.complete(owner.entry(), response(200, key), true);
+        }
+        assertEquals(2, store.size());
+        assertInstanceOf(Owner.class, store.begin("a", "h", NOW));
+        assertInstanceOf(Owner.class, store.begin("c", "h", NOW + 60_000));
+    }
+
+    @Test
+    @DisplayName("la misma clave con otra petición se rechaza, en curso o completada")
+    void huellaDistinta() {
+        IdempotencyStore store = new IdempotencyStore(100);
+        Owner owner = assertInstanceOf(Owner.class, store.begin("u1|k1", "compra-7", NOW));
+        assertInstanceOf(Mismatch.class, store.begin("u1|k1", "compra-8", NOW));
+
+        store.complete(owner.entry(), response(201, "{\"compra\":7}"), true);
+        assertInstanceOf(Mismatch.class, store.begin("u1|k1", "compra-8", NOW + 1));
+        assertInstanceOf(Completed.class, store.begin("u1|k1", "compra-7", NOW + 1));
+        assertEquals(2, store.mismatched());
+        // Vencida la retención la clave queda libre para otra petición
+        assertInstanceOf(Owner.class, store.begin("u1|k1", "compra-8", NOW + 60_000));
+    }
+
+    @Test
+    @DisplayName("el límite nunca desaloja peticiones en curso")
+    void noDesalojaEnCurso() {
+        IdempotencyStore store = new IdempotencyStore(2);
+        Owner first = assertInstanceOf(Owner.class, store.begin("a", "h", NOW));
+        assertInstanceOf(Owner.class, store.begin("b", "h", NOW));
+        assertInstanceOf(Owner.class, store.begin("c", "h", NOW));
+        assertEquals(3, store.size());
+        assertInstanceOf(InFlight.class, store.begin("a", "h", NOW));
+
+        store.complete(first.entry(), response(200, "a"), true);
+        assertInstanceOf(Owner.class, store.begin("d", "h", NOW));
+        // Se desaloja la completada; las tres en curso siguen
+        assertInstanceOf(Owner.class, store.begin("a", "h", NOW));
+    }
+
+    @Test
+    @DisplayName("si la original se abandona, uno solo de los enganchados pasa a ser el dueño")
+    void abandonoPasaAUnSoloDuenio() {
+        IdempotencyStore store = new IdempotencyStore(100);
+        Owner owner = assertInstanceOf(Owner.class, store.begin("k", "h", NOW));
+        InFlight first = assertInstanceOf(InFlight.class, store.begin("k", "h", NOW));
+        InFlight second = assertInstanceOf(InFlight.class, store.begin("k", "h", NOW));
+        store.abandon(owner.entry());
+
+        assertNull(first.response().block());
+        assertNull(second.response().block());
+        // Ambos vuelven a pedir la clave: uno ejecuta y el otro se engancha
+        Owner next = assertInstanceOf(Owner.class, store.begin("k", "h", NOW));
+        InFlight waiting = assertInstanceOf(InFlight.class, store.begin("k", "h", NOW));
+        store.complete(next.entry(), response(201, "{}"), true);
+        assertEquals(201, waiting.response().block().status());
+        assertTrue(store.attached() >= 3);
+    }
+}
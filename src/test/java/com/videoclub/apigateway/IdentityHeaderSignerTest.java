@@ -0,0 +1,101 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.security.IdentityHeaderSigner;
+import com.videoclub.apigateway.security.IdentityHeaderVerifier;
+import com.videoclub.apigateway.security.IdentityRelayProperties;
+import com.videoclub.apigateway.security.IdentityRelayProperties.RelayMode;
+import com.videoclub.apigateway.security.IdentityRelayProperties.RouteIdentity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdentityHeaderSignerTest {
+
+    private static final String SECRET = "clave-de-prueba-ventas-0123456789abcdef";
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+    private final IdentityRelayProperties properties = new IdentityRelayProperties("X-Identity",
+            Duration.ofSeconds(30), Map.of("ventas", SECRET),
+            Map.of("ventas-compras", new RouteIdentity(RelayMode.IDENTITY, "ventas")));
+
+    private final IdentityHeaderSigner signer = new IdentityHeaderSigner(properties,
+            Clock.fixed(NOW, ZoneOffset.UTC));
+
+    private Jwt jwt(Instant exp) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("user-1")
+                .claim("realm_access", Map.of("roles", List.of("cliente", "admin")))
+                .issuedAt(NOW.minusSeconds(10))
+                .expiresAt(exp)
+                .build();
+    }
+
+    @Test
+    @DisplayName("el header firmado se verifica con la clave de la ruta")
+    void firmaYVerifica() {
+        String header = signer.sign("ventas-compras", jwt(NOW.plusSeconds(300)));
+
+        var verifier = new IdentityHeaderVerifier(Map.of("ventas", SECRET), Clock.fixed(NOW, ZoneOffset.UTC));
+        var identity = verifier.verify(header, "ventas-compras").orElseThrow();
+
+        assertEquals("user-1", identity.subject());
+        assertEquals(List.of("cliente", "admin"), identity.roles());
+        assertEquals(NOW.plusSeconds(30).getEpochSecond(), identity.expiresAt());
+    }
+
+    @Test
+    @DisplayName("el header vence con el JWT o con max-ttl, lo que ocurra primero")
+    void protegeContraReplay() {
+        String header = signer.sign("ventas-compras", jwt(NOW.plusSeconds(5)));
+
+        var enSegundos = new IdentityHeaderVerifier(Map.of("ventas", SECRET),
+                Clock.fixed(NOW.plusSeconds(4), ZoneOffset.UTC));
+        var vencido = new IdentityHeaderVerifier(Map.of("ventas", SECRET),
+                Clock.fixed(NOW.plusSeconds(5), ZoneOffset.UTC));
+
+        assertTrue(enSegundos.verify(header, "ventas-compras").isPresent());
+        assertTrue(vencido.verify(header, "ventas-compras").isEmpty());
+    }
+
+    @Test
+    @DisplayName("firma alterada, otra clave u otra ruta se rechazan")
+    void rechazaManipulacion() {
+        String header = signer.sign("ventas-compras", jwt(NOW.plusSeconds(300)));
+        var verifier = new IdentityHeaderVerifier(Map.of("ventas", SECRET), Clock.fixed(NOW, ZoneOffset.UTC));
+        var otraClave = new IdentityHeaderVerifier(Map.of("ventas", SECRET + "x"), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        String alterado = header.substring(0, header.length() - 2) + (header.endsWith("A") ? "BB" : "AA");
+
+        assertTrue(verifier.verify(alterado, "ventas-compras").isEmpty());
+        assertTrue(otraClave.verify(header, "ventas-compras").isEmpty());
+        assertTrue(verifier.verify(header, "catalogo").isEmpty());
+    }
+
+    @Test
+    @DisplayName("rutas sin configuración siguen en modo JWT")
+    void modoPorRuta() {
+        assertEquals(RelayMode.IDENTITY, signer.modeFor("ventas-compras"));
+        assertEquals(RelayMode.JWT, signer.modeFor("catalogo"));
+        assertEquals(RelayMode.JWT, signer.modeFor(null));
+    }
+
+    @Test
+    @DisplayName("una ruta con identidad firmada exige una clave definida")
+    void claveFaltante() {
+        var sinClave = new IdentityRelayProperties("X-Identity", Duration.ofSeconds(30), Map.of(),
+                Map.of("ventas-compras", new RouteIdentity(RelayMode.IDENTITY, "ventas")));
+        assertThrows(IllegalArgumentException.class, () -> new IdentityHeaderSigner(sinClave));
+    }
+}
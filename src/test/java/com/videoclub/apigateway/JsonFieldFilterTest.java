@@ -0,0 +1,128 @@
+package com.videoclub.apigateway;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.videoclub.apigateway.transform.BodyTransform;
+import com.videoclub.apigateway.transform.JsonFieldFilter;
+import com.videoclub.apigateway.transform.LinkRewriteTransform;
+import com.videoclub.apigateway.transform.TransformPipeline;
+import com.videoclub.apigateway.transform.TransformProperties.LinkRewrite;
+import com.videoclub.apigateway.transform.TransformStats;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonFieldFilterTest {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+    private static final DefaultDataBufferFactory BUFFERS = DefaultDataBufferFactory.sharedInstance;
+
+    private static String apply(String body, int chunkSize, BodyTransform... stages) {
+        byte[] input = body.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> chunks = new ArrayList<>();
+        for (int i = 0; i < input.length; i += chunkSize)
+            chunks.add(BUFFERS.wrap(Arrays.copyOfRange(input, i, Math.min(input.length, i + chunkSize))));
+        return TransformPipeline.apply(Flux.fromIterable(chunks), List.of(stages), BUFFERS, new TransformStats())
+                .reduce(new StringBuilder(), (joined, buffer) -> {
+                    joined.append(buffer.toString(StandardCharsets.UTF_8));
+                    DataBufferUtils.release(buffer);
+                    return joined;
+                })
+                .map(StringBuilder::toString)
+                .block();
+    }
+
+    private static String project(String json, int chunkSize, Set<String> fields) {
+        return apply(json, chunkSize, JsonFieldFilter.projection(FACTORY, fields, Set.of("content", "items")));
+    }
+
+    @Test
+    @DisplayName("un arreglo raíz conserva solo los campos pedidos de cada ítem")
+    void proyectaArregloRaiz() {
+        String json = "[{\"id\":1,\"titulo\":\"Alien\",\"sinopsis\":\"...\",\"precio\":3.5,"
+                + "\"actores\":[{\"nombre\":\"Sigourney\"}],\"poster\":\"a.jpg\"},"
+                + "{\"id\":2,\"titulo\":\"Ñandú\",\"extra\":{\"a\":[1,2,{\"b\":null}]},\"precio\":2}]";
+
+        assertEquals("[{\"titulo\":\"Alien\",\"precio\":3.5,\"poster\":\"a.jpg\"},{\"titulo\":\"Ñandú\",\"precio\":2}]",
+                project(json, 1024, Set.of("titulo", "poster", "precio")));
+    }
+
+    @Test
+    @DisplayName("en una página se proyecta content y los metadatos pasan intactos")
+    void proyectaPagina() {
+        String json = "{\"content\":[{\"id\":1,\"titulo\":\"Alien\",\"generos\":[\"terror\"]}],"
+                + "\"totalElements\":1,\"pageable\":{\"page\":0,\"size\":12}}";
+
+        assertEquals("{\"content\":[{\"titulo\":\"Alien\",\"generos\":[\"terror\"]}],"
+                + "\"totalElements\":1,\"pageable\":{\"page\":0,\"size\":12}}",
+                project(json, 1024, Set.of("titulo", "generos")));
+    }
+
+    @Test
+    @DisplayName("el resultado no depende de cómo se corten los buffers")
+    void fragmentosArbitrarios() {
+        StringBuilder json = new StringBuilder("{\"items\":[");
+        for (int i = 0; i < 200; i++)
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(i)
+                    .append(",\"titulo\":\"Película número ").append(i).append(" — edición \\\"especial\\\"\"")
+                    .append(",\"descripcion\":\"").append("x".repeat(100)).append("\"}");
+        json.append("],\"total\":200}");
+
+        String entero = project(json.toString(), Integer.MAX_VALUE, Set.of("id", "titulo"));
+        for (int chunk : new int[] { 1, 3, 7, 64, 1000 })
+            assertEquals(entero, project(json.toString(), chunk, Set.of("id", "titulo")));
+        assertTrue(entero.length() < json.length() / 2);
+    }
+
+    @Test
+    @DisplayName("un JSON incompleto o inválido falla")
+    void jsonInvalido() {
+        assertThrows(UncheckedIOException.class, () -> project("[{\"titulo\":\"Alien\"", 8, Set.of("titulo")));
+        assertThrows(UncheckedIOException.class, () -> project("[{\"titulo\" 1}]", 8, Set.of("titulo")));
+    }
+
+    @Test
+    @DisplayName("redact elimina el campo a cualquier profundidad")
+    void redactaCampos() {
+        String json = "{\"id\":1,\"costoProveedor\":2.5,\"copias\":[{\"sucursal\":\"A\",\"costoProveedor\":{\"x\":1}}]}";
+
+        assertEquals("{\"id\":1,\"copias\":[{\"sucursal\":\"A\"}]}",
+                apply(json, 5, JsonFieldFilter.redaction(FACTORY, Set.of("costoProveedor"))));
+    }
+
+    @Test
+    @DisplayName("los links internos se reescriben aunque queden partidos entre fragmentos")
+    void reescribeLinks() {
+        String json = "{\"poster\":\"http://catalogo-backend:8081/imagenes/1.jpg\",\"url\":\"http://catalogo-b\","
+                + "\"self\":\"http://catalogo-backend:8081/peliculas/1\"}";
+        String esperado = "{\"poster\":\"/api/imagenes/1.jpg\",\"url\":\"http://catalogo-b\","
+                + "\"self\":\"/api/peliculas/1\"}";
+        List<LinkRewrite> rewrites = List.of(new LinkRewrite("http://catalogo-backend:8081/", "/api/"));
+
+        for (int chunk : new int[] { 1, 2, 5, 13, 1000 })
+            assertEquals(esperado, apply(json, chunk, new LinkRewriteTransform(rewrites)));
+    }
+
+    @Test
+    @DisplayName("las etapas se encadenan: redact y después rewrite")
+    void encadenaEtapas() {
+        String json = "[{\"titulo\":\"Alien\",\"interno\":\"http://x/1\",\"poster\":\"http://x/p.jpg\"}]";
+
+        assertEquals("[{\"titulo\":\"Alien\",\"poster\":\"/api/p.jpg\"}]", apply(json, 3,
+                JsonFieldFilter.redaction(FACTORY, Set.of("interno")),
+                new LinkRewriteTransform(List.of(new LinkRewrite("http://x/", "/api/")))));
+    }
+}
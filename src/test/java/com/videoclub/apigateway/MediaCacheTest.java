@@ -0,0 +1,191 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.cache.MediaCache;
+import com.videoclub.apigateway.cache.MediaCacheProperties;
+import com.videoclub.apigateway.cache.MediaCacheProperties.RouteMedia;
+import com.videoclub.apigateway.filter.MediaCacheGlobalFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MediaCacheTest {
+
+    private static final String POSTER = "/api/peliculas/7/poster";
+    private static final String BODY = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+    @TempDir
+    Path dir;
+
+    private static DataBuffer buffer(String text) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void fill(MediaCache cache, String key, String body) {
+        MediaCache.Fill fill = cache.begin(key, body.length(), Map.of(), System.currentTimeMillis() + 60_000);
+        fill.write(buffer(body));
+        fill.complete();
+    }
+
+    @Test
+    @DisplayName("LRU por bytes: se desaloja el menos usado y su archivo se borra")
+    void desalojoLruPorBytes() throws Exception {
+        MediaCache cache = new MediaCache(dir, 100);
+        fill(cache, "a", "a".repeat(40));
+        fill(cache, "b", "b".repeat(40));
+        MediaCache.Entry a = cache.acquire("a", System.currentTimeMillis());
+        a.release();
+
+        fill(cache, "c", "c".repeat(40));
+
+        assertEquals(80, cache.bytes());
+        assertNull(cache.acquire("b", System.currentTimeMillis()));
+        assertNotNull(cache.acquire("a", System.currentTimeMillis()));
+        assertEquals(1, cache.evictions());
+        try (var files = Files.list(dir)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("un archivo desalojado mientras se envía se borra al terminar el envío")
+    void referenciasProtegenElArchivo() {
+        MediaCache cache = new MediaCache(dir, 50);
+        fill(cache, "a", "a".repeat(40));
+        MediaCache.Entry sending = cache.acquire("a", System.currentTimeMillis());
+
+        fill(cache, "b", "b".repeat(40));
+
+        assertTrue(Files.exists(sending.file()));
+        sending.release();
+        assertFalse(Files.exists(sending.file()));
+    }
+
+    @Test
+    @DisplayName("un cuerpo cortado o más largo que el Content-Length no se publica")
+    void cuerpoIncompletoSeDescarta() throws Exception {
+        MediaCache cache = new MediaCache(dir, 1 << 20);
+        MediaCache.Fill corto = cache.begin("corto", 10, Map.of(), Long.MAX_VALUE);
+        corto.write(buffer("12345"));
+        corto.complete();
+        MediaCache.Fill largo = cache.begin("largo", 3, Map.of(), Long.MAX_VALUE);
+        largo.write(buffer("12345"));
+        largo.complete();
+
+        assertEquals(0, cache.size());
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private MediaCacheGlobalFilter filter(MediaCache cache) {
+        return new MediaCacheGlobalFilter(cache, new MediaCacheProperties(true, dir, DataSize.ofMegabytes(1),
+                DataSize.ofMegabytes(1), Duration.ofHours(1), List.of("image/*", "video/*"),
+                Map.of("catalogo", new RouteMedia(List.of("/api/peliculas/*/poster/**")))));
+    }
+
+    private static MockServerWebExchange exchange(Consumer<MockServerHttpRequest.BaseBuilder<?>> headers) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(POSTER);
+        headers.accept(request);
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("catalogo").uri("http://catalogo-backend:8081").predicate(e -> true).build());
+        return exchange;
+    }
+
+    /** Backend simulado: devuelve el póster en dos fragmentos y registra los headers recibidos. */
+    private static GatewayFilterChain backend(List<HttpHeaders> received) {
+        return exchange -> {
+            received.add(exchange.getRequest().getHeaders());
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.IMAGE_JPEG);
+            response.getHeaders().setContentLength(BODY.length());
+            response.getHeaders().setETag("\"v1\"");
+            return response.writeWith(Flux.just(buffer(BODY.substring(0, 10)), buffer(BODY.substring(10))));
+        };
+    }
+
+    @Test
+    @DisplayName("el primer Range desde 0 llena el cache y los siguientes se resuelven localmente")
+    void rangosDesdeElCache() {
+        MediaCache cache = new MediaCache(dir, 1 << 20);
+        MediaCacheGlobalFilter filter = filter(cache);
+        List<HttpHeaders> upstream = new ArrayList<>();
+
+        MockServerWebExchange first = exchange(r -> r.header(HttpHeaders.RANGE, "bytes=0-"));
+        filter.filter(first, backend(upstream)).block();
+        assertEquals(HttpStatus.OK, first.getResponse().getStatusCode());
+        assertEquals(BODY, first.getResponse().getBodyAsString().block());
+        assertNull(upstream.get(0).getFirst(HttpHeaders.RANGE));
+        assertEquals(1, cache.size());
+
+        MockServerWebExchange partial = exchange(r -> r.header(HttpHeaders.RANGE, "bytes=10-19"));
+        filter.filter(partial, backend(upstream)).block();
+        assertEquals(HttpStatus.PARTIAL_CONTENT, partial.getResponse().getStatusCode());
+        assertEquals("bytes 10-19/36", partial.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals("abcdefghij", partial.getResponse().getBodyAsString().block());
+        assertEquals("HIT", partial.getResponse().getHeaders().getFirst("X-Cache"));
+
+        MockServerWebExchange suffix = exchange(r -> r.header(HttpHeaders.RANGE, "bytes=-3"));
+        filter.filter(suffix, backend(upstream)).block();
+        assertEquals("xyz", suffix.getResponse().getBodyAsString().block());
+
+        assertEquals(1, upstream.size());
+    }
+
+    @Test
+    @DisplayName("If-Range distinto devuelve el cuerpo completo y un rango imposible responde 416")
+    void ifRangeYRangoInsatisfacible() {
+        MediaCache cache = new MediaCache(dir, 1 << 20);
+        MediaCacheGlobalFilter filter = filter(cache);
+        List<HttpHeaders> upstream = new ArrayList<>();
+        filter.filter(exchange(r -> {
+        }), backend(upstream)).block();
+
+        MockServerWebExchange changed = exchange(r -> r.header(HttpHeaders.RANGE, "bytes=5-")
+                .header(HttpHeaders.IF_RANGE, "\"v0\""));
+        filter.filter(changed, backend(upstream)).block();
+        assertEquals(HttpStatus.OK, changed.getResponse().getStatusCode());
+        assertEquals(BODY, changed.getResponse().getBodyAsString().block());
+
+        MockServerWebExchange same = exchange(r -> r.header(HttpHeaders.RANGE, "bytes=5-")
+                .header(HttpHeaders.IF_RANGE, "\"v1\""));
+        filter.filter(same, backend(upstream)).block();
+        assertEquals(HttpStatus.PARTIAL_CONTENT, same.getResponse().getStatusCode());
+
+        MockServerWebExchange outside = exchange(r -> r.header(HttpHeaders.RANGE, "bytes=100-"));
+        filter.filter(outside, backend(upstream)).block();
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, outside.getResponse().getStatusCode());
+        assertEquals("bytes */36", outside.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+
+        assertEquals(1, upstream.size());
+    }
+}
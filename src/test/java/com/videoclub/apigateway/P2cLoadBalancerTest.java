@@ -0,0 +1,177 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.balancer.InstanceHealth;
+import com.videoclub.apigateway.balancer.P2cLoadBalancer;
+import com.videoclub.apigateway.balancer.ServiceInstance;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class P2cLoadBalancerTest {
+
+    private static ServiceInstance instance(String host) {
+        return new ServiceInstance("catalogo-backend", URI.create("http://" + host + ":8081"), 0.5);
+    }
+
+    @Test
+    @DisplayName("entre dos instancias elige la de menos pendientes")
+    void eligeMenosPendientes() {
+        ServiceInstance ocupada = instance("a");
+        ServiceInstance libre = instance("b");
+        for (int i = 0; i < 5; i++)
+            ocupada.start();
+
+        P2cLoadBalancer balancer = new P2cLoadBalancer("catalogo-backend", List.of(ocupada, libre));
+        for (int i = 0; i < 20; i++)
+            assertEquals(libre, balancer.choose());
+    }
+
+    @Test
+    @DisplayName("la latencia EWMA pondera la elección")
+    void ponderaPorLatencia() {
+        ServiceInstance lenta = instance("a");
+        ServiceInstance rapida = instance("b");
+        lenta.start();
+        lenta.finish(200_000_000, false);
+        rapida.start();
+        rapida.finish(5_000_000, false);
+        // La rápida tiene 3 pendientes pero sigue siendo más barata que la lenta
+        for (int i = 0; i < 3; i++)
+            rapida.start();
+
+        P2cLoadBalancer balancer = new P2cLoadBalancer("catalogo-backend", List.of(lenta, rapida));
+        assertEquals(rapida, balancer.choose());
+    }
+
+    @Test
+    @DisplayName("con carga pareja reparte entre todas las instancias")
+    void repartePareja() {
+        List<ServiceInstance> instances = List.of(instance("a"), instance("b"), instance("c"));
+        P2cLoadBalancer balancer = new P2cLoadBalancer("catalogo-backend", instances);
+
+        Map<ServiceInstance, Integer> elecciones = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            ServiceInstance elegida = balancer.choose();
+            elegida.start();
+            elecciones.merge(elegida, 1, Integer::sum);
+        }
+        for (ServiceInstance i : instances)
+            assertTrue(elecciones.getOrDefault(i, 0) > 60, "reparto desparejo: " + elecciones.values());
+    }
+
+    @Test
+    @DisplayName("sin candidatas no hay elección y un servicio vacío es inválido")
+    void casosBorde() {
+        P2cLoadBalancer balancer = new P2cLoadBalancer("catalogo-backend", List.of(instance("a")));
+        assertNull(balancer.choose(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> new P2cLoadBalancer("x", List.of()));
+    }
+
+    @Test
+    @DisplayName("errores consecutivos expulsan la instancia y el balanceador la saltea")
+    void expulsionPasiva() {
+        InstanceHealth health = new InstanceHealth(2, 1, 3, Duration.ofMinutes(1));
+        ServiceInstance fallando = new ServiceInstance("catalogo-backend", URI.create("http://a:8081"), 0.5, health);
+        ServiceInstance sana = instance("b");
+        P2cLoadBalancer balancer = new P2cLoadBalancer("catalogo-backend", List.of(fallando, sana));
+
+        for (int i = 0; i < 2; i++) {
+            fallando.start();
+            fallando.finish(1_000_000, true);
+        }
+        assertTrue(fallando.available());
+        fallando.start();
+        fallando.finish(1_000_000, true);
+
+        assertFalse(fallando.available());
+        assertTrue(health.ejected());
+        for (int i = 0; i < 20; i++)
+            assertEquals(sana, balancer.choose());
+
+        // La expulsión dura ejection-duration aunque el probe activo la vea sana
+        health.onProbeSuccess();
+        assertFalse(fallando.available());
+    }
+
+    @Test
+    @DisplayName("el probe activo marca caída tras el umbral y sin disponibles no hay elección")
+    void probeActivo() {
+        InstanceHealth health = new InstanceHealth(2, 2, 5, Duration.ofSeconds(30));
+        ServiceInstance unica = new ServiceInstance("catalogo-backend", URI.create("http://a:8081"), 0.5, health);
+        P2cLoadBalancer balancer = new P2cLoadBalancer("catalogo-backend", List.of(unica));
+
+        health.onProbeFailure("HTTP 503");
+        assertEquals(unica, balancer.choose());
+        health.onProbeFailure("HTTP 503");
+        assertNull(balancer.choose());
+        assertEquals("HTTP 503", health.lastFailure());
+
+        health.onProbeSuccess();
+        assertNull(balancer.choose());
+        health.onProbeSuccess();
+        assertEquals(unica, balancer.choose());
+    }
+
+    @Test
+    @DisplayName("solo conexión, E/S, timeout y 502/503/504 del backend cuentan como fallo de la instancia")
+    void clasificaFallos() {
+        assertTrue(InstanceHealth.isFailure(new ConnectException("Connection refused")));
+        assertTrue(InstanceHealth.isFailure(new IllegalStateException(new IOException("Connection reset"))));
+        assertTrue(InstanceHealth.isFailure(new TimeoutException()));
+        assertFalse(InstanceHealth.isFailure(new IllegalArgumentException("bug del filtro")));
+        assertFalse(InstanceHealth.isFailure((Throwable) null));
+
+        assertTrue(InstanceHealth.isFailure(502));
+        assertTrue(InstanceHealth.isFailure(503));
+        assertTrue(InstanceHealth.isFailure(504));
+        assertFalse(InstanceHealth.isFailure(500));
+        // Sin respuesta del backend (503 generado por el gateway)
+        assertFalse(InstanceHealth.isFailure(0));
+    }
+
+    @Test
+    @DisplayName("nunca expulsa la última instancia disponible ni más de max-ejection-percent")
+    void limiteDeExpulsion() {
+        InstanceHealth unicaHealth = new InstanceHealth(2, 1, 2, Duration.ofMinutes(1));
+        ServiceInstance unica = new ServiceInstance("catalogo-backend", URI.create("http://a:8081"), 0.5, unicaHealth);
+        P2cLoadBalancer solo = new P2cLoadBalancer("catalogo-backend", List.of(unica), 50);
+        for (int i = 0; i < 10; i++) {
+            unica.start();
+            unica.finish(1_000_000, true);
+        }
+        assertFalse(unicaHealth.ejected());
+        assertEquals(unica, solo.choose());
+        assertTrue(unicaHealth.lastFailure().contains("no expulsada"));
+
+        List<InstanceHealth> healths = List.of(new InstanceHealth(2, 1, 2, Duration.ofMinutes(1)),
+                new InstanceHealth(2, 1, 2, Duration.ofMinutes(1)), new InstanceHealth(2, 1, 2, Duration.ofMinutes(1)),
+                new InstanceHealth(2, 1, 2, Duration.ofMinutes(1)));
+        List<ServiceInstance> instances = healths.stream()
+                .map(health -> new ServiceInstance("catalogo-backend", URI.create("http://h" + healths.indexOf(health)
+                        + ":8081"), 0.5, health))
+                .toList();
+        P2cLoadBalancer balancer = new P2cLoadBalancer("catalogo-backend", instances, 50);
+        for (ServiceInstance instance : instances) {
+            for (int i = 0; i < 2; i++) {
+                instance.start();
+                instance.finish(1_000_000, true);
+            }
+        }
+        assertEquals(2, healths.stream().filter(InstanceHealth::ejected).count());
+        assertTrue(balancer.choose() != null);
+    }
+}
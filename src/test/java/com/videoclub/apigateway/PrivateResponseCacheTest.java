@@ -0,0 +1,111 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.cache.CachedResponse;
+import com.videoclub.apigateway.cache.PrivateResponseCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrivateResponseCacheTest {
+
+    private static final long NOW = System.currentTimeMillis();
+    private static final String KEY = "descuentos /descuentos/aplicables";
+
+    private static CachedResponse entry(String body, long freshMillis) {
+        return new CachedResponse(200, Map.of("Content-Type", "application/json"),
+                body.getBytes(StandardCharsets.UTF_8), NOW, NOW + freshMillis, NOW + freshMillis);
+    }
+
+    private static CachedResponse entryOfSize(int bodySize) {
+        return new CachedResponse(200, Map.of(), new byte[bodySize], NOW, NOW + 10_000, NOW + 10_000);
+    }
+
+    @Test
+    @DisplayName("la misma clave de dos usuarios no comparte la respuesta")
+    void aisladoPorUsuario() {
+        PrivateResponseCache cache = new PrivateResponseCache(1 << 20, 64 * 1024);
+        assertTrue(cache.put("ana", KEY, entry("{\"descuento\":10}", 10_000), cache.ticket()));
+
+        assertNull(cache.get("bruno", KEY, NOW));
+        CachedResponse cached = cache.get("ana", KEY, NOW);
+        assertNotNull(cached);
+        assertArrayEquals("{\"descuento\":10}".getBytes(StandardCharsets.UTF_8), cached.body());
+
+        cache.put("bruno", KEY, entry("{\"descuento\":0}", 10_000), cache.ticket());
+        assertArrayEquals("{\"descuento\":10}".getBytes(StandardCharsets.UTF_8), cache.get("ana", KEY, NOW).body());
+        assertEquals(2, cache.users());
+    }
+
+    @Test
+    @DisplayName("las entradas vencidas se descartan")
+    void ttl() {
+        PrivateResponseCache cache = new PrivateResponseCache(1 << 20, 64 * 1024);
+        cache.put("ana", KEY, entry("{}", 1_000), cache.ticket());
+
+        assertNotNull(cache.get("ana", KEY, NOW + 999));
+        assertNull(cache.get("ana", KEY, NOW + 1_000));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.bytes());
+    }
+
+    @Test
+    @DisplayName("invalidar vacía solo al usuario y descarta respuestas pedidas antes de la escritura")
+    void invalidacion() {
+        PrivateResponseCache cache = new PrivateResponseCache(1 << 20, 64 * 1024);
+        cache.put("ana", KEY, entry("{}", 10_000), cache.ticket());
+        cache.put("bruno", KEY, entry("{}", 10_000), cache.ticket());
+        long beforeWrite = cache.ticket();
+
+        cache.invalidate("ana");
+
+        assertNull(cache.get("ana", KEY, NOW));
+        assertNotNull(cache.get("bruno", KEY, NOW));
+        assertFalse(cache.put("ana", KEY, entry("{\"viejo\":true}", 10_000), beforeWrite));
+        assertNull(cache.get("ana", KEY, NOW));
+        assertTrue(cache.put("ana", KEY, entry("{}", 10_000), cache.ticket()));
+        assertEquals(1, cache.invalidations());
+    }
+
+    @Test
+    @DisplayName("cada usuario tiene su presupuesto: desaloja sus entradas menos recientes")
+    void limitePorUsuario() {
+        PrivateResponseCache cache = new PrivateResponseCache(1 << 20, 4 * 1024);
+        cache.put("bruno", KEY, entryOfSize(1_000), cache.ticket());
+        for (int page = 0; page < 10; page++)
+            cache.put("ana", KEY + "?page=" + page, entryOfSize(1_000), cache.ticket());
+
+        assertTrue(cache.bytes("ana") <= 4 * 1024, "ana " + cache.bytes("ana"));
+        assertNull(cache.get("ana", KEY + "?page=0", NOW));
+        assertNotNull(cache.get("ana", KEY + "?page=9", NOW));
+        assertNotNull(cache.get("bruno", KEY, NOW));
+        assertFalse(cache.put("ana", KEY, entryOfSize(8 * 1024), cache.ticket()));
+    }
+
+    @Test
+    @DisplayName("el presupuesto total desaloja al usuario menos reciente completo")
+    void limiteTotal() {
+        PrivateResponseCache cache = new PrivateResponseCache(6 * 1024, 4 * 1024);
+        long stale = cache.ticket();
+        cache.put("ana", KEY, entryOfSize(2_000), cache.ticket());
+        cache.put("bruno", KEY, entryOfSize(2_000), cache.ticket());
+        cache.get("ana", KEY, NOW);
+        cache.put("carla", KEY, entryOfSize(2_000), cache.ticket());
+
+        assertTrue(cache.bytes() <= 6 * 1024, "bytes " + cache.bytes());
+        assertNull(cache.get("bruno", KEY, NOW));
+        assertNotNull(cache.get("ana", KEY, NOW));
+        assertNotNull(cache.get("carla", KEY, NOW));
+        assertEquals(1, cache.evictedUsers());
+        // Una respuesta pedida antes del desalojo podría haberse cruzado con una invalidación perdida
+        assertFalse(cache.put("bruno", KEY, entryOfSize(100), stale));
+    }
+}
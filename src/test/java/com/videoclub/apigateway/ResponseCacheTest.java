@@ -0,0 +1,258 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.cache.BodyCapture;
+import com.videoclub.apigateway.cache.CacheDirectives;
+import com.videoclub.apigateway.cache.CachedResponse;
+import com.videoclub.apigateway.cache.MappedSnapshotStore;
+import com.videoclub.apigateway.cache.ResponseCache;
+import com.videoclub.apigateway.cache.ResponseCacheProperties;
+import com.videoclub.apigateway.cache.ResponseCacheProperties.RouteCache;
+import com.videoclub.apigateway.filter.ResponseCacheGlobalFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCacheTest {
+
+    private static final long NOW = System.currentTimeMillis();
+
+    @TempDir
+    Path dir;
+
+    private static CachedResponse entry(String body, long freshMillis, long staleMillis) {
+        return new CachedResponse(200, Map.of("Content-Type", "application/json"),
+                body.getBytes(StandardCharsets.UTF_8), NOW, NOW + freshMillis, NOW + freshMillis + staleMillis);
+    }
+
+    @Test
+    @DisplayName("un gateway reiniciado recarga el cache desde el snapshot")
+    void recargaDesdeSnapshot() {
+        Path file = dir.resolve("cache.bin");
+        try (ResponseCache cache = new ResponseCache(1 << 20, new MappedSnapshotStore(file, 64 * 1024))) {
+            cache.put("catalogo /peliculas?page=0", entry("{\"page\":0}", 30_000, 3_600_000));
+            cache.put("catalogo /peliculas?page=1", entry("{\"page\":1}", 30_000, 3_600_000));
+            cache.put("catalogo /peliculas/7", entry("{\"id\":7}", 30_000, 3_600_000));
+            cache.remove("catalogo /peliculas?page=1");
+        }
+
+        ResponseCache reloaded = new ResponseCache(1 << 20, new MappedSnapshotStore(file, 64 * 1024));
+        assertEquals(2, reloaded.size());
+        CachedResponse page0 = reloaded.get("catalogo /peliculas?page=0", NOW);
+        assertNotNull(page0);
+        assertArrayEquals("{\"page\":0}".getBytes(StandardCharsets.UTF_8), page0.body());
+        assertEquals("application/json", page0.headers().get("Content-Type"));
+        assertNull(reloaded.get("catalogo /peliculas?page=1", NOW));
+    }
+
+    @Test
+    @DisplayName("las entradas vencidas se descartan y las stale siguen disponibles")
+    void frescuraYStale() {
+        ResponseCache cache = new ResponseCache(1 << 20);
+        cache.put("a", entry("a", 1_000, 10_000));
+
+        assertTrue(cache.get("a", NOW + 500).fresh(NOW + 500));
+        CachedResponse stale = cache.get("a", NOW + 5_000);
+        assertNotNull(stale);
+        assertFalse(stale.fresh(NOW + 5_000));
+        assertNull(cache.get("a", NOW + 11_000));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("un registro cortado al final del log no invalida los anteriores")
+    void toleraRegistroCortado() throws Exception {
+        Path file = dir.resolve("cache.bin");
+        MappedSnapshotStore store = new MappedSnapshotStore(file, 64 * 1024);
+        store.load(NOW);
+        store.put("a", entry("uno", 30_000, 60_000));
+        int end = store.used();
+        store.put("b", entry("dos", 30_000, 60_000));
+        store.close();
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(end + 12);
+            raf.write(new byte[] { 1, 2, 3, 4 });
+        }
+
+        Map<String, CachedResponse> loaded = new MappedSnapshotStore(file, 64 * 1024).load(NOW);
+        assertEquals(1, loaded.size());
+        assertTrue(loaded.containsKey("a"));
+    }
+
+    @Test
+    @DisplayName("el log lleno se compacta con las entradas vivas y la memoria respeta el límite en bytes")
+    void compactaYAcota() {
+        Path file = dir.resolve("cache.bin");
+        String body = "x".repeat(600);
+        try (ResponseCache cache = new ResponseCache(4 * 1024, new MappedSnapshotStore(file, 4 * 1024))) {
+            for (int i = 0; i < 50; i++)
+                cache.put("k" + i, entry(body, 30_000, 60_000));
+            assertTrue(cache.bytes() <= 4 * 1024);
+            assertNotNull(cache.get("k49", NOW));
+            assertNull(cache.get("k0", NOW));
+        }
+
+        ResponseCache reloaded = new ResponseCache(4 * 1024, new MappedSnapshotStore(file, 4 * 1024));
+        assertNotNull(reloaded.get("k49", NOW));
+        assertNull(reloaded.get("k0", NOW));
+    }
+
+    @Test
+    @DisplayName("la compactación corre en el compactor y no en quien escribe")
+    void compactaFueraDelLlamador() {
+        Path file = dir.resolve("cache.bin");
+        List<Runnable> scheduled = new ArrayList<>();
+        String body = "x".repeat(600);
+        try (ResponseCache cache = new ResponseCache(4 * 1024,
+                new MappedSnapshotStore(file, 4 * 1024), Schedulers.fromExecutor(scheduled::add))) {
+            int written = 0;
+            while (!cache.compacting())
+                cache.put("k" + written++, entry(body, 30_000, 60_000));
+            assertEquals(1, scheduled.size());
+            // Mientras se compacta las escrituras quedan en memoria
+            cache.put("k" + written, entry(body, 30_000, 60_000));
+            assertEquals(1, scheduled.size());
+            assertNotNull(cache.get("k" + written, NOW));
+
+            // La compactación copia el estado al correr: incluye lo escrito mientras esperaba
+            scheduled.remove(0).run();
+            assertFalse(cache.compacting());
+            assertTrue(scheduled.isEmpty());
+            cache.put("ultima", entry(body, 30_000, 60_000));
+        }
+
+        ResponseCache reloaded = new ResponseCache(4 * 1024, new MappedSnapshotStore(file, 4 * 1024));
+        assertNotNull(reloaded.get("ultima", NOW));
+        assertNull(reloaded.get("k0", NOW));
+    }
+
+    @Test
+    @DisplayName("la copia del cuerpo no consume los buffers y se descarta al superar el límite")
+    void capturaAcotada() {
+        DataBuffer first = DefaultDataBufferFactory.sharedInstance.wrap("{\"id\":".getBytes(StandardCharsets.UTF_8));
+        DataBuffer second = DefaultDataBufferFactory.sharedInstance.wrap("7}".getBytes(StandardCharsets.UTF_8));
+        BodyCapture capture = new BodyCapture(8);
+        capture.write(first);
+        capture.write(second);
+        assertArrayEquals("{\"id\":7}".getBytes(StandardCharsets.UTF_8), capture.body());
+        assertEquals(6, first.readableByteCount());
+
+        BodyCapture oversized = new BodyCapture(7);
+        oversized.write(first);
+        oversized.write(second);
+        oversized.write(DefaultDataBufferFactory.sharedInstance.wrap(new byte[0]));
+        assertNull(oversized.body());
+    }
+
+    @Test
+    @DisplayName("la frescura respeta Cache-Control y Expires del backend")
+    void frescuraPorHeaders() {
+        assertEquals(300_000, CacheDirectives.freshnessMillis(headers("Cache-Control", "public, max-age=300"), 1));
+        assertEquals(60_000, CacheDirectives.freshnessMillis(headers("Cache-Control", "max-age=300, s-maxage=60"), 1));
+        assertEquals(CacheDirectives.NOT_STORABLE, CacheDirectives.freshnessMillis(
+                headers("Cache-Control", "no-store, must-revalidate"), 1));
+        assertEquals(CacheDirectives.NOT_STORABLE, CacheDirectives.freshnessMillis(
+                headers("Cache-Control", "private, max-age=60"), 1));
+        assertEquals(5_000, CacheDirectives.freshnessMillis(headers("Cache-Control", "public"), 5_000));
+        // no-cache exige revalidar: nunca se sirve desde el cache con el ttl de respaldo
+        assertEquals(0, CacheDirectives.freshnessMillis(headers("Cache-Control", "no-cache"), 5_000));
+        assertEquals(0, CacheDirectives.freshnessMillis(headers("Cache-Control", "max-age=60, no-cache"), 5_000));
+        assertEquals(60_000, CacheDirectives.freshnessMillis(
+                headers("Cache-Control", "no-cache=\"Set-Cookie\", max-age=60"), 5_000));
+
+        HttpHeaders expires = new HttpHeaders();
+        expires.setDate(NOW);
+        expires.setExpires(NOW + 120_000);
+        assertEquals(120_000, CacheDirectives.freshnessMillis(expires, 1), 1_000);
+
+        HttpHeaders aged = headers("Cache-Control", "max-age=300");
+        aged.set(HttpHeaders.AGE, "100");
+        assertEquals(200_000, CacheDirectives.freshnessMillis(aged, 1));
+    }
+
+    @Test
+    @DisplayName("un cache privado guarda respuestas private e ignora s-maxage")
+    void frescuraEnCachePrivado() {
+        assertEquals(60_000, CacheDirectives.freshnessMillis(
+                headers("Cache-Control", "private, max-age=60"), 1, true));
+        assertEquals(300_000, CacheDirectives.freshnessMillis(
+                headers("Cache-Control", "max-age=300, s-maxage=60"), 1, true));
+        assertEquals(CacheDirectives.NOT_STORABLE, CacheDirectives.freshnessMillis(
+                headers("Cache-Control", "private, no-store"), 1, true));
+        assertEquals(0, CacheDirectives.freshnessMillis(headers("Cache-Control", "private, no-cache"), 5_000, true));
+        assertEquals(5_000, CacheDirectives.freshnessMillis(headers("Cache-Control", "private"), 5_000, true));
+    }
+
+    @Test
+    @DisplayName("con Authorization solo se guarda la respuesta que el backend declara compartible")
+    void noGuardaRespuestasConAuthorization() {
+        ResponseCache cache = new ResponseCache(1 << 20);
+        ResponseCacheGlobalFilter filter = new ResponseCacheGlobalFilter(cache, new ResponseCacheProperties(true,
+                DataSize.ofMegabytes(1), DataSize.ofKilobytes(64),
+                new ResponseCacheProperties.Snapshot(false, dir.resolve("cache.bin"), DataSize.ofMegabytes(1)),
+                Map.of("catalogo", new RouteCache(Duration.ofSeconds(30), Duration.ofHours(1), true, List.of()))));
+
+        get(filter, "/api/peliculas/1", "Bearer ana", "max-age=60");
+        assertEquals(0, cache.size());
+        get(filter, "/api/peliculas/2", "Bearer ana", "private, max-age=60");
+        assertEquals(0, cache.size());
+        get(filter, "/api/peliculas/3", "Bearer ana", "public, max-age=60");
+        assertEquals(1, cache.size());
+        get(filter, "/api/peliculas/4", null, "max-age=60");
+        assertEquals(2, cache.size());
+
+        assertTrue(CacheDirectives.storableWithAuthorization(headers("Cache-Control", "s-maxage=30")));
+        assertTrue(CacheDirectives.storableWithAuthorization(headers("Cache-Control", "max-age=0, must-revalidate")));
+        assertFalse(CacheDirectives.storableWithAuthorization(headers("Cache-Control", "max-age=60")));
+        assertFalse(CacheDirectives.storableWithAuthorization(new HttpHeaders()));
+    }
+
+    private static void get(ResponseCacheGlobalFilter filter, String path, String authorization, String cacheControl) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path);
+        if (authorization != null)
+            request.header(HttpHeaders.AUTHORIZATION, authorization);
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id("catalogo").uri("http://catalogo").predicate(e -> true).build());
+        GatewayFilterChain backend = forwarded -> {
+            forwarded.getResponse().setStatusCode(HttpStatus.OK);
+            forwarded.getResponse().getHeaders().set(HttpHeaders.CACHE_CONTROL, cacheControl);
+            return forwarded.getResponse().writeWith(Mono.just(forwarded.getResponse().bufferFactory()
+                    .wrap("{\"id\":1}".getBytes(StandardCharsets.UTF_8))));
+        };
+        filter.filter(exchange, backend).block(Duration.ofSeconds(5));
+    }
+
+    private static HttpHeaders headers(String name, String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(name, value);
+        return headers;
+    }
+}
@@ -0,0 +1,173 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.security.RevocationFileWatcher;
+import com.videoclub.apigateway.security.RevocationList;
+import com.videoclub.apigateway.security.RevocationValidator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RevocationListTest {
+
+    private static final long HOUR = 3600;
+
+    private static long now() {
+        return Instant.now().getEpochSecond();
+    }
+
+    private static Jwt token(String jti, String sid) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .jti(jti)
+                .claim("sid", sid)
+                .subject("user")
+                .build();
+    }
+
+    @Test
+    @DisplayName("todo id revocado se detecta y los falsos positivos del filtro quedan cerca del objetivo")
+    void sinFalsosNegativos() {
+        RevocationList revocations = new RevocationList(10_000, 0.01);
+        List<String> revoked = IntStream.range(0, 10_000)
+                .mapToObj(i -> UUID.randomUUID().toString()).toList();
+        revoked.forEach(id -> revocations.revoke(id, now() + HOUR));
+
+        assertTrue(revoked.stream().allMatch(revocations::isRevoked));
+
+        long before = revocations.filterPositives();
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++)
+            assertFalse(revocations.isRevoked(UUID.randomUUID().toString()));
+        double rate = (double) (revocations.filterPositives() - before) / probes;
+        assertTrue(rate < 0.02, "tasa de falsos positivos=" + rate);
+    }
+
+    @Test
+    @DisplayName("al revocar, el filtro se reconstruye solo cuando se supera su capacidad")
+    void reconstruyeAlSuperarCapacidad() {
+        RevocationList revocations = new RevocationList(10, 0.01);
+        IntStream.range(0, 10).forEach(i -> revocations.revoke("id-" + i, now() + HOUR));
+        assertEquals(10, revocations.filterCapacity());
+
+        revocations.revoke("id-10", now() + HOUR);
+        assertEquals(22, revocations.filterCapacity());
+        long bits = revocations.filterBits();
+
+        IntStream.range(11, 22).forEach(i -> revocations.revoke("id-" + i, now() + HOUR));
+        assertEquals(22, revocations.filterCapacity());
+        assertEquals(bits, revocations.filterBits());
+
+        revocations.revoke("id-22", now() + HOUR);
+        assertEquals(46, revocations.filterCapacity());
+        assertTrue(IntStream.range(0, 23).allMatch(i -> revocations.isRevoked("id-" + i)));
+    }
+
+    @Test
+    @DisplayName("la poda quita los vencidos y reconstruye el filtro")
+    void podaReconstruye() {
+        RevocationList revocations = new RevocationList(1_000, 0.001);
+        revocations.revoke("vencido", now() - 1);
+        revocations.revoke("vigente", now() + HOUR);
+
+        assertEquals(1, revocations.prune(now()));
+        assertEquals(1, revocations.size());
+        assertFalse(revocations.isRevoked("vencido"));
+        assertTrue(revocations.isRevoked("vigente"));
+
+        // Tras reconstruir, el id podado ya ni siquiera pasa el filtro
+        long positives = revocations.filterPositives();
+        revocations.isRevoked("vencido");
+        assertEquals(positives, revocations.filterPositives());
+    }
+
+    @Test
+    @DisplayName("el validador rechaza por jti y por sesión de Keycloak")
+    void validadorPorJtiYSid() {
+        RevocationList revocations = new RevocationList(1_000, 0.001);
+        RevocationValidator validator = new RevocationValidator(revocations);
+        revocations.revoke("jti-1", now() + HOUR);
+        revocations.revoke("sesion-1", now() + HOUR);
+
+        assertTrue(validator.validate(token("jti-1", "sesion-2")).hasErrors());
+        assertTrue(validator.validate(token("jti-2", "sesion-1")).hasErrors());
+        assertFalse(validator.validate(token("jti-2", "sesion-2")).hasErrors());
+        assertEquals("invalid_token",
+                validator.validate(token("jti-1", null)).getErrors().iterator().next().getErrorCode());
+    }
+
+    @Test
+    @DisplayName("el archivo se carga al iniciar y se recarga cuando cambia")
+    void archivoVigilado(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("revocados.txt");
+        Files.writeString(file, "# sesiones cerradas\nsesion-1\nviejo " + (now() - 10) + "\n");
+        RevocationList revocations = new RevocationList(1_000, 0.001);
+        RevocationFileWatcher watcher = new RevocationFileWatcher(revocations, file, Duration.ofMillis(20),
+                Duration.ofHours(1));
+
+        watcher.start();
+        try {
+            assertTrue(revocations.isRevoked("sesion-1"));
+            assertFalse(revocations.isRevoked("viejo"));
+
+            Files.writeString(file, "sesion-1\nsesion-2 " + (now() + HOUR) + "\n");
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (!revocations.isRevoked("sesion-2") && System.nanoTime() < deadline)
+                Thread.sleep(10);
+            assertTrue(revocations.isRevoked("sesion-2"));
+            assertEquals(2, revocations.size());
+        } finally {
+            watcher.stop();
+        }
+        assertFalse(watcher.isRunning());
+    }
+
+    /** Reemplazo atómico, como lo haría quien publica el archivo: el watcher nunca lee uno a medio escribir. */
+    private static void replace(Path file, String content) throws Exception {
+        Path next = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(next, content);
+        Files.move(next, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Test
+    @DisplayName("recargar el archivo no renueva el vencimiento de los ids sin vencimiento explícito")
+    void recargaConservaPrimerVencimiento(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("revocados.txt");
+        Files.writeString(file, "sesion-1\n");
+        RevocationList revocations = new RevocationList(1_000, 0.001);
+        RevocationFileWatcher watcher = new RevocationFileWatcher(revocations, file, Duration.ofMillis(20),
+                Duration.ofSeconds(1));
+
+        watcher.start();
+        try {
+            assertTrue(revocations.isRevoked("sesion-1"));
+            // El archivo cambia varias veces durante más que la retención
+            long deadline = System.nanoTime() + Duration.ofMillis(2_500).toNanos();
+            for (int i = 0; System.nanoTime() < deadline; i++) {
+                replace(file, "sesion-1\notra-" + i + " " + (now() + HOUR) + "\n");
+                Thread.sleep(100);
+            }
+            replace(file, "sesion-1\nultima " + (now() + HOUR) + "\n");
+            long reloaded = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (!revocations.isRevoked("ultima") && System.nanoTime() < reloaded)
+                Thread.sleep(10);
+            assertTrue(revocations.isRevoked("ultima"));
+            assertFalse(revocations.isRevoked("sesion-1"));
+        } finally {
+            watcher.stop();
+        }
+    }
+}
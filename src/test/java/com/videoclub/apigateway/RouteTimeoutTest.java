@@ -0,0 +1,152 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.filter.DeadlineHeadersFilter;
+import com.videoclub.apigateway.filter.RouteTimeoutGlobalFilter;
+import com.videoclub.apigateway.resilience.RouteTimeoutRegistry;
+import com.videoclub.apigateway.resilience.TimeoutProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.channel.ConnectTimeoutException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.gateway.support.TimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteTimeoutTest {
+
+    private static final String HEADER = "X-Request-Timeout-Ms";
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final TimeoutProperties properties = new TimeoutProperties(true, HEADER, true,
+            new TimeoutProperties.Limits(Duration.ofSeconds(2), Duration.ofSeconds(10), Duration.ofSeconds(15)),
+            Map.of("descuentos", new TimeoutProperties.Limits(Duration.ofSeconds(1), Duration.ofMillis(300),
+                    Duration.ofMillis(150))));
+    private final RouteTimeoutRegistry registry = new RouteTimeoutRegistry(properties, meters);
+    private final RouteTimeoutGlobalFilter filter = new RouteTimeoutGlobalFilter(registry, properties);
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request, String routeId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id(routeId).uri("lb://descuentos-service").predicate(e -> true).build());
+        return exchange;
+    }
+
+    private double timeouts(String route, String kind) {
+        return meters.get("gateway.timeouts").tag("route", route).tag("kind", kind).functionCounter().count();
+    }
+
+    @Test
+    @DisplayName("al vencer el plazo total se cancela el backend y se responde 504 contado por ruta")
+    void plazoTotal() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/descuentos/1"), "descuentos");
+        AtomicBoolean upstreamCancelled = new AtomicBoolean();
+        AtomicReference<Route> routed = new AtomicReference<>();
+        GatewayFilterChain chain = e -> {
+            routed.set(e.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR));
+            return Mono.<Void>never().doOnCancel(() -> upstreamCancelled.set(true));
+        };
+
+        filter.filter(exchange, chain).block(Duration.ofSeconds(2));
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, exchange.getResponse().getStatusCode());
+        assertTrue(exchange.getResponse().getBodyAsString().block().contains("\"timeout\":\"total\""));
+        assertTrue(upstreamCancelled.get());
+        assertEquals(1, timeouts("descuentos", "total"));
+        assertEquals(1000L, routed.get().getMetadata().get(RouteMetadataUtils.CONNECT_TIMEOUT_ATTR));
+        assertEquals(300L, routed.get().getMetadata().get(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR));
+    }
+
+    @Test
+    @DisplayName("el plazo total termina al enviar los headers: un cuerpo lento no se corta")
+    void cuerpoSinPlazoTotal() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/descuentos/1"), "descuentos");
+        GatewayFilterChain chain = e -> {
+            e.getResponse().setStatusCode(HttpStatus.OK);
+            return e.getResponse().writeWith(Flux.concat(Mono.just("inicio"),
+                            Mono.just("-fin").delayElement(Duration.ofMillis(300)))
+                    .map(part -> e.getResponse().bufferFactory().wrap(part.getBytes(StandardCharsets.UTF_8))));
+        };
+
+        filter.filter(exchange, chain).block(Duration.ofSeconds(2));
+
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals("inicio-fin", exchange.getResponse().getBodyAsString().block());
+        assertEquals(0, timeouts("descuentos", "total"));
+    }
+
+    @Test
+    @DisplayName("los timeouts de conexión y de respuesta del ruteo se distinguen en las métricas")
+    void conexionYRespuesta() {
+        MockServerWebExchange connect = exchange(MockServerHttpRequest.get("/api/descuentos/1"), "descuentos");
+        filter.filter(connect, e -> Mono.error(new ConnectTimeoutException("connection timed out"))).block();
+        MockServerWebExchange response = exchange(MockServerHttpRequest.get("/api/descuentos/1"), "descuentos");
+        filter.filter(response, e -> Mono.error(new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
+                "Response took longer than timeout", new TimeoutException()))).block();
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, connect.getResponse().getStatusCode());
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getResponse().getStatusCode());
+        assertEquals(1, timeouts("descuentos", "connect"));
+        assertEquals(1, timeouts("descuentos", "response"));
+        assertEquals(0, timeouts("descuentos", "total"));
+    }
+
+    @Test
+    @DisplayName("un plazo vencido del cliente no llega al backend; la desconexión del cliente se cuenta")
+    void plazoDelClienteYCancelacion() {
+        MockServerWebExchange expired = exchange(MockServerHttpRequest.get("/api/peliculas").header(HEADER, "0"),
+                "catalogo");
+        AtomicBoolean called = new AtomicBoolean();
+        filter.filter(expired, e -> {
+            called.set(true);
+            return Mono.empty();
+        }).block();
+        assertFalse(called.get());
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, expired.getResponse().getStatusCode());
+
+        MockServerWebExchange abandoned = exchange(MockServerHttpRequest.get("/api/peliculas"), "catalogo");
+        filter.filter(abandoned, e -> Mono.never()).subscribe().dispose();
+        assertEquals(1, meters.get("gateway.timeouts.cancelled").tag("route", "catalogo").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("el header hacia el backend lleva lo que resta del plazo, acotado por response-timeout")
+    void headerDeDeadline() {
+        DeadlineHeadersFilter headers = new DeadlineHeadersFilter(HEADER);
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/peliculas").header(HEADER, "800"),
+                "catalogo");
+        AtomicReference<String> sent = new AtomicReference<>();
+        filter.filter(exchange, e -> {
+            sent.set(headers.filter(e.getRequest().getHeaders(), e).getFirst(HEADER));
+            return Mono.empty();
+        }).block();
+        long remaining = Long.parseLong(sent.get());
+        assertTrue(remaining > 700 && remaining <= 800, "restante " + remaining);
+
+        MockServerWebExchange routed = exchange(MockServerHttpRequest.get("/api/descuentos/1"), "descuentos");
+        routed.getAttributes().put(RouteTimeoutGlobalFilter.DEADLINE_ATTR,
+                System.nanoTime() + Duration.ofSeconds(5).toNanos());
+        routed.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                registry.forRoute("descuentos").routed(routed.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR)));
+        HttpHeaders out = headers.filter(routed.getRequest().getHeaders(), routed);
+        assertEquals("300", out.getFirst(HEADER));
+    }
+}
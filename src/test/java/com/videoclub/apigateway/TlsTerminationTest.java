@@ -0,0 +1,203 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.tls.TlsProperties;
+import com.videoclub.apigateway.tls.TlsTermination;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.ssl.SslBundle;
+import org.springframework.boot.ssl.SslStoreBundle;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TlsTerminationTest {
+
+    private static final String PASSWORD = "changeit";
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private DisposableServer server;
+
+    @AfterEach
+    void stopServer() {
+        if (server != null)
+            server.disposeNow();
+    }
+
+    private static TlsProperties properties(TlsProperties.Engine engine) {
+        return new TlsProperties(true, "gateway", true, engine, 1024, Duration.ofMinutes(10), true,
+                Duration.ofHours(1), Duration.ofSeconds(5));
+    }
+
+    private SslBundle bundle(String name) throws Exception {
+        return bundle(name, "localhost");
+    }
+
+    /** Keystore PKCS12 autofirmado generado con keytool. */
+    private SslBundle bundle(String name, String host) throws Exception {
+        Path file = dir.resolve(name + ".p12");
+        Process keytool = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+                "-genkeypair", "-alias", name, "-keyalg", "EC", "-groupname", "secp256r1", "-validity", "30",
+                "-dname", "CN=" + name, "-ext", "SAN=dns:" + host, "-storetype", "PKCS12",
+                "-keystore", file.toString(), "-storepass", PASSWORD, "-keypass", PASSWORD)
+                .redirectErrorStream(true).start();
+        keytool.getInputStream().transferTo(java.io.OutputStream.nullOutputStream());
+        assertEquals(0, keytool.waitFor());
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(file)) {
+            keyStore.load(in, PASSWORD.toCharArray());
+        }
+        return SslBundle.of(SslStoreBundle.of(keyStore, PASSWORD, null));
+    }
+
+    private void start(TlsTermination tls) {
+        server = tls.apply(HttpServer.create().host("localhost").port(0))
+                .handle((request, response) -> response.sendString(Mono.just(request.protocol())))
+                .bindNow();
+    }
+
+    /** Una petición por conexión nueva; devuelve la sesión TLS y el protocolo HTTP que vio el servidor. */
+    private record Exchange(SSLSession session, String protocol) {
+    }
+
+    private Exchange get(SslContext clientTls) {
+        SSLSession[] session = new SSLSession[1];
+        String protocol = HttpClient.create(ConnectionProvider.newConnection())
+                .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                .secure(spec -> spec.sslContext(clientTls))
+                .doOnConnected(connection -> session[0] = connection.channel().pipeline()
+                        .get(SslHandler.class).engine().getSession())
+                .get().uri("https://localhost:" + server.port() + "/")
+                .responseContent().aggregate().asString()
+                .block(Duration.ofSeconds(10));
+        return new Exchange(session[0], protocol);
+    }
+
+    /** Contexto de cliente; reusarlo conserva su cache de sesiones y permite reanudar. */
+    private static SslContext clientTls() throws Exception {
+        return Http2SslContextSpec.forClient()
+                .configure(builder -> builder.trustManager(InsecureTrustManagerFactory.INSTANCE))
+                .sslContext();
+    }
+
+    private long handshakes(String resumed) {
+        Timer timer = meters.find("gateway.tls.handshake").tag("resumed", resumed).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    @Test
+    @DisplayName("negocia h2 por ALPN y la segunda conexión reanuda la sesión")
+    void http2YReanudacion() throws Exception {
+        TlsTermination tls = new TlsTermination(properties(TlsProperties.Engine.AUTO), bundle("gateway"), meters);
+        start(tls);
+        SslContext client = clientTls();
+
+        assertEquals("HTTP/2.0", get(client).protocol());
+        assertEquals("HTTP/2.0", get(client).protocol());
+
+        assertEquals(1, handshakes("false"));
+        assertEquals(1, handshakes("true"));
+        assertEquals(2, meters.find("gateway.tls.handshake").tag("alpn", "h2").tag("engine", tls.engine().name())
+                .timers().stream().mapToLong(Timer::count).sum());
+        assertTrue(tls.secondsToExpiry() > 29 * 86_400, "expiry " + tls.secondsToExpiry());
+    }
+
+    @Test
+    @DisplayName("la recarga cambia el certificado de las conexiones nuevas; una recarga inválida conserva el anterior")
+    void recargaDelCertificado() throws Exception {
+        TlsTermination tls = new TlsTermination(properties(TlsProperties.Engine.AUTO), bundle("original"), meters);
+        start(tls);
+        assertEquals("CN=original", peer(get(clientTls())));
+
+        tls.reload(bundle("renovado"));
+        assertEquals("CN=renovado", peer(get(clientTls())));
+        assertEquals(1, tls.reloads());
+
+        tls.reload(SslBundle.of(SslStoreBundle.NONE));
+        assertEquals("CN=renovado", peer(get(clientTls())));
+        assertEquals(1, tls.reloads());
+    }
+
+    @Test
+    @DisplayName("una conexión sin SNI (por IP) también recibe el certificado recargado")
+    void recargaSinSni() throws Exception {
+        TlsTermination tls = new TlsTermination(properties(TlsProperties.Engine.AUTO), bundle("original"), meters);
+        server = tls.apply(HttpServer.create().host("127.0.0.1").port(0))
+                .handle((request, response) -> response.sendString(Mono.just(request.protocol())))
+                .bindNow();
+        assertEquals("CN=original", peerWithoutSni());
+
+        tls.reload(bundle("renovado"));
+        assertEquals("CN=renovado", peerWithoutSni());
+    }
+
+    @Test
+    @DisplayName("el cliente de loopback confía en el certificado vigente aunque no sea de localhost")
+    void loopback() throws Exception {
+        TlsTermination tls = new TlsTermination(properties(TlsProperties.Engine.AUTO),
+                bundle("gateway", "gateway.example"), meters);
+        start(tls);
+        String protocol = tls.loopbackClient(HttpClient.create())
+                .get().uri("https://localhost:" + server.port() + "/")
+                .responseContent().aggregate().asString()
+                .block(Duration.ofSeconds(10));
+        assertEquals("HTTP/2.0", protocol);
+    }
+
+    @Test
+    @DisplayName("AUTO cae al JDK sin netty-tcnative y OPENSSL falla al arrancar")
+    void motor() throws Exception {
+        SslBundle bundle = bundle("gateway");
+        assertEquals(io.netty.handler.ssl.SslProvider.JDK,
+                new TlsTermination(properties(TlsProperties.Engine.JDK), bundle, meters).engine());
+        if (!io.netty.handler.ssl.OpenSsl.isAvailable()) {
+            assertEquals(io.netty.handler.ssl.SslProvider.JDK,
+                    new TlsTermination(properties(TlsProperties.Engine.AUTO), bundle, meters).engine());
+            assertThrows(IllegalStateException.class,
+                    () -> new TlsTermination(properties(TlsProperties.Engine.OPENSSL), bundle, meters));
+        }
+    }
+
+    /** Handshake con un socket del JDK hacia la IP: sin nombre de host no se envía SNI. */
+    private String peerWithoutSni() throws Exception {
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(null, InsecureTrustManagerFactory.INSTANCE.getTrustManagers(), null);
+        try (SSLSocket socket = (SSLSocket) context.getSocketFactory().createSocket("127.0.0.1", server.port())) {
+            socket.startHandshake();
+            return ((X509Certificate) socket.getSession().getPeerCertificates()[0]).getSubjectX500Principal().getName();
+        }
+    }
+
+    private static String peer(Exchange exchange) throws Exception {
+        List<java.security.cert.Certificate> chain = List.of(exchange.session().getPeerCertificates());
+        return ((X509Certificate) chain.get(0)).getSubjectX500Principal().getName();
+    }
+}
@@ -0,0 +1,78 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.tracing.ExchangeTrace;
+import com.videoclub.apigateway.tracing.SlowTraceStore;
+import com.videoclub.apigateway.tracing.TraceContext;
+import com.videoclub.apigateway.tracing.TraceRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceContextTest {
+
+    @Test
+    @DisplayName("traceparent válido se interpreta y el hijo conserva el trace-id")
+    void parseValido() {
+        TraceContext ctx = TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+
+        assertNotNull(ctx);
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", ctx.traceId());
+        assertEquals("00f067aa0ba902b7", ctx.spanId());
+        assertTrue(ctx.sampled());
+
+        TraceContext child = ctx.child();
+        assertEquals(ctx.traceId(), child.traceId());
+        assertNotEquals(ctx.spanId(), child.spanId());
+        assertTrue(child.toTraceparent().matches("00-[0-9a-f]{32}-[0-9a-f]{16}-01"));
+    }
+
+    @Test
+    @DisplayName("traceparent inválido se descarta")
+    void parseInvalido() {
+        assertNull(TraceContext.parse(null));
+        assertNull(TraceContext.parse("basura"));
+        assertNull(TraceContext.parse("ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01"));
+        assertNull(TraceContext.parse("00-00000000000000000000000000000000-00f067aa0ba902b7-01"));
+        assertNull(TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000000-01"));
+        assertNull(TraceContext.parse("00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01"));
+    }
+
+    @Test
+    @DisplayName("la traza registra spans security, filters y upstream")
+    void exchangeTraceSpans() {
+        ExchangeTrace trace = new ExchangeTrace(null);
+        trace.markFiltersStart();
+        trace.startUpstream();
+        trace.endUpstream();
+
+        TraceRecord record = trace.finish("GET", "/api/peliculas", "catalogo", 200);
+
+        List<String> names = record.spans().stream().map(s -> s.name()).toList();
+        assertEquals(List.of("gateway", "security", "filters", "upstream"), names);
+        assertNull(record.spans().get(0).parentSpanId());
+        assertEquals(record.spans().get(0).spanId(), record.spans().get(3).parentSpanId());
+    }
+
+    @Test
+    @DisplayName("el store conserva las N más lentas y las M más recientes")
+    void storeAcotado() {
+        SlowTraceStore store = new SlowTraceStore(2, 3);
+        long[] durations = { 10, 500, 20, 300, 5 };
+        for (int i = 0; i < durations.length; i++) {
+            store.record(new TraceRecord("t" + i, "GET", "/p", "r", 200, 0, durations[i], List.of()));
+        }
+
+        assertEquals(List.of("t1", "t3"), store.slowest().stream().map(TraceRecord::traceId).toList());
+        assertEquals(List.of("t4", "t3", "t2"), store.recent().stream().map(TraceRecord::traceId).toList());
+        assertEquals(5, store.recorded());
+        assertNotNull(store.find("t1"));
+        assertNull(store.find("t0"));
+    }
+}
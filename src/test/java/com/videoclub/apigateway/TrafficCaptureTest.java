@@ -0,0 +1,120 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.capture.CaptureProperties;
+import com.videoclub.apigateway.capture.CapturedRequest;
+import com.videoclub.apigateway.capture.TrafficCapture;
+import com.videoclub.apigateway.capture.TrafficLogReader;
+import com.videoclub.apigateway.capture.TrafficLogWriter;
+import com.videoclub.apigateway.filter.TrafficCaptureGlobalFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrafficCaptureTest {
+
+    private static CapturedRequest request(long startMicros, String path, String query) {
+        return new CapturedRequest(startMicros, 1_500, "GET", "catalogo", path, query, "", 0, 2_048, 200, false);
+    }
+
+    @Test
+    @DisplayName("el log binario conserva los registros y comprime las cadenas repetidas")
+    void idaYVuelta() throws IOException {
+        List<CapturedRequest> written = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            written.add(request(i * 1_000L, "/api/peliculas", "page=" + (i % 5) + "&size=12"));
+        written.add(new CapturedRequest(2_000_000, 80_000, "POST", "ventas-carrito-confirmar",
+                "/api/carrito/confirmar", "", "application/json", 312, 95, 201, true));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TrafficLogWriter writer = new TrafficLogWriter(out, 1_790_000_000_000L)) {
+            for (CapturedRequest request : written)
+                writer.write(request);
+        }
+        assertTrue(out.size() < 1001 * 16, "bytes " + out.size());
+
+        try (TrafficLogReader reader = new TrafficLogReader(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(1_790_000_000_000L, reader.startEpochMillis());
+            assertEquals(written, reader.readAll());
+        }
+
+        // Un registro cortado a la mitad (captura interrumpida) termina la lectura
+        byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() - 10);
+        try (TrafficLogReader reader = new TrafficLogReader(new ByteArrayInputStream(truncated))) {
+            assertEquals(1000, reader.readAll().size());
+            assertNull(reader.next());
+        }
+        assertThrows(IOException.class, () -> new TrafficLogReader(new ByteArrayInputStream(new byte[16])));
+    }
+
+    @Test
+    @DisplayName("el filtro registra tamaños, status y ruta sin guardar credenciales ni parámetros sensibles")
+    void captura(@TempDir Path directory) throws IOException {
+        TrafficCapture capture = new TrafficCapture(new CaptureProperties(true, directory, DataSize.ofMegabytes(1),
+                1.0, 64, Set.of("token", "code")));
+        TrafficCaptureGlobalFilter filter = new TrafficCaptureGlobalFilter(capture);
+        capture.start();
+
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .post("/api/ratings?pelicula=7&token=abc.def&code=xyz")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer secreto")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"puntaje\":5}"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id("rating").uri("http://rating-service:8082").predicate(e -> true).build());
+        filter.filter(exchange, e -> DataBufferUtils.join(e.getRequest().getBody())
+                .doOnNext(DataBufferUtils::release)
+                .then(Mono.defer(() -> {
+                    e.getResponse().setStatusCode(HttpStatus.CREATED);
+                    return e.getResponse().writeWith(Mono.just(e.getResponse().bufferFactory()
+                            .wrap("{\"id\":99}".getBytes(StandardCharsets.UTF_8))));
+                }))).block();
+        capture.stop();
+
+        assertEquals(1, capture.recorded());
+        List<CapturedRequest> captured;
+        try (InputStream in = Files.newInputStream(capture.file()); TrafficLogReader reader = new TrafficLogReader(in)) {
+            captured = reader.readAll();
+        }
+        assertEquals(1, captured.size());
+        CapturedRequest request = captured.get(0);
+        assertEquals("POST", request.method());
+        assertEquals("rating", request.routeId());
+        assertEquals("/api/ratings", request.path());
+        assertEquals("pelicula=7&token=-&code=-", request.query());
+        assertEquals("application/json", request.contentType());
+        assertEquals(13, request.requestBytes());
+        assertEquals(9, request.responseBytes());
+        assertEquals(201, request.status());
+        assertTrue(request.authenticated());
+        assertFalse(Files.readString(capture.file(), StandardCharsets.ISO_8859_1).contains("secreto"));
+        assertFalse(capture.sample());
+    }
+}
@@ -0,0 +1,192 @@
+package com.videoclub.apigateway;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.videoclub.apigateway.transform.BodyTransform;
+import com.videoclub.apigateway.transform.JsonFieldFilter;
+import com.videoclub.apigateway.transform.LinkRewriteTransform;
+import com.videoclub.apigateway.transform.TransformPipeline;
+import com.videoclub.apigateway.transform.TransformProperties.LinkRewrite;
+import com.videoclub.apigateway.transform.TransformStats;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Detección de fugas del pipeline con buffers de Netty: cada buffer reservado
+ * (entrada o salida) debe terminar con refCnt 0, también ante error o
+ * cancelación. También compara el pico de memoria contra juntar el cuerpo.
+ *
+ * La fábrica usa el allocator unpooled: el conteo de referencias es el mismo
+ * que con pooled, pero el pool recicla los ByteBuf liberados y eso confundiría
+ * el seguimiento por instancia.
+ */
+class TransformPipelineLeakTest {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final int CHUNK = 8 * 1024;
+
+    /** Fábrica de Netty que registra cada buffer para verificar que se liberó. */
+    private static class TrackingFactory extends NettyDataBufferFactory {
+
+        private final ConcurrentLinkedQueue<NettyDataBuffer> allocated = new ConcurrentLinkedQueue<>();
+        private long peak;
+
+        TrackingFactory() {
+            super(new UnpooledByteBufAllocator(false));
+        }
+
+        private NettyDataBuffer track(NettyDataBuffer buffer) {
+            allocated.add(buffer);
+            sample();
+            return buffer;
+        }
+
+        @Override
+        public NettyDataBuffer allocateBuffer(int initialCapacity) {
+            return track(super.allocateBuffer(initialCapacity));
+        }
+
+        @Override
+        public NettyDataBuffer wrap(byte[] bytes) {
+            return track((NettyDataBuffer) super.wrap(bytes));
+        }
+
+        /** Bytes reservados en buffers todavía vivos. */
+        long live() {
+            long live = 0;
+            for (NettyDataBuffer buffer : allocated) {
+                if (buffer.getNativeBuffer().refCnt() > 0)
+                    live += buffer.capacity();
+            }
+            return live;
+        }
+
+        void sample() {
+            peak = Math.max(peak, live());
+        }
+
+        long leaked() {
+            return allocated.stream().filter(b -> b.getNativeBuffer().refCnt() > 0).count();
+        }
+    }
+
+    private final TrackingFactory factory = new TrackingFactory();
+
+    @AfterEach
+    void sinFugas() {
+        assertEquals(0, factory.leaked(), "buffers sin liberar");
+    }
+
+    /** Página de catálogo de {@code items} películas, en fragmentos de 8 KB reservados de la fábrica. */
+    private static Flux<DataBuffer> catalogPage(DataBufferFactory factory, int items) {
+        StringBuilder json = new StringBuilder("{\"content\":[");
+        for (int i = 0; i < items; i++)
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(i)
+                    .append(",\"titulo\":\"Película ").append(i).append('"')
+                    .append(",\"poster\":\"http://catalogo-backend:8081/imagenes/").append(i).append(".jpg\"")
+                    .append(",\"sinopsis\":\"").append("s".repeat(400)).append("\"}");
+        byte[] body = json.append("],\"totalElements\":").append(items).append('}')
+                .toString().getBytes(StandardCharsets.UTF_8);
+        return Flux.range(0, (body.length + CHUNK - 1) / CHUNK).map(n -> {
+            int from = n * CHUNK;
+            int length = Math.min(CHUNK, body.length - from);
+            DataBuffer buffer = factory.allocateBuffer(length);
+            buffer.write(body, from, length);
+            return buffer;
+        }).hide(); // Sin fusión, como el cuerpo que llega de Reactor Netty
+    }
+
+    private List<BodyTransform> stages() {
+        return List.of(JsonFieldFilter.projection(JSON, Set.of("titulo", "poster"), Set.of("content")),
+                new LinkRewriteTransform(List.of(new LinkRewrite("http://catalogo-backend:8081/", "/api/"))));
+    }
+
+    /** Consume la salida como lo haría el servidor: lee y libera cada buffer. */
+    private long drain(Flux<DataBuffer> output) {
+        return output.map(buffer -> {
+            factory.sample();
+            int n = buffer.readableByteCount();
+            DataBufferUtils.release(buffer);
+            return (long) n;
+        }).reduce(0L, Long::sum).block();
+    }
+
+    @Test
+    @DisplayName("una respuesta completa libera todos los buffers")
+    void completaSinFugas() {
+        TransformStats stats = new TransformStats();
+        long out = drain(TransformPipeline.apply(catalogPage(factory, 2_000), stages(), factory, stats));
+
+        assertEquals(out, stats.bytesOut());
+        assertTrue(stats.bytesIn() > 4 * out, "in=" + stats.bytesIn() + " out=" + out);
+    }
+
+    @Test
+    @DisplayName("un JSON inválido a mitad del cuerpo no deja buffers vivos")
+    void errorDeEtapaSinFugas() {
+        Flux<DataBuffer> roto = catalogPage(factory, 200).concatWith(Flux.defer(() -> {
+            DataBuffer basura = factory.allocateBuffer(8);
+            basura.write("}}}]]".getBytes(StandardCharsets.UTF_8));
+            return Flux.just(basura);
+        }));
+
+        assertThrows(RuntimeException.class,
+                () -> drain(TransformPipeline.apply(roto, stages(), factory, new TransformStats())));
+    }
+
+    @Test
+    @DisplayName("un error del backend a mitad del cuerpo no deja buffers vivos")
+    void errorUpstreamSinFugas() {
+        Flux<DataBuffer> cortado = catalogPage(factory, 200).take(3)
+                .concatWith(Flux.error(new IllegalStateException("conexión cerrada")));
+
+        assertThrows(IllegalStateException.class,
+                () -> drain(TransformPipeline.apply(cortado, stages(), factory, new TransformStats())));
+    }
+
+    @Test
+    @DisplayName("si el cliente cancela se liberan los buffers pendientes")
+    void cancelacionSinFugas() {
+        Flux<DataBuffer> output = TransformPipeline.apply(catalogPage(factory, 2_000), stages(), factory,
+                new TransformStats());
+
+        drain(output.take(3));
+    }
+
+    @Test
+    @DisplayName("el pico de memoria queda en el orden del fragmento, no del cuerpo")
+    void picoDeMemoria() {
+        drain(TransformPipeline.apply(catalogPage(factory, 5_000), stages(), factory, new TransformStats()));
+        long streaming = factory.peak;
+
+        TrackingFactory buffering = new TrackingFactory();
+        // Lo que hace ModifyResponseBody: juntar el cuerpo antes de transformarlo
+        DataBuffer joined = DataBufferUtils.join(catalogPage(buffering, 5_000)).block();
+        buffering.sample();
+        long body = joined.readableByteCount();
+        DataBufferUtils.release(joined);
+        assertEquals(0, buffering.leaked());
+
+        System.out.printf("pico por petición: streaming=%d bytes, buffering=%d bytes (cuerpo %d bytes)%n",
+                streaming, buffering.peak, body);
+        assertTrue(buffering.peak >= body);
+        assertTrue(streaming < 64 * 1024, "streaming=" + streaming);
+        assertTrue(streaming * 20 < buffering.peak, "streaming=" + streaming + " buffering=" + buffering.peak);
+    }
+}
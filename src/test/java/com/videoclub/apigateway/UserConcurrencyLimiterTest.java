@@ -0,0 +1,173 @@
+package com.videoclub.apigateway;
+
+import com.videoclub.apigateway.resilience.UserConcurrencyLimiter;
+import com.videoclub.apigateway.resilience.UserConcurrencyLimiter.Permit;
+import com.videoclub.apigateway.resilience.UserConcurrencyProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserConcurrencyLimiterTest {
+
+    private static UserConcurrencyLimiter limiter(int maxInFlight, int maxQueued, Duration queueTimeout) {
+        return new UserConcurrencyLimiter(new UserConcurrencyProperties(true, Set.of("descuentos"), maxInFlight,
+                maxQueued, queueTimeout, Duration.ofMinutes(10), 10, Duration.ofSeconds(1), "admin"));
+    }
+
+    @Test
+    @DisplayName("el límite es por usuario: uno saturado no afecta a otro")
+    void limitePorUsuario() {
+        UserConcurrencyLimiter limiter = limiter(2, 0, Duration.ZERO);
+        assertNotNull(limiter.acquire("u1").block());
+        assertNotNull(limiter.acquire("u1").block());
+
+        assertNull(limiter.acquire("u1").block());
+        assertNotNull(limiter.acquire("u2").block());
+        assertEquals(2, limiter.inFlight("u1"));
+        assertEquals(1, limiter.rejected());
+    }
+
+    @Test
+    @DisplayName("el que espera en cola recibe el lugar que se libera")
+    void colaRecibeLugarLiberado() {
+        UserConcurrencyLimiter limiter = limiter(1, 1, Duration.ofSeconds(5));
+        Permit first = limiter.acquire("u1").block();
+        Mono<Permit> queued = limiter.acquire("u1");
+
+        // La cola de u1 está llena: el tercero se rechaza sin esperar
+        assertNull(limiter.acquire("u1").block());
+
+        first.release();
+        Permit second = queued.block(Duration.ofSeconds(1));
+        assertNotNull(second);
+        assertEquals(1, limiter.inFlight("u1"));
+
+        second.release();
+        second.release(); // Devolver dos veces no libera un lugar ajeno
+        assertEquals(0, limiter.inFlight("u1"));
+    }
+
+    @Test
+    @DisplayName("si no se libera un lugar a tiempo la petición en cola se rechaza")
+    void colaVence() {
+        UserConcurrencyLimiter limiter = limiter(1, 4, Duration.ofMillis(50));
+        Permit held = limiter.acquire("u1").block();
+
+        assertNull(limiter.acquire("u1").block(Duration.ofSeconds(1)));
+        held.release();
+        assertNotNull(limiter.acquire("u1").block());
+    }
+
+    @Test
+    @DisplayName("con muchos hilos nunca se supera el límite y todo se devuelve")
+    void concurrenciaRespetaLimite() throws Exception {
+        UserConcurrencyLimiter limiter = limiter(4, 8, Duration.ofSeconds(2));
+        AtomicInteger current = new AtomicInteger();
+        AtomicInteger max = new AtomicInteger();
+        AtomicInteger served = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch done = new CountDownLatch(16);
+        for (int t = 0; t < 16; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 200; i++) {
+                    Permit permit = limiter.acquire("u1").block();
+                    if (permit == null)
+                        continue;
+                    max.accumulateAndGet(current.incrementAndGet(), Math::max);
+                    current.decrementAndGet();
+                    served.incrementAndGet();
+                    permit.release();
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        assertTrue(max.get() <= 4, "max=" + max.get());
+        assertEquals(0, limiter.inFlight("u1"));
+        assertEquals(served.get(), limiter.admitted());
+        assertEquals(16 * 200, limiter.admitted() + limiter.rejected());
+    }
+
+    @Test
+    @DisplayName("un lugar asignado a quien cancela al mismo tiempo se devuelve")
+    void asignacionCruzadaConCancelacion() throws Exception {
+        UserConcurrencyLimiter limiter = limiter(1, 1, Duration.ofSeconds(5));
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                Permit held = limiter.acquire("u1").block();
+                AtomicReference<Permit> received = new AtomicReference<>();
+                // Como el filtro, quien recibe el lugar lo devuelve aunque haya cancelado
+                BaseSubscriber<Permit> waiting = new BaseSubscriber<>() {
+                    @Override
+                    protected void hookOnNext(Permit permit) {
+                        received.set(permit);
+                    }
+                };
+                limiter.acquire("u1").subscribe(waiting);
+                CyclicBarrier start = new CyclicBarrier(2);
+                Future<?> releasing = pool.submit(() -> {
+                    start.await();
+                    held.release();
+                    return null;
+                });
+                Future<?> cancelling = pool.submit(() -> {
+                    start.await();
+                    waiting.dispose();
+                    return null;
+                });
+                releasing.get(5, TimeUnit.SECONDS);
+                cancelling.get(5, TimeUnit.SECONDS);
+                // Si la asignación ganó, el suscriptor lo recibió y lo devuelve él
+                if (received.get() != null)
+                    received.get().release();
+                assertEquals(0, limiter.inFlight("u1"), "iteración " + i);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("top offenders ordena por rechazos y el barrido olvida a los inactivos")
+    void topOffendersYBarrido() {
+        UserConcurrencyLimiter limiter = limiter(1, 0, Duration.ZERO);
+        List<Permit> held = new ArrayList<>();
+        held.add(limiter.acquire("script").block());
+        for (int i = 0; i < 5; i++)
+            limiter.acquire("script").block();
+        held.add(limiter.acquire("normal").block());
+        limiter.acquire("normal").block();
+        limiter.acquire("tranquilo").block().release();
+
+        List<UserConcurrencyLimiter.Offender> top = limiter.topOffenders(10);
+        assertEquals(List.of("script", "normal"), top.stream().map(UserConcurrencyLimiter.Offender::subject).toList());
+        assertEquals(5, top.get(0).rejected());
+
+        held.forEach(Permit::release);
+        limiter.sweep(System.currentTimeMillis() + Duration.ofMinutes(11).toMillis());
+        assertEquals(0, limiter.subjects());
+        assertNotNull(limiter.acquire("script").block());
+    }
+}